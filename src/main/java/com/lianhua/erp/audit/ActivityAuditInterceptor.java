@@ -5,23 +5,25 @@ import com.lianhua.erp.config.AuditProperties;
 import com.lianhua.erp.dto.audit.ActivityAuditRecordRequest;
 import com.lianhua.erp.security.SecurityUtils;
 import com.lianhua.erp.service.ActivityAuditService;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
 import org.springframework.web.method.HandlerMethod;
-import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
  * 於請求完成後寫入活動稽核：含已登入使用者的變更與匯出（GET /export）。
+ * 串流匯出為非同步回應，於開始串流時即記錄（ASYNC 分派時已無登入資訊）。
  */
 @Component
 @RequiredArgsConstructor
-public class ActivityAuditInterceptor implements HandlerInterceptor {
+public class ActivityAuditInterceptor implements AsyncHandlerInterceptor {
 
     private static final String ATTR_AUDIT_START_NANOS = "com.lianhua.erp.audit.startNanos";
 
@@ -41,6 +43,15 @@ public class ActivityAuditInterceptor implements HandlerInterceptor {
         return true;
     }
 
+    @Override
+    public void afterConcurrentHandlingStarted(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull Object handler
+    ) {
+        afterCompletion(request, response, handler, null);
+    }
+
     @Override
     public void afterCompletion(
             @NonNull HttpServletRequest request,
@@ -52,6 +63,10 @@ public class ActivityAuditInterceptor implements HandlerInterceptor {
             if (!auditProperties.isEnabled()) {
                 return;
             }
+            // 已於 afterConcurrentHandlingStarted 記錄
+            if (request.getDispatcherType() == DispatcherType.ASYNC) {
+                return;
+            }
             if (ex != null) {
                 return;
             }
@@ -30,6 +30,9 @@ public class NotificationEventListener {
     @EventListener
     public void handlePurchaseEvent(PurchaseEvent event) {
         String action = event.getAction();
+        if (!"PURCHASE_VOIDED".equals(action)) {
+            return; // 其他動作（新增／修改／刪除）僅供儀表板快取失效，不發送通知
+        }
         log.info("🔔 [事件監聽] 收到採購事件: Action={}, PurchaseNo={}", action, event.getPurchase().getPurchaseNo());
 
         Map<String, Object> finalPayload = new HashMap<>();
@@ -55,6 +58,9 @@ public class NotificationEventListener {
     @EventListener
     public void handleReceiptEvent(ReceiptEvent event) {
         String action = event.getAction();
+        if (!"RECEIPT_VOIDED".equals(action)) {
+            return; // 其他動作（新增／修改／刪除）僅供儀表板快取失效，不發送通知
+        }
         String orderNo = event.getReceipt().getOrder().getOrderNo();
 
         log.info("🔔 [事件監聽] 收到收款事件: Action={}, OrderNo={}", action, orderNo);
@@ -88,6 +94,9 @@ public class NotificationEventListener {
     @EventListener
     public void handleExpenseEvent(ExpenseEvent event) {
         String action = event.getAction();
+        if (!"EXPENSE_VOIDED".equals(action)) {
+            return; // 其他動作（新增／修改／刪除）僅供儀表板快取失效，不發送通知
+        }
         // 取得分類名稱以利辨識 (例如：EX-003 網路費)
         String categoryName = event.getExpense().getCategory() != null ?
                 event.getExpense().getCategory().getName() : "未知分類";
@@ -0,0 +1,54 @@
+package com.lianhua.erp.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 營運儀表板相關設定註冊。參數見 {@code app.dashboard.*}。
+ */
+@Configuration
+@RequiredArgsConstructor
+@EnableConfigurationProperties(DashboardProperties.class)
+public class DashboardConfiguration {
+
+    private final DashboardProperties dashboardProperties;
+
+    /**
+     * 圖表快取背景重算專用執行緒池；佇列滿時直接放棄（呼叫端會繼續回傳舊值，下次請求再重試）。
+     */
+    @Bean(name = "dashboardRefreshExecutor")
+    public ThreadPoolTaskExecutor dashboardRefreshExecutor() {
+        DashboardProperties.Cache cfg = dashboardProperties.getCache();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, cfg.getRefreshPoolSize()));
+        executor.setMaxPoolSize(executor.getCorePoolSize());
+        executor.setQueueCapacity(Math.max(1, cfg.getRefreshQueueCapacity()));
+        executor.setThreadNamePrefix("dashboard-refresh-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 組合端點平行查詢專用執行緒池；有界佇列避免大量請求耗盡連線池，佇列滿時該圖表回報錯誤。
+     */
+    @Bean(name = "dashboardBundleExecutor")
+    public ThreadPoolTaskExecutor dashboardBundleExecutor() {
+        DashboardProperties.Bundle cfg = dashboardProperties.getBundle();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, cfg.getPoolSize()));
+        executor.setMaxPoolSize(executor.getCorePoolSize());
+        executor.setQueueCapacity(Math.max(1, cfg.getQueueCapacity()));
+        executor.setThreadNamePrefix("dashboard-bundle-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
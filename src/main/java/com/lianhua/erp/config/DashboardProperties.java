@@ -0,0 +1,106 @@
+package com.lianhua.erp.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 營運儀表板查詢策略相關設定。
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.dashboard")
+public class DashboardProperties {
+
+    /**
+     * 核心 KPI 快照（單次聚合查詢）設定。
+     */
+    private KpiSnapshot kpiSnapshot = new KpiSnapshot();
+
+    /**
+     * 圖表結果快取（事件失效 + 過期資料先回、背景重算）設定。
+     */
+    private Cache cache = new Cache();
+
+    /**
+     * 組合端點（/api/dashboard/bundle）平行查詢設定。
+     */
+    private Bundle bundle = new Bundle();
+
+    /**
+     * KPI 即時推播（/topic/dashboard-kpi）設定。
+     */
+    private KpiPush kpiPush = new KpiPush();
+
+    @Getter
+    @Setter
+    public static class KpiSnapshot {
+        /**
+         * true：以單一聚合 SQL 一次取得所有 KPI；false：沿用逐項查詢（舊路徑）。
+         */
+        private boolean enabled = true;
+
+        /**
+         * 比對模式：同時執行新舊路徑並記錄差異，僅供上線驗證使用（會增加查詢量）。
+         */
+        private boolean compare = false;
+    }
+
+    @Getter
+    @Setter
+    public static class Cache {
+        /**
+         * false：每次請求皆直接查詢資料庫。
+         */
+        private boolean enabled = true;
+
+        /**
+         * 結果存活時間上限；逾時後視為過期（與事件失效相同，先回舊值再背景重算）。
+         * 主要涵蓋以 CURDATE() 計算、不會有寫入事件的圖表（例如帳齡、即期應收），
+         * 以及多節點部署時其他節點的寫入（單據事件只在本機發布），即其他節點異動後最多延遲此時間才反映。
+         */
+        private Duration ttl = Duration.ofMinutes(1);
+
+        /**
+         * 快取項目上限（依圖表 + 參數區分），超過時淘汰最久未重算的項目。
+         */
+        private int maxEntries = 500;
+
+        /**
+         * 背景重算執行緒池。
+         */
+        private int refreshPoolSize = 2;
+        private int refreshQueueCapacity = 100;
+    }
+
+    @Getter
+    @Setter
+    public static class Bundle {
+        /**
+         * 平行查詢執行緒數（同時佔用的資料庫連線上限）。
+         */
+        private int poolSize = 4;
+        private int queueCapacity = 64;
+
+        /**
+         * 單一組合請求等待各圖表的時間上限；逾時的圖表回報 TIMEOUT，其餘照常回傳。
+         */
+        private Duration widgetTimeout = Duration.ofSeconds(8);
+    }
+
+    @Getter
+    @Setter
+    public static class KpiPush {
+        /**
+         * false：不推播，前端僅能輪詢 /api/dashboard/stats。
+         */
+        private boolean enabled = true;
+
+        /**
+         * 推播最短間隔；期間內的多筆單據異動合併為一次重新計算與推送。
+         */
+        private Duration interval = Duration.ofSeconds(5);
+    }
+}
@@ -0,0 +1,71 @@
+package com.lianhua.erp.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 匯出相關設定註冊。參數見 {@code app.export.*}。
+ */
+@Configuration
+@RequiredArgsConstructor
+@EnableConfigurationProperties(ExportProperties.class)
+public class ExportConfiguration {
+
+    private final ExportProperties exportProperties;
+
+    /**
+     * 串流匯出（StreamingResponseBody）寫出回應專用執行緒池；有界佇列避免同時大量匯出耗盡連線池。
+     */
+    @Bean(name = "exportStreamExecutor")
+    public ThreadPoolTaskExecutor exportStreamExecutor() {
+        ExportProperties.Stream cfg = exportProperties.getStream();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, cfg.getPoolSize()));
+        executor.setMaxPoolSize(executor.getCorePoolSize());
+        executor.setQueueCapacity(Math.max(1, cfg.getQueueCapacity()));
+        executor.setThreadNamePrefix("export-stream-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 背景匯出工作專用執行緒池；與串流匯出分開，長時間的背景匯出不佔用 HTTP 串流的名額。
+     */
+    @Bean(name = "exportJobExecutor")
+    public ThreadPoolTaskExecutor exportJobExecutor() {
+        ExportProperties.Job cfg = exportProperties.getJob();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, cfg.getPoolSize()));
+        executor.setMaxPoolSize(executor.getCorePoolSize());
+        executor.setQueueCapacity(Math.max(1, cfg.getQueueCapacity()));
+        executor.setThreadNamePrefix("export-job-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 財務報表組合匯出專用執行緒池：同一次組合的各報表平行產生，各自取得連線與唯讀交易。
+     */
+    @Bean(name = "reportPackExecutor")
+    public ThreadPoolTaskExecutor reportPackExecutor() {
+        ExportProperties.ReportPack cfg = exportProperties.getReportPack();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, cfg.getPoolSize()));
+        executor.setMaxPoolSize(executor.getCorePoolSize());
+        executor.setQueueCapacity(Math.max(1, cfg.getQueueCapacity()));
+        executor.setThreadNamePrefix("report-pack-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,141 @@
+package com.lianhua.erp.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 列表／報表匯出相關設定。
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.export")
+public class ExportProperties {
+
+    /**
+     * 串流匯出（邊查詢邊寫入回應）設定。
+     */
+    private Stream stream = new Stream();
+
+    /**
+     * 背景匯出工作（POST /api/exports）設定。
+     */
+    private Job job = new Job();
+
+    /**
+     * 匯出結果快取（相同條件＋相同資料版本直接回傳已產生的檔案）設定。
+     */
+    private Cache cache = new Cache();
+
+    /**
+     * 財務報表組合匯出（多張報表一次產生）設定。
+     */
+    private ReportPack reportPack = new ReportPack();
+
+    @Getter
+    @Setter
+    public static class Stream {
+        /**
+         * 同時進行中的串流匯出數上限（寫出回應的執行緒數）。
+         */
+        private int poolSize = 4;
+
+        /**
+         * 等待寫出的匯出請求佇列容量；已滿時新的匯出請求失敗。
+         */
+        private int queueCapacity = 16;
+
+        /**
+         * scope=all 時每批查詢的筆數（每批各自一個唯讀交易）。
+         */
+        private int batchSize = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class Job {
+        /**
+         * 同時執行的背景匯出數（執行緒數）。
+         */
+        private int poolSize = 2;
+
+        /**
+         * 等待執行的工作佇列容量。
+         */
+        private int queueCapacity = 20;
+
+        /**
+         * 全系統同時排隊＋執行中的工作上限；超過時新的工作回報 429。
+         */
+        private int maxActive = 20;
+
+        /**
+         * 每位使用者同時排隊＋執行中的工作上限；超過時新的工作回報 429。
+         */
+        private int maxActivePerUser = 2;
+
+        /**
+         * 匯出檔暫存目錄；未設定時使用系統暫存目錄下的 lianhua-exports。
+         */
+        private String spoolDir;
+
+        /**
+         * 完成（或失敗）的工作與檔案保留時間，逾時由排程清除。
+         */
+        private Duration retention = Duration.ofHours(2);
+
+        /**
+         * SSE 進度事件的最短間隔（同一工作）。
+         */
+        private Duration progressInterval = Duration.ofSeconds(1);
+    }
+
+    @Getter
+    @Setter
+    public static class Cache {
+        private boolean enabled = true;
+
+        /**
+         * 快取檔目錄；未設定時使用系統暫存目錄下的 lianhua-export-cache。
+         */
+        private String dir;
+
+        /**
+         * 快取檔總大小上限；超過時淘汰最久未使用的檔案。
+         */
+        private DataSize maxSize = DataSize.ofMegabytes(512);
+
+        /**
+         * 存活上限：涵蓋未經實體的資料異動（例如直接修改資料庫），以及多節點部署時其他節點的寫入
+         * （資料版本只在本機遞增），即其他節點異動後最多仍可能回傳此時間內的舊檔。
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+
+        /**
+         * 相同匯出正在產生時，後到請求等待其完成的上限；逾時則自行產生。
+         */
+        private Duration buildWait = Duration.ofMinutes(5);
+    }
+
+    @Getter
+    @Setter
+    public static class ReportPack {
+        /**
+         * 平行產生報表的執行緒數；每張報表各佔一條資料庫連線，須小於連線池大小。
+         */
+        private int poolSize = 3;
+
+        /**
+         * 等待產生的報表佇列容量；已滿時組合匯出回報 503。
+         */
+        private int queueCapacity = 15;
+
+        /**
+         * 單次組合匯出等待所有報表完成的上限；逾時回報 504。
+         */
+        private Duration timeout = Duration.ofMinutes(2);
+    }
+}
@@ -0,0 +1,85 @@
+package com.lianhua.erp.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * API 限流設定（ApiRateLimitFilter）。
+ * 沿用既有的 security.api.window-seconds / max-requests-per-window 作為各規則未指定時的預設值。
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "security.api")
+public class RateLimitProperties {
+
+    private boolean rateLimitEnabled = true;
+
+    /**
+     * 預設時間窗（秒）。
+     */
+    private long windowSeconds = 60;
+
+    /**
+     * 預設每個時間窗內可用的請求數（即 token bucket 容量）。
+     */
+    private int maxRequestsPerWindow = 60;
+
+    /**
+     * 同時追蹤的 key（規則 + IP + 路由樣板）上限；超過時先淘汰閒置者，仍超過再強制淘汰。
+     */
+    private int maxKeys = 50_000;
+
+    /**
+     * 閒置 key 定期清理間隔。
+     */
+    private Duration sweepInterval = Duration.ofMinutes(1);
+
+    /**
+     * 限流規則，依序比對，第一個符合者生效；未符合任何規則的請求不限流。
+     */
+    private List<Policy> policies = new ArrayList<>(List.of(
+            new Policy("users", "/api/users/**"),
+            new Policy("roles", "/api/roles/**"),
+            new Policy("permissions", "/api/permissions/**"),
+            new Policy("auth-refresh", "/api/auth/refresh")
+    ));
+
+    @Getter
+    @Setter
+    public static class Policy {
+        private String name;
+
+        /**
+         * 路徑樣式（Ant 風格，例如 /api/users/**）。
+         */
+        private String pattern;
+
+        /**
+         * 限定的 HTTP 方法；空白表示全部。
+         */
+        private List<String> methods = new ArrayList<>();
+
+        /**
+         * 每個時間窗可用的請求數；未設定時使用 max-requests-per-window。
+         */
+        private Integer capacity;
+
+        /**
+         * 時間窗；未設定時使用 window-seconds。
+         */
+        private Duration window;
+
+        public Policy() {
+        }
+
+        public Policy(String name, String pattern) {
+            this.name = name;
+            this.pattern = pattern;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.lianhua.erp.config;
+
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * @Scheduled 專用排程執行緒池（spring.task.scheduling.*）。
+ * WebSocketConfig 的 heartbeatScheduler 也是 TaskScheduler，存在時 Spring Boot 不會再建立預設排程器，
+ * 所有排程會擠在心跳的單一執行緒上；夜間結帳、校驗等長工作執行時，其他排程與 STOMP 心跳都會停擺。
+ * 以固定名稱 taskScheduler 宣告，排程註解只會使用此 Bean，心跳維持獨立的執行緒。
+ */
+@Configuration
+public class SchedulingConfig {
+
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+}
@@ -0,0 +1,37 @@
+package com.lianhua.erp.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 全域搜尋相關設定註冊。參數見 {@code app.search.*}。
+ */
+@Configuration
+@RequiredArgsConstructor
+@EnableConfigurationProperties(SearchProperties.class)
+public class SearchConfiguration {
+
+    private final SearchProperties searchProperties;
+
+    /**
+     * 全域搜尋各範圍平行查詢專用執行緒池；有界佇列避免大量輸入耗盡連線池，佇列滿時該範圍回報失敗。
+     */
+    @Bean(name = "globalSearchExecutor")
+    public ThreadPoolTaskExecutor globalSearchExecutor() {
+        SearchProperties.Fanout cfg = searchProperties.getFanout();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, cfg.getPoolSize()));
+        executor.setMaxPoolSize(executor.getCorePoolSize());
+        executor.setQueueCapacity(Math.max(1, cfg.getQueueCapacity()));
+        executor.setThreadNamePrefix("global-search-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,85 @@
+package com.lianhua.erp.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 全域搜尋相關設定。
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.search")
+public class SearchProperties {
+
+    /**
+     * 記憶體 n-gram 索引設定。
+     */
+    private Index index = new Index();
+
+    /**
+     * 各搜尋範圍平行查詢設定。
+     */
+    private Fanout fanout = new Fanout();
+
+    /**
+     * 輸入提示（/api/suggest）設定。
+     */
+    private Suggest suggest = new Suggest();
+
+    @Getter
+    @Setter
+    public static class Index {
+        private boolean enabled = true;
+
+        /**
+         * 片段最長字元數（1 ~ 3）。
+         */
+        private int maxGram = 3;
+
+        /**
+         * 估算記憶體上限；超過時停用索引，搜尋改由資料庫查詢。
+         */
+        private DataSize memoryBudget = DataSize.ofMegabytes(256);
+    }
+
+    @Getter
+    @Setter
+    public static class Fanout {
+        /**
+         * 平行查詢的執行緒數（每個範圍一個工作，各自取得連線與唯讀交易）。
+         * 所有請求共用，即全域搜尋最多同時佔用的連線數；需明顯小於 Hikari maximum-pool-size。
+         */
+        private int poolSize = 4;
+
+        /**
+         * 等待執行的佇列容量；已滿時該範圍回報失敗。
+         */
+        private int queueCapacity = 64;
+
+        /**
+         * 單一範圍的時間預算；逾時的範圍列於 timedOut，其餘範圍照常回傳。
+         * 同時作為查詢逾時（JDBC 以秒計，建議設為整秒）。
+         */
+        private Duration scopeTimeout = Duration.ofSeconds(1);
+    }
+
+    @Getter
+    @Setter
+    public static class Suggest {
+        private boolean enabled = true;
+
+        /**
+         * 未指定 limit 時的回傳筆數。
+         */
+        private int defaultLimit = 8;
+
+        /**
+         * 單次回傳筆數上限。
+         */
+        private int maxLimit = 20;
+    }
+}
@@ -2,11 +2,15 @@ package com.lianhua.erp.config;
 
 import com.lianhua.erp.security.ApiRateLimitFilter;
 import com.lianhua.erp.security.JwtAuthenticationFilter;
+import com.lianhua.erp.security.PermissionBitsMethodSecurityExpressionHandler;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.Profiles;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -24,6 +28,7 @@ import org.springframework.web.cors.CorsConfigurationSource;
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
@@ -46,6 +51,14 @@ public class SecurityConfig {
         return new BCryptPasswordEncoder();
     }
 
+    /**
+     * @PreAuthorize 的 hasAuthority / hasRole 以 JWT 權限位元集合判斷（見 PermissionCatalog）
+     */
+    @Bean
+    static MethodSecurityExpressionHandler methodSecurityExpressionHandler() {
+        return new PermissionBitsMethodSecurityExpressionHandler();
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
         return config.getAuthenticationManager();
@@ -109,6 +122,9 @@ public class SecurityConfig {
                                 .hasRole("ADMIN");
                     }
 
+                    // ✅ 非同步回應（串流匯出）完成時的 ASYNC 分派：原請求已通過授權，此時不再帶有 JWT 驗證結果
+                    auth.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll();
+
                     // ✅ CORS Preflight
                     auth.requestMatchers(org.springframework.http.HttpMethod.OPTIONS, "/**").permitAll();
 
@@ -1,26 +1,42 @@
 package com.lianhua.erp.config;
 
 import com.lianhua.erp.audit.ActivityAuditInterceptor;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 /**
- * 註冊全系統活動稽核攔截器。
+ * 註冊全系統活動稽核攔截器，並指定非同步回應（串流匯出）使用的執行緒池。
  */
 @Configuration
 @EnableConfigurationProperties(AuditProperties.class)
-@RequiredArgsConstructor
 public class WebMvcConfig implements WebMvcConfigurer {
 
     private final ActivityAuditInterceptor activityAuditInterceptor;
+    private final ThreadPoolTaskExecutor exportStreamExecutor;
+
+    public WebMvcConfig(ActivityAuditInterceptor activityAuditInterceptor,
+                        @Qualifier("exportStreamExecutor") ThreadPoolTaskExecutor exportStreamExecutor) {
+        this.activityAuditInterceptor = activityAuditInterceptor;
+        this.exportStreamExecutor = exportStreamExecutor;
+    }
 
     @Override
     public void addInterceptors(@NonNull InterceptorRegistry registry) {
         registry.addInterceptor(activityAuditInterceptor)
                 .addPathPatterns("/api/**");
     }
+
+    /**
+     * StreamingResponseBody 於此執行緒池寫出（未設定時 Spring MVC 會退回每次新建執行緒）
+     */
+    @Override
+    public void configureAsyncSupport(@NonNull AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(exportStreamExecutor);
+    }
 }
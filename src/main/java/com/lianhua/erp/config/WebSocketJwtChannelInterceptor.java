@@ -1,9 +1,13 @@
 package com.lianhua.erp.config;
 
+import com.lianhua.erp.dashboard.DashboardKpiPublisher;
 import com.lianhua.erp.domain.User;
 import com.lianhua.erp.repository.UserRepository;
 import com.lianhua.erp.security.CustomUserDetails;
+import com.lianhua.erp.security.GrantedPermissions;
+import com.lianhua.erp.security.JwtAuthenticationToken;
 import com.lianhua.erp.security.JwtUtils;
+import com.lianhua.erp.security.PermissionCatalog;
 import com.lianhua.erp.service.TokenBlacklistService;
 import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
@@ -17,14 +21,11 @@ import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * WebSocket 認證攔截器
@@ -32,6 +33,7 @@ import java.util.stream.Collectors;
  * 1. 支援從 Header、Native Header、以及 Handshake Attributes (Query Params) 取得 Token。
  * 2. 增加 credentialsChangedAt 檢查，配合 AuthService.logout 實現強制踢除。
  * 3. 驗證失敗時返回 null，明確拒絕 STOMP CONNECT 請求。
+ * 4. 訂閱儀表板 KPI 推播需具備 dashboard:view 權限（與 REST 端點一致）。
  */
 @Slf4j
 @Component
@@ -39,14 +41,21 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class WebSocketJwtChannelInterceptor implements ChannelInterceptor {
 
+    private static final String DASHBOARD_VIEW = "dashboard:view";
+
     private final JwtUtils jwtUtils;
     private final TokenBlacklistService tokenBlacklistService;
     private final UserRepository userRepository;
+    private final PermissionCatalog permissionCatalog;
 
     @Override
     public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
         StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
 
+        if (accessor != null && StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            return checkSubscription(accessor, message);
+        }
+
         // 僅處理 CONNECT 階段的認證
         if (accessor == null || !StompCommand.CONNECT.equals(accessor.getCommand())) {
             return message;
@@ -95,16 +104,10 @@ public class WebSocketJwtChannelInterceptor implements ChannelInterceptor {
             if (uid == null) uid = user.getId();
 
             // 4. 解析權限並設定 Principal
-            @SuppressWarnings("unchecked")
-            List<String> roles = claims.get("roles", List.class);
-            if (roles == null) roles = List.of();
-            var authorities = roles.stream()
-                    .map(SimpleGrantedAuthority::new)
-                    .collect(Collectors.toList());
+            GrantedPermissions authorities = permissionCatalog.fromClaims(claims);
 
             CustomUserDetails userDetails = new CustomUserDetails(uid, username, "", true, authorities);
-            UsernamePasswordAuthenticationToken auth =
-                    new UsernamePasswordAuthenticationToken(userDetails, null, authorities);
+            JwtAuthenticationToken auth = new JwtAuthenticationToken(userDetails, authorities);
 
             accessor.setUser(auth);
             log.debug("WebSocket CONNECT: 使用者 {} (id={}) 認證成功", username, uid);
@@ -117,6 +120,23 @@ public class WebSocketJwtChannelInterceptor implements ChannelInterceptor {
         return message;
     }
 
+    /**
+     * 受限主題的訂閱權限檢查；其餘主題維持原行為
+     */
+    private Message<?> checkSubscription(StompHeaderAccessor accessor, Message<?> message) {
+        if (!DashboardKpiPublisher.TOPIC_DASHBOARD_KPI.equals(accessor.getDestination())) {
+            return message;
+        }
+        if (accessor.getUser() instanceof JwtAuthenticationToken auth
+                && auth.getPermissions().hasAuthority(DASHBOARD_VIEW)) {
+            return message;
+        }
+        log.warn("WebSocket SUBSCRIBE: 使用者 {} 無 {} 權限，拒絕訂閱 {}",
+                accessor.getUser() != null ? accessor.getUser().getName() : null, DASHBOARD_VIEW,
+                accessor.getDestination());
+        return null;
+    }
+
     /**
      * 多重來源提取 Token 邏輯
      */
@@ -0,0 +1,180 @@
+package com.lianhua.erp.dashboard;
+
+import com.lianhua.erp.config.DashboardProperties;
+import com.lianhua.erp.domain.RollupMetric;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 📊 儀表板圖表結果快取
+ * 1) 以「圖表 + 查詢參數」為鍵保存計算結果
+ * 2) 來源單據異動時依 {@link DashboardWidget} 的依賴關係遞增該圖表世代，使既有結果變為過期
+ * 3) 過期結果仍先回傳，並只交由一個背景工作重算；首次載入時同鍵請求等待同一次查詢
+ *
+ * 📌 失效事件只來自本節點提交的交易；其他節點的異動由存活上限（app.dashboard.cache.ttl，預設 1 分鐘）兜底。
+ */
+@Slf4j
+@Component
+public class DashboardCache {
+
+    private final DashboardProperties dashboardProperties;
+    private final Executor refreshExecutor;
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<DashboardWidget, AtomicLong> generations = new EnumMap<>(DashboardWidget.class);
+
+    public DashboardCache(DashboardProperties dashboardProperties,
+                          @Qualifier("dashboardRefreshExecutor") Executor refreshExecutor) {
+        this.dashboardProperties = dashboardProperties;
+        this.refreshExecutor = refreshExecutor;
+        for (DashboardWidget widget : DashboardWidget.values()) {
+            generations.put(widget, new AtomicLong());
+        }
+    }
+
+    private record Key(DashboardWidget widget, List<Object> params) {
+    }
+
+    private static final class Entry {
+        private final Object loadLock = new Object();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private volatile boolean loaded;
+        private volatile Object value;
+        private volatile long generation;
+        private volatile long loadedAtNanos;
+
+        private void store(Object value, long generation) {
+            this.value = value;
+            this.generation = generation;
+            this.loadedAtNanos = System.nanoTime();
+            this.loaded = true;
+        }
+    }
+
+    /**
+     * 取得圖表結果；無快取時同步載入，過期時回傳舊值並觸發背景重算。
+     *
+     * @param params 影響結果的查詢參數（例如天數、期間、起迄日期）
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(DashboardWidget widget, Supplier<T> loader, Object... params) {
+        DashboardProperties.Cache cfg = dashboardProperties.getCache();
+        if (!cfg.isEnabled()) {
+            return loader.get();
+        }
+
+        Key key = new Key(widget, Collections.unmodifiableList(Arrays.asList(params)));
+        Entry entry = entries.computeIfAbsent(key, k -> new Entry());
+
+        if (!entry.loaded) {
+            synchronized (entry.loadLock) {
+                if (!entry.loaded) {
+                    long generation = generations.get(widget).get();
+                    entry.store(loader.get(), generation);
+                    evictIfNeeded(cfg.getMaxEntries());
+                }
+            }
+            return (T) entry.value;
+        }
+
+        if (isStale(widget, entry, cfg) && entry.refreshing.compareAndSet(false, true)) {
+            scheduleRefresh(widget, entry, loader);
+        }
+        return (T) entry.value;
+    }
+
+    /**
+     * 立即重新查詢並寫入快取（不回傳舊值）；供需要即時數值的推播使用。
+     */
+    public <T> T refresh(DashboardWidget widget, Supplier<T> loader, Object... params) {
+        DashboardProperties.Cache cfg = dashboardProperties.getCache();
+        if (!cfg.isEnabled()) {
+            return loader.get();
+        }
+
+        Key key = new Key(widget, Collections.unmodifiableList(Arrays.asList(params)));
+        Entry entry = entries.computeIfAbsent(key, k -> new Entry());
+        synchronized (entry.loadLock) {
+            long generation = generations.get(widget).get();
+            T value = loader.get();
+            entry.store(value, generation);
+            evictIfNeeded(cfg.getMaxEntries());
+            return value;
+        }
+    }
+
+    /**
+     * 來源單據異動：使依賴這些來源的圖表結果過期
+     */
+    public void invalidate(Set<RollupMetric> changed) {
+        for (DashboardWidget widget : DashboardWidget.values()) {
+            if (widget.dependsOn(changed)) {
+                generations.get(widget).incrementAndGet();
+            }
+        }
+        log.debug("📊 [DashboardCache] 來源異動 {}，相關圖表已標記過期", changed);
+    }
+
+    public void invalidateAll() {
+        generations.values().forEach(AtomicLong::incrementAndGet);
+    }
+
+    private boolean isStale(DashboardWidget widget, Entry entry, DashboardProperties.Cache cfg) {
+        if (entry.generation != generations.get(widget).get()) {
+            return true;
+        }
+        return cfg.getTtl() != null && System.nanoTime() - entry.loadedAtNanos > cfg.getTtl().toNanos();
+    }
+
+    private void scheduleRefresh(DashboardWidget widget, Entry entry, Supplier<?> loader) {
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    // 先取世代再查詢：重算期間若又有異動，結果仍會被視為過期
+                    long generation = generations.get(widget).get();
+                    entry.store(loader.get(), generation);
+                } catch (RuntimeException e) {
+                    log.warn("⚠️ [DashboardCache] 背景重算失敗，沿用舊值：widget={}, error={}", widget, e.getMessage());
+                } finally {
+                    entry.refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            entry.refreshing.set(false);
+            log.debug("📊 [DashboardCache] 重算佇列已滿，本次沿用舊值：widget={}", widget);
+        }
+    }
+
+    private void evictIfNeeded(int maxEntries) {
+        int limit = Math.max(1, maxEntries);
+        while (entries.size() > limit) {
+            Key oldest = null;
+            long oldestAt = 0L;
+            for (Map.Entry<Key, Entry> e : entries.entrySet()) {
+                Entry entry = e.getValue();
+                if (entry.loaded && (oldest == null || entry.loadedAtNanos - oldestAt < 0)) {
+                    oldest = e.getKey();
+                    oldestAt = entry.loadedAtNanos;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            entries.remove(oldest);
+        }
+    }
+}
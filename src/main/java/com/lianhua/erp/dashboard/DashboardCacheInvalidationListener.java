@@ -0,0 +1,51 @@
+package com.lianhua.erp.dashboard;
+
+import com.lianhua.erp.domain.RollupMetric;
+import com.lianhua.erp.event.ExpenseEvent;
+import com.lianhua.erp.event.OrderEvent;
+import com.lianhua.erp.event.PurchaseEvent;
+import com.lianhua.erp.event.ReceiptEvent;
+import com.lianhua.erp.event.SaleEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumSet;
+
+/**
+ * 依單據事件使儀表板快取失效。
+ * 於交易提交後才處理，避免背景重算讀到尚未提交（或之後回滾）的資料。
+ */
+@Component
+@RequiredArgsConstructor
+public class DashboardCacheInvalidationListener {
+
+    private final DashboardCache dashboardCache;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSale(SaleEvent event) {
+        dashboardCache.invalidate(EnumSet.of(RollupMetric.SALE));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrder(OrderEvent event) {
+        dashboardCache.invalidate(EnumSet.of(RollupMetric.ORDER));
+    }
+
+    /** 收款會連動訂單收款狀態（作廢時亦同步作廢訂單） */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReceipt(ReceiptEvent event) {
+        dashboardCache.invalidate(EnumSet.of(RollupMetric.RECEIPT, RollupMetric.ORDER));
+    }
+
+    /** 進貨事件涵蓋其付款單（新增、修改、作廢付款皆會改變進貨餘額） */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPurchase(PurchaseEvent event) {
+        dashboardCache.invalidate(EnumSet.of(RollupMetric.PURCHASE, RollupMetric.PAYMENT));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpense(ExpenseEvent event) {
+        dashboardCache.invalidate(EnumSet.of(RollupMetric.EXPENSE));
+    }
+}
@@ -0,0 +1,175 @@
+package com.lianhua.erp.dashboard;
+
+import com.lianhua.erp.config.DashboardProperties;
+import com.lianhua.erp.dto.dashboard.DashboardKpiDeltaDto;
+import com.lianhua.erp.dto.dashboard.DashboardStatsDto;
+import com.lianhua.erp.event.ExpenseEvent;
+import com.lianhua.erp.event.OrderEvent;
+import com.lianhua.erp.event.PurchaseEvent;
+import com.lianhua.erp.event.ReceiptEvent;
+import com.lianhua.erp.event.SaleEvent;
+import com.lianhua.erp.service.DashboardService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 📡 儀表板 KPI 即時推播
+ * 1) 單據交易提交後只標記「有異動」，不在寫入路徑上計算
+ * 2) 排程每個間隔最多重算一次 KPI（多筆異動合併），與上次推送的數值比對後只送出變動的指標
+ * 3) 以重算後的數值相減求差額，修改、作廢、改日期等情況皆能正確反映
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DashboardKpiPublisher {
+
+    public static final String TOPIC_DASHBOARD_KPI = "/topic/dashboard-kpi";
+
+    private final DashboardService dashboardService;
+    private final DashboardProperties dashboardProperties;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SimpUserRegistry simpUserRegistry;
+
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final AtomicLong seq = new AtomicLong();
+    private final Object flushLock = new Object();
+
+    // 上次推送的完整數值；null 表示下次需送完整快照
+    private Map<String, BigDecimal> lastValues;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSale(SaleEvent event) {
+        markDirty();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrder(OrderEvent event) {
+        markDirty();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReceipt(ReceiptEvent event) {
+        markDirty();
+    }
+
+    /** 進貨事件涵蓋其付款單 */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPurchase(PurchaseEvent event) {
+        markDirty();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpense(ExpenseEvent event) {
+        markDirty();
+    }
+
+    private void markDirty() {
+        if (dashboardProperties.getKpiPush().isEnabled()) {
+            dirty.set(true);
+        }
+    }
+
+    /**
+     * 由排程呼叫：有異動且有訂閱者時重算 KPI 並推送差異
+     */
+    public void flush() {
+        if (!dashboardProperties.getKpiPush().isEnabled() || !dirty.get()) {
+            return;
+        }
+
+        synchronized (flushLock) {
+            if (!hasSubscribers()) {
+                // 無人訂閱時不重算；之後的訂閱者先以 REST 取得初值，下一次推送改送完整快照
+                dirty.set(false);
+                lastValues = null;
+                return;
+            }
+
+            // 先清除標記再查詢：查詢期間的新異動會留到下一輪
+            dirty.set(false);
+            Map<String, BigDecimal> current;
+            try {
+                current = toValues(dashboardService.refreshDashboardStats());
+            } catch (RuntimeException e) {
+                dirty.set(true);
+                log.warn("⚠️ [DashboardKpi] KPI 重算失敗，下一輪重試：{}", e.getMessage());
+                return;
+            }
+
+            DashboardKpiDeltaDto payload = buildPayload(lastValues, current);
+            lastValues = current;
+            if (payload == null) {
+                return;
+            }
+            messagingTemplate.convertAndSend(TOPIC_DASHBOARD_KPI, payload);
+            log.debug("📡 [DashboardKpi] 推送 seq={}, full={}, 變動 {} 項", payload.seq(), payload.full(),
+                    payload.values().size());
+        }
+    }
+
+    private boolean hasSubscribers() {
+        return !simpUserRegistry.findSubscriptions(s -> TOPIC_DASHBOARD_KPI.equals(s.getDestination())).isEmpty();
+    }
+
+    private DashboardKpiDeltaDto buildPayload(Map<String, BigDecimal> previous, Map<String, BigDecimal> current) {
+        if (previous == null) {
+            return new DashboardKpiDeltaDto(seq.incrementAndGet(), true, Map.of(), current, LocalDateTime.now());
+        }
+
+        Map<String, BigDecimal> deltas = new LinkedHashMap<>();
+        Map<String, BigDecimal> values = new LinkedHashMap<>();
+        current.forEach((name, value) -> {
+            BigDecimal before = previous.get(name);
+            if (Objects.equals(before, value) || (before != null && value != null && before.compareTo(value) == 0)) {
+                return;
+            }
+            values.put(name, value);
+            deltas.put(name, nz(value).subtract(nz(before)));
+        });
+
+        if (values.isEmpty()) {
+            return null;
+        }
+        return new DashboardKpiDeltaDto(seq.incrementAndGet(), false, deltas, values, LocalDateTime.now());
+    }
+
+    /**
+     * 推播指標清單；名稱與 DashboardStatsDto 欄位一致，前端可直接套用到既有字卡
+     */
+    private static Map<String, BigDecimal> toValues(DashboardStatsDto s) {
+        Map<String, BigDecimal> values = new LinkedHashMap<>();
+        values.put("todaySalesTotal", s.todaySalesTotal());
+        values.put("monthSalesTotal", s.monthSalesTotal());
+        values.put("monthPurchaseTotal", s.monthPurchaseTotal());
+        values.put("monthExpenseTotal", s.monthExpenseTotal());
+        values.put("supplierCount", BigDecimal.valueOf(s.supplierCount()));
+        values.put("customerCount", BigDecimal.valueOf(s.customerCount()));
+        values.put("activeProductCount", BigDecimal.valueOf(s.activeProductCount()));
+        values.put("pendingOrderCount", BigDecimal.valueOf(s.pendingOrderCount()));
+        values.put("accountsPayable", s.accountsPayable());
+        values.put("accountsReceivable", s.accountsReceivable());
+        values.put("netProfit", s.netProfit());
+        values.put("profitMargin", BigDecimal.valueOf(s.profitMargin()));
+        values.put("todayReceiptsTotal", s.todayReceiptsTotal());
+        values.put("todayTotalInflow", s.todayTotalInflow());
+        values.put("monthTotalReceived", s.monthTotalReceived());
+        values.put("upcomingAR", s.upcomingAR());
+        return values;
+    }
+
+    private static BigDecimal nz(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
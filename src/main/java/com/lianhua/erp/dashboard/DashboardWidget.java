@@ -0,0 +1,69 @@
+package com.lianhua.erp.dashboard;
+
+import com.lianhua.erp.domain.RollupMetric;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static com.lianhua.erp.domain.RollupMetric.*;
+
+/**
+ * 儀表板圖表（快取單位）與其依賴的來源單據類型。
+ * 任一來源單據異動時，依賴該來源的圖表快取才會失效。
+ * key 為對外代碼（對應 /api/dashboard 各端點名稱），供組合端點指定圖表。
+ */
+public enum DashboardWidget {
+
+    STATS("stats", EnumSet.allOf(RollupMetric.class)),
+    SALES_TREND("trends", EnumSet.of(SALE, RECEIPT)),
+    EXPENSE_COMPOSITION("expense-composition", EnumSet.of(PURCHASE, EXPENSE)),
+    PENDING_TASKS("tasks", EnumSet.of(ORDER, RECEIPT)),
+    ACCOUNT_AGING("accounts-aging", EnumSet.of(ORDER, RECEIPT, PURCHASE, PAYMENT)),
+    PROFIT_LOSS_TREND("profit-loss-trend", EnumSet.of(SALE, PURCHASE, EXPENSE)),
+    ORDER_FUNNEL("order-funnel", EnumSet.of(ORDER)),
+    BREAK_EVEN("break-even", EnumSet.of(SALE, EXPENSE)),
+    LIQUIDITY("liquidity", EnumSet.of(SALE, RECEIPT, PURCHASE, PAYMENT)),
+    CASHFLOW_FORECAST("cashflow-forecast", EnumSet.of(ORDER, RECEIPT, PURCHASE, PAYMENT)),
+    PRODUCT_PARETO("product-pareto", EnumSet.of(SALE)),
+    SUPPLIER_CONCENTRATION("supplier-concentration", EnumSet.of(PURCHASE)),
+    CUSTOMER_RETENTION("customer-retention", EnumSet.of(ORDER)),
+    PURCHASE_STRUCTURE("purchase-structure", EnumSet.of(PURCHASE)),
+    CUSTOMER_CONCENTRATION("customer-concentration", EnumSet.of(ORDER));
+
+    private final String key;
+    private final Set<RollupMetric> sources;
+
+    DashboardWidget(String key, Set<RollupMetric> sources) {
+        this.key = key;
+        this.sources = sources;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * 依對外代碼取得圖表；不分大小寫，查無時回傳 null
+     */
+    public static DashboardWidget fromKey(String key) {
+        if (key == null) {
+            return null;
+        }
+        String normalized = key.trim().toLowerCase();
+        for (DashboardWidget widget : values()) {
+            if (widget.key.equals(normalized)) {
+                return widget;
+            }
+        }
+        return null;
+    }
+
+    public boolean dependsOn(Set<RollupMetric> changed) {
+        for (RollupMetric m : changed) {
+            if (sources.contains(m)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,22 @@
+package com.lianhua.erp.domain;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * 財務日彙總（financial_daily_rollups）指標類型
+ * 每個指標對應一張來源表與其日期欄位
+ */
+public enum RollupMetric {
+    SALE,       // 零售銷售（sales.sale_date）
+    ORDER,      // 批發訂單（orders.order_date）
+    RECEIPT,    // 訂單收款（receipts.received_date）
+    PURCHASE,   // 進貨（purchases.purchase_date）
+    PAYMENT,    // 進貨付款（payments.pay_date）
+    EXPENSE;    // 費用支出（expenses.expense_date，依費用類別細分）
+
+    /**
+     * 構成月損益（financial_monthly_pnl）的指標
+     */
+    public static final Set<RollupMetric> PROFIT_LOSS = EnumSet.of(SALE, PURCHASE, EXPENSE);
+}
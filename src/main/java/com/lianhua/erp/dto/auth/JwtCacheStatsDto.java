@@ -0,0 +1,37 @@
+package com.lianhua.erp.dto.auth;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "JWT 驗證快取與認證過濾器耗時統計（自應用程式啟動起累計）")
+public record JwtCacheStatsDto(
+        @Schema(description = "是否啟用", example = "true")
+        boolean enabled,
+
+        @Schema(description = "目前快取筆數", example = "85")
+        int size,
+
+        @Schema(description = "快取筆數上限", example = "10000")
+        int maxEntries,
+
+        @Schema(description = "命中次數（免重新驗證簽章）", example = "52000")
+        long hits,
+
+        @Schema(description = "未命中次數（實際解析並驗證簽章）", example = "310")
+        long misses,
+
+        @Schema(description = "因超過上限而淘汰的筆數", example = "0")
+        long evictions,
+
+        @Schema(description = "命中率（百分比）", example = "99.41")
+        double hitRate,
+
+        @Schema(description = "認證過濾器處理的請求數（帶 Token 者）", example = "52310")
+        long filterRequests,
+
+        @Schema(description = "認證過濾器平均耗時（微秒，不含後續處理）", example = "38.5")
+        double filterAvgMicros,
+
+        @Schema(description = "認證過濾器最大耗時（微秒）", example = "8200.0")
+        double filterMaxMicros
+) {
+}
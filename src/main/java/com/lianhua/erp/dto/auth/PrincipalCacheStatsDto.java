@@ -0,0 +1,31 @@
+package com.lianhua.erp.dto.auth;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "使用者認證狀態快取統計（自應用程式啟動起累計）")
+public record PrincipalCacheStatsDto(
+        @Schema(description = "是否啟用", example = "true")
+        boolean enabled,
+
+        @Schema(description = "目前快取筆數", example = "42")
+        int size,
+
+        @Schema(description = "快取筆數上限", example = "5000")
+        int maxEntries,
+
+        @Schema(description = "每筆存活時間（秒）；其他節點的失效最多延遲此時間", example = "5")
+        long ttlSeconds,
+
+        @Schema(description = "命中次數（免查資料庫）", example = "52000")
+        long hits,
+
+        @Schema(description = "未命中次數（查詢資料庫）", example = "120")
+        long misses,
+
+        @Schema(description = "失效次數（密碼變更、強制登出、停用、角色異動等）", example = "8")
+        long invalidations,
+
+        @Schema(description = "命中率（百分比）", example = "99.77")
+        double hitRate
+) {
+}
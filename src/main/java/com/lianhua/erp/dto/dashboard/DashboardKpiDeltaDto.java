@@ -0,0 +1,32 @@
+package com.lianhua.erp.dto.dashboard;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * WebSocket 推送：儀表板 KPI 異動。
+ * 前端訂閱 /topic/dashboard-kpi；full=true 時 values 為完整指標（首次推送或重新同步），
+ * 否則只包含本次有變動的指標。
+ */
+@Schema(description = "儀表板 KPI 異動推播")
+public record DashboardKpiDeltaDto(
+        @Schema(description = "推送序號（遞增）；前端發現跳號時可改呼叫 /api/dashboard/stats 重新同步", example = "42")
+        long seq,
+
+        @Schema(description = "是否為完整快照")
+        boolean full,
+
+        @Schema(description = "變動量（指標 → 與上次推送的差額），例如 todaySalesTotal: 1200.00、accountsReceivable: -500.00")
+        Map<String, BigDecimal> deltas,
+
+        @Schema(description = "最新數值（指標 → 目前值）")
+        Map<String, BigDecimal> values,
+
+        @Schema(description = "計算時間")
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+        LocalDateTime at) {
+}
@@ -0,0 +1,15 @@
+package com.lianhua.erp.dto.dashboard.bundle;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Map;
+
+@Schema(description = "儀表板組合查詢結果")
+public record DashboardBundleDto(
+        @Schema(description = "各圖表結果（依請求順序，鍵為圖表代碼）")
+        Map<String, DashboardWidgetResultDto> widgets,
+
+        @Schema(description = "整體耗時（毫秒）", example = "180")
+        long elapsedMs
+) {
+}
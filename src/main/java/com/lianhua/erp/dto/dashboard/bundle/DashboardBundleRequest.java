@@ -0,0 +1,41 @@
+package com.lianhua.erp.dto.dashboard.bundle;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 儀表板組合查詢條件：指定圖表代碼與各圖表共用的參數。
+ * 未帶參數時沿用各獨立端點的預設值。
+ */
+@Schema(description = "儀表板組合查詢條件")
+public record DashboardBundleRequest(
+        @Schema(description = "圖表代碼（可重複帶或以逗號分隔）",
+                example = "stats,trends,accounts-aging,customer-retention")
+        List<String> widgets,
+
+        @Schema(description = "趨勢圖回溯天數（trends，預設 30）", example = "30", nullable = true)
+        Integer trendDays,
+
+        @Schema(description = "損益走勢回溯月數（profit-loss-trend，預設 6）", example = "6", nullable = true)
+        Integer months,
+
+        @Schema(description = "會計期間 YYYY-MM（order-funnel、break-even；break-even 未帶時為當月）",
+                example = "2026-01", nullable = true)
+        String period,
+
+        @Schema(description = "現金流預測基準日（cashflow-forecast，預設今日）", nullable = true)
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate baseDate,
+
+        @Schema(description = "現金流預測天數（cashflow-forecast，預設 30）", example = "30", nullable = true)
+        Integer forecastDays,
+
+        @Schema(description = "區間起日（pareto / 集中度 / 採購結構，預設當月 1 日）", nullable = true)
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+
+        @Schema(description = "區間迄日（pareto / 集中度 / 採購結構，預設今日）", nullable = true)
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end
+) {
+}
@@ -0,0 +1,22 @@
+package com.lianhua.erp.dto.dashboard.bundle;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "組合查詢中單一圖表的結果")
+public record DashboardWidgetResultDto(
+        @Schema(description = "結果狀態：OK / ERROR / TIMEOUT", example = "OK")
+        String status,
+
+        @Schema(description = "圖表資料（與對應獨立端點的 data 相同；失敗時為 null）")
+        Object data,
+
+        @Schema(description = "耗時（毫秒）", example = "42")
+        long elapsedMs,
+
+        @Schema(description = "錯誤訊息（僅 ERROR / TIMEOUT）", nullable = true)
+        String error
+) {
+    public static final String OK = "OK";
+    public static final String ERROR = "ERROR";
+    public static final String TIMEOUT = "TIMEOUT";
+}
@@ -0,0 +1,46 @@
+package com.lianhua.erp.dto.export;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "背景匯出工作狀態")
+public record ExportJobDto(
+        @Schema(description = "工作 ID", example = "3f2b8c1e-7d4a-4e0b-9a51-0c6f1d2e8b90")
+        String jobId,
+
+        @Schema(description = "匯出資源", example = "purchases")
+        String resource,
+
+        @Schema(description = "檔案格式", example = "XLSX")
+        String format,
+
+        @Schema(description = "狀態：QUEUED / RUNNING / COMPLETED / FAILED", example = "RUNNING")
+        String status,
+
+        @Schema(description = "已寫出列數", example = "12000")
+        long rowsWritten,
+
+        @Schema(description = "檔名（開始執行後才有）", nullable = true, example = "purchases_export_20250101_120000.xlsx")
+        String filename,
+
+        @Schema(description = "檔案大小（位元組，僅 COMPLETED）", nullable = true, example = "524288")
+        Long sizeBytes,
+
+        @Schema(description = "錯誤訊息（僅 FAILED）", nullable = true)
+        String error,
+
+        @Schema(description = "建立時間")
+        LocalDateTime createdAt,
+
+        @Schema(description = "開始執行時間", nullable = true)
+        LocalDateTime startedAt,
+
+        @Schema(description = "結束時間", nullable = true)
+        LocalDateTime finishedAt
+) {
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+}
@@ -0,0 +1,9 @@
+package com.lianhua.erp.dto.export;
+
+import java.nio.file.Path;
+
+/**
+ * 已完成背景匯出工作的結果檔。
+ */
+public record ExportJobFile(Path path, String filename, String mediaType) {
+}
@@ -0,0 +1,34 @@
+package com.lianhua.erp.dto.export;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.Map;
+
+@Schema(description = "建立背景匯出工作")
+public record ExportJobRequest(
+        @Schema(description = "匯出資源（purchases / orders / receipts / payments / sales / expenses / suppliers / "
+                + "customers / employees / ar-aging / ap-aging / activity-audit-logs）", example = "purchases")
+        String resource,
+
+        @Schema(description = "篩選條件，欄位與該資源列表查詢參數相同", nullable = true,
+                example = "{\"supplierName\": \"聯華\", \"fromDate\": \"2025-01-01\"}")
+        Map<String, Object> filters,
+
+        @Schema(description = "檔案格式：xlsx / csv（預設 xlsx）", example = "xlsx", nullable = true)
+        String format,
+
+        @Schema(description = "匯出範圍：all / page（預設 all）", example = "all", nullable = true)
+        String scope,
+
+        @Schema(description = "排序，格式同列表 sort 參數（欄位,asc|desc）", example = "[\"purchaseDate,desc\"]",
+                nullable = true)
+        List<String> sort,
+
+        @Schema(description = "頁碼（僅 scope=page）", example = "0", nullable = true)
+        Integer page,
+
+        @Schema(description = "每頁筆數（僅 scope=page）", example = "25", nullable = true)
+        Integer size
+) {
+}
@@ -0,0 +1,9 @@
+package com.lianhua.erp.dto.export;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * 串流匯出：檔案內容於回應寫出時才逐批查詢、逐列產生（不先組成 byte[]）。
+ */
+public record StreamingExportPayload(String filename, String mediaType, StreamingResponseBody body) {
+}
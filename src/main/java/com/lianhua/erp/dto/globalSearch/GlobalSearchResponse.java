@@ -6,7 +6,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Builder
@@ -17,4 +19,22 @@ public class GlobalSearchResponse {
     // ✅ 初始化為空的 ArrayList，避免 Service 忘記給值時出現 Null
     @Builder.Default
     private List<GlobalSearchItemDto> items = new ArrayList<>();
+
+    /**
+     * 超過時間預算而未納入結果的範圍（其餘範圍照常回傳）
+     */
+    @Builder.Default
+    private List<String> timedOut = new ArrayList<>();
+
+    /**
+     * 查詢失敗（或系統忙碌未執行）的範圍
+     */
+    @Builder.Default
+    private List<String> failed = new ArrayList<>();
+
+    /**
+     * 各範圍查詢耗時（毫秒）；逾時者為等待到放棄為止的時間
+     */
+    @Builder.Default
+    private Map<String, Long> scopeLatencyMs = new LinkedHashMap<>();
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.lianhua.erp.dto.globalSearch;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Schema(description = "全域搜尋索引統計（自應用程式啟動起累計）")
+public record SearchIndexStatsDto(
+        @Schema(description = "是否啟用", example = "true")
+        boolean enabled,
+
+        @Schema(description = "狀態：EMPTY / BUILDING / READY / OVER_BUDGET / FAILED / DISABLED", example = "READY")
+        String state,
+
+        @Schema(description = "各範圍索引筆數", example = "{\"orders\": 5200, \"customers\": 310}")
+        Map<String, Integer> documents,
+
+        @Schema(description = "不重複片段數", example = "184000")
+        long grams,
+
+        @Schema(description = "倒排清單總項目數", example = "1250000")
+        long postings,
+
+        @Schema(description = "估算記憶體用量（位元組）", example = "31457280")
+        long estimatedBytes,
+
+        @Schema(description = "記憶體預算（位元組）；超過時停用索引，改由資料庫查詢", example = "268435456")
+        long memoryBudgetBytes,
+
+        @Schema(description = "最近一次完整重建耗時（毫秒）", example = "1840")
+        long lastRebuildMillis,
+
+        @Schema(description = "最近一次完整重建完成時間")
+        LocalDateTime lastRebuildAt,
+
+        @Schema(description = "完整重建次數", example = "1")
+        long rebuilds,
+
+        @Schema(description = "增量更新筆數（單據異動後重新索引）", example = "342")
+        long incrementalUpdates,
+
+        @Schema(description = "由索引回答的查詢數", example = "9800")
+        long indexedQueries,
+
+        @Schema(description = "索引未就緒而改由資料庫回答的查詢數", example = "12")
+        long fallbackQueries
+) {
+}
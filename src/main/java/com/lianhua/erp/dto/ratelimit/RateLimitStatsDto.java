@@ -0,0 +1,61 @@
+package com.lianhua.erp.dto.ratelimit;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "API 限流統計（自應用程式啟動起累計）")
+public record RateLimitStatsDto(
+        @Schema(description = "是否啟用", example = "true")
+        boolean enabled,
+
+        @Schema(description = "目前追蹤的 key 數（規則 + IP + 路由樣板）", example = "120")
+        int keys,
+
+        @Schema(description = "key 數上限", example = "50000")
+        int maxKeys,
+
+        @Schema(description = "因閒置（額度已回滿）而移除的 key 數", example = "3400")
+        long idleEvictions,
+
+        @Schema(description = "超過上限而強制淘汰的 key 數", example = "0")
+        long forcedEvictions,
+
+        @Schema(description = "計數儲存（memory：單節點；jdbc：多節點共用）", example = "memory")
+        String throttleStore,
+
+        @Schema(description = "是否為多節點共用計數", example = "false")
+        boolean shared,
+
+        @Schema(description = "計數儲存中本節點追蹤的 key 數（含登入失敗計數）", example = "15")
+        int storeKeys,
+
+        @Schema(description = "各規則統計")
+        List<PolicyStats> policies
+) {
+
+    @Schema(description = "單一限流規則統計")
+    public record PolicyStats(
+            @Schema(description = "規則名稱", example = "users")
+            String name,
+
+            @Schema(description = "路徑樣式", example = "/api/users/**")
+            String pattern,
+
+            @Schema(description = "限定的 HTTP 方法（空陣列表示全部）")
+            List<String> methods,
+
+            @Schema(description = "每個時間窗可用的請求數", example = "60")
+            int capacity,
+
+            @Schema(description = "時間窗（秒）", example = "60")
+            long windowSeconds,
+
+            @Schema(description = "放行次數", example = "18000")
+            long allowed,
+
+            @Schema(description = "拒絕（429）次數", example = "12")
+            long rejected
+    ) {
+    }
+}
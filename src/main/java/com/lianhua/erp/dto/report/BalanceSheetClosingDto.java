@@ -0,0 +1,29 @@
+package com.lianhua.erp.dto.report;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Schema(description = "資產負債表期末結帳快照")
+public record BalanceSheetClosingDto(
+        @Schema(description = "會計期間", example = "2026-01")
+        String accountingPeriod,
+
+        @Schema(description = "期末日期", example = "2026-01-31")
+        LocalDate periodEnd,
+
+        @Schema(description = "期末應收帳款", example = "8500.00")
+        BigDecimal accountsReceivable,
+
+        @Schema(description = "期末應付帳款", example = "3200.00")
+        BigDecimal accountsPayable,
+
+        @Schema(description = "期末現金", example = "56000.00")
+        BigDecimal cash,
+
+        @Schema(description = "結帳時間")
+        LocalDateTime closedAt
+) {
+}
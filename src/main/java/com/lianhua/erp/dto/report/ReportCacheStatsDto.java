@@ -0,0 +1,31 @@
+package com.lianhua.erp.dto.report;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "財務報表結果快取統計（自應用程式啟動起累計）")
+public record ReportCacheStatsDto(
+        @Schema(description = "是否啟用", example = "true")
+        boolean enabled,
+
+        @Schema(description = "目前快取筆數", example = "42")
+        int size,
+
+        @Schema(description = "快取筆數上限", example = "300")
+        int maxEntries,
+
+        @Schema(description = "命中次數", example = "1200")
+        long hits,
+
+        @Schema(description = "未命中次數（實際查詢資料庫）", example = "180")
+        long misses,
+
+        @Schema(description = "因超過上限而淘汰的筆數", example = "3")
+        long evictions,
+
+        @Schema(description = "因單據異動而失效的筆數", example = "95")
+        long invalidations,
+
+        @Schema(description = "命中率（百分比）", example = "86.96")
+        double hitRate
+) {
+}
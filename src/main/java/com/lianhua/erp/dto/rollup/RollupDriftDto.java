@@ -0,0 +1,35 @@
+package com.lianhua.erp.dto.rollup;
+
+import com.lianhua.erp.domain.RollupMetric;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Schema(description = "財務日彙總偏差（彙總表 vs 原始單據）")
+public record RollupDriftDto(
+        @Schema(description = "指標", example = "SALE")
+        RollupMetric metric,
+
+        @Schema(description = "日期", example = "2026-01-15")
+        LocalDate statDate,
+
+        @Schema(description = "會計期間", example = "2026-01")
+        String accountingPeriod,
+
+        @Schema(description = "費用類別 ID（非費用指標為 0）", example = "0")
+        long categoryId,
+
+        @Schema(description = "原始單據有效金額", example = "12000.00")
+        BigDecimal expectedAmount,
+
+        @Schema(description = "彙總表有效金額", example = "11500.00")
+        BigDecimal actualAmount,
+
+        @Schema(description = "原始單據有效筆數", example = "8")
+        long expectedCount,
+
+        @Schema(description = "彙總表有效筆數", example = "7")
+        long actualCount
+) {
+}
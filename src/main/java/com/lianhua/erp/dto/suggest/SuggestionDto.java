@@ -0,0 +1,19 @@
+package com.lianhua.erp.dto.suggest;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "輸入提示項目")
+public record SuggestionDto(
+        @Schema(description = "類別：customers / suppliers / products / purchase_items", example = "customers")
+        String type,
+
+        @Schema(description = "資料 ID（purchase_items 為歷史品項文字，無 ID）", example = "12")
+        Long id,
+
+        @Schema(description = "顯示文字（名稱或品項）", example = "永進食品行")
+        String label,
+
+        @Schema(description = "輔助文字（例如客戶電話）", example = "02-2345-6789")
+        String detail
+) {
+}
@@ -0,0 +1,25 @@
+package com.lianhua.erp.event;
+
+import com.lianhua.erp.domain.Order;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+import java.util.Map;
+import java.util.HashMap;
+
+@Getter
+public class OrderEvent extends ApplicationEvent {
+    private final Order order;
+    private final String action; // 例如 "ORDER_CREATED"、"ORDER_VOIDED"
+    private final Map<String, Object> payload;
+
+    public OrderEvent(Object source, Order order, String action) {
+        this(source, order, action, null);
+    }
+
+    public OrderEvent(Object source, Order order, String action, Map<String, Object> payload) {
+        super(source);
+        this.order = order;
+        this.action = action;
+        this.payload = payload != null ? payload : new HashMap<>();
+    }
+}
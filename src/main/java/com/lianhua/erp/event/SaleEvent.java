@@ -0,0 +1,25 @@
+package com.lianhua.erp.event;
+
+import com.lianhua.erp.domain.Sale;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+import java.util.Map;
+import java.util.HashMap;
+
+@Getter
+public class SaleEvent extends ApplicationEvent {
+    private final Sale sale;
+    private final String action; // 例如 "SALE_CREATED"
+    private final Map<String, Object> payload;
+
+    public SaleEvent(Object source, Sale sale, String action) {
+        this(source, sale, action, null);
+    }
+
+    public SaleEvent(Object source, Sale sale, String action, Map<String, Object> payload) {
+        super(source);
+        this.sale = sale;
+        this.action = action;
+        this.payload = payload != null ? payload : new HashMap<>();
+    }
+}
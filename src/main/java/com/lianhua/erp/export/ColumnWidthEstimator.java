@@ -0,0 +1,79 @@
+package com.lianhua.erp.export;
+
+import org.apache.poi.ss.usermodel.Sheet;
+
+/**
+ * 欄寬估算：寫入每列時順便累計各欄最大「顯示寬度」，寫完後直接換算成欄寬。
+ * 不使用 POI autoSizeColumn（需字型量測且 SXSSF 須追蹤所有儲存格），也不需再掃描一次資料。
+ */
+final class ColumnWidthEstimator {
+
+    /** Excel 欄寬上限（POI：字元寬度 × 256） */
+    private static final int MAX_COL_WIDTH_UNITS = 255 * 256;
+    /** 中日文等欄位最小「顯示單位」對應欄寬（字元）之下限，避免表頭被截成「…」 */
+    private static final int MIN_WIDTH_CHARS_FLOOR = 16;
+    /** 在內容估算寬度上再預留的字元數 */
+    private static final int WIDTH_PADDING_CHARS = 6;
+    /** 單欄寬度上限（字元）；長字串（如「合計 (yyyy-MM-dd ~ yyyy-MM-dd)」）仍可完整顯示 */
+    private static final int MAX_WIDTH_CHARS = 100;
+
+    private final int[] maxUnits;
+
+    ColumnWidthEstimator(int columns) {
+        this.maxUnits = new int[columns];
+    }
+
+    /**
+     * 累計一個儲存格；超過上限寬度後不再計算該欄（已無影響）
+     */
+    void accept(int column, String value) {
+        if (maxUnits[column] >= MAX_WIDTH_CHARS) {
+            return;
+        }
+        maxUnits[column] = Math.max(maxUnits[column], estimateDisplayWidthUnits(value, MAX_WIDTH_CHARS));
+    }
+
+    void applyTo(Sheet sh) {
+        for (int c = 0; c < maxUnits.length; c++) {
+            sh.setColumnWidth(c, Math.min(toPoiWidthChars(maxUnits[c]), MAX_COL_WIDTH_UNITS));
+        }
+    }
+
+    /**
+     * 粗略估算儲存格在 Excel 中的「顯示寬度」：CJK 等全形字元權重 2，ASCII 數字等權重 1。
+     * 累計到 limit 即停止（更長的內容欄寬相同）。
+     */
+    static int estimateDisplayWidthUnits(String s, int limit) {
+        if (s == null || s.isEmpty()) {
+            return 0;
+        }
+        int units = 0;
+        for (int i = 0; i < s.length() && units < limit; i++) {
+            units += isWideChar(s.charAt(i)) ? 2 : 1;
+        }
+        return units;
+    }
+
+    private static boolean isWideChar(char ch) {
+        if (ch >= 0x4E00 && ch <= 0x9FFF) {
+            return true;
+        }
+        if (ch >= 0x3400 && ch <= 0x4DBF) {
+            return true;
+        }
+        if (ch >= 0xAC00 && ch <= 0xD7AF) {
+            return true;
+        }
+        if (ch >= 0x3000 && ch <= 0x303F) {
+            return true;
+        }
+        return ch > 0x00FF;
+    }
+
+    private static int toPoiWidthChars(int displayUnits) {
+        int chars = displayUnits + WIDTH_PADDING_CHARS;
+        chars = Math.max(chars, MIN_WIDTH_CHARS_FLOOR);
+        chars = Math.min(chars, MAX_WIDTH_CHARS);
+        return chars * 256;
+    }
+}
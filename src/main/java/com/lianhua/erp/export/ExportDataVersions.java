@@ -0,0 +1,90 @@
+package com.lianhua.erp.export;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 匯出資料版本：每個實體類別一個計數器，於 Hibernate 交易提交後（新增／修改／刪除）遞增。
+ * 資源的版本為其來源實體計數器的總和，任一來源有異動即改變，作為匯出快取鍵的一部分。
+ *
+ * 📌 只涵蓋經由 JPA 實體的寫入；業務單據目前沒有繞過實體的大量更新（JPQL / 原生 SQL）。
+ * 📌 計數器在本機記憶體，只反映本節點提交的交易；其他節點的寫入由匯出快取的存活上限兜底
+ * （見 {@link ExportResultCache}）。
+ */
+@Component
+public class ExportDataVersions implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    private final Map<Class<?>, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public ExportDataVersions(EntityManagerFactory entityManagerFactory) {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    public long versionOf(ExportResource resource) {
+        long sum = 0;
+        for (Class<?> source : resource.getSources()) {
+            AtomicLong v = versions.get(source);
+            if (v != null) {
+                sum += v.get();
+            }
+        }
+        return sum;
+    }
+
+    private void bump(EntityPersister persister) {
+        versions.computeIfAbsent(persister.getMappedClass(), type -> new AtomicLong()).incrementAndGet();
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        bump(event.getPersister());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        bump(event.getPersister());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        bump(event.getPersister());
+    }
+
+    // 交易回滾：資料未變，不需遞增
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return true;
+    }
+}
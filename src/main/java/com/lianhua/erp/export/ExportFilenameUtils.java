@@ -11,6 +11,10 @@ public final class ExportFilenameUtils {
     }
 
     public static String build(String resourcePrefix, ExportFormat format) {
-        return resourcePrefix + "_export_" + LocalDateTime.now().format(TS) + "." + format.fileExtension();
+        return build(resourcePrefix, format.fileExtension());
+    }
+
+    public static String build(String resourcePrefix, String extension) {
+        return resourcePrefix + "_export_" + LocalDateTime.now().format(TS) + "." + extension;
     }
 }
@@ -0,0 +1,67 @@
+package com.lianhua.erp.export;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.function.LongConsumer;
+
+/**
+ * 匯出進度回報：背景匯出工作以 {@link #run} 寫出檔案時，
+ * {@link ExportStreams#tabular} 產生的內容每寫出一定列數即回報累計列數。
+ * 一般 HTTP 串流匯出沒有監聽者，不做任何額外處理。
+ */
+public final class ExportProgress {
+
+    /** 每隔多少列回報一次（寫出結束時另回報最終列數） */
+    private static final int REPORT_EVERY = 500;
+
+    private static final ThreadLocal<LongConsumer> LISTENER = new ThreadLocal<>();
+
+    private ExportProgress() {
+    }
+
+    /**
+     * 於目前執行緒寫出 body，期間的列數進度交給 listener
+     */
+    public static void run(LongConsumer listener, StreamingResponseBody body, OutputStream out) throws IOException {
+        LISTENER.set(listener);
+        try {
+            body.writeTo(out);
+        } finally {
+            LISTENER.remove();
+        }
+    }
+
+    /**
+     * 目前執行緒有監聽者時包裝 rows 以計算列數；否則原樣回傳
+     */
+    static Iterator<String[]> track(Iterator<String[]> rows) {
+        LongConsumer listener = LISTENER.get();
+        if (listener == null) {
+            return rows;
+        }
+        return new Iterator<>() {
+            private long count;
+
+            @Override
+            public boolean hasNext() {
+                boolean more = rows.hasNext();
+                if (!more) {
+                    listener.accept(count);
+                }
+                return more;
+            }
+
+            @Override
+            public String[] next() {
+                String[] row = rows.next();
+                if (++count % REPORT_EVERY == 0) {
+                    listener.accept(count);
+                }
+                return row;
+            }
+        };
+    }
+}
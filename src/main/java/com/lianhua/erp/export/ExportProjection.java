@@ -0,0 +1,26 @@
+package com.lianhua.erp.export;
+
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.util.List;
+
+/**
+ * 匯出列的扁平投影：只 SELECT 匯出需要的欄位（關聯名稱以 JOIN、彙總以子查詢在 SQL 內算好），
+ * 每批一次查詢即可產生匯出列，不載入實體、不觸發延遲載入。
+ *
+ * @param <E> 查詢根實體
+ */
+public interface ExportProjection<E> {
+
+    /**
+     * 匯出所需欄位；toRow 依相同順序以索引讀取。
+     * 關聯欄位請用 {@link ExportRowPager#path} 取得，與排序、續查條件共用同一個 LEFT JOIN。
+     */
+    List<Selection<?>> select(Root<E> root, CriteriaQuery<Tuple> query, CriteriaBuilder cb);
+
+    String[] toRow(Tuple tuple);
+}
@@ -0,0 +1,82 @@
+package com.lianhua.erp.export;
+
+import com.lianhua.erp.domain.ActivityAuditLog;
+import com.lianhua.erp.domain.Employee;
+import com.lianhua.erp.domain.Expense;
+import com.lianhua.erp.domain.ExpenseCategory;
+import com.lianhua.erp.domain.Order;
+import com.lianhua.erp.domain.OrderCustomer;
+import com.lianhua.erp.domain.Payment;
+import com.lianhua.erp.domain.Product;
+import com.lianhua.erp.domain.Purchase;
+import com.lianhua.erp.domain.PurchaseItem;
+import com.lianhua.erp.domain.Receipt;
+import com.lianhua.erp.domain.Sale;
+import com.lianhua.erp.domain.Supplier;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Set;
+
+/**
+ * 可匯出的列表資源；key 與各列表 /export 端點的檔名前綴一致，
+ * authority 與該端點的 @PreAuthorize 相同（ROLE_ 開頭者為角色）。
+ * sources 為匯出內容讀取的實體（含關聯名稱、彙總），任一異動即視為匯出內容可能改變。
+ */
+public enum ExportResource {
+
+    PURCHASES("purchases", "purchase:view", Set.of(Purchase.class, Supplier.class, Payment.class)),
+    ORDERS("orders", "order:view", Set.of(Order.class, OrderCustomer.class)),
+    RECEIPTS("receipts", "receipt:view", Set.of(Receipt.class, Order.class, OrderCustomer.class)),
+    PAYMENTS("payments", "payment:view", Set.of(Payment.class, Purchase.class, PurchaseItem.class, Supplier.class)),
+    SALES("sales", "sale:view", Set.of(Sale.class, Product.class)),
+    EXPENSES("expenses", "expense:view", Set.of(Expense.class, ExpenseCategory.class, Employee.class)),
+    SUPPLIERS("suppliers", "supplier:view", Set.of(Supplier.class)),
+    CUSTOMERS("customers", "order_customer:view", Set.of(OrderCustomer.class)),
+    EMPLOYEES("employees", "employee:view", Set.of(Employee.class)),
+    AR_AGING("ar-aging", "ar:view", Set.of(Order.class, Receipt.class, OrderCustomer.class)),
+    AP_AGING("ap-aging", "ap:view", Set.of(Purchase.class, Payment.class, Supplier.class)),
+    ACTIVITY_AUDIT_LOGS("activity-audit-logs", "ROLE_SUPER_ADMIN", Set.of(ActivityAuditLog.class));
+
+    private final String key;
+    private final String authority;
+    private final Set<Class<?>> sources;
+
+    ExportResource(String key, String authority, Set<Class<?>> sources) {
+        this.key = key;
+        this.authority = authority;
+        this.sources = sources;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getAuthority() {
+        return authority;
+    }
+
+    public Set<Class<?>> getSources() {
+        return sources;
+    }
+
+    /**
+     * 帳齡依「今天」分組，同一份資料隔天匯出結果即不同
+     */
+    public boolean dependsOnToday() {
+        return this == AR_AGING || this == AP_AGING;
+    }
+
+    public static ExportResource fromKey(String raw) {
+        if (raw == null || raw.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "resource 不可為空");
+        }
+        String normalized = raw.trim().toLowerCase();
+        for (ExportResource r : values()) {
+            if (r.key.equals(normalized)) {
+                return r;
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "不支援的匯出資源：" + raw.trim());
+    }
+}
@@ -0,0 +1,396 @@
+package com.lianhua.erp.export;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lianhua.erp.config.ExportProperties;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 📤 匯出結果快取（本機磁碟）
+ * 1) 鍵為「資源 + 正規化篩選條件 + 範圍／分頁 + 排序 + 格式 + 資料版本」的雜湊；資料版本見 {@link ExportDataVersions}，
+ *    來源實體有任何異動，之後的匯出自然對應到新鍵，不需主動失效
+ * 2) 檔案總大小有上限，超過時淘汰最久未使用者；另有存活上限
+ * 3) 相同匯出正在產生時，後到的請求等待其完成後直接讀檔（一次產生、多人共用）；
+ *    產生者一邊寫回自己的回應一邊寫入快取檔，用戶端中斷時仍會寫完供其他人使用
+ *
+ * 📌 命中時不執行匯出查詢（也不重新檢查筆數上限），檔名沿用產生當時的時間戳。
+ * 重新啟動後資料版本歸零，因此啟動時清空快取目錄。
+ *
+ * 📌 單一節點假設：快取檔與資料版本都在本機，其他節點的寫入不會改變本節點的鍵。
+ * 多節點部署時，其他節點異動後本節點最多仍回傳存活上限（app.export.cache.ttl，預設 5 分鐘）內產生的舊檔。
+ */
+@Slf4j
+@Component
+public class ExportResultCache {
+
+    private final ExportProperties.Cache config;
+    private final ExportDataVersions dataVersions;
+    private final ObjectMapper objectMapper;
+    private final Path dir;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    // 正在產生中的匯出（已開始寫出者）；後到的相同請求等待其結果
+    private final Map<String, CompletableFuture<Entry>> building = new ConcurrentHashMap<>();
+
+    public ExportResultCache(ExportProperties exportProperties, ExportDataVersions dataVersions,
+                             ObjectMapper objectMapper) {
+        this.config = exportProperties.getCache();
+        this.dataVersions = dataVersions;
+        this.objectMapper = objectMapper;
+        this.dir = config.isEnabled() ? resolveDir(config.getDir()) : null;
+    }
+
+    private record Entry(Path file, String filename, String mediaType, long size, long createdAtNanos) {
+    }
+
+    /**
+     * 取得匯出內容：命中時回傳快取檔；相同匯出產生中則等待共用；否則呼叫 builder 產生並寫入快取。
+     * builder 仍於呼叫端執行緒呼叫（參數錯誤、筆數上限等照常在回應開始前回報）。
+     *
+     * @param filters 該資源的篩選條件 DTO（null 與空白欄位視同未指定）
+     */
+    public StreamingExportPayload get(ExportResource resource, Object filters, Pageable pageable,
+                                      ExportFormat format, ExportScope scope,
+                                      Supplier<StreamingExportPayload> builder) {
+        if (!config.isEnabled()) {
+            return builder.get();
+        }
+
+        String key = key(resource, filters, pageable, format, scope);
+
+        Entry hit = lookup(key);
+        if (hit != null) {
+            log.debug("📤 [ExportCache] 命中：resource={}, key={}", resource.getKey(), key);
+            return new StreamingExportPayload(hit.filename(), hit.mediaType(), out -> copy(hit, out, builder));
+        }
+
+        CompletableFuture<Entry> inFlight = building.get(key);
+        if (inFlight != null) {
+            log.debug("📤 [ExportCache] 等待產生中的相同匯出：resource={}, key={}", resource.getKey(), key);
+            return new StreamingExportPayload(
+                    ExportFilenameUtils.build(resource.getKey(), format), format.mediaType(),
+                    out -> await(inFlight, out, builder));
+        }
+
+        StreamingExportPayload payload = builder.get();
+        return new StreamingExportPayload(payload.filename(), payload.mediaType(),
+                out -> build(key, payload, out));
+    }
+
+    // ================================
+    // 寫出
+    // ================================
+
+    /**
+     * 產生者：同時寫入回應與快取檔，完成後登錄快取並通知等待者
+     */
+    private void build(String key, StreamingExportPayload payload, OutputStream out) throws IOException {
+        CompletableFuture<Entry> future = new CompletableFuture<>();
+        // 已有同鍵產生中（極短的競爭窗口）時仍自行產生，只是不登錄給其他請求等待
+        boolean registered = building.putIfAbsent(key, future) == null;
+
+        Path part = dir.resolve(key + "." + UUID.randomUUID() + ".part");
+        try {
+            try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(part), 64 * 1024)) {
+                TeeOutputStream tee = new TeeOutputStream(out, file);
+                payload.body().writeTo(tee);
+                tee.flush();
+            }
+            Entry entry = store(key, part, payload.filename(), payload.mediaType());
+            if (entry != null) {
+                future.complete(entry);
+            } else {
+                future.completeExceptionally(new IllegalStateException("匯出檔超過快取大小上限，未快取"));
+            }
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(part);
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            if (registered) {
+                building.remove(key, future);
+            }
+        }
+    }
+
+    /**
+     * 等待者：等產生者完成後讀檔；產生失敗、逾時或檔案已被淘汰時自行產生
+     */
+    private void await(CompletableFuture<Entry> inFlight, OutputStream out,
+                       Supplier<StreamingExportPayload> builder) throws IOException {
+        Entry entry;
+        try {
+            Duration wait = config.getBuildWait();
+            entry = inFlight.get(wait != null ? wait.toMillis() : 0, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("匯出等待中斷", e);
+        } catch (ExecutionException | TimeoutException e) {
+            log.debug("📤 [ExportCache] 等待的匯出未完成（{}），改為自行產生", e.toString());
+            builder.get().body().writeTo(out);
+            return;
+        }
+        copy(entry, out, builder);
+    }
+
+    private void copy(Entry entry, OutputStream out, Supplier<StreamingExportPayload> builder) throws IOException {
+        try {
+            Files.copy(entry.file(), out);
+        } catch (NoSuchFileException e) {
+            // 命中後、讀取前被淘汰：尚未寫出任何內容，可改為自行產生
+            builder.get().body().writeTo(out);
+        }
+    }
+
+    // ================================
+    // 快取項目
+    // ================================
+    private Entry lookup(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (isExpired(entry) || !Files.isRegularFile(entry.file())) {
+                remove(key);
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    /**
+     * 將完成的檔案登錄為快取；單一檔案即超過大小上限時不快取（刪除檔案並回傳 null，等待者改為自行產生）
+     */
+    private Entry store(String key, Path part, String filename, String mediaType) throws IOException {
+        long size = Files.size(part);
+        long maxBytes = config.getMaxSize() != null ? config.getMaxSize().toBytes() : 0;
+        if (size > maxBytes) {
+            deleteQuietly(part);
+            return null;
+        }
+
+        Path target = dir.resolve(key);
+        Entry entry = new Entry(target, filename, mediaType, size, System.nanoTime());
+
+        synchronized (entries) {
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                totalBytes -= previous.size();
+            }
+            totalBytes += size;
+            evictIfNeeded(maxBytes);
+        }
+        return entry;
+    }
+
+    /** 呼叫端需持有 entries 鎖 */
+    private void evictIfNeeded(long maxBytes) {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && entries.size() > 1 && it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            it.remove();
+            totalBytes -= eldest.size();
+            deleteQuietly(eldest.file());
+        }
+    }
+
+    /** 呼叫端需持有 entries 鎖 */
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            totalBytes -= entry.size();
+            deleteQuietly(entry.file());
+        }
+    }
+
+    private boolean isExpired(Entry entry) {
+        Duration ttl = config.getTtl();
+        return ttl != null && System.nanoTime() - entry.createdAtNanos() > ttl.toNanos();
+    }
+
+    // ================================
+    // 快取鍵
+    // ================================
+    private String key(ExportResource resource, Object filters, Pageable pageable,
+                       ExportFormat format, ExportScope scope) {
+        StringBuilder sb = new StringBuilder()
+                .append(resource.getKey())
+                .append('|').append(canonicalFilters(filters))
+                .append('|').append(scope);
+        if (scope == ExportScope.PAGE && pageable != null && pageable.isPaged()) {
+            sb.append('|').append(pageable.getPageNumber()).append('x').append(pageable.getPageSize());
+        }
+        sb.append('|').append(pageable != null ? pageable.getSort() : "UNSORTED")
+                .append('|').append(format)
+                .append('|').append(dataVersions.versionOf(resource));
+        if (resource.dependsOnToday()) {
+            sb.append('|').append(LocalDate.now());
+        }
+        return sha256(sb.toString());
+    }
+
+    /**
+     * 篩選條件正規化：欄位依名稱排序，略過 null 與空白字串，使等價的條件得到相同的鍵
+     */
+    String canonicalFilters(Object filters) {
+        if (filters == null) {
+            return "{}";
+        }
+        try {
+            Object canonical = canonical(objectMapper.convertValue(filters, Object.class));
+            return objectMapper.writeValueAsString(canonical == null ? Map.of() : canonical);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            // 無法正規化時退回 toString（DTO 皆為 Lombok @Data / record）
+            return String.valueOf(filters);
+        }
+    }
+
+    private static Object canonical(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> sorted = new TreeMap<>();
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                Object v = canonical(e.getValue());
+                if (v != null) {
+                    sorted.put(String.valueOf(e.getKey()), v);
+                }
+            }
+            return sorted.isEmpty() ? null : sorted;
+        }
+        if (value instanceof List<?> list) {
+            return list.isEmpty() ? null : list.stream().map(ExportResultCache::canonical).toList();
+        }
+        if (value instanceof String text) {
+            return text.isBlank() ? null : text;
+        }
+        return value;
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // ================================
+    // 檔案
+    // ================================
+    private static Path resolveDir(String configured) {
+        Path path = configured == null || configured.isBlank()
+                ? Path.of(System.getProperty("java.io.tmpdir"), "lianhua-export-cache")
+                : Path.of(configured);
+        try {
+            Files.createDirectories(path);
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(path)) {
+                for (Path file : leftovers) {
+                    if (Files.isRegularFile(file)) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("無法建立匯出快取目錄：" + path, e);
+        }
+        return path;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("⚠️ [ExportCache] 無法刪除快取檔：{}，{}", file, e.toString());
+        }
+    }
+
+    /**
+     * 同時寫入回應與快取檔；回應端失敗（用戶端中斷）後只繼續寫快取檔，讓等待者仍能取得完整結果
+     */
+    private static final class TeeOutputStream extends OutputStream {
+        private final OutputStream client;
+        private final OutputStream file;
+        private boolean clientGone;
+
+        TeeOutputStream(OutputStream client, OutputStream file) {
+            this.client = client;
+            this.file = file;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            file.write(b);
+            if (!clientGone) {
+                try {
+                    client.write(b);
+                } catch (IOException e) {
+                    detach(e);
+                }
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            file.write(b, off, len);
+            if (!clientGone) {
+                try {
+                    client.write(b, off, len);
+                } catch (IOException e) {
+                    detach(e);
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            file.flush();
+            if (!clientGone) {
+                try {
+                    client.flush();
+                } catch (IOException e) {
+                    detach(e);
+                }
+            }
+        }
+
+        private void detach(IOException e) {
+            clientGone = true;
+            log.debug("📤 [ExportCache] 用戶端已中斷，繼續寫完快取檔：{}", e.toString());
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package com.lianhua.erp.export;
+
+import com.lianhua.erp.config.ExportProperties;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.Metamodel;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.data.mapping.PropertyReferenceException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * 匯出列的分批拉取：
+ * 1) 第一批由呼叫端在自身交易內查好（排序欄位錯誤、筆數上限等可在回應開始前回報 400）
+ * 2) 之後每批於寫出回應時才查詢，各自一個唯讀交易並在交易內轉成字串列，記憶體只保留一批
+ *
+ * 📌 實體查詢使用 {@link #seek}（keyset）：以「上一批最後一列的排序鍵 + id」為起點，
+ * 每批都是走索引的 LIMIT 查詢，不帶 OFFSET、也不重複執行 count。
+ * {@link #rows} 為 OFFSET 分頁，保留給無法以條件續查的彙總查詢（例如帳齡）。
+ * 以 {@link ExportProjection} 呼叫 seek 時改查扁平欄位（Tuple），每批只有一次 SQL。
+ */
+@Component
+public class ExportRowPager {
+
+    private final TransactionTemplate readOnlyTx;
+    private final int batchSize;
+    private final Metamodel metamodel;
+    private final Map<Class<?>, String> idAttributes = new ConcurrentHashMap<>();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ExportRowPager(PlatformTransactionManager transactionManager, ExportProperties exportProperties,
+                          EntityManagerFactory entityManagerFactory) {
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.batchSize = Math.max(1, exportProperties.getStream().getBatchSize());
+        this.metamodel = entityManagerFactory.getMetamodel();
+    }
+
+    /**
+     * 一批查詢結果：已轉好的匯出列，以及續查起點（最後一列的排序鍵；null 表示已無下一批）
+     */
+    private record Batch(List<String[]> rows, List<Object> lastKey) {
+    }
+
+    /**
+     * 每批查詢筆數（app.export.stream.batch-size）
+     */
+    public int batchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @param first  第一頁（頁碼 0）的查詢結果
+     * @param fetch  依頁碼查詢後續頁；於唯讀交易內呼叫
+     * @param mapper 實體轉匯出列；於同一交易內呼叫，可安全存取延遲載入的關聯
+     */
+    public <E> Iterator<String[]> rows(Page<E> first, IntFunction<Page<E>> fetch,
+                                       Function<? super E, String[]> mapper) {
+        List<String[]> firstRows = first.getContent().stream().<String[]>map(mapper).toList();
+        int totalPages = first.getTotalPages();
+
+        return new Iterator<>() {
+            private Iterator<String[]> current = firstRows.iterator();
+            private int nextPage = 1;
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && nextPage < totalPages) {
+                    int page = nextPage++;
+                    List<String[]> rows = readOnlyTx.execute(status ->
+                            fetch.apply(page).getContent().stream().<String[]>map(mapper).toList());
+                    current = rows != null ? rows.iterator() : Collections.emptyIterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public String[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    /**
+     * 以 keyset 分批匯出符合 spec 的實體；呼叫端應先自行 count 並檢查筆數上限（整次匯出只 count 一次）。
+     *
+     * @param sort   匯出排序；未包含 id 時自動補上 id（與最後一個排序欄位同向）作為同值排序的決勝鍵
+     * @param mapper 實體轉匯出列；於查詢所在交易內呼叫，可安全存取延遲載入的關聯
+     * @throws PropertyReferenceException 排序欄位不存在（於第一批查詢前即拋出）
+     */
+    public <E> Iterator<String[]> seek(JpaSpecificationExecutor<E> repository, Class<E> entityClass,
+                                       Specification<E> spec, Sort sort,
+                                       Function<? super E, String[]> mapper) {
+        Sort keysetSort = withIdTiebreaker(sort, entityClass);
+        for (Sort.Order order : keysetSort) {
+            PropertyPath.from(order.getProperty(), entityClass);
+        }
+
+        Batch first = fetchBatch(repository, entityClass, spec, keysetSort, null, mapper);
+
+        return new Iterator<>() {
+            private Iterator<String[]> current = first.rows().iterator();
+            private List<Object> lastKey = first.lastKey();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && lastKey != null) {
+                    List<Object> after = lastKey;
+                    Batch batch = readOnlyTx.execute(status ->
+                            fetchBatch(repository, entityClass, spec, keysetSort, after, mapper));
+                    if (batch == null) {
+                        break;
+                    }
+                    current = batch.rows().iterator();
+                    lastKey = batch.lastKey();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public String[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    private <E> Batch fetchBatch(JpaSpecificationExecutor<E> repository, Class<E> entityClass,
+                                 Specification<E> spec, Sort sort, List<Object> after,
+                                 Function<? super E, String[]> mapper) {
+        Specification<E> effective = after == null
+                ? Specification.where(spec)
+                : Specification.where(spec).and(seekAfter(entityClass, sort, after));
+
+        List<E> entities = repository.<E, List<E>>findBy(effective,
+                query -> query.sortBy(sort).limit(batchSize).all());
+
+        List<String[]> rows = entities.stream().<String[]>map(mapper).toList();
+        List<Object> lastKey = entities.size() < batchSize
+                ? null
+                : readKey(entities.get(entities.size() - 1), sort);
+        return new Batch(rows, lastKey);
+    }
+
+    /**
+     * 以 keyset 分批匯出符合 spec 的資料，但只查投影欄位（不載入實體）；
+     * 排序鍵附加在投影欄位之後一起查回，作為下一批的續查起點。
+     *
+     * @param projection 匯出欄位與轉列方式
+     * @throws PropertyReferenceException 排序欄位不存在（於第一批查詢前即拋出）
+     */
+    public <E> Iterator<String[]> seek(Class<E> entityClass, Specification<E> spec, Sort sort,
+                                       ExportProjection<E> projection) {
+        Sort keysetSort = withIdTiebreaker(sort, entityClass);
+        for (Sort.Order order : keysetSort) {
+            PropertyPath.from(order.getProperty(), entityClass);
+        }
+
+        Batch first = fetchProjectedBatch(entityClass, spec, keysetSort, null, projection);
+
+        return new Iterator<>() {
+            private Iterator<String[]> current = first.rows().iterator();
+            private List<Object> lastKey = first.lastKey();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && lastKey != null) {
+                    List<Object> after = lastKey;
+                    Batch batch = readOnlyTx.execute(status ->
+                            fetchProjectedBatch(entityClass, spec, keysetSort, after, projection));
+                    if (batch == null) {
+                        break;
+                    }
+                    current = batch.rows().iterator();
+                    lastKey = batch.lastKey();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public String[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    /**
+     * 單頁投影查詢（匯出當前頁）：與列表相同的 page / size / sort，但只查匯出欄位
+     */
+    public <E> Iterator<String[]> page(Class<E> entityClass, Specification<E> spec, Pageable pageable,
+                                       ExportProjection<E> projection) {
+        for (Sort.Order order : pageable.getSort()) {
+            PropertyPath.from(order.getProperty(), entityClass);
+        }
+        TupleQuery<E> q = tupleQuery(entityClass, spec, pageable.getSort(), null, projection);
+        return entityManager.createQuery(q.query())
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList().stream()
+                .map(projection::toRow)
+                .toList()
+                .iterator();
+    }
+
+    private record TupleQuery<E>(CriteriaQuery<Tuple> query, int keyOffset) {
+    }
+
+    private <E> Batch fetchProjectedBatch(Class<E> entityClass, Specification<E> spec, Sort sort,
+                                          List<Object> after, ExportProjection<E> projection) {
+        TupleQuery<E> q = tupleQuery(entityClass, spec, sort, after, projection);
+        List<Tuple> tuples = entityManager.createQuery(q.query()).setMaxResults(batchSize).getResultList();
+
+        List<String[]> rows = tuples.stream().<String[]>map(projection::toRow).toList();
+        List<Object> lastKey = null;
+        if (tuples.size() >= batchSize) {
+            Tuple last = tuples.get(tuples.size() - 1);
+            lastKey = new ArrayList<>();
+            for (int i = 0; i < sort.toList().size(); i++) {
+                lastKey.add(last.get(q.keyOffset() + i));
+            }
+        }
+        return new Batch(rows, lastKey);
+    }
+
+    /**
+     * 組出 Tuple 查詢：篩選（spec + 續查條件）→ 投影欄位 → 排序鍵欄位 → ORDER BY
+     */
+    private <E> TupleQuery<E> tupleQuery(Class<E> entityClass, Specification<E> spec, Sort sort,
+                                         List<Object> after, ExportProjection<E> projection) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<E> root = query.from(entityClass);
+
+        Specification<E> effective = after == null
+                ? Specification.where(spec)
+                : Specification.where(spec).and(seekAfter(entityClass, sort, after));
+        Predicate predicate = effective.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        List<Selection<?>> selections = new ArrayList<>(projection.select(root, query, cb));
+        int keyOffset = selections.size();
+        for (Sort.Order order : sort) {
+            selections.add(path(root, order.getProperty()));
+        }
+        query.multiselect(selections);
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        return new TupleQuery<>(query, keyOffset);
+    }
+
+    /**
+     * 補上 id 決勝鍵，方向與最後一個排序欄位相同：
+     * 二級索引本身即依（欄位, 主鍵）排序，同向時可直接沿索引續查；方向混用（例如 occurredAt DESC, id ASC）
+     * 會讓每一批都對剩餘範圍 filesort，整次匯出退化為 O(n²)。
+     */
+    private Sort withIdTiebreaker(Sort sort, Class<?> entityClass) {
+        String id = idAttributes.computeIfAbsent(entityClass, type -> {
+            EntityType<?> entityType = metamodel.entity(type);
+            return entityType.getId(entityType.getIdType().getJavaType()).getName();
+        });
+        Sort safe = sort == null ? Sort.unsorted() : sort;
+        if (safe.getOrderFor(id) != null) {
+            return safe;
+        }
+        Sort.Direction direction = safe.stream().reduce((a, b) -> b)
+                .map(Sort.Order::getDirection)
+                .orElse(Sort.Direction.ASC);
+        return safe.and(Sort.by(direction, id));
+    }
+
+    /**
+     * 「排在 key 之後」的條件：(k1 之後) OR (k1 相等 AND k2 之後) OR ...
+     * NULL 的位置依 MySQL 預設（ASC 在最前、DESC 在最後），或排序指定的 NULLS FIRST / LAST。
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static <E> Specification<E> seekAfter(Class<E> entityClass, Sort sort, List<Object> key) {
+        return (root, query, cb) -> {
+            List<Predicate> alternatives = new ArrayList<>();
+            List<Predicate> equalSoFar = new ArrayList<>();
+            int i = 0;
+            for (Sort.Order order : sort) {
+                Expression x = path(root, order.getProperty());
+                Comparable value = (Comparable) key.get(i++);
+                if (order.isIgnoreCase() && value instanceof String text) {
+                    x = cb.upper(x.as(String.class));
+                    value = text.toUpperCase();
+                }
+
+                Predicate after = afterPredicate(cb, x, value, order);
+                if (after != null) {
+                    List<Predicate> parts = new ArrayList<>(equalSoFar);
+                    parts.add(after);
+                    alternatives.add(cb.and(parts.toArray(Predicate[]::new)));
+                }
+                equalSoFar.add(value == null ? cb.isNull(x) : cb.equal(x, value));
+            }
+            return alternatives.isEmpty() ? cb.disjunction() : cb.or(alternatives.toArray(Predicate[]::new));
+        };
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static Predicate afterPredicate(CriteriaBuilder cb, Expression x, Comparable value, Sort.Order order) {
+        boolean nullsFirst = switch (order.getNullHandling()) {
+            case NULLS_FIRST -> true;
+            case NULLS_LAST -> false;
+            case NATIVE -> order.isAscending();
+        };
+        if (value == null) {
+            // NULL 排最前：之後是所有非 NULL；NULL 排最後：NULL 之後沒有任何值
+            return nullsFirst ? cb.isNotNull(x) : null;
+        }
+        Predicate beyond = order.isAscending() ? cb.greaterThan(x, value) : cb.lessThan(x, value);
+        return nullsFirst ? beyond : cb.or(beyond, cb.isNull(x));
+    }
+
+    /**
+     * 屬性路徑（可含關聯，如 supplier.name）；關聯以 LEFT JOIN 取得，
+     * 同一查詢內的排序、續查條件與投影欄位共用同一個 join
+     */
+    public static <T> Expression<T> path(From<?, ?> root, String property) {
+        String[] segments = property.split("\\.");
+        From<?, ?> from = root;
+        for (int i = 0; i < segments.length - 1; i++) {
+            String segment = segments[i];
+            From<?, ?> existing = null;
+            for (Join<?, ?> join : from.getJoins()) {
+                if (join.getAttribute().getName().equals(segment) && join.getJoinType() == JoinType.LEFT) {
+                    existing = join;
+                    break;
+                }
+            }
+            from = existing != null ? existing : from.join(segment, JoinType.LEFT);
+        }
+        return from.get(segments[segments.length - 1]);
+    }
+
+    private static List<Object> readKey(Object entity, Sort sort) {
+        List<Object> key = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Object value = entity;
+            for (String segment : order.getProperty().split("\\.")) {
+                if (value == null) {
+                    break;
+                }
+                value = PropertyAccessorFactory.forBeanPropertyAccess(value).getPropertyValue(segment);
+            }
+            key.add(value);
+        }
+        return key;
+    }
+}
@@ -0,0 +1,57 @@
+package com.lianhua.erp.export;
+
+import com.lianhua.erp.dto.export.StreamingExportPayload;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/**
+ * 串流匯出的組裝與 HTTP 回應。
+ */
+@Slf4j
+public final class ExportStreams {
+
+    private ExportStreams() {
+    }
+
+    /**
+     * 表格式串流匯出：回應寫出時才自 rows 逐列拉取並寫入。
+     *
+     * @param resourcePrefix 檔名前綴（見 {@link ExportFilenameUtils}）
+     */
+    public static StreamingExportPayload tabular(String resourcePrefix, String sheetName, ExportFormat format,
+                                                 String[] headers, Iterator<String[]> rows) {
+        String filename = ExportFilenameUtils.build(resourcePrefix, format);
+        StreamingResponseBody body = out -> {
+            long startedAt = System.nanoTime();
+            try {
+                TabularExporter.write(format, out, sheetName, headers, ExportProgress.track(rows));
+            } catch (IOException | RuntimeException e) {
+                // 回應標頭已送出，無法再改狀態碼；記錄後中止連線，用戶端會收到不完整的檔案
+                log.warn("⚠️ [Export] 串流匯出中斷：file={}, error={}", filename, e.toString());
+                throw e;
+            }
+            log.debug("📤 [Export] 串流匯出完成：file={}, elapsedMs={}", filename,
+                    (System.nanoTime() - startedAt) / 1_000_000);
+        };
+        return new StreamingExportPayload(filename, format.mediaType(), body);
+    }
+
+    public static ResponseEntity<StreamingResponseBody> toResponse(StreamingExportPayload payload) {
+        ContentDisposition disposition = ContentDisposition.builder("attachment")
+                .filename(payload.filename(), StandardCharsets.UTF_8)
+                .build();
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .contentType(MediaType.parseMediaType(payload.mediaType()))
+                .body(payload.body());
+    }
+}
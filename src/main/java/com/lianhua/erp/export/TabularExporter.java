@@ -11,76 +11,148 @@ import org.apache.poi.ss.usermodel.VerticalAlignment;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.IndexedColors;
 import org.apache.poi.ss.usermodel.BorderStyle;
-import org.apache.poi.xssf.streaming.SXSSFSheet;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
+import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Objects;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 /**
  * 將表格式資料（表頭 + 每列字串陣列）寫成 xlsx 或 CSV。
+ * 可一次給定全部列（回傳 byte[]），或以 Iterator 逐列拉取並直接寫入輸出串流（記憶體用量固定）。
  */
 public final class TabularExporter {
 
     private static final short LIANHUA_GREEN = IndexedColors.GREEN.getIndex();
-    private static final int AUTO_SIZE_ROW_THRESHOLD = 2000;
-    /**
-     * 大量列時取樣筆數，用於估算欄寬（避免全表掃描）。
-     */
-    private static final int WIDTH_SAMPLE_ROW_CAP = 800;
-    /** Excel 欄寬上限（POI：字元寬度 × 256） */
-    private static final int MAX_COL_WIDTH_UNITS = 255 * 256;
-    /** 中日文等欄位最小「顯示單位」對應欄寬（字元）之下限，避免表頭被截成「…」 */
-    private static final int MIN_WIDTH_CHARS_FLOOR = 16;
-    /** 在內容估算寬度上再預留的字元數 */
-    private static final int WIDTH_PADDING_CHARS = 6;
+    /** SXSSF 保留在記憶體中的列數，超過即寫入暫存檔 */
+    private static final int ROW_ACCESS_WINDOW = 200;
+    private static final int CSV_BUFFER_CHARS = 64 * 1024;
 
     private TabularExporter() {
     }
 
     public static byte[] toXlsx(String sheetName, String[] headers, List<String[]> rows) {
-        String safeName = sheetName == null || sheetName.isBlank()
-                ? "Sheet1"
-                : sheetName.substring(0, Math.min(31, sheetName.length()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            writeXlsx(out, sheetName, headers, rows.iterator());
+        } catch (IOException e) {
+            throw new IllegalStateException("無法產生 Excel 檔", e);
+        }
+        return out.toByteArray();
+    }
 
-        try (SXSSFWorkbook wb = new SXSSFWorkbook(200); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+    /**
+     * 依格式將表格逐列寫入輸出串流（不關閉 out）。
+     */
+    public static void write(ExportFormat format, OutputStream out, String sheetName, String[] headers,
+                             Iterator<String[]> rows) throws IOException {
+        switch (format) {
+            case XLSX -> writeXlsx(out, sheetName, headers, rows);
+            case CSV -> writeCsvUtf8Bom(out, headers, rows);
+        }
+    }
+
+    /**
+     * 逐列寫出 xlsx：工作表只在記憶體保留最近 {@value #ROW_ACCESS_WINDOW} 列，其餘寫入暫存檔，
+     * 記憶體用量與總列數無關。欄寬於寫入時順便統計（見 {@link ColumnWidthEstimator}），不另行掃描。
+     */
+    public static void writeXlsx(OutputStream out, String sheetName, String[] headers,
+                                 Iterator<String[]> rows) throws IOException {
+        SXSSFWorkbook wb = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+        try {
+            wb.setCompressTempFiles(true);
+            writeSheet(wb, sheetName, headers, rows, createHeaderStyle(wb), createBodyStyle(wb));
+            wb.write(out);
+            out.flush();
+        } finally {
+            wb.close();
+            wb.dispose();
+        }
+    }
+
+    /**
+     * 多張表寫成同一個 xlsx（依 sheets 順序，一表一個工作表，共用樣式）。
+     */
+    public static byte[] toXlsx(List<TabularSheet> sheets) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SXSSFWorkbook wb = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+        try {
             wb.setCompressTempFiles(true);
-            Sheet sh = wb.createSheet(safeName);
-            if (sh instanceof SXSSFSheet sxssfSheet) {
-                sxssfSheet.trackAllColumnsForAutoSizing();
-            }
             CellStyle headerStyle = createHeaderStyle(wb);
             CellStyle bodyStyle = createBodyStyle(wb);
-
-            int r = 0;
-            Row headerRow = sh.createRow(r++);
-            for (int c = 0; c < headers.length; c++) {
-                Cell cell = headerRow.createCell(c);
-                cell.setCellValue(headers[c] == null ? "" : headers[c]);
-                cell.setCellStyle(headerStyle);
-            }
-            for (String[] row : rows) {
-                Row dataRow = sh.createRow(r++);
-                for (int c = 0; c < headers.length; c++) {
-                    String v = c < row.length && row[c] != null ? row[c] : "";
-                    Cell cell = dataRow.createCell(c);
-                    cell.setCellValue(v);
-                    cell.setCellStyle(bodyStyle);
-                }
+            for (TabularSheet sheet : sheets) {
+                writeSheet(wb, sheet.name(), sheet.headers(), sheet.rows().iterator(), headerStyle, bodyStyle);
             }
-
-            // 固定表頭，捲動時仍可辨識欄位。
-            sh.createFreezePane(0, 1);
-            adjustColumns(sh, headers, rows);
-
             wb.write(out);
-            return out.toByteArray();
         } catch (IOException e) {
             throw new IllegalStateException("無法產生 Excel 檔", e);
+        } finally {
+            try {
+                wb.close();
+            } catch (IOException ignored) {
+                // 已寫入 ByteArrayOutputStream，關閉失敗不影響結果
+            }
+            wb.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 多張表各寫成一個 CSV（UTF-8 含 BOM，檔名為 name.csv），打包為 zip。
+     */
+    public static byte[] toCsvZip(List<TabularSheet> sheets) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8)) {
+            for (TabularSheet sheet : sheets) {
+                zip.putNextEntry(new ZipEntry(sheet.name() + ".csv"));
+                writeCsvUtf8Bom(zip, sheet.headers(), sheet.rows().iterator());
+                zip.closeEntry();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("無法產生 CSV 壓縮檔", e);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeSheet(SXSSFWorkbook wb, String sheetName, String[] headers, Iterator<String[]> rows,
+                                   CellStyle headerStyle, CellStyle bodyStyle) {
+        String safeName = sheetName == null || sheetName.isBlank()
+                ? "Sheet" + (wb.getNumberOfSheets() + 1)
+                : sheetName.substring(0, Math.min(31, sheetName.length()));
+
+        Sheet sh = wb.createSheet(safeName);
+        ColumnWidthEstimator widths = new ColumnWidthEstimator(headers.length);
+        int r = 0;
+        Row headerRow = sh.createRow(r++);
+        for (int c = 0; c < headers.length; c++) {
+            Cell cell = headerRow.createCell(c);
+            cell.setCellValue(headers[c] == null ? "" : headers[c]);
+            cell.setCellStyle(headerStyle);
+            widths.accept(c, headers[c]);
+        }
+        while (rows.hasNext()) {
+            String[] row = rows.next();
+            Row dataRow = sh.createRow(r++);
+            for (int c = 0; c < headers.length; c++) {
+                String v = row != null && c < row.length && row[c] != null ? row[c] : "";
+                Cell cell = dataRow.createCell(c);
+                cell.setCellValue(v);
+                cell.setCellStyle(bodyStyle);
+                widths.accept(c, v);
+            }
         }
+
+        // 固定表頭，捲動時仍可辨識欄位。
+        sh.createFreezePane(0, 1);
+        widths.applyTo(sh);
     }
 
     private static CellStyle createHeaderStyle(Workbook wb) {
@@ -112,111 +184,33 @@ public final class TabularExporter {
         return style;
     }
 
-    private static void adjustColumns(Sheet sh, String[] headers, List<String[]> rows) {
-        int rowCount = rows == null ? 0 : rows.size();
-        if (rowCount <= AUTO_SIZE_ROW_THRESHOLD) {
-            autoSizeColumns(sh, headers, rows);
-            return;
-        }
-        fallbackColumnWidth(sh, headers, rows);
-    }
-
     /**
-     * 粗略估算儲存格在 Excel 中的「顯示寬度」：CJK 等全形字元權重 2，ASCII 數字等權重 1。
-     * （POI autoSize 對中文常低估，需手動補足。）
+     * UTF-8 含 BOM，便於 Excel 直接開啟中文欄位。
      */
-    private static int estimateDisplayWidthUnits(String s) {
-        if (s == null || s.isEmpty()) {
-            return 0;
-        }
-        int units = 0;
-        for (int i = 0; i < s.length(); i++) {
-            char ch = s.charAt(i);
-            if (isWideChar(ch)) {
-                units += 2;
-            } else {
-                units += 1;
-            }
-        }
-        return units;
-    }
-
-    private static boolean isWideChar(char ch) {
-        if (ch >= 0x4E00 && ch <= 0x9FFF) {
-            return true;
-        }
-        if (ch >= 0x3400 && ch <= 0x4DBF) {
-            return true;
-        }
-        if (ch >= 0xAC00 && ch <= 0xD7AF) {
-            return true;
-        }
-        if (ch >= 0x3000 && ch <= 0x303F) {
-            return true;
-        }
-        return ch > 0x00FF;
-    }
-
-    private static int maxContentDisplayUnits(String[] headers, List<String[]> rows, int col) {
-        String h = headers != null && col < headers.length ? headers[col] : "";
-        int max = estimateDisplayWidthUnits(h);
-        if (rows == null || rows.isEmpty()) {
-            return max;
-        }
-        int limit = Math.min(rows.size(), WIDTH_SAMPLE_ROW_CAP);
-        for (int r = 0; r < limit; r++) {
-            String[] row = rows.get(r);
-            String v = row != null && col < row.length && row[col] != null ? row[col] : "";
-            max = Math.max(max, estimateDisplayWidthUnits(v));
-        }
-        return max;
-    }
-
-    private static int toPoiWidthChars(int displayUnits) {
-        int chars = displayUnits + WIDTH_PADDING_CHARS;
-        chars = Math.max(chars, MIN_WIDTH_CHARS_FLOOR);
-        // 長字串（如「合計 (yyyy-MM-dd ~ yyyy-MM-dd)」）需要較高上限
-        chars = Math.min(chars, 100);
-        return chars * 256;
-    }
-
-    private static void autoSizeColumns(Sheet sh, String[] headers, List<String[]> rows) {
-        Objects.requireNonNull(rows, "rows");
-        int columnCount = headers == null ? 0 : headers.length;
-        for (int c = 0; c < columnCount; c++) {
-            sh.autoSizeColumn(c);
-            int autoBased = sh.getColumnWidth(c);
-
-            int contentUnits = maxContentDisplayUnits(headers, rows, c);
-            int minFromContent = toPoiWidthChars(contentUnits);
-
-            // 在 autoSize 結果上再加寬，並以「表頭＋資料」估算為下限
-            int padded = autoBased + 8 * 256;
-            int width = Math.max(padded, minFromContent);
-            sh.setColumnWidth(c, Math.min(width, MAX_COL_WIDTH_UNITS));
-        }
-    }
-
-    private static void fallbackColumnWidth(Sheet sh, String[] headers, List<String[]> rows) {
-        int columnCount = headers == null ? 0 : headers.length;
-        for (int c = 0; c < columnCount; c++) {
-            int contentUnits = maxContentDisplayUnits(headers, rows, c);
-            int width = Math.min(toPoiWidthChars(contentUnits), MAX_COL_WIDTH_UNITS);
-            sh.setColumnWidth(c, width);
+    public static byte[] toCsvUtf8Bom(String[] headers, List<String[]> rows) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            writeCsvUtf8Bom(out, headers, rows.iterator());
+        } catch (IOException e) {
+            throw new IllegalStateException("無法產生 CSV 檔", e);
         }
+        return out.toByteArray();
     }
 
     /**
-     * UTF-8 含 BOM，便於 Excel 直接開啟中文欄位。
+     * 逐列寫出 CSV（UTF-8 含 BOM），經緩衝後直接寫入輸出串流（不關閉 out）。
      */
-    public static byte[] toCsvUtf8Bom(String[] headers, List<String[]> rows) {
-        StringBuilder sb = new StringBuilder();
-        sb.append('\uFEFF');
-        sb.append(line(headers)).append('\n');
-        for (String[] row : rows) {
-            sb.append(line(row, headers.length)).append('\n');
-        }
-        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    public static void writeCsvUtf8Bom(OutputStream out, String[] headers, Iterator<String[]> rows) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), CSV_BUFFER_CHARS);
+        writer.write('\uFEFF');
+        writer.write(line(headers));
+        writer.write('\n');
+        while (rows.hasNext()) {
+            String[] row = rows.next();
+            writer.write(line(row == null ? new String[0] : row, headers.length));
+            writer.write('\n');
+        }
+        writer.flush();
     }
 
     private static String line(String[] cells) {
@@ -0,0 +1,9 @@
+package com.lianhua.erp.export;
+
+import java.util.List;
+
+/**
+ * 多工作表匯出的一張表：name 為工作表名稱（CSV 壓縮檔則為檔名）。
+ */
+public record TabularSheet(String name, String[] headers, List<String[]> rows) {
+}
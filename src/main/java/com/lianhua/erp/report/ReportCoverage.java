@@ -0,0 +1,90 @@
+package com.lianhua.erp.report;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * 報表結果所依賴的會計期間範圍：只有單據異動落在範圍內時，快取結果才需要失效。
+ * from / to 為 null 表示該端不設限（例如資產負債表為「截至期末」的累計值，涵蓋所有更早期間）。
+ * 日期或期間無法解析時一律視為不設限，寧可多失效也不回傳過期結果。
+ */
+public record ReportCoverage(YearMonth from, YearMonth to) {
+
+    public static final ReportCoverage ALL = new ReportCoverage(null, null);
+
+    /**
+     * 期間報表：單一期間，或起迄日期區間；皆未指定時為全部期間
+     */
+    public static ReportCoverage periodOrRange(String period, String startDate, String endDate) {
+        if (period != null && !period.isBlank()) {
+            YearMonth ym = parse(period);
+            return new ReportCoverage(ym, ym);
+        }
+        if (startDate != null && !startDate.isBlank() && endDate != null && !endDate.isBlank()) {
+            return new ReportCoverage(parse(startDate), parse(endDate));
+        }
+        return ALL;
+    }
+
+    /**
+     * 時點（累計）報表：截至 endDate，未指定時截至 period 月底
+     */
+    public static ReportCoverage through(String period, String endDate) {
+        String until = endDate != null && !endDate.isBlank() ? endDate : period;
+        return new ReportCoverage(null, until != null && !until.isBlank() ? parse(until) : null);
+    }
+
+    /**
+     * 多期間期間報表：最早 ~ 最晚期間
+     */
+    public static ReportCoverage periods(List<String> periods) {
+        YearMonth[] bounds = bounds(periods);
+        return bounds == null ? ALL : new ReportCoverage(bounds[0], bounds[1]);
+    }
+
+    /**
+     * 多期間時點報表：截至最晚期間
+     */
+    public static ReportCoverage throughPeriods(List<String> periods) {
+        YearMonth[] bounds = bounds(periods);
+        return bounds == null ? ALL : new ReportCoverage(null, bounds[1]);
+    }
+
+    public boolean covers(YearMonth month) {
+        return (from == null || !month.isBefore(from)) && (to == null || !month.isAfter(to));
+    }
+
+    private static YearMonth[] bounds(List<String> periods) {
+        if (periods == null || periods.isEmpty()) {
+            return null;
+        }
+        YearMonth min = null;
+        YearMonth max = null;
+        for (String p : periods) {
+            if (p == null || p.isBlank()) {
+                continue;
+            }
+            YearMonth ym = parse(p);
+            if (ym == null) {
+                return null;
+            }
+            min = min == null || ym.isBefore(min) ? ym : min;
+            max = max == null || ym.isAfter(max) ? ym : max;
+        }
+        return min == null ? null : new YearMonth[]{min, max};
+    }
+
+    /**
+     * 接受 yyyy-MM 或 yyyy-MM-dd；無法解析時回傳 null
+     */
+    private static YearMonth parse(String value) {
+        String v = value.trim();
+        try {
+            return v.length() > 7 ? YearMonth.from(LocalDate.parse(v)) : YearMonth.parse(v);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.lianhua.erp.report;
+
+import com.lianhua.erp.dto.report.ReportCacheStatsDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 📑 財務報表結果快取
+ * 1) 以「報表種類 + 查詢參數」為鍵保存完整結果（含合計列），項目數有上限，超過時淘汰最久未使用者
+ * 2) 每筆結果記錄其依賴的會計期間範圍；單據異動於交易提交後，只使涵蓋該期間的結果失效
+ * 3) 查詢期間若有任何失效發生，該次結果不寫入快取，避免把異動前的資料存回去
+ */
+@Slf4j
+@Component
+public class ReportResultCache {
+
+    @Value("${app.report-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.report-cache.max-entries:300}")
+    private int maxEntries;
+
+    /** 存活上限：涵蓋未經 touch 的異動（例如直接修改資料庫） */
+    @Value("${app.report-cache.ttl:30m}")
+    private Duration ttl;
+
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    // 每次失效遞增；查詢前後不同代表查詢期間可能有異動
+    private final AtomicLong invalidationEpoch = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private record Key(ReportType type, List<Object> params) {
+    }
+
+    private record Entry(Object value, ReportCoverage coverage, long loadedAtNanos) {
+    }
+
+    /**
+     * 取得報表結果；未命中時同步查詢並寫入快取。
+     * 回傳新的 List（元素與快取共用），呼叫端可安全地增刪列。
+     *
+     * @param coverage 結果依賴的會計期間範圍
+     * @param params   影響結果的查詢參數
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> get(ReportType type, ReportCoverage coverage, Supplier<List<T>> loader, Object... params) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        Key key = new Key(type, keyParams(params));
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && !isExpired(entry)) {
+                hits.incrementAndGet();
+                return copy((List<T>) entry.value());
+            }
+        }
+
+        misses.incrementAndGet();
+        long epoch = invalidationEpoch.get();
+        List<T> value = loader.get();
+        if (value == null) {
+            return null;
+        }
+
+        List<T> stored = Collections.unmodifiableList(new ArrayList<>(value));
+        synchronized (entries) {
+            if (invalidationEpoch.get() == epoch) {
+                entries.put(key, new Entry(stored, coverage, System.nanoTime()));
+                evictIfNeeded();
+            }
+        }
+        return copy(stored);
+    }
+
+    /**
+     * 單據異動涉及的日期：於交易提交後使相關期間的結果失效（無交易時立即失效）
+     */
+    public void invalidateAfterCommit(LocalDate... dates) {
+        if (dates == null) {
+            return;
+        }
+        Set<YearMonth> months = new LinkedHashSet<>();
+        for (LocalDate date : dates) {
+            if (date != null) {
+                months.add(YearMonth.from(date));
+            }
+        }
+        if (months.isEmpty()) {
+            return;
+        }
+
+        afterCommit(() -> invalidate(months));
+    }
+
+    /**
+     * 影響整種報表的主檔異動：於交易提交後使該種報表全部失效（無交易時立即失效）
+     */
+    public void invalidateAfterCommit(ReportType type) {
+        afterCommit(() -> invalidate(type));
+    }
+
+    /**
+     * 使涵蓋任一指定期間的結果失效
+     */
+    public void invalidate(Set<YearMonth> months) {
+        invalidationEpoch.incrementAndGet();
+        int removed = removeIf(entry -> months.stream().anyMatch(entry.coverage()::covers));
+        log.debug("📑 [ReportCache] 期間 {} 有異動，失效 {} 筆報表結果", months, removed);
+    }
+
+    /**
+     * 使某一種報表的所有結果失效（例如費用類別名稱變更會影響綜合損益表明細）
+     */
+    public void invalidate(ReportType type) {
+        invalidationEpoch.incrementAndGet();
+        synchronized (entries) {
+            int before = entries.size();
+            entries.keySet().removeIf(k -> k.type() == type);
+            invalidations.addAndGet(before - entries.size());
+        }
+    }
+
+    public void invalidateAll() {
+        invalidationEpoch.incrementAndGet();
+        synchronized (entries) {
+            invalidations.addAndGet(entries.size());
+            entries.clear();
+        }
+    }
+
+    public ReportCacheStatsDto stats() {
+        long h = hits.get();
+        long m = misses.get();
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        double hitRate = h + m == 0 ? 0.0 : (double) h / (h + m);
+        return new ReportCacheStatsDto(enabled, size, maxEntries, h, m, evictions.get(), invalidations.get(),
+                Math.round(hitRate * 10000) / 100.0);
+    }
+
+    private int removeIf(Predicate<Entry> predicate) {
+        int removed = 0;
+        synchronized (entries) {
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                if (predicate.test(it.next())) {
+                    it.remove();
+                    removed++;
+                }
+            }
+        }
+        invalidations.addAndGet(removed);
+        return removed;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private boolean isExpired(Entry entry) {
+        return ttl != null && System.nanoTime() - entry.loadedAtNanos() > ttl.toNanos();
+    }
+
+    /** 呼叫端需持有 entries 鎖 */
+    private void evictIfNeeded() {
+        int limit = Math.max(1, maxEntries);
+        Iterator<Key> it = entries.keySet().iterator();
+        while (entries.size() > limit && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * 集合參數先複製一份，避免呼叫端之後修改而破壞快取鍵
+     */
+    private static List<Object> keyParams(Object[] params) {
+        List<Object> result = new ArrayList<>(params.length);
+        for (Object p : params) {
+            result.add(p instanceof List<?> list ? Collections.unmodifiableList(new ArrayList<>(list)) : p);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private static <T> List<T> copy(List<T> value) {
+        return new ArrayList<>(value);
+    }
+}
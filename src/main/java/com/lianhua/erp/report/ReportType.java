@@ -0,0 +1,13 @@
+package com.lianhua.erp.report;
+
+/**
+ * 財務報表種類（報表結果快取的分類單位）
+ */
+public enum ReportType {
+    PROFIT,                 // 損益報表（ReportService）
+    CASH_FLOW,              // 現金流量表
+    COMPREHENSIVE_INCOME,   // 綜合損益表
+    BALANCE_SHEET,          // 資產負債表
+    AR_SUMMARY,             // 應收帳款總表
+    AP_SUMMARY              // 應付帳款總表
+}
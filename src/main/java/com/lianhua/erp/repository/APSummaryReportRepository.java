@@ -9,10 +9,17 @@ import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.sql.Date;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
 
 /**
  * 📊 應付帳款財務總表 Repository (AP Summary - Financial View)
@@ -106,26 +113,103 @@ public class APSummaryReportRepository {
 
     /**
      * 批次取得多個月份的數據 (用於繪製趨勢圖)
+     *
+     * <p>單次掃描：依進貨月份分組後在記憶體內累加，每個期間取「截至該月底」的累計值；
+     * 不再逐月重跑整段累計查詢。回傳順序與傳入的 periods 相同。
      */
     public List<APSummaryReportDto> getSummaryList(List<String> periods) {
         List<APSummaryReportDto> result = new ArrayList<>();
         if (periods == null || periods.isEmpty()) {
             return result;
         }
+
+        TreeSet<YearMonth> months = new TreeSet<>();
         for (String period : periods) {
-            if (period != null && !period.isBlank()) {
-                try {
-                    // endDate 傳入 null，代表查詢該月整月 (直到月底)
-                    APSummaryReportDto dto = getSummary(period, null);
-                    result.add(dto);
-                } catch (Exception ex) {
-                    log.error("查詢期間 {} 失敗: {}", period, ex.getMessage());
-                }
+            YearMonth ym = parsePeriod(period);
+            if (ym != null) {
+                months.add(ym);
             }
         }
+
+        Map<YearMonth, APSummaryReportDto> cumulative = months.isEmpty()
+                ? Map.of()
+                : getCumulativeByMonth(months);
+
+        for (String period : periods) {
+            if (period == null || period.isBlank()) {
+                continue;
+            }
+            YearMonth ym = parsePeriod(period);
+            APSummaryReportDto totals = ym != null ? cumulative.get(ym) : null;
+            if (totals == null) {
+                // 格式錯誤或查詢失敗：與單期查詢相同，回傳零值
+                result.add(new APSummaryReportDto(period, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO));
+                continue;
+            }
+            result.add(new APSummaryReportDto(period,
+                    totals.getTotalPayable(), totals.getTotalPaid(), totals.getTotalOutstanding()));
+        }
         return result;
     }
 
+    /**
+     * 以一次分組查詢取得各月進貨小計，再累加出每個目標月份「截至月底」的總額
+     */
+    private Map<YearMonth, APSummaryReportDto> getCumulativeByMonth(NavigableSet<YearMonth> months) {
+        String sql = """
+            SELECT
+                DATE_FORMAT(p.purchase_date, '%Y-%m') AS purchase_month,
+                COALESCE(SUM(p.total_amount), 0) AS total_payable,
+                COALESCE(SUM(p.paid_amount), 0) AS total_paid,
+                COALESCE(SUM(p.balance), 0) AS total_outstanding
+            FROM purchases p
+            WHERE p.record_status = 'ACTIVE'
+              AND p.purchase_date <= ?
+            GROUP BY purchase_month
+            ORDER BY purchase_month
+            """;
+
+        List<APSummaryReportDto> monthly;
+        try {
+            monthly = jdbcTemplate.query(sql, (rs, rowNum) -> APSummaryReportDto.builder()
+                    .accountingPeriod(rs.getString("purchase_month"))
+                    .totalPayable(getDecimal(rs, "total_payable"))
+                    .totalPaid(getDecimal(rs, "total_paid"))
+                    .totalOutstanding(getDecimal(rs, "total_outstanding"))
+                    .build(), Date.valueOf(months.last().atEndOfMonth()));
+        } catch (Exception e) {
+            log.error("查詢應付帳款多期間總表發生錯誤 periods={}", months, e);
+            return Map.of();
+        }
+
+        Map<YearMonth, APSummaryReportDto> result = new HashMap<>();
+        BigDecimal payable = BigDecimal.ZERO;
+        BigDecimal paid = BigDecimal.ZERO;
+        BigDecimal outstanding = BigDecimal.ZERO;
+        int i = 0;
+        for (YearMonth target : months) {
+            while (i < monthly.size() && !YearMonth.parse(monthly.get(i).getAccountingPeriod()).isAfter(target)) {
+                APSummaryReportDto m = monthly.get(i++);
+                payable = payable.add(m.getTotalPayable());
+                paid = paid.add(m.getTotalPaid());
+                outstanding = outstanding.add(m.getTotalOutstanding());
+            }
+            result.put(target, new APSummaryReportDto(target.toString(), payable, paid, outstanding));
+        }
+        return result;
+    }
+
+    private YearMonth parsePeriod(String period) {
+        if (period == null || period.isBlank()) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(period.trim());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
     /* =============================================================
      * Private Helpers
      * ============================================================= */
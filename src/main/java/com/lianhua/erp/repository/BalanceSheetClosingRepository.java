@@ -0,0 +1,115 @@
+package com.lianhua.erp.repository;
+
+import com.lianhua.erp.dto.report.BalanceSheetClosingDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 💼 資產負債表期末結帳快照 Repository（balance_sheet_closings / period_close_state）
+ *
+ * 📌 不變式：
+ * - 快照一律自最早期間起連續存在（重新開啟時刪除該期間之後的全部快照）
+ * - 因此任何期末餘額都可由「最近一次快照 + 之後的異動」求得
+ */
+@Repository
+@RequiredArgsConstructor
+public class BalanceSheetClosingRepository {
+
+    private static final String SELECT_COLUMNS = """
+            SELECT accounting_period, period_end, accounts_receivable, accounts_payable, cash, closed_at
+            FROM balance_sheet_closings
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 期末日期不晚於 date 的最近一次快照
+     */
+    public Optional<BalanceSheetClosingDto> findLatestOnOrBefore(LocalDate date) {
+        return jdbcTemplate.query(SELECT_COLUMNS + """
+                WHERE period_end <= ?
+                ORDER BY period_end DESC
+                LIMIT 1
+                """, this::mapRow, Date.valueOf(date)).stream().findFirst();
+    }
+
+    public Optional<BalanceSheetClosingDto> findLatest() {
+        return jdbcTemplate.query(SELECT_COLUMNS + """
+                ORDER BY period_end DESC
+                LIMIT 1
+                """, this::mapRow).stream().findFirst();
+    }
+
+    public List<BalanceSheetClosingDto> findAll() {
+        return jdbcTemplate.query(SELECT_COLUMNS + "ORDER BY period_end", this::mapRow);
+    }
+
+    public void save(String period, LocalDate periodEnd, BigDecimal ar, BigDecimal ap, BigDecimal cash) {
+        jdbcTemplate.update("""
+                INSERT INTO balance_sheet_closings
+                  (accounting_period, period_end, accounts_receivable, accounts_payable, cash, closed_at)
+                VALUES (?, ?, ?, ?, ?, CURRENT_TIMESTAMP)
+                ON DUPLICATE KEY UPDATE
+                  period_end = VALUES(period_end),
+                  accounts_receivable = VALUES(accounts_receivable),
+                  accounts_payable = VALUES(accounts_payable),
+                  cash = VALUES(cash),
+                  closed_at = CURRENT_TIMESTAMP
+                """, period, Date.valueOf(periodEnd), ar, ap, cash);
+    }
+
+    /**
+     * 刪除期末日期不早於 date 的快照（含 date 所屬期間及之後所有期間）
+     */
+    public int deleteFrom(LocalDate date) {
+        return jdbcTemplate.update("DELETE FROM balance_sheet_closings WHERE period_end >= ?", Date.valueOf(date));
+    }
+
+    /**
+     * 遞增重新開啟序號；於寫入交易內執行，該列鎖會持有到交易結束
+     */
+    public void bumpReopenSeq() {
+        jdbcTemplate.update("UPDATE period_close_state SET reopen_seq = reopen_seq + 1 WHERE id = 1");
+    }
+
+    public long getReopenSeq() {
+        Long seq = jdbcTemplate.queryForObject("SELECT reopen_seq FROM period_close_state WHERE id = 1", Long.class);
+        return seq != null ? seq : 0L;
+    }
+
+    /**
+     * 以鎖定讀取取得最新序號：會等待尚未提交的重新開啟交易結束
+     */
+    public long lockReopenSeq() {
+        Long seq = jdbcTemplate.queryForObject(
+                "SELECT reopen_seq FROM period_close_state WHERE id = 1 FOR UPDATE", Long.class);
+        return seq != null ? seq : 0L;
+    }
+
+    private BalanceSheetClosingDto mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Timestamp closedAt = rs.getTimestamp("closed_at");
+        return new BalanceSheetClosingDto(
+                rs.getString("accounting_period"),
+                rs.getDate("period_end").toLocalDate(),
+                getDecimal(rs, "accounts_receivable"),
+                getDecimal(rs, "accounts_payable"),
+                getDecimal(rs, "cash"),
+                closedAt != null ? closedAt.toLocalDateTime() : null
+        );
+    }
+
+    private BigDecimal getDecimal(ResultSet rs, String column) throws SQLException {
+        BigDecimal value = rs.getBigDecimal(column);
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
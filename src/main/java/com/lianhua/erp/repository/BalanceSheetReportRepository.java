@@ -1,17 +1,28 @@
 package com.lianhua.erp.repository;
 
+import com.lianhua.erp.dto.report.BalanceSheetClosingDto;
 import com.lianhua.erp.dto.report.BalanceSheetReportDto;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.sql.Date;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
 
 /**
  * 💼 資產負債表（Balance Sheet - Snapshot）
@@ -30,12 +41,34 @@ import java.util.List;
  * - 現金 = 所有現金流入 - 所有現金流出（截至期末）
  * - 資產 = 現金 + 應收
  * - 權益 = 資產 - 負債
+ *
+ * 📌 期末結帳快照（balance_sheet_closings）：
+ * - 有快照時：餘額 = 最近一次快照 + 快照期末之後至截止日的異動，只掃描區間內單據
+ * - 截止日恰為快照期末時直接回傳快照
+ * - 無快照或停用時：沿用自最早單據累計的完整查詢
  */
+@Slf4j
 @Repository
 @RequiredArgsConstructor
 public class BalanceSheetReportRepository {
 
     private final JdbcTemplate jdbcTemplate;
+    private final BalanceSheetClosingRepository closingRepository;
+
+    @Value("${app.period-close.enabled:true}")
+    private boolean periodCloseEnabled;
+
+    /**
+     * 截止日的三項餘額（結帳快照與區間異動共用）
+     */
+    public record Balances(BigDecimal accountsReceivable, BigDecimal accountsPayable, BigDecimal cash) {
+        public Balances plus(Balances other) {
+            return new Balances(
+                    accountsReceivable.add(other.accountsReceivable),
+                    accountsPayable.add(other.accountsPayable),
+                    cash.add(other.cash));
+        }
+    }
 
     /**
      * 📊 查詢資產負債表（Snapshot）
@@ -52,6 +85,171 @@ public class BalanceSheetReportRepository {
         // 確定顯示期間
         String displayPeriod = (endDate != null && !endDate.isBlank()) ? endDate : period;
 
+        LocalDate asOf = periodCloseEnabled ? resolveAsOf(period, endDate) : null;
+        if (asOf != null) {
+            Optional<BalanceSheetClosingDto> closing = closingRepository.findLatestOnOrBefore(asOf);
+            if (closing.isPresent()) {
+                return toDto(displayPeriod, fromClosing(closing.get(), asOf));
+            }
+        }
+        return queryCumulative(period, endDate, displayPeriod);
+    }
+
+    /**
+     * 📊 截止日餘額：優先以最近一次結帳快照加上之後的異動計算（供結帳作業使用）
+     */
+    public Balances getBalancesAsOf(LocalDate asOf) {
+        if (periodCloseEnabled) {
+            Optional<BalanceSheetClosingDto> closing = closingRepository.findLatestOnOrBefore(asOf);
+            if (closing.isPresent()) {
+                return fromClosing(closing.get(), asOf);
+            }
+        }
+        BalanceSheetReportDto dto = queryCumulative(YearMonth.from(asOf).toString(), asOf.toString(), asOf.toString());
+        return new Balances(dto.getAccountsReceivable(), dto.getAccountsPayable(), dto.getCash());
+    }
+
+    private Balances fromClosing(BalanceSheetClosingDto closing, LocalDate asOf) {
+        Balances base = new Balances(closing.accountsReceivable(), closing.accountsPayable(), closing.cash());
+        if (closing.periodEnd().equals(asOf)) {
+            return base;
+        }
+        return base.plus(getMovements(closing.periodEnd(), asOf));
+    }
+
+    /**
+     * 📊 區間異動（baseEnd, asOf]：
+     * - 應收／應付：只重算「區間內有單據或收付款」的訂單／進貨，
+     *   以截止日未收（付）餘額減去其在 baseEnd 的未收（付）餘額；其餘單據餘額不變
+     * - 現金：區間內的流入減流出
+     */
+    public Balances getMovements(LocalDate baseEnd, LocalDate asOf) {
+        String sql = """
+                    SELECT
+                        (
+                            SELECT COALESCE(SUM(
+                                GREATEST(0, COALESCE(o.total_amount, 0) - (
+                                    SELECT COALESCE(SUM(rc.amount), 0) FROM receipts rc
+                                    WHERE rc.order_id = o.id AND rc.status = 'ACTIVE' AND rc.received_date <= :asOf
+                                ))
+                                - CASE WHEN o.order_date <= :baseEnd THEN GREATEST(0, COALESCE(o.total_amount, 0) - (
+                                    SELECT COALESCE(SUM(rc.amount), 0) FROM receipts rc
+                                    WHERE rc.order_id = o.id AND rc.status = 'ACTIVE' AND rc.received_date <= :baseEnd
+                                  )) ELSE 0 END
+                            ), 0)
+                            FROM (
+                                SELECT id FROM orders
+                                WHERE order_date > :baseEnd AND order_date <= :asOf
+                                UNION
+                                SELECT order_id FROM receipts
+                                WHERE status = 'ACTIVE' AND received_date > :baseEnd AND received_date <= :asOf
+                            ) touched
+                            JOIN orders o ON o.id = touched.id
+                            WHERE o.order_status != 'CANCELLED'
+                              AND o.order_date <= :asOf
+                        ) AS accounts_receivable,
+
+                        (
+                            SELECT COALESCE(SUM(
+                                GREATEST(0, COALESCE(p.total_amount, 0) - (
+                                    SELECT COALESCE(SUM(pm.amount), 0) FROM payments pm
+                                    WHERE pm.purchase_id = p.id AND pm.status = 'ACTIVE' AND pm.pay_date <= :asOf
+                                ))
+                                - CASE WHEN p.purchase_date <= :baseEnd THEN GREATEST(0, COALESCE(p.total_amount, 0) - (
+                                    SELECT COALESCE(SUM(pm.amount), 0) FROM payments pm
+                                    WHERE pm.purchase_id = p.id AND pm.status = 'ACTIVE' AND pm.pay_date <= :baseEnd
+                                  )) ELSE 0 END
+                            ), 0)
+                            FROM (
+                                SELECT id FROM purchases
+                                WHERE purchase_date > :baseEnd AND purchase_date <= :asOf
+                                UNION
+                                SELECT purchase_id FROM payments
+                                WHERE status = 'ACTIVE' AND pay_date > :baseEnd AND pay_date <= :asOf
+                            ) touched
+                            JOIN purchases p ON p.id = touched.id
+                            WHERE p.record_status = 'ACTIVE'
+                              AND p.purchase_date <= :asOf
+                        ) AS accounts_payable,
+
+                        (
+                            (SELECT COALESCE(SUM(s.amount), 0) FROM sales s
+                             WHERE s.pay_method IN ('CASH', 'CARD', 'MOBILE')
+                               AND s.sale_date > :baseEnd AND s.sale_date <= :asOf)
+                          + (SELECT COALESCE(SUM(r.amount), 0) FROM receipts r
+                             WHERE r.status = 'ACTIVE' AND r.method IN ('CASH','TRANSFER','CARD','CHECK')
+                               AND r.received_date > :baseEnd AND r.received_date <= :asOf)
+                          - (SELECT COALESCE(SUM(e.amount), 0) FROM expenses e
+                             WHERE e.status = 'ACTIVE'
+                               AND e.expense_date > :baseEnd AND e.expense_date <= :asOf)
+                          - (SELECT COALESCE(SUM(p.amount), 0) FROM payments p
+                             WHERE p.status = 'ACTIVE' AND p.method IN ('CASH','TRANSFER','CARD','CHECK')
+                               AND p.pay_date > :baseEnd AND p.pay_date <= :asOf)
+                        ) AS cash
+                """;
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("baseEnd", Date.valueOf(baseEnd))
+                .addValue("asOf", Date.valueOf(asOf));
+
+        return new NamedParameterJdbcTemplate(jdbcTemplate).queryForObject(sql, params, (rs, rowNum) -> new Balances(
+                getDecimal(rs, "accounts_receivable"),
+                getDecimal(rs, "accounts_payable"),
+                getDecimal(rs, "cash")));
+    }
+
+    /**
+     * 最早的單據日期（尚無任何單據時為 null），用於決定首次結帳的起始期間
+     */
+    public LocalDate findEarliestActivityDate() {
+        Date earliest = jdbcTemplate.queryForObject("""
+                SELECT LEAST(
+                    COALESCE((SELECT MIN(order_date) FROM orders), '9999-12-31'),
+                    COALESCE((SELECT MIN(received_date) FROM receipts), '9999-12-31'),
+                    COALESCE((SELECT MIN(purchase_date) FROM purchases), '9999-12-31'),
+                    COALESCE((SELECT MIN(pay_date) FROM payments), '9999-12-31'),
+                    COALESCE((SELECT MIN(sale_date) FROM sales), '9999-12-31'),
+                    COALESCE((SELECT MIN(expense_date) FROM expenses), '9999-12-31')
+                )
+                """, Date.class);
+        if (earliest == null || earliest.toLocalDate().getYear() == 9999) {
+            return null;
+        }
+        return earliest.toLocalDate();
+    }
+
+    /**
+     * 截止日：有 endDate 時為該日，否則為 period 月底；格式無法解析時回傳 null（改走完整查詢）
+     */
+    private LocalDate resolveAsOf(String period, String endDate) {
+        try {
+            if (endDate != null && !endDate.isBlank()) {
+                return LocalDate.parse(endDate.trim());
+            }
+            return YearMonth.parse(period.trim()).atEndOfMonth();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private BalanceSheetReportDto toDto(String displayPeriod, Balances b) {
+        BigDecimal totalAssets = b.accountsReceivable().add(b.cash());
+        return BalanceSheetReportDto.builder()
+                .accountingPeriod(displayPeriod)
+                .accountsReceivable(b.accountsReceivable())
+                .accountsPayable(b.accountsPayable())
+                .cash(b.cash())
+                .totalAssets(totalAssets)
+                .totalLiabilities(b.accountsPayable())
+                .equity(totalAssets.subtract(b.accountsPayable()))
+                .build();
+    }
+
+    /**
+     * 📊 完整累計查詢：自最早單據累計至截止日
+     */
+    private BalanceSheetReportDto queryCumulative(String period, String endDate, String displayPeriod) {
+
         String sql = String.format("""
                     SELECT
                         :displayPeriod AS accounting_period,
@@ -325,6 +523,10 @@ public class BalanceSheetReportRepository {
     /**
      * 📊 查詢多個月份的資產負債表（支援並列比較）
      *
+     * <p>依期間排序後串接計算：已結帳月份直接取快照；其餘最早期間走單期查詢（快照 + 異動），
+     * 之後每期 = 前一期餘額 + 兩個期末之間的異動，整段比較只掃描一次區間內的單據。
+     * 回傳順序與傳入的 periods 相同。
+     *
      * @param periods 多個會計期間列表（YYYY-MM），例如：["2025-10", "2025-11", "2025-12"]
      * @return 資產負債表報表資料列表（每個月份一筆）
      */
@@ -335,23 +537,72 @@ public class BalanceSheetReportRepository {
             return result;
         }
 
-        // 為每個期間查詢資產負債表
+        TreeMap<YearMonth, Balances> balances = new TreeMap<>();
         for (String period : periods) {
-            if (period != null && !period.isBlank()) {
-                try {
-                    BalanceSheetReportDto dto = getBalanceSheet(period, null);
-                    result.add(dto);
-                } catch (Exception e) {
-                    // 如果某個期間查詢失敗，記錄錯誤但繼續處理其他期間
-                    // 可以選擇跳過或添加錯誤標記
-                    System.err.println("查詢期間 " + period + " 失敗: " + e.getMessage());
+            YearMonth ym = parsePeriod(period);
+            if (ym != null) {
+                balances.put(ym, null);
+            }
+        }
+
+        try {
+            // 已結帳的月份直接取快照（快照表很小，一次讀出）
+            Map<String, BalanceSheetClosingDto> closings = new HashMap<>();
+            if (periodCloseEnabled) {
+                closingRepository.findAll().forEach(c -> closings.put(c.accountingPeriod(), c));
+            }
+
+            Balances previous = null;
+            LocalDate previousEnd = null;
+            for (YearMonth ym : balances.keySet()) {
+                LocalDate periodEnd = ym.atEndOfMonth();
+                BalanceSheetClosingDto closing = closings.get(ym.toString());
+                Balances current;
+                if (closing != null && closing.periodEnd().equals(periodEnd)) {
+                    current = new Balances(closing.accountsReceivable(), closing.accountsPayable(), closing.cash());
+                } else if (previous == null) {
+                    current = getBalancesAsOf(periodEnd);
+                } else {
+                    current = previous.plus(getMovements(previousEnd, periodEnd));
                 }
+                balances.put(ym, current);
+                previous = current;
+                previousEnd = periodEnd;
+            }
+        } catch (Exception e) {
+            log.error("查詢多期間資產負債表失敗，改為逐期查詢 periods={}: {}", periods, e.getMessage());
+            balances.replaceAll((ym, b) -> null);
+        }
+
+        for (String period : periods) {
+            if (period == null || period.isBlank()) {
+                continue;
+            }
+            try {
+                YearMonth ym = parsePeriod(period);
+                Balances b = ym != null ? balances.get(ym) : null;
+                // 格式無法解析或串接失敗的期間沿用單期查詢
+                result.add(b != null ? toDto(period, b) : getBalanceSheet(period, null));
+            } catch (Exception e) {
+                // 如果某個期間查詢失敗，記錄錯誤但繼續處理其他期間
+                log.error("查詢期間 {} 失敗: {}", period, e.getMessage());
             }
         }
 
         return result;
     }
 
+    private YearMonth parsePeriod(String period) {
+        if (period == null || period.isBlank()) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(period.trim());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
     private BigDecimal getDecimal(ResultSet rs, String column) throws SQLException {
         BigDecimal value = rs.getBigDecimal(column);
         return value != null ? value : BigDecimal.ZERO;
@@ -1,20 +1,18 @@
 package com.lianhua.erp.repository;
 
 import com.lianhua.erp.domain.BlacklistedToken;
-import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.List;
 
 @Repository
 public interface BlacklistedTokenRepository extends JpaRepository<BlacklistedToken, Long> {
 
     boolean existsByTokenHash(String tokenHash);
 
-    @Modifying
-    @Transactional
-    long deleteByExpiresAtBefore(Instant instant);
+    /** 依 id 分批載入尚未到期的項目（啟動載入與定期同步記憶體索引用） */
+    List<BlacklistedToken> findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(Long afterId, Instant now, Pageable pageable);
 }
-
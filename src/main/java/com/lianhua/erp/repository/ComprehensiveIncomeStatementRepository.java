@@ -9,7 +9,10 @@ import java.math.BigDecimal;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 📊 綜合損益表 Repository
@@ -117,31 +120,37 @@ public class ComprehensiveIncomeStatementRepository {
         
         // 填充費用與損益計算邏輯
         for (ComprehensiveIncomeStatementDto dto : result) {
-            List<ComprehensiveIncomeStatementDto.ExpenseCategoryDetailDto> expenseDetails =
-                    getExpenseDetailsByPeriod(dto.getAccountingPeriod(), startDate, endDate);
-            dto.setExpenseDetails(expenseDetails);
-            
-            BigDecimal totalExpenses = expenseDetails.stream()
-                    .map(ComprehensiveIncomeStatementDto.ExpenseCategoryDetailDto::getAmount)
-                    .filter(amount -> amount != null)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            dto.setTotalOperatingExpenses(totalExpenses);
-            
-            BigDecimal grossProfit = dto.getGrossProfit() != null ? dto.getGrossProfit() : BigDecimal.ZERO;
-            BigDecimal operatingProfit = grossProfit.subtract(totalExpenses);
-            dto.setOperatingProfit(operatingProfit);
-            
-            dto.setOtherIncome(BigDecimal.ZERO);
-            dto.setOtherExpenses(BigDecimal.ZERO);
-            BigDecimal netProfit = operatingProfit.add(dto.getOtherIncome()).subtract(dto.getOtherExpenses());
-            dto.setNetProfit(netProfit);
-            dto.setOtherComprehensiveIncome(BigDecimal.ZERO);
-            dto.setComprehensiveIncome(netProfit.add(dto.getOtherComprehensiveIncome()));
+            applyExpenses(dto, getExpenseDetailsByPeriod(dto.getAccountingPeriod(), startDate, endDate));
         }
         
         return result;
     }
     
+    /**
+     * 寫入費用明細並計算營業利益、淨利與綜合損益
+     */
+    private void applyExpenses(ComprehensiveIncomeStatementDto dto,
+                               List<ComprehensiveIncomeStatementDto.ExpenseCategoryDetailDto> expenseDetails) {
+        dto.setExpenseDetails(expenseDetails);
+        
+        BigDecimal totalExpenses = expenseDetails.stream()
+                .map(ComprehensiveIncomeStatementDto.ExpenseCategoryDetailDto::getAmount)
+                .filter(amount -> amount != null)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        dto.setTotalOperatingExpenses(totalExpenses);
+        
+        BigDecimal grossProfit = dto.getGrossProfit() != null ? dto.getGrossProfit() : BigDecimal.ZERO;
+        BigDecimal operatingProfit = grossProfit.subtract(totalExpenses);
+        dto.setOperatingProfit(operatingProfit);
+        
+        dto.setOtherIncome(BigDecimal.ZERO);
+        dto.setOtherExpenses(BigDecimal.ZERO);
+        BigDecimal netProfit = operatingProfit.add(dto.getOtherIncome()).subtract(dto.getOtherExpenses());
+        dto.setNetProfit(netProfit);
+        dto.setOtherComprehensiveIncome(BigDecimal.ZERO);
+        dto.setComprehensiveIncome(netProfit.add(dto.getOtherComprehensiveIncome()));
+    }
+    
     private List<ComprehensiveIncomeStatementDto.ExpenseCategoryDetailDto> getExpenseDetailsByPeriod(
             String period, String startDate, String endDate) {
         
@@ -212,11 +221,124 @@ public class ComprehensiveIncomeStatementRepository {
         return v != null ? v : BigDecimal.ZERO;
     }
     
+    /**
+     * 多期間綜合損益表：收入、成本與費用明細各以一次 accounting_period IN (...) 分組查詢取得，
+     * 不再逐期重跑整張報表。回傳順序與傳入的 periods 相同；無資料的期間不產生列（與單期查詢一致）。
+     */
     public List<ComprehensiveIncomeStatementDto> getComprehensiveIncomeStatement(List<String> periods) {
         List<ComprehensiveIncomeStatementDto> result = new ArrayList<>();
+        if (periods == null || periods.isEmpty()) {
+            return result;
+        }
+
+        List<String> distinct = periods.stream()
+                .filter(p -> p != null && !p.isBlank())
+                .distinct()
+                .toList();
+        if (distinct.isEmpty()) {
+            return result;
+        }
+
+        String in = String.join(", ", Collections.nCopies(distinct.size(), "?"));
+        String sql = """
+            SELECT
+                accounting_period,
+                COALESCE(SUM(retail_sales), 0) AS retail_sales,
+                COALESCE(SUM(order_sales), 0) AS order_sales,
+                (COALESCE(SUM(retail_sales), 0) + COALESCE(SUM(order_sales), 0)) AS total_revenue,
+                COALESCE(SUM(cost_of_goods_sold), 0) AS cost_of_goods_sold,
+                ((COALESCE(SUM(retail_sales), 0) + COALESCE(SUM(order_sales), 0))
+                 - COALESCE(SUM(cost_of_goods_sold), 0)) AS gross_profit
+            FROM (
+                SELECT
+                    accounting_period COLLATE utf8mb4_unicode_ci AS accounting_period,
+                    SUM(s.amount) AS retail_sales,
+                    0 AS order_sales,
+                    0 AS cost_of_goods_sold
+                FROM sales s
+                WHERE s.accounting_period IN (%1$s)
+                GROUP BY accounting_period
+
+                UNION ALL
+
+                SELECT
+                    accounting_period COLLATE utf8mb4_unicode_ci AS accounting_period,
+                    0 AS retail_sales,
+                    SUM(o.total_amount) AS order_sales,
+                    0 AS cost_of_goods_sold
+                FROM orders o
+                WHERE o.order_status != 'CANCELLED'
+                  AND o.accounting_period IN (%1$s)
+                GROUP BY accounting_period
+
+                UNION ALL
+
+                SELECT
+                    accounting_period COLLATE utf8mb4_unicode_ci AS accounting_period,
+                    0 AS retail_sales,
+                    0 AS order_sales,
+                    SUM(p.total_amount) AS cost_of_goods_sold
+                FROM purchases p
+                WHERE p.record_status = 'ACTIVE'
+                  AND p.accounting_period IN (%1$s)
+                GROUP BY accounting_period
+            ) AS combined
+            GROUP BY accounting_period
+            """.formatted(in);
+
+        List<Object> args = new ArrayList<>(distinct.size() * 3);
+        for (int i = 0; i < 3; i++) {
+            args.addAll(distinct);
+        }
+        Map<String, ComprehensiveIncomeStatementDto> byPeriod = new HashMap<>();
+        for (ComprehensiveIncomeStatementDto dto : jdbcTemplate.query(sql, this::mapRowToBaseDto, args.toArray())) {
+            byPeriod.put(dto.getAccountingPeriod(), dto);
+        }
+
+        Map<String, List<ComprehensiveIncomeStatementDto.ExpenseCategoryDetailDto>> expensesByPeriod =
+                getExpenseDetailsByPeriods(distinct, in);
+
         for (String period : periods) {
-            result.addAll(getComprehensiveIncomeStatement(period, null, null));
+            ComprehensiveIncomeStatementDto dto = period != null ? byPeriod.get(period) : null;
+            if (dto == null) {
+                continue;
+            }
+            if (dto.getExpenseDetails() == null) {
+                applyExpenses(dto, expensesByPeriod.getOrDefault(period, new ArrayList<>()));
+            }
+            result.add(dto);
         }
         return result;
     }
-}
\ No newline at end of file
+
+    /**
+     * 多期間費用明細：一次查詢，依期間分組（每期內依科目代碼排序）
+     */
+    private Map<String, List<ComprehensiveIncomeStatementDto.ExpenseCategoryDetailDto>> getExpenseDetailsByPeriods(
+            List<String> periods, String in) {
+        String sql = """
+            SELECT
+                e.accounting_period,
+                ec.id AS category_id,
+                ec.name AS category_name,
+                ec.account_code,
+                ec.is_salary,
+                COALESCE(SUM(e.amount), 0) AS amount
+            FROM expenses e
+            JOIN expense_categories ec ON ec.id = e.category_id
+            WHERE e.status = 'ACTIVE'
+              AND ec.active = true
+              AND e.accounting_period IN (%s)
+            GROUP BY e.accounting_period, ec.id, ec.name, ec.account_code, ec.is_salary
+            HAVING amount > 0
+            ORDER BY e.accounting_period, ec.account_code
+            """.formatted(in);
+
+        Map<String, List<ComprehensiveIncomeStatementDto.ExpenseCategoryDetailDto>> result = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            result.computeIfAbsent(rs.getString("accounting_period"), k -> new ArrayList<>())
+                    .add(mapExpenseDetailRow(rs, 0));
+        }, periods.toArray());
+        return result;
+    }
+}
@@ -105,26 +105,85 @@ public interface DashboardRepository extends JpaRepository<Order, Long> {
         """, nativeQuery = true)
     BigDecimal getUpcomingAR();
 
+    /**
+     * 核心 KPI 快照：以單一聚合 SQL 取代上方 1~4 節的逐項查詢（每張表僅掃描一次）。
+     * 回傳單列，欄位順序：
+     * todaySales(0), monthSales(1), monthPurchase(2), monthExpense(3),
+     * accountsReceivable(4), accountsPayable(5), upcomingAR(6),
+     * suppliers(7), customers(8), products(9), pendingOrders(10),
+     * todayReceipts(11), monthReceipts(12)
+     */
+    @Query(value = """
+        SELECT
+            s_agg.todaySales, s_agg.monthSales,
+            p_agg.monthPurchase, e_agg.monthExpense,
+            o_agg.accountsReceivable, p_agg.accountsPayable, o_agg.upcomingAR,
+            (SELECT COUNT(*) FROM suppliers WHERE active = 1) AS suppliers,
+            (SELECT COUNT(*) FROM order_customers) AS customers,
+            (SELECT COUNT(*) FROM products WHERE active = 1) AS products,
+            o_agg.pendingOrders,
+            r_agg.todayReceipts, r_agg.monthReceipts
+        FROM (
+            SELECT
+                COALESCE(SUM(CASE WHEN sale_date = :today THEN amount END), 0) AS todaySales,
+                COALESCE(SUM(CASE WHEN accounting_period = :period THEN amount END), 0) AS monthSales
+            FROM sales
+            WHERE sale_date = :today OR accounting_period = :period
+        ) s_agg
+        CROSS JOIN (
+            SELECT
+                COALESCE(SUM(CASE WHEN accounting_period = :period THEN total_amount END), 0) AS monthPurchase,
+                COALESCE(SUM(CASE WHEN status != 'PAID' THEN balance END), 0) AS accountsPayable
+            FROM purchases
+            WHERE record_status = 'ACTIVE'
+        ) p_agg
+        CROSS JOIN (
+            SELECT COALESCE(SUM(amount), 0) AS monthExpense
+            FROM expenses
+            WHERE accounting_period = :period AND status = 'ACTIVE'
+        ) e_agg
+        CROSS JOIN (
+            SELECT
+                COALESCE(SUM(CASE WHEN received_date = :today THEN amount END), 0) AS todayReceipts,
+                COALESCE(SUM(CASE WHEN accounting_period = :period THEN amount END), 0) AS monthReceipts
+            FROM receipts
+            WHERE status = 'ACTIVE' AND (received_date = :today OR accounting_period = :period)
+        ) r_agg
+        CROSS JOIN (
+            SELECT
+                COALESCE(SUM(CASE WHEN o.payment_status != 'PAID'
+                    THEN o.total_amount - IFNULL(ra.paid, 0) END), 0) AS accountsReceivable,
+                COALESCE(SUM(CASE WHEN o.payment_status != 'PAID'
+                        AND o.delivery_date <= DATE_ADD(CURDATE(), INTERVAL 7 DAY)
+                    THEN o.total_amount - IFNULL(ra.paid, 0) END), 0) AS upcomingAR,
+                COALESCE(SUM(CASE WHEN o.order_status NOT IN ('DELIVERED', 'CANCELLED') THEN 1 ELSE 0 END), 0) AS pendingOrders
+            FROM orders o
+            LEFT JOIN (
+                SELECT order_id, SUM(amount) AS paid
+                FROM receipts WHERE status = 'ACTIVE'
+                GROUP BY order_id
+            ) ra ON o.id = ra.order_id
+            WHERE o.record_status = 'ACTIVE'
+        ) o_agg
+        """, nativeQuery = true)
+    List<Object[]> getKpiSnapshot(@Param("today") LocalDate today, @Param("period") String period);
+
     /* =========================================================
      * 5. 趨勢分析
      * ========================================================= */
 
+    /** 銷售 / 收款每日趨勢（讀取 financial_daily_rollups） */
     @Query(value = """
         SELECT 
-            t.d AS date,
-            SUM(t.s_amt) AS saleAmount,
-            SUM(t.r_amt) AS receiptAmount
-        FROM (
-            SELECT DATE(sale_date) AS d, amount AS s_amt, 0 AS r_amt 
-            FROM sales 
-            WHERE sale_date >= :startDate
-            UNION ALL
-            SELECT DATE(received_date) AS d, 0 AS s_amt, amount AS r_amt 
-            FROM receipts 
-            WHERE received_date >= :startDate AND status = 'ACTIVE'
-        ) AS t
-        GROUP BY t.d
-        ORDER BY t.d ASC
+            r.stat_date AS date,
+            SUM(CASE WHEN r.metric = 'SALE' THEN r.amount ELSE 0 END) AS saleAmount,
+            SUM(CASE WHEN r.metric = 'RECEIPT' THEN r.amount ELSE 0 END) AS receiptAmount
+        FROM financial_daily_rollups r
+        WHERE r.metric IN ('SALE', 'RECEIPT')
+          AND r.stat_date >= :startDate
+        GROUP BY r.stat_date
+        HAVING SUM(r.txn_count) > 0
+        ORDER BY r.stat_date ASC
         """, nativeQuery = true)
     List<Object[]> getCombinedTrend(@Param("startDate") LocalDate startDate);
 
@@ -132,15 +191,18 @@ public interface DashboardRepository extends JpaRepository<Order, Long> {
      * 6. 其他圖表與列表
      * ========================================================= */
 
+    /** 當月支出結構：進貨 + 各費用類別（讀取 financial_daily_rollups） */
     @Query(value = """
-        SELECT '進貨採購' as category, COALESCE(SUM(total_amount), 0) as amount 
-        FROM purchases WHERE accounting_period = :period AND record_status = 'ACTIVE'
+        SELECT '進貨採購' as category, COALESCE(SUM(r.amount), 0) as amount 
+        FROM financial_daily_rollups r
+        WHERE r.accounting_period = :period AND r.metric = 'PURCHASE'
         UNION ALL
-        SELECT ec.name as category, COALESCE(SUM(e.amount), 0) as amount 
-        FROM expenses e 
-        JOIN expense_categories ec ON e.category_id = ec.id 
-        WHERE e.accounting_period = :period AND e.status = 'ACTIVE'
+        SELECT ec.name as category, COALESCE(SUM(r.amount), 0) as amount 
+        FROM financial_daily_rollups r
+        JOIN expense_categories ec ON r.category_id = ec.id 
+        WHERE r.accounting_period = :period AND r.metric = 'EXPENSE'
         GROUP BY ec.name
+        HAVING SUM(r.txn_count) > 0
         """, nativeQuery = true)
     List<Object[]> getMonthlyExpenseComposition(@Param("period") String period);
 
@@ -208,30 +270,22 @@ public interface DashboardRepository extends JpaRepository<Order, Long> {
         """, nativeQuery = true)
     List<Object[]> getAccountAging();
 
-    /** 損益趨勢 (修正排序，由舊到新回傳最近 6 個月) */
+    /** 損益趨勢 (由舊到新回傳最近 N 個有資料的會計期間；讀取 financial_monthly_pnl，依主鍵倒序只掃 N 列) */
     @Query(value = """
         SELECT * FROM (
             SELECT 
-                t.period,
-                SUM(t.rev) AS revenue,
-                SUM(t.rev - t.cost) AS grossProfit,
-                SUM(t.exp) AS expense,
-                SUM(t.rev - t.cost - t.exp) AS netProfit
-            FROM (
-                SELECT accounting_period AS period, amount AS rev, 0 AS cost, 0 AS exp FROM sales
-                UNION ALL
-                SELECT accounting_period AS period, 0 AS rev, total_amount AS cost, 0 AS exp 
-                FROM purchases WHERE record_status = 'ACTIVE'
-                UNION ALL
-                SELECT accounting_period AS period, 0 AS rev, 0 AS cost, amount AS exp 
-                FROM expenses WHERE status = 'ACTIVE'
-            ) t
-            GROUP BY t.period 
-            ORDER BY t.period DESC 
-            LIMIT 6
+                m.accounting_period AS period,
+                m.revenue AS revenue,
+                m.gross_profit AS grossProfit,
+                m.expense AS expense,
+                m.net_profit AS netProfit
+            FROM financial_monthly_pnl m
+            WHERE m.doc_count > 0
+            ORDER BY m.accounting_period DESC 
+            LIMIT :months
         ) final_res ORDER BY period ASC
         """, nativeQuery = true)
-    List<Object[]> getProfitLossTrend();
+    List<Object[]> getProfitLossTrend(@Param("months") int months);
 
     @Query(value = """
         SELECT 
@@ -257,15 +311,17 @@ public interface DashboardRepository extends JpaRepository<Order, Long> {
             t_agg.d AS date,
             SUM(t_agg.daily_rev) OVER (ORDER BY t_agg.d) AS runningRevenue,
             SUM(t_agg.daily_exp) OVER (ORDER BY t_agg.d) AS runningExpense,
-            (SELECT COALESCE(SUM(amount), 0) FROM expenses WHERE accounting_period = :period AND status = 'ACTIVE') AS breakEvenThreshold
+            (SELECT COALESCE(SUM(amount), 0) FROM financial_daily_rollups
+             WHERE accounting_period = :period AND metric = 'EXPENSE') AS breakEvenThreshold
         FROM (
-            SELECT d, SUM(rev) as daily_rev, SUM(exp) as daily_exp
-            FROM (
-                SELECT sale_date AS d, amount AS rev, 0 AS exp FROM sales WHERE accounting_period = :period
-                UNION ALL
-                SELECT expense_date AS d, 0 AS rev, amount AS exp FROM expenses WHERE accounting_period = :period AND status = 'ACTIVE'
-            ) union_t
-            GROUP BY d
+            SELECT 
+                r.stat_date AS d,
+                SUM(CASE WHEN r.metric = 'SALE' THEN r.amount ELSE 0 END) AS daily_rev,
+                SUM(CASE WHEN r.metric = 'EXPENSE' THEN r.amount ELSE 0 END) AS daily_exp
+            FROM financial_daily_rollups r
+            WHERE r.accounting_period = :period AND r.metric IN ('SALE', 'EXPENSE')
+            GROUP BY r.stat_date
+            HAVING SUM(r.txn_count) > 0
         ) t_agg
         ORDER BY t_agg.d ASC
         """, nativeQuery = true)
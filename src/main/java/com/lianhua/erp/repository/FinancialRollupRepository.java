@@ -0,0 +1,316 @@
+package com.lianhua.erp.repository;
+
+import com.lianhua.erp.domain.RollupMetric;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 📊 財務日彙總 Repository（financial_daily_rollups）
+ * 以「指標 + 日期 + 會計期間 + 費用類別」為鍵：
+ * 1) 寫入端以帶正負號的增減量 upsert 日彙總（applyDeltas）與月損益（applyPnlDeltas），不重新掃描
+ * 2) 重建與校驗時才自原始單據表聚合，並由日彙總重算每個會計期間的月損益（financial_monthly_pnl）
+ */
+@Repository
+@RequiredArgsConstructor
+public class FinancialRollupRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 彙總列（亦用於與原始表比對偏差）
+     */
+    public record RollupRow(
+            RollupMetric metric,
+            LocalDate statDate,
+            String accountingPeriod,
+            long categoryId,
+            BigDecimal amount,
+            long txnCount,
+            BigDecimal voidedAmount,
+            long voidedCount
+    ) {
+        public String key() {
+            return metric + "|" + statDate + "|" + accountingPeriod + "|" + categoryId;
+        }
+    }
+
+    /**
+     * 指標對應的來源表定義；statusColumn 為 null 表示該表沒有作廢機制（全數視為有效）。
+     */
+    private record Source(String table, String dateColumn, String amountColumn,
+                          String statusColumn, String categoryColumn) {
+    }
+
+    private static final String DATE_COLUMN = "{date}";
+
+    private static Source source(RollupMetric metric) {
+        return switch (metric) {
+            case SALE -> new Source("sales", "sale_date", "amount", null, null);
+            case ORDER -> new Source("orders", "order_date", "total_amount", "record_status", null);
+            case RECEIPT -> new Source("receipts", "received_date", "amount", "status", null);
+            case PURCHASE -> new Source("purchases", "purchase_date", "total_amount", "record_status", null);
+            case PAYMENT -> new Source("payments", "pay_date", "amount", "status", null);
+            case EXPENSE -> new Source("expenses", "expense_date", "amount", "status", "category_id");
+        };
+    }
+
+    /**
+     * 產生來源表聚合 SQL（欄位順序與 financial_daily_rollups 相同）
+     *
+     * @param dateFilter 以來源日期欄位為條件的 WHERE 片段（以 {date} 代表日期欄位、? 為參數）
+     */
+    private static String aggregateSql(RollupMetric metric, String dateFilter) {
+        Source s = source(metric);
+        String active = s.statusColumn() == null ? "1 = 1" : s.statusColumn() + " = 'ACTIVE'";
+        String voided = s.statusColumn() == null ? "1 = 0" : s.statusColumn() + " <> 'ACTIVE'";
+        String category = s.categoryColumn() == null ? "0" : s.categoryColumn();
+        // 無類別欄位時以常數 0 輸出，GROUP BY 不可放常數（會被當成欄位序號）
+        String groupBy = s.categoryColumn() == null ? "" : ", " + s.categoryColumn();
+
+        return """
+                SELECT '%1$s', %2$s, accounting_period, %3$s,
+                       COALESCE(SUM(CASE WHEN %5$s THEN %4$s END), 0),
+                       COALESCE(SUM(CASE WHEN %5$s THEN 1 ELSE 0 END), 0),
+                       COALESCE(SUM(CASE WHEN %6$s THEN %4$s END), 0),
+                       COALESCE(SUM(CASE WHEN %6$s THEN 1 ELSE 0 END), 0)
+                FROM %7$s
+                WHERE %8$s
+                GROUP BY %2$s, accounting_period%9$s
+                """.formatted(metric.name(), s.dateColumn(), category, s.amountColumn(),
+                active, voided, s.table(), dateFilter.replace(DATE_COLUMN, s.dateColumn()), groupBy);
+    }
+
+    private static final String INSERT_PREFIX = """
+            INSERT INTO financial_daily_rollups
+              (metric, stat_date, accounting_period, category_id, amount, txn_count, voided_amount, voided_count)
+            """;
+
+    /**
+     * 以增減量更新日彙總（金額與筆數皆可為負，作廢或刪除時沖回）。
+     * 依傳入順序逐列鎖定，呼叫端需以固定順序（指標、日期、期間、類別）排序，避免交易間互相等待成環。
+     */
+    public void applyDeltas(List<RollupRow> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_PREFIX + """
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+                ON DUPLICATE KEY UPDATE
+                  amount = amount + VALUES(amount),
+                  txn_count = txn_count + VALUES(txn_count),
+                  voided_amount = voided_amount + VALUES(voided_amount),
+                  voided_count = voided_count + VALUES(voided_count)
+                """, deltas, deltas.size(), (ps, d) -> {
+            ps.setString(1, d.metric().name());
+            ps.setDate(2, Date.valueOf(d.statDate()));
+            ps.setString(3, d.accountingPeriod());
+            ps.setLong(4, d.categoryId());
+            ps.setBigDecimal(5, d.amount());
+            ps.setLong(6, d.txnCount());
+            ps.setBigDecimal(7, d.voidedAmount());
+            ps.setLong(8, d.voidedCount());
+        });
+    }
+
+    /**
+     * 重算單一「指標 + 日期」的彙總（僅供無法取得異動前狀態時的備援）：
+     * 先將既有列歸零（處理類別或期間異動後的殘留鍵），再以 upsert 寫入最新聚合值。
+     */
+    public void refreshBucket(RollupMetric metric, LocalDate date) {
+        jdbcTemplate.update("""
+                UPDATE financial_daily_rollups
+                SET amount = 0, txn_count = 0, voided_amount = 0, voided_count = 0
+                WHERE metric = ? AND stat_date = ?
+                """, metric.name(), Date.valueOf(date));
+
+        jdbcTemplate.update(INSERT_PREFIX + aggregateSql(metric, DATE_COLUMN + " = ?") + """
+                ON DUPLICATE KEY UPDATE
+                  amount = VALUES(amount),
+                  txn_count = VALUES(txn_count),
+                  voided_amount = VALUES(voided_amount),
+                  voided_count = VALUES(voided_count)
+                """, Date.valueOf(date));
+    }
+
+    /**
+     * 刪除指定指標在日期區間內的彙總（from / to 為 null 表示不限）
+     */
+    public int deleteRange(RollupMetric metric, LocalDate from, LocalDate to) {
+        List<Object> args = new ArrayList<>();
+        args.add(metric.name());
+        String filter = rangeFilter("stat_date", from, to, args);
+        return jdbcTemplate.update("DELETE FROM financial_daily_rollups WHERE metric = ? AND " + filter, args.toArray());
+    }
+
+    /**
+     * 自原始表重新寫入指定指標在日期區間內的彙總（需先 deleteRange）
+     */
+    public int insertRange(RollupMetric metric, LocalDate from, LocalDate to) {
+        List<Object> args = new ArrayList<>();
+        String filter = rangeFilter(DATE_COLUMN, from, to, args);
+        return jdbcTemplate.update(INSERT_PREFIX + aggregateSql(metric, filter), args.toArray());
+    }
+
+    /**
+     * 直接自原始表聚合（不寫入），用於偏差檢測
+     */
+    public List<RollupRow> aggregateFromSource(RollupMetric metric, LocalDate from, LocalDate to) {
+        List<Object> args = new ArrayList<>();
+        String filter = rangeFilter(DATE_COLUMN, from, to, args);
+        return jdbcTemplate.query(aggregateSql(metric, filter), this::mapRow, args.toArray());
+    }
+
+    /**
+     * 讀取目前彙總表內容
+     */
+    public List<RollupRow> findRollups(RollupMetric metric, LocalDate from, LocalDate to) {
+        List<Object> args = new ArrayList<>();
+        args.add(metric.name());
+        String filter = rangeFilter("stat_date", from, to, args);
+        return jdbcTemplate.query("""
+                SELECT metric, stat_date, accounting_period, category_id,
+                       amount, txn_count, voided_amount, voided_count
+                FROM financial_daily_rollups
+                WHERE metric = ? AND\s""" + filter, this::mapRow, args.toArray());
+    }
+
+    /**
+     * 指定日期區間內的日彙總所涵蓋的會計期間（含已歸零的殘留列，確保舊期間也會被重算）
+     */
+    public List<String> findPeriods(Collection<RollupMetric> metrics, LocalDate from, LocalDate to) {
+        if (metrics.isEmpty()) {
+            return List.of();
+        }
+        List<Object> args = new ArrayList<>();
+        metrics.forEach(m -> args.add(m.name()));
+        String filter = rangeFilter("stat_date", from, to, args);
+        return jdbcTemplate.queryForList("""
+                SELECT DISTINCT accounting_period
+                FROM financial_daily_rollups
+                WHERE metric IN (%s) AND\s""".formatted(placeholders(metrics.size())) + filter,
+                String.class, args.toArray());
+    }
+
+    /**
+     * 月損益增減量（營收 = SALE、成本 = PURCHASE、費用 = EXPENSE 的有效金額；docCount 為有效筆數）
+     */
+    public record PnlDelta(String accountingPeriod, BigDecimal revenue, BigDecimal cost, BigDecimal expense,
+                           long docCount) {
+    }
+
+    /**
+     * 以增減量更新月損益，毛利與淨利於同一敘述內由更新後的營收、成本、費用推得。
+     * 呼叫端需依會計期間排序；MySQL 依序套用 ON DUPLICATE KEY UPDATE 的指派，後面的欄位看得到前面的新值。
+     */
+    public void applyPnlDeltas(List<PnlDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO financial_monthly_pnl
+                  (accounting_period, revenue, cost, gross_profit, expense, net_profit, doc_count)
+                VALUES (?, ?, ?, ?, ?, ?, ?)
+                ON DUPLICATE KEY UPDATE
+                  revenue = revenue + VALUES(revenue),
+                  cost = cost + VALUES(cost),
+                  expense = expense + VALUES(expense),
+                  gross_profit = revenue - cost,
+                  net_profit = revenue - cost - expense,
+                  doc_count = doc_count + VALUES(doc_count)
+                """, deltas, deltas.size(), (ps, d) -> {
+            ps.setString(1, d.accountingPeriod());
+            ps.setBigDecimal(2, d.revenue());
+            ps.setBigDecimal(3, d.cost());
+            ps.setBigDecimal(4, d.revenue().subtract(d.cost()));
+            ps.setBigDecimal(5, d.expense());
+            ps.setBigDecimal(6, d.revenue().subtract(d.cost()).subtract(d.expense()));
+            ps.setLong(7, d.docCount());
+        });
+    }
+
+    /**
+     * 由日彙總重算指定會計期間的月損益（重建與備援用）：
+     * 先將既有列歸零（期間已無任何日彙總時不會留下舊值），再以 upsert 寫入最新值。
+     */
+    public void refreshMonthlyPnl(Collection<String> periods) {
+        if (periods.isEmpty()) {
+            return;
+        }
+        Object[] args = periods.toArray();
+        String in = placeholders(periods.size());
+
+        jdbcTemplate.update("""
+                UPDATE financial_monthly_pnl
+                SET revenue = 0, cost = 0, gross_profit = 0, expense = 0, net_profit = 0, doc_count = 0
+                WHERE accounting_period IN (%s)
+                """.formatted(in), args);
+
+        jdbcTemplate.update("""
+                INSERT INTO financial_monthly_pnl
+                  (accounting_period, revenue, cost, gross_profit, expense, net_profit, doc_count)
+                SELECT accounting_period,
+                       COALESCE(SUM(CASE WHEN metric = 'SALE' THEN amount END), 0),
+                       COALESCE(SUM(CASE WHEN metric = 'PURCHASE' THEN amount END), 0),
+                       COALESCE(SUM(CASE WHEN metric = 'SALE' THEN amount WHEN metric = 'PURCHASE' THEN -amount END), 0),
+                       COALESCE(SUM(CASE WHEN metric = 'EXPENSE' THEN amount END), 0),
+                       COALESCE(SUM(CASE WHEN metric = 'SALE' THEN amount ELSE -amount END), 0),
+                       COALESCE(SUM(txn_count), 0)
+                FROM financial_daily_rollups
+                WHERE metric IN ('SALE', 'PURCHASE', 'EXPENSE') AND accounting_period IN (%s)
+                GROUP BY accounting_period
+                ON DUPLICATE KEY UPDATE
+                  revenue = VALUES(revenue),
+                  cost = VALUES(cost),
+                  gross_profit = VALUES(gross_profit),
+                  expense = VALUES(expense),
+                  net_profit = VALUES(net_profit),
+                  doc_count = VALUES(doc_count)
+                """.formatted(in), args);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static String rangeFilter(String column, LocalDate from, LocalDate to, List<Object> args) {
+        StringBuilder sb = new StringBuilder(column).append(" IS NOT NULL");
+        if (from != null) {
+            sb.append(" AND ").append(column).append(" >= ?");
+            args.add(Date.valueOf(from));
+        }
+        if (to != null) {
+            sb.append(" AND ").append(column).append(" <= ?");
+            args.add(Date.valueOf(to));
+        }
+        return sb.toString();
+    }
+
+    private RollupRow mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new RollupRow(
+                RollupMetric.valueOf(rs.getString(1)),
+                rs.getDate(2).toLocalDate(),
+                rs.getString(3),
+                rs.getLong(4),
+                getDecimal(rs, 5),
+                rs.getLong(6),
+                getDecimal(rs, 7),
+                rs.getLong(8)
+        );
+    }
+
+    private BigDecimal getDecimal(ResultSet rs, int column) throws SQLException {
+        BigDecimal v = rs.getBigDecimal(column);
+        return v != null ? v : BigDecimal.ZERO;
+    }
+}
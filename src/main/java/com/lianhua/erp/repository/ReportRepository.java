@@ -29,6 +29,7 @@ public class ReportRepository {
      */
     public List<ProfitReportDto> getProfitReport(String period, String startDate, String endDate) {
 
+        // 讀取 financial_daily_rollups：銷售、訂單、採購沿用原本口徑（含已作廢金額），費用僅計有效單據
         StringBuilder sql = new StringBuilder("""
             SELECT
                 accounting_period,
@@ -40,110 +41,41 @@ public class ReportRepository {
                 ((COALESCE(SUM(total_sales), 0) + COALESCE(SUM(total_orders), 0))
                  - COALESCE(SUM(total_purchase), 0) - COALESCE(SUM(total_expense), 0)) AS net_profit
             FROM (
-                -- 🟩 銷售（零售收入）
                 SELECT 
-                    DATE_FORMAT(s.sale_date, '%Y-%m') AS accounting_period,
-                    SUM(s.amount) AS total_sales,
-                    0 AS total_orders,
-                    0 AS total_purchase,
-                    0 AS total_expense
-                FROM sales s
-                WHERE 1=1
+                    DATE_FORMAT(r.stat_date, '%Y-%m') AS accounting_period,
+                    -- 🟩 銷售（零售收入）
+                    CASE WHEN r.metric = 'SALE' THEN r.amount + r.voided_amount ELSE 0 END AS total_sales,
+                    -- 🟦 訂單（批發收入）
+                    CASE WHEN r.metric = 'ORDER' THEN r.amount + r.voided_amount ELSE 0 END AS total_orders,
+                    -- 🟥 採購（成本支出）
+                    CASE WHEN r.metric = 'PURCHASE' THEN r.amount + r.voided_amount ELSE 0 END AS total_purchase,
+                    -- 🟨 營運費用
+                    CASE WHEN r.metric = 'EXPENSE' THEN r.amount ELSE 0 END AS total_expense,
+                    CASE WHEN r.metric = 'EXPENSE' THEN r.txn_count
+                         ELSE r.txn_count + r.voided_count END AS doc_count
+                FROM financial_daily_rollups r
+                WHERE r.metric IN ('SALE', 'ORDER', 'PURCHASE', 'EXPENSE')
         """);
 
-        // 動態條件 - 銷售
+        // 動態條件
         if (period != null && !period.isBlank()) {
-            sql.append(" AND s.accounting_period = ? ");
+            sql.append(" AND r.accounting_period = ? ");
         } else if (startDate != null && endDate != null) {
-            sql.append(" AND s.sale_date BETWEEN ? AND ? ");
+            sql.append(" AND r.stat_date BETWEEN ? AND ? ");
         }
 
         sql.append("""
-                GROUP BY DATE_FORMAT(s.sale_date, '%Y-%m')
-
-                UNION ALL
-
-                -- 🟦 訂單（批發收入）
-                SELECT 
-                    DATE_FORMAT(o.order_date, '%Y-%m') AS accounting_period,
-                    0 AS total_sales,
-                    SUM(o.total_amount) AS total_orders,
-                    0 AS total_purchase,
-                    0 AS total_expense
-                FROM orders o
-                WHERE 1=1
-        """);
-
-        // 動態條件 - 訂單
-        if (period != null && !period.isBlank()) {
-            sql.append(" AND o.accounting_period = ? ");
-        } else if (startDate != null && endDate != null) {
-            sql.append(" AND o.order_date BETWEEN ? AND ? ");
-        }
-
-        sql.append("""
-                GROUP BY DATE_FORMAT(o.order_date, '%Y-%m')
-
-                UNION ALL
-
-                -- 🟥 採購（成本支出）
-                SELECT 
-                    DATE_FORMAT(p.purchase_date, '%Y-%m') AS accounting_period,
-                    0 AS total_sales,
-                    0 AS total_orders,
-                    SUM(p.total_amount) AS total_purchase,
-                    0 AS total_expense
-                FROM purchases p
-                WHERE 1=1
-        """);
-
-        // 動態條件 - 採購
-        if (period != null && !period.isBlank()) {
-            sql.append(" AND p.accounting_period = ? ");
-        } else if (startDate != null && endDate != null) {
-            sql.append(" AND p.purchase_date BETWEEN ? AND ? ");
-        }
-
-        sql.append("""
-                GROUP BY DATE_FORMAT(p.purchase_date, '%Y-%m')
-
-                UNION ALL
-
-                -- 🟨 營運費用
-                SELECT 
-                    DATE_FORMAT(e.expense_date, '%Y-%m') AS accounting_period,
-                    0 AS total_sales,
-                    0 AS total_orders,
-                    0 AS total_purchase,
-                    SUM(e.amount) AS total_expense
-                FROM expenses e
-                WHERE e.status = 'ACTIVE'
-        """);
-
-        // 動態條件 - 費用
-        if (period != null && !period.isBlank()) {
-            sql.append(" AND e.accounting_period = ? ");
-        } else if (startDate != null && endDate != null) {
-            sql.append(" AND e.expense_date BETWEEN ? AND ? ");
-        }
-
-        sql.append("""
-                GROUP BY DATE_FORMAT(e.expense_date, '%Y-%m')
             ) AS combined
             GROUP BY accounting_period
+            HAVING SUM(doc_count) > 0
             ORDER BY accounting_period;
         """);
 
         // 綁定參數（對應動態條件）
         if (period != null && !period.isBlank()) {
-            return jdbcTemplate.query(sql.toString(), this::mapRowToDto,
-                    period, period, period, period);
+            return jdbcTemplate.query(sql.toString(), this::mapRowToDto, period);
         } else if (startDate != null && endDate != null) {
-            return jdbcTemplate.query(sql.toString(), this::mapRowToDto,
-                    startDate, endDate,
-                    startDate, endDate,
-                    startDate, endDate,
-                    startDate, endDate);
+            return jdbcTemplate.query(sql.toString(), this::mapRowToDto, startDate, endDate);
         } else {
             return jdbcTemplate.query(sql.toString(), this::mapRowToDto);
         }
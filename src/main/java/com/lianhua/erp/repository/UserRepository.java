@@ -1,6 +1,7 @@
 package com.lianhua.erp.repository;
 
 import com.lianhua.erp.domain.User;
+import com.lianhua.erp.security.PrincipalState;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
@@ -16,6 +17,11 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
     /** 透過帳號查找使用者（登入核心邏輯） */
     Optional<User> findByUsername(String username);
 
+    /** 認證過濾器用：只取 id、憑證更新時間與啟用狀態（不載入 EAGER 角色） */
+    @Query("SELECT new com.lianhua.erp.security.PrincipalState(u.id, u.credentialsChangedAt, u.enabled) " +
+            "FROM User u WHERE u.username = :username")
+    Optional<PrincipalState> findPrincipalStateByUsername(@Param("username") String username);
+
     //  /** 透過帳號查找信箱（登入核心邏輯） */
     Optional<User> findByEmail(String email);
 
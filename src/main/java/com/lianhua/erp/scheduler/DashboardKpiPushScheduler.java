@@ -0,0 +1,22 @@
+package com.lianhua.erp.scheduler;
+
+import com.lianhua.erp.dashboard.DashboardKpiPublisher;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 儀表板 KPI 推播節流：每個間隔最多推送一次，間隔內的單據異動合併處理。
+ */
+@Component
+@RequiredArgsConstructor
+public class DashboardKpiPushScheduler {
+
+    private final DashboardKpiPublisher dashboardKpiPublisher;
+
+    @Scheduled(fixedDelayString = "${app.dashboard.kpi-push.interval:5s}",
+            initialDelayString = "${app.dashboard.kpi-push.interval:5s}")
+    public void run() {
+        dashboardKpiPublisher.flush();
+    }
+}
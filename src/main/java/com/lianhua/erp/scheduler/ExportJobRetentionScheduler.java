@@ -0,0 +1,21 @@
+package com.lianhua.erp.scheduler;
+
+import com.lianhua.erp.service.ExportJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 背景匯出工作保留期：清除逾期的已結束工作與暫存檔。
+ */
+@Component
+@RequiredArgsConstructor
+public class ExportJobRetentionScheduler {
+
+    private final ExportJobService exportJobService;
+
+    @Scheduled(fixedDelayString = "${app.export.job.purge-interval:10m}")
+    public void run() {
+        exportJobService.purgeExpired();
+    }
+}
@@ -0,0 +1,49 @@
+package com.lianhua.erp.scheduler;
+
+import com.lianhua.erp.dto.rollup.RollupDriftDto;
+import com.lianhua.erp.service.FinancialRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 財務日彙總夜間校驗：比對近 N 天彙總與原始單據，有偏差時重建偏差涵蓋的日期區間。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FinancialRollupVerifyScheduler {
+
+    private final FinancialRollupService financialRollupService;
+
+    @Value("${app.rollup.verify.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.rollup.verify.days:45}")
+    private int days;
+
+    @Scheduled(cron = "${app.rollup.verify.cron:0 30 3 * * *}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(Math.max(days, 1));
+        List<RollupDriftDto> drifts = financialRollupService.verify(from, to);
+        if (drifts.isEmpty()) {
+            return;
+        }
+
+        LocalDate driftFrom = drifts.stream().map(RollupDriftDto::statDate).min(Comparator.naturalOrder()).orElse(from);
+        LocalDate driftTo = drifts.stream().map(RollupDriftDto::statDate).max(Comparator.naturalOrder()).orElse(to);
+        log.warn("⚠️ 財務日彙總偏差 {} 筆（{} ~ {}），開始重建", drifts.size(), driftFrom, driftTo);
+        financialRollupService.rebuild(driftFrom, driftTo);
+    }
+}
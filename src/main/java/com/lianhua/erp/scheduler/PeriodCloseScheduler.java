@@ -0,0 +1,28 @@
+package com.lianhua.erp.scheduler;
+
+import com.lianhua.erp.service.PeriodCloseService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 會計期間結帳排程：每日結帳至上個月，並補上因補登單據而被重新開啟的期間。
+ */
+@Component
+@RequiredArgsConstructor
+public class PeriodCloseScheduler {
+
+    private final PeriodCloseService periodCloseService;
+
+    @Value("${app.period-close.enabled:true}")
+    private boolean enabled;
+
+    @Scheduled(cron = "${app.period-close.cron:0 0 4 * * *}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        periodCloseService.closeThroughLastMonth();
+    }
+}
@@ -0,0 +1,21 @@
+package com.lianhua.erp.scheduler;
+
+import com.lianhua.erp.service.TokenBlacklistService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Token 黑名單保留期：分批刪除已到期的資料列（取代原本每次登出時的全表清理）。
+ */
+@Component
+@RequiredArgsConstructor
+public class TokenBlacklistPurgeScheduler {
+
+    private final TokenBlacklistService tokenBlacklistService;
+
+    @Scheduled(fixedDelayString = "${app.security.token-blacklist.purge-interval:10m}")
+    public void run() {
+        tokenBlacklistService.purgeExpired();
+    }
+}
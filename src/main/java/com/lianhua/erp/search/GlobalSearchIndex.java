@@ -0,0 +1,432 @@
+package com.lianhua.erp.search;
+
+import com.lianhua.erp.config.SearchProperties;
+import com.lianhua.erp.domain.Order;
+import com.lianhua.erp.domain.OrderCustomer;
+import com.lianhua.erp.domain.Purchase;
+import com.lianhua.erp.domain.PurchaseItem;
+import com.lianhua.erp.domain.Supplier;
+import com.lianhua.erp.dto.globalSearch.SearchIndexStatsDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 🔎 全域搜尋記憶體索引
+ * 1) 啟動完成後於背景完整建置（訂單、進貨、客戶、供應商），建置期間查詢改由資料庫回答
+ * 2) 實體於交易提交後（新增／修改／刪除）標記為待更新，由排程批次重新讀取並更新索引；
+ *    客戶、供應商名稱異動會連帶更新其訂單、進貨單
+ * 3) 索引只回傳排序後的 id，呼叫端再只載入前 N 筆
+ * 4) 估算記憶體超過預算時停用索引（查詢改回資料庫），避免資料量成長後擠壓堆積記憶體
+ *
+ * 📌 只涵蓋經由 JPA 實體的寫入；直接修改資料庫後可由管理端點手動重建。
+ */
+@Slf4j
+@Component
+public class GlobalSearchIndex implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    public enum State { EMPTY, BUILDING, READY, OVER_BUDGET, FAILED, DISABLED }
+
+    private static final int LOAD_CHUNK = 500;
+
+    private final boolean enabled;
+    private final int maxGram;
+    private final DataSize memoryBudget;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate readOnlyTx;
+    private final Executor taskExecutor;
+
+    private volatile Map<SearchScope, NgramIndex> indexes = Map.of();
+    private volatile State state = State.EMPTY;
+    private volatile boolean rebuilding;
+
+    // 待更新的 id（交易提交後標記，排程批次處理）
+    private final Map<SearchScope, Set<Long>> dirty = new EnumMap<>(SearchScope.class);
+    private final Set<Long> dirtyCustomerOrders = ConcurrentHashMap.newKeySet();
+    private final Set<Long> dirtySupplierPurchases = ConcurrentHashMap.newKeySet();
+
+    // 重建與增量更新互斥，避免增量結果被重建結果覆蓋
+    private final Object maintenanceLock = new Object();
+
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final AtomicLong incrementalUpdates = new AtomicLong();
+    private final AtomicLong indexedQueries = new AtomicLong();
+    private final AtomicLong fallbackQueries = new AtomicLong();
+    private volatile long lastRebuildMillis;
+    private volatile LocalDateTime lastRebuildAt;
+
+    public GlobalSearchIndex(EntityManagerFactory entityManagerFactory,
+                             PlatformTransactionManager transactionManager,
+                             SearchProperties searchProperties,
+                             @Qualifier("taskExecutor") Executor taskExecutor) {
+        SearchProperties.Index cfg = searchProperties.getIndex();
+        this.enabled = cfg.isEnabled();
+        this.maxGram = cfg.getMaxGram();
+        this.memoryBudget = cfg.getMemoryBudget();
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.taskExecutor = taskExecutor;
+        for (SearchScope scope : SearchScope.values()) {
+            dirty.put(scope, ConcurrentHashMap.newKeySet());
+        }
+
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!enabled) {
+            state = State.DISABLED;
+            return;
+        }
+        taskExecutor.execute(this::rebuild);
+    }
+
+    /**
+     * 查詢索引；索引未就緒時回傳 empty，由呼叫端改用資料庫查詢
+     */
+    public Optional<List<Long>> search(SearchScope scope, String keyword, String period, int limit) {
+        NgramIndex index = state == State.READY ? indexes.get(scope) : null;
+        if (index == null) {
+            fallbackQueries.incrementAndGet();
+            return Optional.empty();
+        }
+        indexedQueries.incrementAndGet();
+        return Optional.of(index.search(keyword, period, limit));
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * 完整重建：以投影查詢讀出所需欄位建立新索引，完成後整組替換（重建期間舊索引仍可查詢）
+     */
+    public void rebuild() {
+        if (!enabled) {
+            state = State.DISABLED;
+            return;
+        }
+        synchronized (maintenanceLock) {
+            rebuilding = true;
+            if (state != State.READY) {
+                state = State.BUILDING;
+            }
+            long startedAt = System.nanoTime();
+            try {
+                Map<SearchScope, NgramIndex> built = new EnumMap<>(SearchScope.class);
+                for (SearchScope scope : SearchScope.values()) {
+                    NgramIndex index = new NgramIndex(maxGram);
+                    readOnlyTx.executeWithoutResult(status -> load(scope, index, null));
+                    index.compact();
+                    built.put(scope, index);
+                }
+
+                long bytes = estimatedBytes(built.values());
+                lastRebuildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+                lastRebuildAt = LocalDateTime.now();
+                rebuilds.incrementAndGet();
+
+                if (memoryBudget != null && bytes > memoryBudget.toBytes()) {
+                    indexes = Map.of();
+                    state = State.OVER_BUDGET;
+                    clearDirty();
+                    log.warn("⚠️ [SearchIndex] 估算記憶體 {} MB 超過預算 {} MB，停用索引，搜尋改由資料庫查詢",
+                            bytes / (1024 * 1024), memoryBudget.toMegabytes());
+                    return;
+                }
+
+                indexes = built;
+                state = State.READY;
+                log.info("✅ [SearchIndex] 重建完成：{} 筆，約 {} MB，耗時 {} ms",
+                        built.values().stream().mapToInt(NgramIndex::size).sum(),
+                        bytes / (1024 * 1024), lastRebuildMillis);
+            } catch (RuntimeException e) {
+                if (state != State.READY) {
+                    state = State.FAILED;
+                }
+                log.error("❌ [SearchIndex] 重建失敗", e);
+            } finally {
+                rebuilding = false;
+            }
+        }
+        // 重建期間提交的異動
+        flushDirty();
+    }
+
+    /**
+     * 批次處理待更新的資料：重新讀取現值；已刪除者自索引移除
+     */
+    @Scheduled(fixedDelayString = "${app.search.index.refresh-interval:2s}")
+    public void flushDirty() {
+        // 重建中不佔用排程執行緒等待；重建結束後會自行處理
+        if (rebuilding) {
+            return;
+        }
+        if (state != State.READY) {
+            if (state != State.BUILDING) {
+                clearDirty();
+            }
+            return;
+        }
+        synchronized (maintenanceLock) {
+            Map<SearchScope, Set<Long>> pending = new EnumMap<>(SearchScope.class);
+            for (SearchScope scope : SearchScope.values()) {
+                pending.put(scope, drain(dirty.get(scope)));
+            }
+            Set<Long> customers = drain(dirtyCustomerOrders);
+            Set<Long> suppliers = drain(dirtySupplierPurchases);
+            if (pending.values().stream().allMatch(Set::isEmpty) && customers.isEmpty() && suppliers.isEmpty()) {
+                return;
+            }
+
+            try {
+                readOnlyTx.executeWithoutResult(status -> {
+                    // 名稱異動連帶其單據
+                    pending.get(SearchScope.ORDERS).addAll(idsByParent(
+                            "select o.id from Order o where o.customer.id in :ids", customers));
+                    pending.get(SearchScope.PURCHASES).addAll(idsByParent(
+                            "select p.id from Purchase p where p.supplier.id in :ids", suppliers));
+
+                    for (SearchScope scope : SearchScope.values()) {
+                        Set<Long> ids = pending.get(scope);
+                        if (ids.isEmpty()) {
+                            continue;
+                        }
+                        NgramIndex index = indexes.get(scope);
+                        List<Long> list = new ArrayList<>(ids);
+                        for (int from = 0; from < list.size(); from += LOAD_CHUNK) {
+                            List<Long> chunk = list.subList(from, Math.min(from + LOAD_CHUNK, list.size()));
+                            Set<Long> found = load(scope, index, chunk);
+                            for (Long id : chunk) {
+                                if (!found.contains(id)) {
+                                    index.remove(id);
+                                }
+                            }
+                        }
+                        incrementalUpdates.addAndGet(ids.size());
+                    }
+                });
+            } catch (RuntimeException e) {
+                // 放回待更新，下次排程重試
+                pending.forEach((scope, ids) -> dirty.get(scope).addAll(ids));
+                dirtyCustomerOrders.addAll(customers);
+                dirtySupplierPurchases.addAll(suppliers);
+                log.warn("⚠️ [SearchIndex] 增量更新失敗，稍後重試：{}", e.toString());
+            }
+        }
+    }
+
+    public SearchIndexStatsDto stats() {
+        Map<SearchScope, NgramIndex> current = indexes;
+        Map<String, Integer> documents = new LinkedHashMap<>();
+        long grams = 0;
+        long postings = 0;
+        for (Map.Entry<SearchScope, NgramIndex> e : current.entrySet()) {
+            documents.put(e.getKey().getKey(), e.getValue().size());
+            grams += e.getValue().gramCount();
+            postings += e.getValue().postingCount();
+        }
+        return new SearchIndexStatsDto(
+                enabled,
+                state.name(),
+                documents,
+                grams,
+                postings,
+                estimatedBytes(current.values()),
+                memoryBudget != null ? memoryBudget.toBytes() : -1,
+                lastRebuildMillis,
+                lastRebuildAt,
+                rebuilds.get(),
+                incrementalUpdates.get(),
+                indexedQueries.get(),
+                fallbackQueries.get()
+        );
+    }
+
+    /**
+     * 以投影查詢載入資料寫入索引；ids 為 null 時載入全部。回傳已載入的 id
+     */
+    private Set<Long> load(SearchScope scope, NgramIndex index, Collection<Long> ids) {
+        Set<Long> loaded = new HashSet<>();
+        switch (scope) {
+            case ORDERS -> rows("select o.id, o.orderNo, c.name, o.note, o.accountingPeriod"
+                    + " from Order o left join o.customer c", "o", ids).forEach(r -> {
+                index.put((Long) r[0], (String) r[4], (String) r[1], (String) r[2], (String) r[3]);
+                loaded.add((Long) r[0]);
+            });
+            case PURCHASES -> {
+                Map<Long, List<String>> items = new HashMap<>();
+                rows("select i.purchase.id, i.item from PurchaseItem i", "i.purchase", ids)
+                        .forEach(r -> items.computeIfAbsent((Long) r[0], k -> new ArrayList<>()).add((String) r[1]));
+                rows("select p.id, p.purchaseNo, s.name, p.accountingPeriod"
+                        + " from Purchase p left join p.supplier s", "p", ids).forEach(r -> {
+                    List<String> fields = new ArrayList<>();
+                    fields.add((String) r[1]);
+                    fields.add((String) r[2]);
+                    fields.addAll(items.getOrDefault((Long) r[0], List.of()));
+                    index.put((Long) r[0], (String) r[3], fields.toArray(String[]::new));
+                    loaded.add((Long) r[0]);
+                });
+            }
+            case CUSTOMERS -> rows("select c.id, c.name, c.contactPerson, c.phone from OrderCustomer c", "c", ids)
+                    .forEach(r -> {
+                        index.put((Long) r[0], null, (String) r[1], (String) r[2], (String) r[3]);
+                        loaded.add((Long) r[0]);
+                    });
+            case SUPPLIERS -> rows("select s.id, s.name, s.contact, s.phone from Supplier s", "s", ids)
+                    .forEach(r -> {
+                        index.put((Long) r[0], null, (String) r[1], (String) r[2], (String) r[3]);
+                        loaded.add((Long) r[0]);
+                    });
+        }
+        return loaded;
+    }
+
+    private List<Object[]> rows(String jpql, String idPath, Collection<Long> ids) {
+        if (ids == null) {
+            return entityManager.createQuery(jpql, Object[].class).getResultList();
+        }
+        return entityManager.createQuery(jpql + " where " + idPath + ".id in :ids", Object[].class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    private List<Long> idsByParent(String jpql, Set<Long> parentIds) {
+        if (parentIds.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery(jpql, Long.class).setParameter("ids", parentIds).getResultList();
+    }
+
+    private static long estimatedBytes(Collection<NgramIndex> values) {
+        long bytes = 0;
+        for (NgramIndex index : values) {
+            bytes += index.estimatedBytes();
+        }
+        return bytes;
+    }
+
+    private static Set<Long> drain(Set<Long> source) {
+        Set<Long> out = new HashSet<>();
+        for (Long id : source) {
+            if (source.remove(id)) {
+                out.add(id);
+            }
+        }
+        return out;
+    }
+
+    private void clearDirty() {
+        dirty.values().forEach(Set::clear);
+        dirtyCustomerOrders.clear();
+        dirtySupplierPurchases.clear();
+    }
+
+    private void markDirty(Object entity, Object id) {
+        if (!enabled) {
+            return;
+        }
+        if (entity instanceof PurchaseItem item) {
+            // 明細以所屬進貨單重新索引（取代理物件的 id 不會觸發載入）
+            Purchase purchase = item.getPurchase();
+            if (purchase != null && purchase.getId() != null) {
+                dirty.get(SearchScope.PURCHASES).add(purchase.getId());
+            }
+            return;
+        }
+        if (!(id instanceof Long key)) {
+            return;
+        }
+        if (entity instanceof Order) {
+            dirty.get(SearchScope.ORDERS).add(key);
+        } else if (entity instanceof Purchase) {
+            dirty.get(SearchScope.PURCHASES).add(key);
+        } else if (entity instanceof OrderCustomer) {
+            dirty.get(SearchScope.CUSTOMERS).add(key);
+            dirtyCustomerOrders.add(key);
+        } else if (entity instanceof Supplier) {
+            dirty.get(SearchScope.SUPPLIERS).add(key);
+            dirtySupplierPurchases.add(key);
+        }
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        markDirty(event.getEntity(), event.getId());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        markDirty(event.getEntity(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        markDirty(event.getEntity(), event.getId());
+    }
+
+    // 交易回滾：資料未變，不需更新
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        Class<?> type = persister.getMappedClass();
+        return type == Order.class || type == Purchase.class || type == PurchaseItem.class
+                || type == OrderCustomer.class || type == Supplier.class;
+    }
+}
@@ -0,0 +1,376 @@
+package com.lianhua.erp.search;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 單一搜尋範圍的 n-gram 倒排索引（1 ~ maxGram 字元）：
+ * 1) 每筆資料的各欄位分別切成 1 ~ maxGram 字元的片段，片段 → 文件槽位（排序的 int 陣列）
+ * 2) 查詢時取關鍵字的最長片段求交集，再以 contains 驗證（與原本 LIKE '%kw%' 語意相同）
+ * 3) 依命中欄位與比對方式（完全相符 > 開頭相符 > 包含）排序，同分時新資料（id 大）優先
+ *
+ * 中文名稱沒有空白可斷詞，以字元片段索引可直接支援任意位置的子字串搜尋。
+ * 欄位順序即權重：第 0 欄為標題（單號、名稱），第 1 欄為次要欄位，其後為其他欄位。
+ */
+final class NgramIndex {
+
+    private static final int INITIAL_SLOTS = 1024;
+
+    private final int maxGram;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> slotOf = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private Doc[] slots = new Doc[INITIAL_SLOTS];
+    private int nextSlot;
+
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private long postingEntries;
+
+    private record Doc(long id, String period, String[] fields) {
+    }
+
+    private record Hit(long id, int score) {
+    }
+
+    private static final Comparator<Hit> RANK = Comparator.comparingInt(Hit::score).thenComparingLong(Hit::id);
+
+    NgramIndex(int maxGram) {
+        this.maxGram = Math.max(1, Math.min(maxGram, 3));
+    }
+
+    /**
+     * 新增或取代一筆資料；欄位為 null 者略過
+     */
+    void put(long id, String period, String... rawFields) {
+        String[] fields = new String[rawFields.length];
+        for (int i = 0; i < rawFields.length; i++) {
+            fields[i] = normalize(rawFields[i]);
+        }
+        Doc doc = new Doc(id, period, fields);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            int slot = allocateSlot();
+            slots[slot] = doc;
+            slotOf.put(id, slot);
+            forEachGram(fields, key -> {
+                if (postings.computeIfAbsent(key, k -> new IntList()).addSorted(slot)) {
+                    postingEntries++;
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 依關鍵字查詢，回傳排序後的前 limit 筆 id；period 有值時只保留該會計期間的資料
+     */
+    List<Long> search(String keyword, String period, int limit) {
+        String q = normalize(keyword);
+        if (q == null || q.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        int n = Math.min(q.length(), maxGram);
+        Set<Long> keys = new LinkedHashSet<>();
+        for (int i = 0; i + n <= q.length(); i++) {
+            keys.add(gramKey(q, i, n));
+        }
+        boolean filterPeriod = period != null && !period.isBlank();
+        String p = filterPeriod ? period.trim() : null;
+
+        lock.readLock().lock();
+        try {
+            List<IntList> lists = new ArrayList<>(keys.size());
+            for (Long key : keys) {
+                IntList list = postings.get(key);
+                if (list == null) {
+                    return List.of();
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(IntList::size));
+
+            // 由最短的清單開始求交集
+            IntList first = lists.get(0);
+            int[] candidates = Arrays.copyOf(first.values, first.size);
+            int len = candidates.length;
+            for (int i = 1; i < lists.size() && len > 0; i++) {
+                IntList other = lists.get(i);
+                int w = 0;
+                for (int c = 0; c < len; c++) {
+                    if (other.contains(candidates[c])) {
+                        candidates[w++] = candidates[c];
+                    }
+                }
+                len = w;
+            }
+
+            PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, RANK);
+            for (int c = 0; c < len; c++) {
+                Doc doc = slots[candidates[c]];
+                if (doc == null || (filterPeriod && !p.equals(doc.period()))) {
+                    continue;
+                }
+                int score = score(doc.fields(), q);
+                if (score <= 0) {
+                    continue;
+                }
+                top.offer(new Hit(doc.id(), score));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            List<Hit> hits = new ArrayList<>(top);
+            hits.sort(RANK.reversed());
+            List<Long> ids = new ArrayList<>(hits.size());
+            for (Hit h : hits) {
+                ids.add(h.id());
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return slotOf.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long gramCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long postingCount() {
+        lock.readLock().lock();
+        try {
+            return postingEntries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 估算記憶體用量（位元組）：HashMap 節點、Long 鍵、清單物件與陣列，以及文件欄位字串。
+     * 僅供監控與預算判斷，非精確值。
+     */
+    long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = (long) slots.length * 4;
+            for (IntList list : postings.values()) {
+                // Node 32 + Long 16 + IntList 24 + 陣列標頭 16
+                bytes += 88 + (long) list.values.length * 4;
+            }
+            for (int i = 0; i < nextSlot; i++) {
+                Doc doc = slots[i];
+                if (doc == null) {
+                    continue;
+                }
+                // Doc 24 + 欄位陣列 16 + slotOf 節點 32 + Long 16 + Integer 16
+                bytes += 104 + doc.fields().length * 4L;
+                for (String f : doc.fields()) {
+                    if (f != null) {
+                        bytes += 40 + f.length() * 2L;
+                    }
+                }
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 大量建置完成後呼叫：縮減各清單陣列至實際大小
+     */
+    void compact() {
+        lock.writeLock().lock();
+        try {
+            for (IntList list : postings.values()) {
+                list.trim();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 與資料庫 lower() 比對一致並將全形英數轉為半形（NFKC）
+     */
+    static String normalize(String s) {
+        if (s == null) {
+            return null;
+        }
+        String trimmed = s.trim();
+        if (trimmed.isEmpty()) {
+            return null;
+        }
+        return Normalizer.normalize(trimmed, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    private void removeLocked(long id) {
+        Integer slot = slotOf.remove(id);
+        if (slot == null) {
+            return;
+        }
+        Doc doc = slots[slot];
+        slots[slot] = null;
+        freeSlots.push(slot);
+        forEachGram(doc.fields(), key -> {
+            IntList list = postings.get(key);
+            if (list != null && list.removeSorted(slot)) {
+                postingEntries--;
+                if (list.size == 0) {
+                    postings.remove(key);
+                }
+            }
+        });
+    }
+
+    private int allocateSlot() {
+        if (!freeSlots.isEmpty()) {
+            return freeSlots.pop();
+        }
+        if (nextSlot == slots.length) {
+            slots = Arrays.copyOf(slots, slots.length * 2);
+        }
+        return nextSlot++;
+    }
+
+    private interface GramConsumer {
+        void accept(long key);
+    }
+
+    private void forEachGram(String[] fields, GramConsumer consumer) {
+        for (String f : fields) {
+            if (f == null) {
+                continue;
+            }
+            for (int n = 1; n <= maxGram; n++) {
+                for (int i = 0; i + n <= f.length(); i++) {
+                    consumer.accept(gramKey(f, i, n));
+                }
+            }
+        }
+    }
+
+    /**
+     * 最多 3 個 UTF-16 字元編碼為一個 long（長度放最高位，避免不同長度相撞），省去建立字串
+     */
+    private static long gramKey(String s, int from, int n) {
+        long key = n;
+        for (int i = 0; i < n; i++) {
+            key = (key << 16) | s.charAt(from + i);
+        }
+        return key;
+    }
+
+    private static int score(String[] fields, String q) {
+        int best = 0;
+        for (int i = 0; i < fields.length; i++) {
+            String f = fields[i];
+            if (f == null) {
+                continue;
+            }
+            int match = f.equals(q) ? 3 : f.startsWith(q) ? 2 : f.contains(q) ? 1 : 0;
+            if (match == 0) {
+                continue;
+            }
+            int weight = i == 0 ? 20 : i == 1 ? 10 : 0;
+            best = Math.max(best, weight + match);
+        }
+        return best;
+    }
+
+    /**
+     * 排序、不重複的 int 清單（文件槽位）
+     */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        boolean contains(int v) {
+            return Arrays.binarySearch(values, 0, size, v) >= 0;
+        }
+
+        boolean addSorted(int v) {
+            // 槽位多半遞增配發，先檢查尾端
+            if (size == 0 || values[size - 1] < v) {
+                ensureCapacity();
+                values[size++] = v;
+                return true;
+            }
+            int idx = Arrays.binarySearch(values, 0, size, v);
+            if (idx >= 0) {
+                return false;
+            }
+            int at = -idx - 1;
+            ensureCapacity();
+            System.arraycopy(values, at, values, at + 1, size - at);
+            values[at] = v;
+            size++;
+            return true;
+        }
+
+        boolean removeSorted(int v) {
+            int idx = Arrays.binarySearch(values, 0, size, v);
+            if (idx < 0) {
+                return false;
+            }
+            System.arraycopy(values, idx + 1, values, idx, size - idx - 1);
+            size--;
+            return true;
+        }
+
+        void trim() {
+            if (values.length > size) {
+                values = Arrays.copyOf(values, Math.max(size, 1));
+            }
+        }
+
+        private void ensureCapacity() {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, values.length + (values.length >> 1) + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.lianhua.erp.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 字元前綴樹：每個節點的子節點以排序的 char 陣列保存（二分搜尋），值掛在鍵結尾的節點上。
+ * 查詢時走到前綴節點後以廣度優先收集，較短（較接近輸入）的鍵先回傳，收集到上限即停止。
+ *
+ * 非執行緒安全，由呼叫端加鎖。
+ */
+final class PrefixTrie<V> {
+
+    private static final char[] NO_KEYS = new char[0];
+
+    private final Node<V> root = new Node<>();
+    private int size;
+
+    private static final class Node<V> {
+        private char[] keys = NO_KEYS;
+        private Node<V>[] children = newArray(0);
+        private List<V> values;
+
+        Node<V> child(char c) {
+            int idx = Arrays.binarySearch(keys, c);
+            return idx >= 0 ? children[idx] : null;
+        }
+
+        Node<V> childOrCreate(char c) {
+            int idx = Arrays.binarySearch(keys, c);
+            if (idx >= 0) {
+                return children[idx];
+            }
+            int at = -idx - 1;
+            Node<V> node = new Node<>();
+            char[] k = new char[keys.length + 1];
+            Node<V>[] ch = newArray(children.length + 1);
+            System.arraycopy(keys, 0, k, 0, at);
+            System.arraycopy(children, 0, ch, 0, at);
+            k[at] = c;
+            ch[at] = node;
+            System.arraycopy(keys, at, k, at + 1, keys.length - at);
+            System.arraycopy(children, at, ch, at + 1, children.length - at);
+            keys = k;
+            children = ch;
+            return node;
+        }
+
+        void removeChild(char c) {
+            int idx = Arrays.binarySearch(keys, c);
+            if (idx < 0) {
+                return;
+            }
+            char[] k = new char[keys.length - 1];
+            Node<V>[] ch = newArray(children.length - 1);
+            System.arraycopy(keys, 0, k, 0, idx);
+            System.arraycopy(children, 0, ch, 0, idx);
+            System.arraycopy(keys, idx + 1, k, idx, keys.length - idx - 1);
+            System.arraycopy(children, idx + 1, ch, idx, children.length - idx - 1);
+            keys = k;
+            children = ch;
+        }
+
+        boolean isEmpty() {
+            return keys.length == 0 && (values == null || values.isEmpty());
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <V> Node<V>[] newArray(int n) {
+            return (Node<V>[]) new Node[n];
+        }
+    }
+
+    void add(String key, V value) {
+        if (key == null || key.isEmpty()) {
+            return;
+        }
+        Node<V> node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childOrCreate(key.charAt(i));
+        }
+        if (node.values == null) {
+            node.values = new ArrayList<>(1);
+        }
+        if (!node.values.contains(value)) {
+            node.values.add(value);
+            size++;
+        }
+    }
+
+    /**
+     * 移除鍵上的值，並修剪因此變空的節點
+     */
+    void remove(String key, V value) {
+        if (key == null || key.isEmpty()) {
+            return;
+        }
+        Deque<Node<V>> path = new ArrayDeque<>(key.length() + 1);
+        Node<V> node = root;
+        path.push(node);
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+            if (node != null) {
+                path.push(node);
+            }
+        }
+        if (node == null || node.values == null || !node.values.remove(value)) {
+            return;
+        }
+        size--;
+        for (int i = key.length() - 1; i >= 0; i--) {
+            Node<V> current = path.pop();
+            if (!current.isEmpty()) {
+                break;
+            }
+            path.peek().removeChild(key.charAt(i));
+        }
+    }
+
+    /**
+     * 以 prefix 開頭的值，最多 limit 筆（不重複）；鍵較短者優先，同長度依字元順序
+     */
+    List<V> collect(String prefix, int limit) {
+        if (prefix == null || prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Node<V> node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        Set<V> out = new LinkedHashSet<>();
+        Deque<Node<V>> queue = new ArrayDeque<>();
+        queue.add(node);
+        while (!queue.isEmpty() && out.size() < limit) {
+            Node<V> current = queue.poll();
+            if (current.values != null) {
+                for (V v : current.values) {
+                    out.add(v);
+                    if (out.size() >= limit) {
+                        break;
+                    }
+                }
+            }
+            queue.addAll(Arrays.asList(current.children));
+        }
+        return new ArrayList<>(out);
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,38 @@
+package com.lianhua.erp.search;
+
+/**
+ * 全域搜尋範圍；key 與 /api/global_search 的 scopes 參數一致。
+ */
+public enum SearchScope {
+
+    ORDERS("orders"),
+    PURCHASES("purchases"),
+    CUSTOMERS("customers"),
+    SUPPLIERS("suppliers");
+
+    private final String key;
+
+    SearchScope(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * 未知的 key 回傳 null（由呼叫端決定忽略或報錯）
+     */
+    public static SearchScope fromKey(String raw) {
+        if (raw == null) {
+            return null;
+        }
+        String normalized = raw.trim().toLowerCase();
+        for (SearchScope s : values()) {
+            if (s.key.equals(normalized)) {
+                return s;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,459 @@
+package com.lianhua.erp.search;
+
+import com.lianhua.erp.config.SearchProperties;
+import com.lianhua.erp.domain.OrderCustomer;
+import com.lianhua.erp.domain.Product;
+import com.lianhua.erp.domain.PurchaseItem;
+import com.lianhua.erp.domain.Supplier;
+import com.lianhua.erp.dto.suggest.SuggestionDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ⌨️ 輸入提示（typeahead）記憶體前綴索引
+ * 1) 客戶名稱／電話、供應商名稱、商品名稱（僅啟用中）、歷史進貨品項（purchase_items.item 不重複值）
+ * 2) 啟動完成後背景建置；之後於交易提交後直接依實體現值更新，不重新查詢資料庫
+ * 3) 進貨品項以出現次數計數，最後一筆使用該品項的明細刪除（或改名）後才移除
+ *
+ * 📌 建置期間的主檔異動先暫存，建置完成後依序套用（覆寫，重複套用無妨）。
+ *    進貨品項無法得知建置查詢是否已包含該筆異動，套用增減量可能多計或少計（少計會誤刪仍在使用的品項），
+ *    因此建置期間只記錄受影響的品項，建置完成後向資料庫重新計數；僅與最後一次重新計數查詢
+ *    同時提交的異動可能有誤差。只涵蓋經由 JPA 實體的寫入。
+ */
+@Slf4j
+@Component
+public class SuggestIndex implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    private record Entry(SuggestionDto value, List<String> keys) {
+    }
+
+    private final boolean enabled;
+    private final TransactionTemplate readOnlyTx;
+    private final Executor taskExecutor;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<SuggestType, PrefixTrie<SuggestionDto>> tries = emptyTries();
+    private Map<SuggestType, Map<Long, Entry>> entries = emptyEntries();
+    private Map<String, Integer> itemRefs = new HashMap<>();
+
+    private volatile boolean ready;
+    private volatile boolean building;
+    private final Queue<Runnable> pendingChanges = new ConcurrentLinkedQueue<>();
+    private final Set<String> staleItems = ConcurrentHashMap.newKeySet();
+
+    /** 建置完成後重新計數的輪數上限（每輪涵蓋前一輪查詢期間的異動） */
+    private static final int MAX_RECOUNT_ROUNDS = 3;
+    private static final int RECOUNT_CHUNK = 500;
+
+    public SuggestIndex(EntityManagerFactory entityManagerFactory,
+                        PlatformTransactionManager transactionManager,
+                        SearchProperties searchProperties,
+                        @Qualifier("taskExecutor") Executor taskExecutor) {
+        this.enabled = searchProperties.getSuggest().isEnabled();
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.taskExecutor = taskExecutor;
+
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) {
+            taskExecutor.execute(this::rebuild);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 以前綴查詢；多個類別時輪流取用各類別結果，避免單一類別佔滿名額
+     */
+    public List<SuggestionDto> suggest(String prefix, Collection<SuggestType> types, int limit) {
+        String key = NgramIndex.normalize(prefix);
+        if (key == null || limit <= 0 || types.isEmpty()) {
+            return List.of();
+        }
+        List<List<SuggestionDto>> perType = new ArrayList<>(types.size());
+        lock.readLock().lock();
+        try {
+            for (SuggestType type : types) {
+                perType.add(tries.get(type).collect(key, limit));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<SuggestionDto> out = new ArrayList<>(limit);
+        for (int i = 0; out.size() < limit; i++) {
+            boolean any = false;
+            for (List<SuggestionDto> list : perType) {
+                if (i < list.size()) {
+                    any = true;
+                    out.add(list.get(i));
+                    if (out.size() >= limit) {
+                        break;
+                    }
+                }
+            }
+            if (!any) {
+                break;
+            }
+        }
+        return out;
+    }
+
+    public synchronized void rebuild() {
+        building = true;
+        long startedAt = System.nanoTime();
+        try {
+            Map<SuggestType, PrefixTrie<SuggestionDto>> newTries = emptyTries();
+            Map<SuggestType, Map<Long, Entry>> newEntries = emptyEntries();
+            Map<String, Integer> newItemRefs = new HashMap<>();
+
+            readOnlyTx.executeWithoutResult(status -> {
+                entityManager.createQuery("select c.id, c.name, c.phone from OrderCustomer c", Object[].class)
+                        .getResultList()
+                        .forEach(r -> put(newTries, newEntries, SuggestType.CUSTOMERS,
+                                (Long) r[0], (String) r[1], (String) r[2]));
+                entityManager.createQuery("select s.id, s.name, s.phone from Supplier s", Object[].class)
+                        .getResultList()
+                        .forEach(r -> put(newTries, newEntries, SuggestType.SUPPLIERS,
+                                (Long) r[0], (String) r[1], (String) r[2]));
+                entityManager.createQuery("select p.id, p.name from Product p where p.active = true", Object[].class)
+                        .getResultList()
+                        .forEach(r -> put(newTries, newEntries, SuggestType.PRODUCTS,
+                                (Long) r[0], (String) r[1], null));
+                entityManager.createQuery("select i.item, count(i) from PurchaseItem i"
+                                + " where i.item is not null group by i.item", Object[].class)
+                        .getResultList()
+                        .forEach(r -> addItem(newTries, newItemRefs, (String) r[0], ((Long) r[1]).intValue()));
+            });
+
+            lock.writeLock().lock();
+            try {
+                tries = newTries;
+                entries = newEntries;
+                itemRefs = newItemRefs;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("✅ [Suggest] 建置完成：客戶 {}、供應商 {}、商品 {}、品項 {}，耗時 {} ms",
+                    newEntries.get(SuggestType.CUSTOMERS).size(), newEntries.get(SuggestType.SUPPLIERS).size(),
+                    newEntries.get(SuggestType.PRODUCTS).size(), newItemRefs.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        } catch (RuntimeException e) {
+            if (!ready) {
+                pendingChanges.clear();
+                staleItems.clear();
+            }
+            log.error("❌ [Suggest] 建置失敗", e);
+        } finally {
+            // 仍在建置狀態下重新計數，查詢期間的品項異動會再記錄到下一輪
+            recountStaleItems(MAX_RECOUNT_ROUNDS);
+            building = false;
+            applyPending();
+            // 切換狀態前一刻才記錄的品項
+            recountStaleItems(1);
+        }
+    }
+
+    /**
+     * 以資料庫現值覆寫建置期間異動過的品項計數
+     */
+    private void recountStaleItems(int rounds) {
+        if (!ready) {
+            return;
+        }
+        try {
+            for (int round = 0; round < rounds && !staleItems.isEmpty(); round++) {
+                List<String> labels = new ArrayList<>(staleItems);
+                staleItems.removeAll(labels);
+                Map<String, Integer> counts = countItems(labels);
+
+                lock.writeLock().lock();
+                try {
+                    for (String label : labels) {
+                        int current = itemRefs.getOrDefault(label, 0);
+                        addItem(tries, itemRefs, label, counts.getOrDefault(label, 0) - current);
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                log.debug("🔁 [Suggest] 重新計數品項 {} 筆", labels.size());
+            }
+        } catch (RuntimeException e) {
+            log.error("❌ [Suggest] 品項重新計數失敗", e);
+        }
+    }
+
+    private Map<String, Integer> countItems(List<String> labels) {
+        Map<String, Integer> counts = new HashMap<>();
+        readOnlyTx.executeWithoutResult(status -> {
+            for (int from = 0; from < labels.size(); from += RECOUNT_CHUNK) {
+                List<String> chunk = labels.subList(from, Math.min(from + RECOUNT_CHUNK, labels.size()));
+                entityManager.createQuery("select trim(i.item), count(i) from PurchaseItem i"
+                                + " where trim(i.item) in :labels group by trim(i.item)", Object[].class)
+                        .setParameter("labels", chunk)
+                        .getResultList()
+                        .forEach(r -> counts.merge((String) r[0], ((Long) r[1]).intValue(), Integer::sum));
+            }
+        });
+        return counts;
+    }
+
+    // --------------------------------------------------
+    // 🔁 交易提交後的增量更新
+    // --------------------------------------------------
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        onChange(event.getEntity(), null, false);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        onChange(event.getEntity(), oldItem(event), false);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        onChange(event.getEntity(), null, true);
+    }
+
+    private void onChange(Object entity, String[] oldItem, boolean deleted) {
+        // 尚未建置（或建置失敗）時不需記錄：下次建置會讀到最新資料
+        if (!enabled || (!ready && !building)) {
+            return;
+        }
+        if (building && entity instanceof PurchaseItem i) {
+            markStale(i.getItem());
+            if (oldItem != null) {
+                markStale(oldItem[0]);
+            }
+            return;
+        }
+        Runnable change = switch (entity) {
+            case OrderCustomer c -> deleted
+                    ? () -> remove(SuggestType.CUSTOMERS, c.getId())
+                    : upsert(SuggestType.CUSTOMERS, c.getId(), c.getName(), c.getPhone());
+            case Supplier s -> deleted
+                    ? () -> remove(SuggestType.SUPPLIERS, s.getId())
+                    : upsert(SuggestType.SUPPLIERS, s.getId(), s.getName(), s.getPhone());
+            case Product p -> deleted || !Boolean.TRUE.equals(p.getActive())
+                    ? () -> remove(SuggestType.PRODUCTS, p.getId())
+                    : upsert(SuggestType.PRODUCTS, p.getId(), p.getName(), null);
+            case PurchaseItem i -> itemChange(i.getItem(), oldItem, deleted);
+            default -> null;
+        };
+        if (change == null) {
+            return;
+        }
+        pendingChanges.add(change);
+        if (!building) {
+            applyPending();
+        }
+    }
+
+    private Runnable upsert(SuggestType type, Long id, String name, String detail) {
+        return () -> {
+            remove(type, id);
+            put(tries, entries, type, id, name, detail);
+        };
+    }
+
+    private void remove(SuggestType type, Long id) {
+        Entry old = entries.get(type).remove(id);
+        if (old != null) {
+            for (String key : old.keys()) {
+                tries.get(type).remove(key, old.value());
+            }
+        }
+    }
+
+    /**
+     * oldItem 為 null 表示新增或刪除；長度 1 的陣列為修改前的品項（可能為 null）
+     */
+    private Runnable itemChange(String item, String[] oldItem, boolean deleted) {
+        if (deleted) {
+            return () -> addItem(tries, itemRefs, item, -1);
+        }
+        if (oldItem == null) {
+            return () -> addItem(tries, itemRefs, item, 1);
+        }
+        String before = oldItem[0];
+        if (before == null ? item == null : before.equals(item)) {
+            return null;
+        }
+        return () -> {
+            addItem(tries, itemRefs, before, -1);
+            addItem(tries, itemRefs, item, 1);
+        };
+    }
+
+    private void markStale(String item) {
+        if (item != null && !item.isBlank()) {
+            staleItems.add(item.trim());
+        }
+    }
+
+    private void applyPending() {
+        if (!ready) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Iterator<Runnable> it = pendingChanges.iterator(); it.hasNext(); ) {
+                Runnable change = it.next();
+                it.remove();
+                change.run();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static String[] oldItem(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof PurchaseItem) || event.getOldState() == null) {
+            return null;
+        }
+        String[] names = event.getPersister().getPropertyNames();
+        for (int i = 0; i < names.length; i++) {
+            if ("item".equals(names[i])) {
+                return new String[]{(String) event.getOldState()[i]};
+            }
+        }
+        return null;
+    }
+
+    private static void put(Map<SuggestType, PrefixTrie<SuggestionDto>> tries,
+                            Map<SuggestType, Map<Long, Entry>> entries,
+                            SuggestType type, Long id, String name, String detail) {
+        if (id == null || name == null || name.isBlank()) {
+            return;
+        }
+        SuggestionDto value = new SuggestionDto(type.getKey(), id, name.trim(), detail);
+        Set<String> keys = new LinkedHashSet<>();
+        addKey(keys, NgramIndex.normalize(name));
+        if (detail != null) {
+            addKey(keys, NgramIndex.normalize(detail));
+            // 電話另以純數字索引，輸入時可不打分隔符號
+            addKey(keys, detail.replaceAll("\\D", ""));
+        }
+        for (String key : keys) {
+            tries.get(type).add(key, value);
+        }
+        entries.get(type).put(id, new Entry(value, List.copyOf(keys)));
+    }
+
+    private static void addKey(Set<String> keys, String key) {
+        if (key != null && !key.isEmpty()) {
+            keys.add(key);
+        }
+    }
+
+    private static void addItem(Map<SuggestType, PrefixTrie<SuggestionDto>> tries,
+                                Map<String, Integer> itemRefs, String item, int delta) {
+        if (item == null || item.isBlank()) {
+            return;
+        }
+        String label = item.trim();
+        int before = itemRefs.getOrDefault(label, 0);
+        int after = before + delta;
+        SuggestionDto value = new SuggestionDto(SuggestType.PURCHASE_ITEMS.getKey(), null, label, null);
+        String key = NgramIndex.normalize(label);
+        if (after <= 0) {
+            itemRefs.remove(label);
+            if (before > 0) {
+                tries.get(SuggestType.PURCHASE_ITEMS).remove(key, value);
+            }
+        } else {
+            itemRefs.put(label, after);
+            if (before <= 0) {
+                tries.get(SuggestType.PURCHASE_ITEMS).add(key, value);
+            }
+        }
+    }
+
+    private static Map<SuggestType, PrefixTrie<SuggestionDto>> emptyTries() {
+        Map<SuggestType, PrefixTrie<SuggestionDto>> map = new EnumMap<>(SuggestType.class);
+        for (SuggestType type : SuggestType.values()) {
+            map.put(type, new PrefixTrie<>());
+        }
+        return map;
+    }
+
+    private static Map<SuggestType, Map<Long, Entry>> emptyEntries() {
+        Map<SuggestType, Map<Long, Entry>> map = new EnumMap<>(SuggestType.class);
+        for (SuggestType type : SuggestType.values()) {
+            map.put(type, new HashMap<>());
+        }
+        return map;
+    }
+
+    // 交易回滾：資料未變，不需更新
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        Class<?> type = persister.getMappedClass();
+        return type == OrderCustomer.class || type == Supplier.class || type == Product.class
+                || type == PurchaseItem.class;
+    }
+}
@@ -0,0 +1,46 @@
+package com.lianhua.erp.search;
+
+import java.util.List;
+
+/**
+ * 輸入提示的資料類別；authorities 為可查詢該類別的權限（任一即可），涵蓋會用到該欄位的輸入畫面。
+ */
+public enum SuggestType {
+
+    CUSTOMERS("customers", List.of("order_customer:view", "order:view", "receipt:view")),
+    SUPPLIERS("suppliers", List.of("supplier:view", "purchase:view", "payment:view")),
+    PRODUCTS("products", List.of("product:view", "order:view", "sale:view")),
+    PURCHASE_ITEMS("purchase_items", List.of("purchase:view"));
+
+    private final String key;
+    private final List<String> authorities;
+
+    SuggestType(String key, List<String> authorities) {
+        this.key = key;
+        this.authorities = authorities;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public List<String> getAuthorities() {
+        return authorities;
+    }
+
+    /**
+     * 未知的 key 回傳 null（由呼叫端決定忽略或報錯）
+     */
+    public static SuggestType fromKey(String raw) {
+        if (raw == null) {
+            return null;
+        }
+        String normalized = raw.trim().toLowerCase();
+        for (SuggestType t : values()) {
+            if (t.key.equals(normalized)) {
+                return t;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,257 @@
+package com.lianhua.erp.security;
+
+import com.lianhua.erp.config.RateLimitProperties;
+import com.lianhua.erp.dto.ratelimit.RateLimitStatsDto;
+import com.lianhua.erp.throttle.ThrottleStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 🚦 API 限流引擎（單節點）
+ * 1) 規則依路徑樣式設定，key 為「規則 + IP + 路由樣板」（數字、UUID 等路徑參數以 {id} 取代，避免每個 id 各佔一個 key）
+ * 2) 每個 key 一個 token bucket，以 GCRA 表示：只保存「理論到達時間」一個 long，CAS 更新，不加鎖
+ * 3) 理論到達時間已過去的 bucket 即為滿的，刪除不影響結果；key 數超過上限時先淘汰這些閒置 key，仍超過再強制淘汰
+ * 4) ThrottleStore 為多節點共用時，本節點放行後再以共用計數檢查整個叢集在時間窗內的請求數
+ */
+@Slf4j
+@Component
+public class ApiRateLimiter {
+
+    public record Decision(boolean allowed, String policy, long remaining, long retryAfterSeconds) {
+    }
+
+    private static final Decision UNLIMITED = new Decision(true, null, -1, 0);
+
+    private static final class CompiledPolicy {
+        final String name;
+        final String pattern;
+        final Set<String> methods;
+        final int capacity;
+        final long windowNanos;
+        final long intervalNanos;
+        final LongAdder allowed = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+
+        CompiledPolicy(String name, String pattern, Set<String> methods, int capacity, Duration window) {
+            this.name = name;
+            this.pattern = pattern;
+            this.methods = methods;
+            this.capacity = capacity;
+            this.windowNanos = window.toNanos();
+            this.intervalNanos = Math.max(1L, windowNanos / capacity);
+        }
+    }
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final ThrottleStore throttleStore;
+    private final boolean enabled;
+    private final int maxKeys;
+    private final List<CompiledPolicy> policies;
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final AtomicLong idleEvictions = new AtomicLong();
+    private final AtomicLong forcedEvictions = new AtomicLong();
+
+    public ApiRateLimiter(RateLimitProperties properties, ThrottleStore throttleStore) {
+        this.throttleStore = throttleStore;
+        this.enabled = properties.isRateLimitEnabled();
+        this.maxKeys = Math.max(100, properties.getMaxKeys());
+        List<CompiledPolicy> compiled = new ArrayList<>();
+        for (RateLimitProperties.Policy p : properties.getPolicies()) {
+            if (p.getPattern() == null || p.getPattern().isBlank()) {
+                continue;
+            }
+            int capacity = Math.max(1, p.getCapacity() != null ? p.getCapacity() : properties.getMaxRequestsPerWindow());
+            Duration window = p.getWindow() != null ? p.getWindow() : Duration.ofSeconds(Math.max(1, properties.getWindowSeconds()));
+            Set<String> methods = p.getMethods() == null ? Set.of() : p.getMethods().stream()
+                    .map(m -> m.trim().toUpperCase(Locale.ROOT))
+                    .filter(m -> !m.isEmpty())
+                    .collect(Collectors.toUnmodifiableSet());
+            String name = p.getName() != null && !p.getName().isBlank() ? p.getName() : p.getPattern();
+            compiled.add(new CompiledPolicy(name, p.getPattern().trim(), methods, capacity, window));
+        }
+        this.policies = List.copyOf(compiled);
+        log.info("🚦 API 限流規則：{}", policies.stream()
+                .map(p -> p.name + "=" + p.pattern + " " + p.capacity + "/" + Duration.ofNanos(p.windowNanos).toSeconds() + "s")
+                .collect(Collectors.joining(", ")));
+    }
+
+    /**
+     * 嘗試取用一個請求額度；未符合任何規則時一律放行
+     */
+    public Decision tryAcquire(String clientIp, String method, String path) {
+        if (!enabled || path == null) {
+            return UNLIMITED;
+        }
+        CompiledPolicy policy = match(method, path);
+        if (policy == null) {
+            return UNLIMITED;
+        }
+
+        long now = System.nanoTime();
+        String key = policy.name + '|' + clientIp + '|' + routeTemplate(path);
+        AtomicLong tat = buckets.get(key);
+        if (tat == null) {
+            tat = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+            if (buckets.size() > maxKeys) {
+                evict(now);
+            }
+        }
+
+        long ahead;
+        while (true) {
+            long current = tat.get();
+            long base = current - now > 0 ? current : now;
+            long next = base + policy.intervalNanos;
+            ahead = next - now;
+            if (ahead > policy.windowNanos) {
+                policy.rejected.increment();
+                long waitNanos = ahead - policy.windowNanos;
+                return new Decision(false, policy.name, 0, Math.max(1L, (waitNanos + 999_999_999L) / 1_000_000_000L));
+            }
+            if (tat.compareAndSet(current, next)) {
+                break;
+            }
+        }
+
+        long remaining = (policy.windowNanos - ahead) / policy.intervalNanos;
+        if (throttleStore.isShared()) {
+            long clusterCount = throttleStore.increment("api:" + key, Duration.ofNanos(policy.windowNanos));
+            if (clusterCount > policy.capacity) {
+                policy.rejected.increment();
+                return new Decision(false, policy.name, 0, Math.max(1L, (policy.intervalNanos + 999_999_999L) / 1_000_000_000L));
+            }
+            remaining = Math.min(remaining, policy.capacity - clusterCount);
+        }
+        policy.allowed.increment();
+        return new Decision(true, policy.name, remaining, 0);
+    }
+
+    /**
+     * 定期移除閒置（bucket 已回滿）的 key
+     */
+    @Scheduled(fixedDelayString = "${security.api.sweep-interval:1m}")
+    public void sweepIdle() {
+        if (!buckets.isEmpty()) {
+            evict(System.nanoTime());
+        }
+    }
+
+    public RateLimitStatsDto stats() {
+        List<RateLimitStatsDto.PolicyStats> list = policies.stream()
+                .map(p -> new RateLimitStatsDto.PolicyStats(
+                        p.name,
+                        p.pattern,
+                        List.copyOf(p.methods),
+                        p.capacity,
+                        Duration.ofNanos(p.windowNanos).toSeconds(),
+                        p.allowed.sum(),
+                        p.rejected.sum()))
+                .toList();
+        return new RateLimitStatsDto(enabled, buckets.size(), maxKeys, idleEvictions.get(), forcedEvictions.get(),
+                throttleStore.name(), throttleStore.isShared(), throttleStore.size(), list);
+    }
+
+    private CompiledPolicy match(String method, String path) {
+        for (CompiledPolicy p : policies) {
+            if (!p.methods.isEmpty() && (method == null || !p.methods.contains(method))) {
+                continue;
+            }
+            if (pathMatcher.match(p.pattern, path)) {
+                return p;
+            }
+        }
+        return null;
+    }
+
+    private void evict(long now) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int removed = 0;
+            Iterator<AtomicLong> it = buckets.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().get() - now <= 0) {
+                    it.remove();
+                    removed++;
+                }
+            }
+            idleEvictions.addAndGet(removed);
+
+            // 大量不同 key（例如掃描）時仍超過上限：強制淘汰到上限的九成，被淘汰的 key 視同額度已回滿
+            int target = maxKeys - maxKeys / 10;
+            if (buckets.size() > maxKeys) {
+                int forced = 0;
+                Iterator<AtomicLong> all = buckets.values().iterator();
+                while (buckets.size() > target && all.hasNext()) {
+                    all.next();
+                    all.remove();
+                    forced++;
+                }
+                forcedEvictions.addAndGet(forced);
+                log.warn("⚠️ API 限流 key 數超過上限 {}，已強制淘汰 {} 個", maxKeys, forced);
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    /**
+     * 路由樣板：將數字、UUID、長十六進位字串等路徑參數段落以 {id} 取代
+     */
+    static String routeTemplate(String path) {
+        StringBuilder sb = null;
+        int start = 0;
+        int len = path.length();
+        for (int i = 0; i <= len; i++) {
+            if (i == len || path.charAt(i) == '/') {
+                if (i > start && isIdentifier(path, start, i)) {
+                    if (sb == null) {
+                        sb = new StringBuilder(len).append(path, 0, start);
+                    }
+                    sb.append("{id}");
+                } else if (sb != null) {
+                    sb.append(path, start, i);
+                }
+                if (sb != null && i < len) {
+                    sb.append('/');
+                }
+                start = i + 1;
+            }
+        }
+        return sb != null ? sb.toString() : path;
+    }
+
+    private static boolean isIdentifier(String path, int from, int to) {
+        int length = to - from;
+        boolean allDigits = true;
+        boolean allHex = true;
+        for (int i = from; i < to; i++) {
+            char c = path.charAt(i);
+            boolean digit = c >= '0' && c <= '9';
+            boolean hex = digit || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F') || c == '-';
+            allDigits &= digit;
+            allHex &= hex;
+            if (!allDigits && !allHex) {
+                return false;
+            }
+        }
+        return allDigits || (allHex && length >= 16);
+    }
+}
@@ -0,0 +1,81 @@
+package com.lianhua.erp.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 由 JWT 還原的角色與權限：角色為名稱清單，權限為位元集合。
+ * hasAuthority 直接做位元測試；只有在需要逐一列舉（getAuthorities 的呼叫端）時才建立 GrantedAuthority 清單。
+ */
+public final class GrantedPermissions extends AbstractCollection<GrantedAuthority> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final PermissionCatalog.Snapshot catalog;
+    private final List<String> roles;
+    private final BitSet bits;
+    private transient volatile List<GrantedAuthority> materialized;
+
+    GrantedPermissions(PermissionCatalog.Snapshot catalog, List<String> roles, BitSet bits) {
+        this.catalog = catalog;
+        this.roles = List.copyOf(roles);
+        this.bits = bits;
+    }
+
+    /**
+     * 是否具有指定 authority（ROLE_ 開頭者比對角色名稱，其餘為權限位元測試）
+     */
+    public boolean hasAuthority(String authority) {
+        if (authority == null) {
+            return false;
+        }
+        if (authority.startsWith("ROLE_")) {
+            return roles.contains(authority);
+        }
+        int index = catalog.indexOf(authority);
+        return index >= 0 && bits.get(index);
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    @Override
+    public Iterator<GrantedAuthority> iterator() {
+        return materialize().iterator();
+    }
+
+    @Override
+    public int size() {
+        return roles.size() + bits.cardinality();
+    }
+
+    private List<GrantedAuthority> materialize() {
+        List<GrantedAuthority> list = materialized;
+        if (list == null) {
+            list = new ArrayList<>(roles.size() + bits.cardinality());
+            for (String role : roles) {
+                list.add(new SimpleGrantedAuthority(role));
+            }
+            for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                String name = catalog.nameOf(i);
+                if (name != null) {
+                    list.add(new SimpleGrantedAuthority(name));
+                }
+            }
+            list = Collections.unmodifiableList(list);
+            materialized = list;
+        }
+        return list;
+    }
+}
@@ -1,6 +1,5 @@
 package com.lianhua.erp.security;
 
-import com.lianhua.erp.repository.UserRepository;
 import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -9,8 +8,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -19,13 +16,11 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.time.Instant;
-import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * JWT 認證過濾器 (效能優化版)
- * 負責攔截請求、從 JWT 的 "roles" claim 提取「角色與權限」(authorities) 並建立安全上下文，避免重複查詢資料庫。
- * 註：claim 名為 "roles"，內容實際為角色名 + 權限名合併清單，供 hasRole / hasAuthority 使用。
+ * 負責攔截請求、從 JWT 的角色名稱（rl）與權限位元集合（pb）還原權限並建立安全上下文，避免重複查詢資料庫。
+ * 權限不逐一建立 GrantedAuthority，@PreAuthorize 直接做位元測試；舊版 Token 的 "roles" 字串清單仍可使用。
  */
 @Slf4j
 @Component
@@ -34,7 +29,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;
     private final com.lianhua.erp.service.TokenBlacklistService tokenBlacklistService;
-    private final UserRepository userRepository;
+    private final PrincipalStateCache principalStateCache;
+    private final JwtClaimsCache jwtClaimsCache;
+    private final PermissionCatalog permissionCatalog;
 
     @Override
     protected void doFilterInternal(
@@ -43,27 +40,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             @NonNull FilterChain filterChain
     ) throws ServletException, IOException {
 
+        long startedAt = System.nanoTime();
+        String jwt = null;
         try {
             // 1. 從請求標頭提取 JWT
-            String jwt = parseJwt(request);
+            jwt = parseJwt(request);
 
-            // 2. 驗證 Token 是否有效，且未在黑名單中
-            if (jwt != null && jwtUtils.validateJwtToken(jwt) && !tokenBlacklistService.isBlacklisted(jwt)) {
-
-                // 3. 從 Token 取得 Claims（含 uid 與 "roles"：角色+權限合併的 authority 清單）
-                Claims claims = jwtUtils.getClaimsFromJwtToken(jwt);
+            // 2. 驗證 Token（簽章與期限，同一 Token 僅驗證一次），且未在黑名單中
+            // 3. 取得 Claims（含 uid、角色名稱與權限位元集合）
+            Claims claims = jwt != null ? jwtUtils.getVerifiedClaims(jwt) : null;
+            if (claims != null && !tokenBlacklistService.isBlacklisted(jwt)) {
                 String username = claims.getSubject();
 
-                // 4. 將 "roles" claim 映射為 Spring Security 的 Authorities（供 hasRole / hasAuthority 使用）
-                @SuppressWarnings("unchecked")
-                List<String> roles = claims.get("roles", List.class);
-                if (roles == null) {
-                    roles = List.of();
-                }
-
-                List<SimpleGrantedAuthority> authorities = roles.stream()
-                        .map(SimpleGrantedAuthority::new)
-                        .collect(Collectors.toList());
+                // 4. 還原角色與權限位元集合（供 hasRole / hasAuthority 使用）
+                GrantedPermissions authorities = permissionCatalog.fromClaims(claims);
 
                 // 5. 從 JWT 取得 uid，組裝 CustomUserDetails 作為 Principal（供 /api/users/me、通知中心等 API 取得 currentUserId）
                 Long uid = null;
@@ -71,20 +61,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 if (uidClaim instanceof Number) {
                     uid = ((Number) uidClaim).longValue();
                 }
-                // 若 JWT 無 uid 或為 0（舊版 token 或異常），依 username 查庫補齊，並順便做 credentialsChangedAt 檢查
-                var userOpt = userRepository.findByUsername(username);
+                // 若 JWT 無 uid 或為 0（舊版 token 或異常），依 username 補齊，並順便做 credentialsChangedAt 檢查（狀態經快取，未命中才查庫）
+                var stateOpt = principalStateCache.get(username);
                 if (uid == null || uid <= 0L) {
-                    uid = userOpt.map(u -> u.getId()).orElse(0L);
+                    uid = stateOpt.map(PrincipalState::userId).orElse(0L);
                     if (uid > 0L) {
                         log.debug("JWT 缺少有效 uid，已依 username '{}' 補齊為 {}", username, uid);
                     }
                 }
 
-                // 若使用者曾更新密碼或被強制登出，且 credentialsChangedAt 晚於 Token 簽發時間，則拒絕此 Token
-                userOpt.ifPresent(user -> {
-                    if (user.getCredentialsChangedAt() != null) {
+                // 若使用者已停用，或曾更新密碼／被強制登出且 credentialsChangedAt 晚於 Token 簽發時間，則拒絕此 Token
+                stateOpt.ifPresent(state -> {
+                    if (!state.isEnabled()) {
+                        throw new RuntimeException("帳號已停用");
+                    }
+                    if (state.credentialsChangedAt() != null) {
                         Instant issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null;
-                        if (issuedAt != null && issuedAt.isBefore(user.getCredentialsChangedAt().atZone(java.time.ZoneId.systemDefault()).toInstant())) {
+                        if (issuedAt != null && issuedAt.isBefore(state.credentialsChangedAt().atZone(java.time.ZoneId.systemDefault()).toInstant())) {
                             throw new RuntimeException("Token 已因憑證更新而失效");
                         }
                     }
@@ -98,21 +91,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                         authorities
                 );
 
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        authorities
-                );
+                JwtAuthenticationToken authentication = new JwtAuthenticationToken(userDetails, authorities);
 
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                 // 6. 存入 Security 上下文，讓 @PreAuthorize 生效
                 SecurityContextHolder.getContext().setAuthentication(authentication);
 
-                log.debug("已從 Token 建立使用者 '{}' 的安全上下文, authorities: {}", username, roles);
+                log.debug("已從 Token 建立使用者 '{}' 的安全上下文, roles: {}", username, authorities.getRoles());
             }
         } catch (Exception e) {
             log.error("無法設定使用者認證: {}", e.getMessage());
+        } finally {
+            if (jwt != null) {
+                jwtClaimsCache.recordFilterNanos(System.nanoTime() - startedAt);
+            }
         }
 
         // 7. 繼續過濾器鏈
@@ -0,0 +1,79 @@
+package com.lianhua.erp.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.io.Serial;
+import java.util.Collection;
+
+/**
+ * 由 JWT 建立的已認證身分。與 UsernamePasswordAuthenticationToken 不同，不會在建立時複製 authorities，
+ * 權限以 GrantedPermissions（位元集合）保存，@PreAuthorize 與 SecurityUtils 直接做位元測試。
+ */
+public class JwtAuthenticationToken implements Authentication {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final CustomUserDetails principal;
+    private final GrantedPermissions permissions;
+    private Object details;
+    private boolean authenticated = true;
+
+    public JwtAuthenticationToken(CustomUserDetails principal, GrantedPermissions permissions) {
+        this.principal = principal;
+        this.permissions = permissions;
+    }
+
+    public GrantedPermissions getPermissions() {
+        return permissions;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return permissions;
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public Object getDetails() {
+        return details;
+    }
+
+    public void setDetails(Object details) {
+        this.details = details;
+    }
+
+    @Override
+    public Object getPrincipal() {
+        return principal;
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return authenticated;
+    }
+
+    @Override
+    public void setAuthenticated(boolean isAuthenticated) {
+        // 與 UsernamePasswordAuthenticationToken 相同：只允許改為未認證
+        if (isAuthenticated) {
+            throw new IllegalArgumentException("不可將 JwtAuthenticationToken 設為已認證，請改以建構子建立");
+        }
+        this.authenticated = false;
+    }
+
+    @Override
+    public String getName() {
+        return principal.getUsername();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " [Principal=" + principal.getUsername() + ", Roles=" + permissions.getRoles() + "]";
+    }
+}
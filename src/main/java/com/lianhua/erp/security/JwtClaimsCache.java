@@ -0,0 +1,131 @@
+package com.lianhua.erp.security;
+
+import com.lianhua.erp.dto.auth.JwtCacheStatsDto;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 🔐 已驗證 JWT Claims 快取
+ * 1) 以 Token 的 SHA-256 摘要為鍵（不在記憶體保留 Token 原文），保存簽章驗證通過後的 Claims
+ * 2) 每筆存活到 Token 的 exp 為止，過期即視為未命中並移除；筆數有上限，超過時淘汰最久未使用者
+ * 3) 只快取「簽章與期限」的驗證結果；黑名單、憑證更新等狀態仍由呼叫端每次檢查
+ *
+ * 回傳的 Claims 為共用物件，呼叫端僅可讀取。
+ * 另統計 JwtAuthenticationFilter 的認證耗時，供監控使用。
+ */
+@Component
+public class JwtClaimsCache {
+
+    @Value("${app.security.jwt-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.security.jwt-cache.max-entries:10000}")
+    private int maxEntries;
+
+    private record Entry(Claims claims, long expiresAtMillis) {
+    }
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            if (size() > Math.max(1, maxEntries)) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final AtomicLong filterRequests = new AtomicLong();
+    private final AtomicLong filterTotalNanos = new AtomicLong();
+    private final AtomicLong filterMaxNanos = new AtomicLong();
+
+    /**
+     * 取得已驗證且未過期的 Claims；未命中回傳 null
+     */
+    public Claims get(String token) {
+        if (!enabled) {
+            return null;
+        }
+        String key = digest(token);
+        synchronized (entries) {
+            Entry e = entries.get(key);
+            if (e != null) {
+                if (System.currentTimeMillis() < e.expiresAtMillis()) {
+                    hits.incrementAndGet();
+                    return e.claims();
+                }
+                entries.remove(key);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * 保存剛驗證通過的 Claims；沒有 exp 的 Token 不快取
+     */
+    public void put(String token, Claims claims) {
+        Date exp = claims.getExpiration();
+        if (!enabled || exp == null || exp.getTime() <= System.currentTimeMillis()) {
+            return;
+        }
+        String key = digest(token);
+        synchronized (entries) {
+            entries.put(key, new Entry(claims, exp.getTime()));
+        }
+    }
+
+    public void recordFilterNanos(long nanos) {
+        filterRequests.incrementAndGet();
+        filterTotalNanos.addAndGet(nanos);
+        filterMaxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public JwtCacheStatsDto stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        long h = hits.get();
+        long m = misses.get();
+        long requests = filterRequests.get();
+        double hitRate = h + m == 0 ? 0.0 : Math.round(h * 10000.0 / (h + m)) / 100.0;
+        double avgMicros = requests == 0 ? 0.0 : Math.round(filterTotalNanos.get() / 10.0 / requests) / 100.0;
+        return new JwtCacheStatsDto(
+                enabled,
+                size,
+                maxEntries,
+                h,
+                m,
+                evictions.get(),
+                hitRate,
+                requests,
+                avgMicros,
+                Math.round(filterMaxNanos.get() / 10.0) / 100.0
+        );
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+}
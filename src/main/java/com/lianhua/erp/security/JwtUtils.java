@@ -2,6 +2,8 @@ package com.lianhua.erp.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
@@ -16,8 +18,12 @@ import org.springframework.security.core.Authentication;
 
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class JwtUtils {
 
+    private final JwtClaimsCache jwtClaimsCache;
+    private final PermissionCatalog permissionCatalog;
+
     @Value("${lianhua.app.jwtSecret:LianhuaERP_Secure_Secret_Key_2026_Standard}")
     private String jwtSecret;
 
@@ -27,7 +33,17 @@ public class JwtUtils {
     @Value("${spring.profiles.active:}")
     private String activeProfiles;
 
-    private SecretKey getSigningKey() {
+    // 啟動時建立一次；HMAC 金鑰與 parser 皆不可變，可跨執行緒共用
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
+        this.signingKey = buildSigningKey();
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
+
+    private SecretKey buildSigningKey() {
         // 開發環境允許使用預設 Secret，但在非 dev profile 時若仍為預設值，直接阻止啟動以避免誤用。
         boolean looksLikeDefaultSecret = jwtSecret != null
                 && jwtSecret.contains("LianhuaERP_Secure_Secret_Key_2026_Standard");
@@ -48,26 +64,25 @@ public class JwtUtils {
     }
 
     /**
-     * 產生 JWT，並將 uid 與 authorities 寫入 Claims。
-     * 註：claim 名稱為 "roles"，但內容為「角色 + 權限」合併的 authority 清單（如 ROLE_ADMIN, user:view），
-     * 供 Filter 還原為 Spring Security 的 GrantedAuthority，使 hasRole / hasAuthority
-     * 皆可正確運作。
+     * 產生 JWT，並將 uid、角色名稱（rl）與權限位元集合（pb）寫入 Claims。
+     * 權限不再逐一列出字串，位元索引由 PermissionCatalog 提供，Filter 據此還原 hasRole / hasAuthority。
      */
     public String generateJwtToken(Authentication authentication) {
         CustomUserDetails userPrincipal = (CustomUserDetails) authentication.getPrincipal();
 
-        List<String> roles = userPrincipal.getAuthorities().stream()
+        List<String> authorities = userPrincipal.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.toList());
 
         return Jwts.builder()
                 .setSubject(userPrincipal.getUsername())
                 .claim("uid", userPrincipal.getId())
-                .claim("roles", roles)
+                .claim(PermissionCatalog.CLAIM_ROLES, PermissionCatalog.roleNames(authorities))
+                .claim(PermissionCatalog.CLAIM_PERMISSION_BITS, permissionCatalog.encode(authorities))
                 .setIssuer("Lianhua-ERP-System")
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -76,25 +91,27 @@ public class JwtUtils {
     }
 
     /**
-     * 提取 JWT 所有 Claims（含 roles claim：角色與權限合併的 authority 清單）。
+     * 提取 JWT 所有 Claims（含 uid、角色名稱與權限位元集合）。
      * 方便 Filter 直接讀取並還原 Security 上下文，無需重複查庫。
+     * 同一 Token 驗證過一次後即由快取回傳（至 exp 為止）；無效或過期時拋出 JwtException。
+     * 回傳的 Claims 可能為共用物件，請勿修改。
      */
     public Claims getClaimsFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    public String getUserNameFromJwtToken(String token) {
-        return getClaimsFromJwtToken(token).getSubject();
+        Claims cached = jwtClaimsCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        jwtClaimsCache.put(token, claims);
+        return claims;
     }
 
-    public boolean validateJwtToken(String authToken) {
+    /**
+     * 驗證並取得 Claims；無效、過期時記錄原因並回傳 null（一次完成驗證與解析）
+     */
+    public Claims getVerifiedClaims(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(authToken);
-            return true;
+            return getClaimsFromJwtToken(authToken);
         } catch (SecurityException | MalformedJwtException e) {
             log.error("無效的 JWT 簽名: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -104,6 +121,14 @@ public class JwtUtils {
         } catch (IllegalArgumentException e) {
             log.error("JWT claims 字串為空: {}", e.getMessage());
         }
-        return false;
+        return null;
+    }
+
+    public String getUserNameFromJwtToken(String token) {
+        return getClaimsFromJwtToken(token).getSubject();
+    }
+
+    public boolean validateJwtToken(String authToken) {
+        return getVerifiedClaims(authToken) != null;
     }
-}
\ No newline at end of file
+}
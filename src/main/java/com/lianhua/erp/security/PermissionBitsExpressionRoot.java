@@ -0,0 +1,143 @@
+package com.lianhua.erp.security;
+
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.core.Authentication;
+
+/**
+ * @PreAuthorize 的 SpEL 根物件：身分為 JwtAuthenticationToken 時，hasAuthority / hasRole 直接做位元測試，
+ * 不必如 SecurityExpressionRoot 先將所有 authority 轉成字串集合；其餘運算交給 Spring 預設根物件。
+ */
+public class PermissionBitsExpressionRoot implements MethodSecurityExpressionOperations {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final MethodSecurityExpressionOperations delegate;
+
+    public PermissionBitsExpressionRoot(MethodSecurityExpressionOperations delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean hasAuthority(String authority) {
+        GrantedPermissions permissions = permissions();
+        return permissions != null ? permissions.hasAuthority(authority) : delegate.hasAuthority(authority);
+    }
+
+    @Override
+    public boolean hasAnyAuthority(String... authorities) {
+        GrantedPermissions permissions = permissions();
+        if (permissions == null) {
+            return delegate.hasAnyAuthority(authorities);
+        }
+        for (String authority : authorities) {
+            if (permissions.hasAuthority(authority)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean hasRole(String role) {
+        GrantedPermissions permissions = permissions();
+        return permissions != null ? permissions.hasAuthority(withRolePrefix(role)) : delegate.hasRole(role);
+    }
+
+    @Override
+    public boolean hasAnyRole(String... roles) {
+        GrantedPermissions permissions = permissions();
+        if (permissions == null) {
+            return delegate.hasAnyRole(roles);
+        }
+        for (String role : roles) {
+            if (permissions.hasAuthority(withRolePrefix(role))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Authentication getAuthentication() {
+        return delegate.getAuthentication();
+    }
+
+    /** 供 SpEL 以 principal 存取 */
+    public Object getPrincipal() {
+        Authentication authentication = delegate.getAuthentication();
+        return authentication != null ? authentication.getPrincipal() : null;
+    }
+
+    @Override
+    public boolean permitAll() {
+        return delegate.permitAll();
+    }
+
+    @Override
+    public boolean denyAll() {
+        return delegate.denyAll();
+    }
+
+    @Override
+    public boolean isAnonymous() {
+        return delegate.isAnonymous();
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return delegate.isAuthenticated();
+    }
+
+    @Override
+    public boolean isRememberMe() {
+        return delegate.isRememberMe();
+    }
+
+    @Override
+    public boolean isFullyAuthenticated() {
+        return delegate.isFullyAuthenticated();
+    }
+
+    @Override
+    public boolean hasPermission(Object target, Object permission) {
+        return delegate.hasPermission(target, permission);
+    }
+
+    @Override
+    public boolean hasPermission(Object targetId, String targetType, Object permission) {
+        return delegate.hasPermission(targetId, targetType, permission);
+    }
+
+    @Override
+    public void setFilterObject(Object filterObject) {
+        delegate.setFilterObject(filterObject);
+    }
+
+    @Override
+    public Object getFilterObject() {
+        return delegate.getFilterObject();
+    }
+
+    @Override
+    public void setReturnObject(Object returnObject) {
+        delegate.setReturnObject(returnObject);
+    }
+
+    @Override
+    public Object getReturnObject() {
+        return delegate.getReturnObject();
+    }
+
+    @Override
+    public Object getThis() {
+        return delegate.getThis();
+    }
+
+    private GrantedPermissions permissions() {
+        return delegate.getAuthentication() instanceof JwtAuthenticationToken token ? token.getPermissions() : null;
+    }
+
+    private static String withRolePrefix(String role) {
+        return role == null || role.startsWith(ROLE_PREFIX) ? role : ROLE_PREFIX + role;
+    }
+}
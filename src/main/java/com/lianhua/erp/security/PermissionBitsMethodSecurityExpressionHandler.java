@@ -0,0 +1,24 @@
+package com.lianhua.erp.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.core.Authentication;
+
+import java.util.function.Supplier;
+
+/**
+ * 方法安全性運算式處理器：沿用預設設定建立根物件後，外包一層 PermissionBitsExpressionRoot。
+ */
+public class PermissionBitsMethodSecurityExpressionHandler extends DefaultMethodSecurityExpressionHandler {
+
+    @Override
+    public EvaluationContext createEvaluationContext(Supplier<Authentication> authentication, MethodInvocation mi) {
+        StandardEvaluationContext context = (StandardEvaluationContext) super.createEvaluationContext(authentication, mi);
+        MethodSecurityExpressionOperations root = (MethodSecurityExpressionOperations) context.getRootObject().getValue();
+        context.setRootObject(new PermissionBitsExpressionRoot(root));
+        return context;
+    }
+}
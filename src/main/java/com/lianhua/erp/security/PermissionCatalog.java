@@ -0,0 +1,195 @@
+package com.lianhua.erp.security;
+
+import com.lianhua.erp.domain.Permission;
+import com.lianhua.erp.repository.PermissionRepository;
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 🔐 權限目錄：權限名稱 ↔ 位元索引。
+ * 1) 位元索引即 permissions.id（自動遞增、不重複使用），各節點、重啟前後皆一致；已刪除的權限其位元不再對應任何名稱
+ * 2) JWT 以「角色名稱 + 權限位元集合（Base64URL）」取代逐一列出的權限字串，@PreAuthorize 以位元測試判斷
+ * 3) 位元集合只由登入／換發時剛載入的權限名稱編碼，不快取「角色 → 權限」，避免其他節點以過期的角色定義簽發 Token
+ * 4) 目錄於第一次使用時載入；遇到目錄中沒有的權限名稱（新增的權限）時重建
+ */
+@Slf4j
+@Component
+public class PermissionCatalog {
+
+    /** JWT claim：角色名稱清單 */
+    public static final String CLAIM_ROLES = "rl";
+    /** JWT claim：權限位元集合（Base64URL，無 padding） */
+    public static final String CLAIM_PERMISSION_BITS = "pb";
+    /** 舊版 JWT claim：角色與權限合併的字串清單 */
+    public static final String CLAIM_LEGACY_AUTHORITIES = "roles";
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    /**
+     * 不可變的目錄快照；GrantedPermissions 持有建立當下的快照，不受之後重建影響
+     */
+    public static final class Snapshot implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final Map<String, Integer> indexByName;
+        private final String[] nameByIndex;
+
+        Snapshot(Map<String, Integer> indexByName, String[] nameByIndex) {
+            this.indexByName = indexByName;
+            this.nameByIndex = nameByIndex;
+        }
+
+        public int indexOf(String permission) {
+            Integer index = indexByName.get(permission);
+            return index != null ? index : -1;
+        }
+
+        public String nameOf(int index) {
+            return index >= 0 && index < nameByIndex.length ? nameByIndex[index] : null;
+        }
+
+        int size() {
+            return indexByName.size();
+        }
+    }
+
+    private final PermissionRepository permissionRepository;
+    private final TransactionTemplate readOnlyTx;
+
+    private volatile Snapshot snapshot;
+
+    public PermissionCatalog(PermissionRepository permissionRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.permissionRepository = permissionRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    public Snapshot snapshot() {
+        Snapshot s = snapshot;
+        return s != null ? s : rebuild();
+    }
+
+    /**
+     * 將 authority 清單（角色名稱 + 權限名稱）編碼為 JWT 的權限位元集合；角色名稱不影響位元，
+     * 權限須由呼叫端自資料庫載入（CustomUserDetailsService / RefreshTokenServiceImpl 皆已展開角色的權限）
+     */
+    public String encode(Collection<String> authorities) {
+        Snapshot s = snapshot();
+        BitSet bits = collectBits(s, authorities);
+        if (bits == null) {
+            // 目錄中沒有的權限（例如剛新增）：重建一次後再編碼
+            s = rebuild();
+            bits = collectBits(s, authorities);
+            if (bits == null) {
+                bits = collectBitsLenient(s, authorities);
+            }
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bits.toByteArray());
+    }
+
+    public static List<String> roleNames(Collection<String> authorities) {
+        return authorities.stream().filter(a -> a != null && a.startsWith(ROLE_PREFIX)).toList();
+    }
+
+    /**
+     * 由 JWT Claims 還原權限；同時支援新版（rl + pb）與舊版（roles 字串清單）Token
+     */
+    @SuppressWarnings("unchecked")
+    public GrantedPermissions fromClaims(Claims claims) {
+        Snapshot s = snapshot();
+        String encoded = claims.get(CLAIM_PERMISSION_BITS, String.class);
+        if (encoded != null) {
+            List<String> roles = claims.get(CLAIM_ROLES, List.class);
+            BitSet bits = BitSet.valueOf(Base64.getUrlDecoder().decode(encoded));
+            return new GrantedPermissions(s, roles != null ? roles : List.of(), bits);
+        }
+
+        List<String> legacy = claims.get(CLAIM_LEGACY_AUTHORITIES, List.class);
+        if (legacy == null) {
+            legacy = List.of();
+        }
+        return new GrantedPermissions(s, roleNames(legacy), collectBitsLenient(s, legacy));
+    }
+
+    private synchronized Snapshot rebuild() {
+        Snapshot current = snapshot;
+        try {
+            Snapshot built = readOnlyTx.execute(status -> load());
+            snapshot = built;
+            log.info("🔐 權限目錄已載入：{} 個權限", built.size());
+            return built;
+        } catch (RuntimeException e) {
+            if (current != null) {
+                log.error("❌ 權限目錄重建失敗，沿用舊目錄：{}", e.getMessage());
+                return current;
+            }
+            throw e;
+        }
+    }
+
+    private Snapshot load() {
+        List<Permission> permissions = permissionRepository.findAll();
+        Map<String, Integer> indexByName = new HashMap<>();
+        int maxIndex = -1;
+        for (Permission p : permissions) {
+            int index = Math.toIntExact(p.getId());
+            indexByName.put(p.getName(), index);
+            maxIndex = Math.max(maxIndex, index);
+        }
+        String[] nameByIndex = new String[maxIndex + 1];
+        indexByName.forEach((name, index) -> nameByIndex[index] = name);
+        return new Snapshot(Map.copyOf(indexByName), nameByIndex);
+    }
+
+    /** 有目錄中不存在的權限時回傳 null */
+    private static BitSet collectBits(Snapshot s, Collection<String> authorities) {
+        BitSet bits = new BitSet();
+        for (String a : authorities) {
+            if (a == null || a.startsWith(ROLE_PREFIX)) {
+                continue;
+            }
+            int index = s.indexOf(a);
+            if (index < 0) {
+                return null;
+            }
+            bits.set(index);
+        }
+        return bits;
+    }
+
+    private static BitSet collectBitsLenient(Snapshot s, Collection<String> authorities) {
+        BitSet bits = new BitSet();
+        List<String> unknown = new ArrayList<>();
+        for (String a : authorities) {
+            if (a == null || a.startsWith(ROLE_PREFIX)) {
+                continue;
+            }
+            int index = s.indexOf(a);
+            if (index >= 0) {
+                bits.set(index);
+            } else {
+                unknown.add(a);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            log.warn("⚠️ 權限目錄中找不到下列權限，將忽略：{}", unknown);
+        }
+        return bits;
+    }
+}
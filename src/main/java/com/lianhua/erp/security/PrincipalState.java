@@ -0,0 +1,13 @@
+package com.lianhua.erp.security;
+
+import java.time.LocalDateTime;
+
+/**
+ * 認證過濾器每次請求需要的使用者狀態（不含角色、密碼等），由 UserRepository 以投影查詢載入。
+ */
+public record PrincipalState(Long userId, LocalDateTime credentialsChangedAt, Boolean enabled) {
+
+    public boolean isEnabled() {
+        return !Boolean.FALSE.equals(enabled);
+    }
+}
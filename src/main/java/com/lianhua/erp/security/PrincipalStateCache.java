@@ -0,0 +1,129 @@
+package com.lianhua.erp.security;
+
+import com.lianhua.erp.dto.auth.PrincipalCacheStatsDto;
+import com.lianhua.erp.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 🔐 使用者認證狀態快取（userId、credentialsChangedAt、enabled）
+ * 1) JwtAuthenticationFilter 每次請求都要比對憑證更新時間；命中時不查資料庫，未命中才以投影查詢載入
+ * 2) 密碼變更、強制登出、停用、角色異動等寫入由服務層呼叫 invalidate，於交易提交後（無交易則立即）移除該使用者
+ * 3) 以全域版本號防止「讀到舊資料 → 失效 → 寫回舊資料」：載入前記下版本，寫回時版本已變即放棄
+ *
+ * ⚠️ invalidate 只清除本節點；其他節點（以及未經服務層的寫入，例如直接改資料庫）依存活時間（預設 5 秒）過期。
+ * 因此多節點部署下，強制登出、停用或改密碼最多延遲一個 ttl 才在其他節點生效；ttl 設為 0 即每次查庫（與快取前相同）。
+ */
+@Component
+public class PrincipalStateCache {
+
+    @Value("${app.security.principal-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.security.principal-cache.max-entries:5000}")
+    private int maxEntries;
+
+    @Value("${app.security.principal-cache.ttl:5s}")
+    private Duration ttl;
+
+    private record Entry(PrincipalState state, long loadedAtNanos) {
+    }
+
+    private final UserRepository userRepository;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public PrincipalStateCache(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * 取得使用者狀態；查無此帳號回傳 empty（不快取，以免帳號建立後仍讀到「不存在」）
+     */
+    public Optional<PrincipalState> get(String username) {
+        if (username == null) {
+            return Optional.empty();
+        }
+        if (enabled && !ttl.isZero()) {
+            Entry e = entries.get(username);
+            if (e != null && System.nanoTime() - e.loadedAtNanos() < ttl.toNanos()) {
+                hits.incrementAndGet();
+                return Optional.of(e.state());
+            }
+        }
+        misses.incrementAndGet();
+
+        long observed = version.get();
+        Optional<PrincipalState> loaded = userRepository.findPrincipalStateByUsername(username);
+        if (enabled && !ttl.isZero() && loaded.isPresent()) {
+            if (entries.size() >= Math.max(1, maxEntries)) {
+                // 上限僅為保護；使用者數量通常遠低於此，直接清空重建即可
+                entries.clear();
+            }
+            entries.put(username, new Entry(loaded.get(), System.nanoTime()));
+            if (version.get() != observed) {
+                // 載入期間有失效事件，可能寫回了舊狀態
+                entries.remove(username);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * 使指定使用者的快取失效（含改名前的帳號）；在交易中呼叫時，提交後會再移除一次，
+     * 避免其他請求在提交前讀到舊資料並寫回快取。
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        Runnable action = () -> {
+            version.incrementAndGet();
+            entries.values().removeIf(e -> userId.equals(e.state().userId()));
+            invalidations.incrementAndGet();
+        };
+        action.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        version.incrementAndGet();
+        entries.clear();
+        invalidations.incrementAndGet();
+    }
+
+    public PrincipalCacheStatsDto stats() {
+        long h = hits.get();
+        long m = misses.get();
+        double hitRate = h + m == 0 ? 0.0 : Math.round(h * 10000.0 / (h + m)) / 100.0;
+        return new PrincipalCacheStatsDto(
+                enabled,
+                entries.size(),
+                maxEntries,
+                ttl.toSeconds(),
+                h,
+                m,
+                invalidations.get(),
+                hitRate
+        );
+    }
+}
@@ -22,9 +22,7 @@ public class ReportExportAuthorization {
         if (auth == null || !auth.isAuthenticated()) {
             throw new AccessDeniedException("未認證");
         }
-        boolean ok = auth.getAuthorities().stream()
-                .anyMatch(a -> required.equals(a.getAuthority()));
-        if (!ok) {
+        if (!SecurityUtils.hasAuthority(required)) {
             throw new AccessDeniedException("無權限匯出此報表，需要：" + required);
         }
     }
@@ -0,0 +1,153 @@
+package com.lianhua.erp.security;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 已撤銷 Token 的記憶體索引：Bloom filter + 精確集合（Token 雜湊 → 到期時間）。
+ * 1) 查詢先看 Bloom filter，絕大多數未撤銷的 Token 在此即判定「不在名單」，不需查表
+ * 2) Bloom filter 判定「可能在」時，再以精確集合確認，並忽略已到期者
+ * 3) Bloom filter 無法刪除，移除到期項目或超過預估容量時以集合重建
+ *
+ * 讀取不加鎖；新增與重建互斥，避免重建期間新增的項目遺失。
+ */
+public class RevokedTokenIndex {
+
+    private final Map<String, Long> expiresAtByHash = new ConcurrentHashMap<>();
+    private final double falsePositiveRate;
+    private final int minCapacity;
+    private volatile Bloom bloom;
+
+    public RevokedTokenIndex(int expectedEntries, double falsePositiveRate) {
+        this.falsePositiveRate = falsePositiveRate;
+        this.minCapacity = Math.max(expectedEntries, 64);
+        this.bloom = new Bloom(minCapacity, falsePositiveRate);
+    }
+
+    public synchronized void add(String tokenHash, long expiresAtMillis) {
+        expiresAtByHash.merge(tokenHash, expiresAtMillis, Math::max);
+        if (expiresAtByHash.size() > bloom.capacity) {
+            rebuild();
+        } else {
+            bloom.put(tokenHash);
+        }
+    }
+
+    public boolean contains(String tokenHash, long nowMillis) {
+        if (!bloom.mightContain(tokenHash)) {
+            return false;
+        }
+        Long expiresAt = expiresAtByHash.get(tokenHash);
+        return expiresAt != null && expiresAt > nowMillis;
+    }
+
+    /**
+     * 移除已到期項目；有移除時重建 Bloom filter，回傳移除筆數
+     */
+    public synchronized int removeExpired(long nowMillis) {
+        int removed = 0;
+        Iterator<Long> it = expiresAtByHash.values().iterator();
+        while (it.hasNext()) {
+            if (it.next() <= nowMillis) {
+                it.remove();
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            rebuild();
+        }
+        return removed;
+    }
+
+    public int size() {
+        return expiresAtByHash.size();
+    }
+
+    public int bloomCapacity() {
+        return bloom.capacity;
+    }
+
+    public long bloomBits() {
+        return bloom.bitCount;
+    }
+
+    /** 呼叫端需持有 this 鎖 */
+    private void rebuild() {
+        int capacity = minCapacity;
+        while (capacity < expiresAtByHash.size() * 2L && capacity < Integer.MAX_VALUE / 2) {
+            capacity *= 2;
+        }
+        Bloom next = new Bloom(capacity, falsePositiveRate);
+        for (String hash : expiresAtByHash.keySet()) {
+            next.put(hash);
+        }
+        bloom = next;
+    }
+
+    /**
+     * 以 Token 的 SHA-256 十六進位雜湊作為輸入（本身已均勻分佈），取前 32 字元為兩個 64 位元值做 double hashing。
+     */
+    private static final class Bloom {
+
+        private final int capacity;
+        private final long bitCount;
+        private final int hashCount;
+        private final AtomicLongArray words;
+
+        Bloom(int capacity, double falsePositiveRate) {
+            double p = Math.min(Math.max(falsePositiveRate, 1e-9), 0.5);
+            long bits = (long) Math.ceil(-capacity * Math.log(p) / (Math.log(2) * Math.log(2)));
+            this.capacity = capacity;
+            this.bitCount = Math.max(64, (bits + 63) / 64 * 64);
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+            this.words = new AtomicLongArray((int) (bitCount / 64));
+        }
+
+        void put(String hexHash) {
+            long h1 = h1(hexHash);
+            long h2 = h2(hexHash);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << (bit & 63);
+                long current;
+                do {
+                    current = words.get(word);
+                    if ((current & mask) != 0) {
+                        break;
+                    }
+                } while (!words.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String hexHash) {
+            long h1 = h1(hexHash);
+            long h2 = h2(hexHash);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((words.get((int) (bit >>> 6)) & (1L << (bit & 63))) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long h1(String hexHash) {
+            return parse(hexHash, 0);
+        }
+
+        private static long h2(String hexHash) {
+            // 第二個雜湊需為奇數，確保各次探測位置不重複落在同一循環
+            return parse(hexHash, 16) | 1L;
+        }
+
+        private static long parse(String hexHash, int from) {
+            if (hexHash.length() < from + 16) {
+                return hexHash.hashCode() * 0x9E3779B97F4A7C15L + from;
+            }
+            return Long.parseUnsignedLong(hexHash, from, from + 16, 16);
+        }
+    }
+}
@@ -48,6 +48,9 @@ public final class SecurityUtils {
             return false;
         }
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof JwtAuthenticationToken token) {
+            return token.getPermissions().hasAuthority(authority);
+        }
         if (authentication == null || authentication.getAuthorities() == null) {
             return false;
         }
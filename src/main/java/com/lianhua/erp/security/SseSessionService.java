@@ -1,6 +1,7 @@
 package com.lianhua.erp.security;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
@@ -11,7 +12,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
- * 管理每個 userId 對應的 SSE 連線，用於推送即時事件（例如 FORCE_LOGOUT）。
+ * 管理每個 userId 對應的 SSE 連線，用於推送即時事件（例如 FORCE_LOGOUT、背景匯出進度）。
  */
 @Component
 @Slf4j
@@ -80,5 +81,24 @@ public class SseSessionService {
             }
         }
     }
-}
 
+    /**
+     * 對指定 userId 的所有連線推送事件；data 以 JSON 序列化。使用者未連線時直接略過。
+     */
+    public void send(Long userId, String eventName, Object data) {
+        List<SseEmitter> list = emittersByUserId.get(userId);
+        if (list == null || list.isEmpty()) {
+            return;
+        }
+        for (SseEmitter emitter : list) {
+            try {
+                emitter.send(SseEmitter.event()
+                        .name(eventName)
+                        .data(data, MediaType.APPLICATION_JSON));
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Failed to send {} to user {}: {}", eventName, userId, e.getMessage());
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
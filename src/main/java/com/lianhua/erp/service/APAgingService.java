@@ -3,7 +3,7 @@ package com.lianhua.erp.service;
 import com.lianhua.erp.dto.ap.APAgingFilterDto;
 import com.lianhua.erp.dto.ap.APAgingPurchaseDetailDto;
 import com.lianhua.erp.dto.ap.APAgingSummaryDto;
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.export.ExportFormat;
 import com.lianhua.erp.export.ExportScope;
 
@@ -38,7 +38,7 @@ public interface APAgingService {
     // ======================================================
     // 🔥 匯出（含篩選、支援 page/all）
     // ======================================================
-    ExportPayload exportAgingSummary(
+    StreamingExportPayload exportAgingSummary(
             APAgingFilterDto filter,
             Pageable pageable,
             ExportFormat format,
@@ -3,7 +3,7 @@ package com.lianhua.erp.service;
 import com.lianhua.erp.dto.ar.ARAgingFilterDto;
 import com.lianhua.erp.dto.ar.ARAgingOrderDetailDto;
 import com.lianhua.erp.dto.ar.ARAgingSummaryDto;
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.export.ExportFormat;
 import com.lianhua.erp.export.ExportScope;
 
@@ -38,7 +38,7 @@ public interface ARAgingService {
     // ======================================================
     // 🔥 匯出（含篩選、支援 page/all）
     // ======================================================
-    ExportPayload exportAgingSummary(
+    StreamingExportPayload exportAgingSummary(
             ARAgingFilterDto filter,
             Pageable pageable,
             ExportFormat format,
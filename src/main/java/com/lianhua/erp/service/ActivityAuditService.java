@@ -3,7 +3,7 @@ package com.lianhua.erp.service;
 import com.lianhua.erp.dto.audit.ActivityAuditLogResponseDto;
 import com.lianhua.erp.dto.audit.ActivityAuditRecordRequest;
 import com.lianhua.erp.dto.audit.ActivityAuditLogSearchRequest;
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.export.ExportFormat;
 import com.lianhua.erp.export.ExportScope;
 import org.springframework.data.domain.Page;
@@ -21,7 +21,7 @@ public interface ActivityAuditService {
     /**
      * 匯出稽核紀錄；篩選與列表相同，並支援 scope=all（全選）／page（當前頁），與其他模組匯出規格一致。
      */
-    ExportPayload exportAuditLogs(
+    StreamingExportPayload exportAuditLogs(
             ActivityAuditLogSearchRequest request,
             Pageable pageable,
             ExportFormat format,
@@ -10,6 +10,7 @@ import com.lianhua.erp.repository.UserRepository;
 import com.lianhua.erp.security.CustomUserDetails;
 import com.lianhua.erp.security.EncryptionService;
 import com.lianhua.erp.security.JwtUtils;
+import com.lianhua.erp.security.PrincipalStateCache;
 import com.lianhua.erp.security.SensitiveDataMasker;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -40,6 +41,7 @@ public class AuthService {
     private final EncryptionService encryptionService;
     private final OnlineUserStore onlineUserStore;
     private final SimpMessagingTemplate messagingTemplate;
+    private final PrincipalStateCache principalStateCache;
 
     /**
      * 執行登出邏輯：強化版
@@ -99,6 +101,7 @@ public class AuthService {
             if (user != null) {
                 user.setCredentialsChangedAt(LocalDateTime.now());
                 userRepository.save(user);
+                principalStateCache.invalidate(userId);
 
                 // 3. 清理記憶體 Store (移除所有殘留 Session)
                 onlineUserStore.unregisterByUserId(userId);
@@ -0,0 +1,12 @@
+package com.lianhua.erp.service;
+
+import com.lianhua.erp.dto.dashboard.bundle.DashboardBundleDto;
+import com.lianhua.erp.dto.dashboard.bundle.DashboardBundleRequest;
+
+/**
+ * 儀表板組合查詢：一次請求平行計算多個圖表，回傳各圖表結果、耗時與錯誤。
+ */
+public interface DashboardBundleService {
+
+    DashboardBundleDto getBundle(DashboardBundleRequest request);
+}
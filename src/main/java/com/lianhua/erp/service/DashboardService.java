@@ -21,6 +21,11 @@
          */
         DashboardStatsDto getDashboardStats();
 
+        /**
+         * 重新查詢核心統計指標（略過過期快取並以結果更新快取），供 KPI 即時推播使用
+         */
+        DashboardStatsDto refreshDashboardStats();
+
         /**
          * 獲取營運趨勢圖數據 (雙 Y 軸對比：零售營收 vs 訂單收款)
          */
@@ -49,6 +54,7 @@
 
         /**
          * 獲取損益四線走勢 (營收、毛利、費用、淨利)
+         * @param months 回溯的會計期間數（1 ~ 120），僅計入有資料的期間
          * @return 跨期間的損益數據點
          */
         List<ProfitLossPointDto> getProfitLossTrend(int months);
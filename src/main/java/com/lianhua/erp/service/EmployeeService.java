@@ -1,6 +1,6 @@
 package com.lianhua.erp.service;
 
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.dto.employee.*;
 import com.lianhua.erp.export.ExportFormat;
 import com.lianhua.erp.export.ExportScope;
@@ -34,7 +34,7 @@ public interface EmployeeService {
     /**
      * 匯出員工資料（篩選條件與 searchEmployees 相同；scope=all 時匯出全部符合資料）。
      */
-    ExportPayload exportEmployees(
+    StreamingExportPayload exportEmployees(
             EmployeeSearchRequest request,
             Pageable pageable,
             ExportFormat format,
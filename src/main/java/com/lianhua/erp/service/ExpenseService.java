@@ -1,6 +1,6 @@
 package com.lianhua.erp.service;
 
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.dto.expense.ExpenseDto;
 import com.lianhua.erp.dto.expense.ExpenseRequestDto;
 import com.lianhua.erp.dto.expense.ExpenseSearchRequest;
@@ -34,7 +34,7 @@ public interface ExpenseService {
     /**
      * 匯出支出紀錄（篩選條件與 searchExpenses 相同；scope=all 時匯出全部符合條件資料）。
      */
-    ExportPayload exportExpenses(
+    StreamingExportPayload exportExpenses(
             ExpenseSearchRequest req,
             Pageable pageable,
             ExportFormat format,
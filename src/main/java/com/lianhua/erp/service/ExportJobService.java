@@ -0,0 +1,39 @@
+package com.lianhua.erp.service;
+
+import com.lianhua.erp.dto.export.ExportJobDto;
+import com.lianhua.erp.dto.export.ExportJobFile;
+import com.lianhua.erp.dto.export.ExportJobRequest;
+
+import java.util.List;
+
+/**
+ * 背景匯出工作：排入有界執行緒池寫出至暫存目錄，進度與完成以 SSE 通知建立者，完成後提供下載。
+ */
+public interface ExportJobService {
+
+    /**
+     * 建立並排入工作；權限與列表 /export 端點相同
+     */
+    ExportJobDto submit(Long userId, ExportJobRequest request);
+
+    List<ExportJobDto> listJobs(Long userId);
+
+    ExportJobDto getJob(Long userId, String jobId);
+
+    /**
+     * 取得已完成工作的結果檔；工作未完成時回報 409
+     */
+    ExportJobFile getResult(Long userId, String jobId);
+
+    /**
+     * 刪除工作與檔案；執行中的工作會被中止
+     */
+    void delete(Long userId, String jobId);
+
+    /**
+     * 清除超過保留時間的已結束工作與檔案
+     *
+     * @return 清除的工作數
+     */
+    int purgeExpired();
+}
@@ -7,6 +7,8 @@ import com.lianhua.erp.export.ExportFormat;
 import com.lianhua.erp.export.ExportScope;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+
 public interface FinancialReportExportService {
 
     ExportPayload export(
@@ -18,4 +20,15 @@ public interface FinancialReportExportService {
             Pageable pageable,
             String columnsCsv
     );
+
+    /**
+     * 多張報表一次匯出（各報表平行產生）：xlsx 為一報表一工作表，csv 為每報表一檔的 zip。
+     * 各報表一律輸出完整結果與全部欄位。
+     */
+    ExportPayload exportPack(
+            List<FinancialReportKey> reportKeys,
+            ReportExportQueryDto query,
+            String periodsCommaSeparated,
+            ExportFormat format
+    );
 }
@@ -0,0 +1,32 @@
+package com.lianhua.erp.service;
+
+import com.lianhua.erp.domain.RollupMetric;
+import com.lianhua.erp.dto.rollup.RollupDriftDto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 財務日彙總服務（financial_daily_rollups）
+ * 單據異動由實體事件換算為增減量，於交易提交前套用到日彙總與月損益；
+ * 寫入端另呼叫 {@link #touch} 處理已結帳期間重開與報表快取失效。
+ */
+public interface FinancialRollupService {
+
+    /**
+     * 標記指定指標在某些日期的單據有異動（重開已結帳期間、提交後使相關報表快取失效）。
+     * 日期異動時請同時傳入舊日期與新日期；null 會被忽略。
+     */
+    void touch(RollupMetric metric, LocalDate... dates);
+
+    /**
+     * 自原始表重建日期區間內的彙總（from / to 為 null 表示不限）
+     * @return 重建後寫入的彙總列數
+     */
+    int rebuild(LocalDate from, LocalDate to);
+
+    /**
+     * 比對彙總表與原始表，回傳有偏差的彙總鍵
+     */
+    List<RollupDriftDto> verify(LocalDate from, LocalDate to);
+}
@@ -1,23 +1,25 @@
 package com.lianhua.erp.service;
 
+import com.lianhua.erp.throttle.ThrottleStore;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.time.Duration;
 
+/**
+ * 登入失敗次數限制：計數存於 ThrottleStore（app.security.throttle.store），
+ * 使用共用儲存時各節點看到相同的失敗次數與鎖定狀態。
+ */
 @Service
 @Slf4j
+@RequiredArgsConstructor
 public class LoginAttemptService {
 
-    private static class AttemptInfo {
-        int count;
-        Instant firstAttemptAt;
-    }
+    private static final String KEY_PREFIX = "login:";
 
-    private final Map<String, AttemptInfo> attempts = new ConcurrentHashMap<>();
+    private final ThrottleStore throttleStore;
 
     @Value("${security.login.max-attempts:5}")
     private int maxAttempts;
@@ -26,39 +28,22 @@ public class LoginAttemptService {
     private long blockSeconds;
 
     public void recordFailure(String key) {
-        AttemptInfo info = attempts.computeIfAbsent(key, k -> {
-            AttemptInfo a = new AttemptInfo();
-            a.firstAttemptAt = Instant.now();
-            a.count = 0;
-            return a;
-        });
-        info.count++;
+        // 失敗次數量少，直接寫入，讓其他節點立即看到
+        throttleStore.incrementNow(KEY_PREFIX + key, Duration.ofSeconds(blockSeconds));
     }
 
     public void reset(String key) {
-        attempts.remove(key);
+        throttleStore.reset(KEY_PREFIX + key);
     }
 
     public boolean isBlocked(String key) {
-        AttemptInfo info = attempts.get(key);
-        if (info == null) {
-            return false;
-        }
-
-        Instant now = Instant.now();
-
-        // 視窗已過期則重置
-        if (info.firstAttemptAt.plusSeconds(blockSeconds).isBefore(now)) {
-            attempts.remove(key);
-            return false;
-        }
-
-        if (info.count >= maxAttempts) {
-            log.warn("Login blocked for key {}: {} attempts within {} seconds", key, info.count, blockSeconds);
+        // 計數自第一次失敗起 blockSeconds 內有效，到期即視為重置
+        long count = throttleStore.count(KEY_PREFIX + key);
+        if (count >= maxAttempts) {
+            log.warn("Login blocked for key {}: {} attempts within {} seconds", key, count, blockSeconds);
             return true;
         }
 
         return false;
     }
 }
-
@@ -1,6 +1,6 @@
 package com.lianhua.erp.service;
 
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.dto.orderCustomer.OrderCustomerRequestDto;
 import com.lianhua.erp.dto.orderCustomer.OrderCustomerResponseDto;
 import com.lianhua.erp.export.ExportFormat;
@@ -23,7 +23,7 @@ public interface OrderCustomerService {
     /**
      * 匯出客戶列表（篩選條件與 {@link #search} 相同；scope=all 時不分頁）。
      */
-    ExportPayload exportCustomers(
+    StreamingExportPayload exportCustomers(
             OrderCustomerRequestDto request,
             Pageable pageable,
             ExportFormat format,
@@ -1,6 +1,6 @@
 package com.lianhua.erp.service;
 
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.dto.order.*;
 import com.lianhua.erp.export.ExportFormat;
 import com.lianhua.erp.export.ExportScope;
@@ -24,7 +24,7 @@ public interface OrderService {
     /**
      * 匯出訂單列表（篩選條件與 {@link #search} 相同；scope=all 時不分頁）。
      */
-    ExportPayload exportOrders(
+    StreamingExportPayload exportOrders(
             OrderSearchRequest searchRequest,
             Pageable pageable,
             ExportFormat format,
@@ -1,6 +1,6 @@
 package com.lianhua.erp.service;
 
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.dto.payment.PaymentResponseDto;
 import com.lianhua.erp.dto.payment.PaymentSearchRequest;
 import com.lianhua.erp.export.ExportFormat;
@@ -23,7 +23,7 @@ public interface PaymentService {
     /**
      * 匯出付款紀錄（篩選條件與 searchPayments 相同；scope=all 時不分頁）。
      */
-    ExportPayload exportPayments(
+    StreamingExportPayload exportPayments(
             PaymentSearchRequest req,
             Pageable pageable,
             ExportFormat format,
@@ -0,0 +1,30 @@
+package com.lianhua.erp.service;
+
+import com.lianhua.erp.dto.report.BalanceSheetClosingDto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 會計期間結帳服務（資產負債表期末快照）
+ * 結帳後的期間，其資產負債表直接讀取快照；單據日期落在已結帳期間時須呼叫 {@link #reopen}。
+ */
+public interface PeriodCloseService {
+
+    /**
+     * 單據異動涉及的日期；若落在本月之前，自最早日期所屬期間起重新開啟（刪除快照）。
+     * 於寫入交易內呼叫，與單據異動一起提交或回滾；null 會被忽略。
+     */
+    void reopen(LocalDate... dates);
+
+    /**
+     * 依序結帳至上個月（含），包含先前被重新開啟的期間
+     * @return 本次結帳的期間數
+     */
+    int closeThroughLastMonth();
+
+    /**
+     * 目前所有結帳快照（依期間排序）
+     */
+    List<BalanceSheetClosingDto> listClosings();
+}
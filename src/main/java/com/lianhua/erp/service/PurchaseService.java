@@ -1,6 +1,6 @@
 package com.lianhua.erp.service;
 
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.dto.purchase.*;
 import com.lianhua.erp.export.ExportFormat;
 import com.lianhua.erp.export.ExportScope;
@@ -22,7 +22,7 @@ public interface PurchaseService {
     /**
      * 匯出進貨單（篩選條件與 searchPurchases 相同；scope=all 時不分頁）
      */
-    ExportPayload exportPurchases(
+    StreamingExportPayload exportPurchases(
             PurchaseSearchRequest req,
             Pageable pageable,
             ExportFormat format,
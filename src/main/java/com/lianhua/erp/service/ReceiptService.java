@@ -1,6 +1,6 @@
 package com.lianhua.erp.service;
 
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.dto.receipt.*;
 import com.lianhua.erp.export.ExportFormat;
 import com.lianhua.erp.export.ExportScope;
@@ -27,7 +27,7 @@ public interface ReceiptService {
     /**
      * 匯出收款紀錄（篩選條件與 searchReceipts 相同；scope=all 時不分頁）。
      */
-    ExportPayload exportReceipts(
+    StreamingExportPayload exportReceipts(
             ReceiptSearchRequest req,
             Pageable pageable,
             ExportFormat format,
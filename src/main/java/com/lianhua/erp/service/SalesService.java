@@ -1,6 +1,6 @@
 package com.lianhua.erp.service;
 
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.dto.sale.*;
 import com.lianhua.erp.export.ExportFormat;
 import com.lianhua.erp.export.ExportScope;
@@ -40,7 +40,7 @@ public interface SalesService {
     /**
      * 匯出銷售列表（篩選條件與 {@link #search} 相同；scope=all 時不分頁）。
      */
-    ExportPayload exportSales(
+    StreamingExportPayload exportSales(
             SaleSearchRequestDto req,
             Pageable pageable,
             ExportFormat format,
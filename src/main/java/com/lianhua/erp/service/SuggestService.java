@@ -0,0 +1,13 @@
+package com.lianhua.erp.service;
+
+import com.lianhua.erp.dto.suggest.SuggestionDto;
+
+import java.util.List;
+
+public interface SuggestService {
+
+    /**
+     * 依輸入前綴回傳提示；types 為空時查詢目前使用者有權限的全部類別
+     */
+    List<SuggestionDto> suggest(String prefix, List<String> types, Integer limit);
+}
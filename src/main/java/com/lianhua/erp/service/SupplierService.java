@@ -1,6 +1,6 @@
 package com.lianhua.erp.service;
 
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.dto.supplier.SupplierResponseDto;
 import com.lianhua.erp.dto.supplier.SupplierRequestDto;
 import com.lianhua.erp.dto.supplier.SupplierSearchRequest;
@@ -34,7 +34,7 @@ public interface SupplierService {
     /**
      * 匯出供應商列表（篩選條件與 searchSuppliers 相同；scope=all 時不分頁）
      */
-    ExportPayload exportSuppliers(
+    StreamingExportPayload exportSuppliers(
             SupplierSearchRequest request,
             Pageable pageable,
             ExportFormat format,
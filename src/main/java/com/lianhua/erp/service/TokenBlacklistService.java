@@ -2,31 +2,80 @@ package com.lianhua.erp.service;
 
 import com.lianhua.erp.domain.BlacklistedToken;
 import com.lianhua.erp.repository.BlacklistedTokenRepository;
+import com.lianhua.erp.security.RevokedTokenIndex;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
 
+/**
+ * Token 黑名單（登出後的 Access Token）。
+ * 1) 以 blacklisted_tokens 為準，啟動時載入未到期項目到記憶體索引（Bloom filter + 精確集合），之後新增時同步寫入
+ * 2) isBlacklisted 只查記憶體索引；索引尚未載入成功時才退回查表
+ * 3) 定期依 id 增量同步（涵蓋其他節點寫入），並分批刪除已到期的資料列
+ *
+ * 多節點時，其他節點登出的 Token 在本節點最多延遲 sync-interval（預設 2 秒，另加一次同步查詢的時間）才會被拒絕；
+ * 本節點登出者立即生效。增量同步只查主鍵範圍，成本低，必要時可再縮短間隔。
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class TokenBlacklistService {
 
+    /** 增量同步時回頭重讀的 id 範圍，涵蓋 id 較小但較晚提交的資料列 */
+    private static final long SYNC_ID_OVERLAP = 500;
+
+    private static final String PURGE_SQL = "DELETE FROM blacklisted_tokens WHERE expires_at < ? LIMIT ?";
+
     private final BlacklistedTokenRepository blacklistedTokenRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.security.token-blacklist.expected-entries:10000}")
+    private int expectedEntries;
+
+    @Value("${app.security.token-blacklist.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    @Value("${app.security.token-blacklist.load-batch-size:1000}")
+    private int loadBatchSize;
+
+    @Value("${app.security.token-blacklist.purge-batch-size:1000}")
+    private int purgeBatchSize;
+
+    private RevokedTokenIndex index;
+    private volatile boolean indexReady;
+    private volatile long lastSeenId;
+
+    @PostConstruct
+    void loadIndex() {
+        index = new RevokedTokenIndex(expectedEntries, falsePositiveRate);
+        try {
+            long started = System.currentTimeMillis();
+            int loaded = syncFrom(0L);
+            indexReady = true;
+            log.info("🔐 Token 黑名單索引已載入 {} 筆，耗時 {} ms", loaded, System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            log.error("❌ Token 黑名單索引載入失敗，將改為查表直到下次同步成功：{}", e.getMessage());
+        }
+    }
 
     private String hash(String token) {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hashBytes = digest.digest(token.getBytes(StandardCharsets.UTF_8));
-            StringBuilder sb = new StringBuilder();
-            for (byte b : hashBytes) {
-                sb.append(String.format("%02x", b));
-            }
-            return sb.toString();
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
         } catch (Exception e) {
             log.error("產生 Token 雜湊失敗，將直接略過黑名單寫入：{}", e.getMessage());
             return null;
@@ -43,28 +92,29 @@ public class TokenBlacklistService {
             return;
         }
 
-        if (blacklistedTokenRepository.existsByTokenHash(tokenHash)) {
+        Instant expiry = expiresAt != null ? expiresAt.toInstant() : Instant.now().plusSeconds(3600);
+        long now = System.currentTimeMillis();
+
+        if (indexReady ? index.contains(tokenHash, now) : blacklistedTokenRepository.existsByTokenHash(tokenHash)) {
             return;
         }
 
-        Instant expiry = expiresAt != null ? expiresAt.toInstant() : Instant.now().plusSeconds(3600);
+        // 先寫入記憶體索引：即使資料庫寫入失敗，本節點仍立即拒絕此 Token
+        index.add(tokenHash, expiry.toEpochMilli());
 
         BlacklistedToken entity = BlacklistedToken.builder()
                 .tokenHash(tokenHash)
                 .expiresAt(expiry)
                 .build();
 
-        blacklistedTokenRepository.save(entity);
-        log.info("Token 已加入黑名單，將於 {} 到期", expiry);
-
-        // 簡單清理：每次加入時順便刪除已過期項目（避免表過大）
         try {
-            long deleted = blacklistedTokenRepository.deleteByExpiresAtBefore(Instant.now());
-            if (deleted > 0) {
-                log.debug("已清理過期黑名單 Token {} 筆", deleted);
-            }
-        } catch (Exception ignored) {
+            blacklistedTokenRepository.save(entity);
+        } catch (DataIntegrityViolationException e) {
+            // 同一 Token 同時登出兩次（或其他節點已寫入），唯一鍵衝突即代表已在名單中
+            log.debug("Token 已在黑名單中：{}", e.getMessage());
+            return;
         }
+        log.info("Token 已加入黑名單，將於 {} 到期", expiry);
     }
 
     public boolean isBlacklisted(String token) {
@@ -75,7 +125,75 @@ public class TokenBlacklistService {
         if (tokenHash == null) {
             return false;
         }
+        if (indexReady) {
+            return index.contains(tokenHash, System.currentTimeMillis());
+        }
         return blacklistedTokenRepository.existsByTokenHash(tokenHash);
     }
-}
 
+    /**
+     * 增量同步其他節點寫入的項目；索引先前載入失敗時在此重試完整載入
+     */
+    @Scheduled(fixedDelayString = "${app.security.token-blacklist.sync-interval:2s}",
+            initialDelayString = "${app.security.token-blacklist.sync-interval:2s}")
+    public void sync() {
+        try {
+            if (!indexReady) {
+                int loaded = syncFrom(0L);
+                indexReady = true;
+                log.info("🔐 Token 黑名單索引已載入 {} 筆（重試）", loaded);
+                return;
+            }
+            int added = syncFrom(Math.max(0L, lastSeenId - SYNC_ID_OVERLAP));
+            if (added > 0) {
+                log.debug("Token 黑名單索引同步 {} 筆", added);
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ Token 黑名單索引同步失敗：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 分批刪除已到期的資料列（每批獨立提交，避免長時間鎖表），並自記憶體索引移除到期項目
+     */
+    public int purgeExpired() {
+        int removedFromIndex = index.removeExpired(System.currentTimeMillis());
+
+        Timestamp cutoff = Timestamp.from(Instant.now());
+        int batchSize = Math.max(purgeBatchSize, 1);
+        int total = 0;
+        while (true) {
+            int deleted = jdbcTemplate.update(PURGE_SQL, cutoff, batchSize);
+            total += deleted;
+            if (deleted < batchSize) {
+                break;
+            }
+        }
+        if (total > 0 || removedFromIndex > 0) {
+            log.info("🧹 已清理過期黑名單 Token：資料表 {} 筆、記憶體索引 {} 筆（剩餘 {} 筆）",
+                    total, removedFromIndex, index.size());
+        }
+        return total;
+    }
+
+    private int syncFrom(long afterId) {
+        int batchSize = Math.max(loadBatchSize, 1);
+        Instant now = Instant.now();
+        long cursor = afterId;
+        int count = 0;
+        while (true) {
+            List<BlacklistedToken> batch = blacklistedTokenRepository
+                    .findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(cursor, now, PageRequest.of(0, batchSize));
+            for (BlacklistedToken t : batch) {
+                index.add(t.getTokenHash(), t.getExpiresAt().toEpochMilli());
+                cursor = t.getId();
+            }
+            count += batch.size();
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+        lastSeenId = Math.max(lastSeenId, cursor);
+        return count;
+    }
+}
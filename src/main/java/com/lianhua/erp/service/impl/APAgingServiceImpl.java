@@ -1,14 +1,14 @@
 package com.lianhua.erp.service.impl;
 
 import com.lianhua.erp.dto.ap.APAgingFilterDto;
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.dto.ap.APAgingSummaryDto;
 import com.lianhua.erp.dto.ap.APAgingPurchaseDetailDto;
 import com.lianhua.erp.repository.APAgingRepository;
-import com.lianhua.erp.export.ExportFilenameUtils;
 import com.lianhua.erp.export.ExportFormat;
+import com.lianhua.erp.export.ExportRowPager;
 import com.lianhua.erp.export.ExportScope;
-import com.lianhua.erp.export.TabularExporter;
+import com.lianhua.erp.export.ExportStreams;
 import com.lianhua.erp.service.APAgingService;
 
 import lombok.RequiredArgsConstructor;
@@ -22,7 +22,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 @Service
@@ -30,6 +30,7 @@ import java.util.List;
 public class APAgingServiceImpl implements APAgingService {
 
     private final APAgingRepository apAgingRepository;
+    private final ExportRowPager exportRowPager;
 
     private static final String[] AP_AGING_EXPORT_HEADERS = new String[]{
             "供應商名稱",
@@ -41,7 +42,7 @@ public class APAgingServiceImpl implements APAgingService {
             "未付款總額"
     };
 
-    @Value("${app.export.max-rows:50000}")
+    @Value("${app.export.max-rows:500000}")
     private int maxExportRows;
 
     // =============================================================
@@ -72,64 +73,46 @@ public class APAgingServiceImpl implements APAgingService {
     // =============================================================
     @Override
     @Transactional(readOnly = true)
-    public ExportPayload exportAgingSummary(
+    public StreamingExportPayload exportAgingSummary(
             APAgingFilterDto filter,
             Pageable pageable,
             ExportFormat format,
             ExportScope scope
     ) {
         APAgingFilterDto req = filter == null ? new APAgingFilterDto() : filter;
-
         ExportFormat safeFormat = format == null ? ExportFormat.XLSX : format;
         ExportScope safeScope = scope == null ? ExportScope.ALL : scope;
 
         int pageSize = pageable == null || pageable.getPageSize() <= 0 ? 20 : pageable.getPageSize();
 
-        List<String[]> rows = new ArrayList<>();
+        Iterator<String[]> rows;
         if (safeScope == ExportScope.ALL) {
-            int step = Math.min(Math.max(pageSize, 50), 2000);
+            int step = exportRowPager.batchSize();
 
             Page<APAgingSummaryDto> first =
                     getAgingSummary(req, PageRequest.of(0, step));
-            long total = first.getTotalElements();
-            if (total > maxExportRows) {
+            if (first.getTotalElements() > maxExportRows) {
                 throw new ResponseStatusException(
                         HttpStatus.BAD_REQUEST,
                         "匯出筆數超過上限 (" + maxExportRows + ")，請縮小篩選條件");
             }
-
-            for (APAgingSummaryDto item : first.getContent()) {
-                rows.add(toAgingExportRow(item));
-            }
-
-            for (int p = 1; p < first.getTotalPages(); p++) {
-                Page<APAgingSummaryDto> page =
-                        getAgingSummary(req, PageRequest.of(p, step));
-                for (APAgingSummaryDto item : page.getContent()) {
-                    rows.add(toAgingExportRow(item));
-                }
-            }
+            rows = exportRowPager.rows(first,
+                    p -> getAgingSummary(req, PageRequest.of(p, step)),
+                    APAgingServiceImpl::toAgingExportRow);
         } else {
             int safePageSize = pageSize > 200 ? 200 : pageSize;
-            Pageable p = pageable == null
-                    ? PageRequest.of(0, safePageSize)
-                    : PageRequest.of(
-                            Math.max(pageable.getPageNumber(), 0),
-                            pageable.getPageSize() <= 0 || pageable.getPageSize() > 200 ? safePageSize : pageable.getPageSize(),
-                            pageable.getSort()
-                    );
-            for (APAgingSummaryDto item : getAgingSummary(req, p).getContent()) {
-                rows.add(toAgingExportRow(item));
-            }
+            Pageable p = pageable == null ? PageRequest.of(0, safePageSize) : PageRequest.of(
+                    Math.max(pageable.getPageNumber(), 0),
+                    pageable.getPageSize() <= 0 || pageable.getPageSize() > 200 ? safePageSize : pageable.getPageSize(),
+                    pageable.getSort()
+            );
+            rows = getAgingSummary(req, p).getContent().stream()
+                    .map(APAgingServiceImpl::toAgingExportRow)
+                    .toList()
+                    .iterator();
         }
 
-        byte[] data = switch (safeFormat) {
-            case XLSX -> TabularExporter.toXlsx("ap_aging", AP_AGING_EXPORT_HEADERS, rows);
-            case CSV -> TabularExporter.toCsvUtf8Bom(AP_AGING_EXPORT_HEADERS, rows);
-        };
-
-        String filename = ExportFilenameUtils.build("ap_aging", safeFormat);
-        return new ExportPayload(data, filename, safeFormat.mediaType());
+        return ExportStreams.tabular("ap_aging", "ap_aging", safeFormat, AP_AGING_EXPORT_HEADERS, rows);
     }
 
     private static String[] toAgingExportRow(APAgingSummaryDto a) {
@@ -1,6 +1,9 @@
 package com.lianhua.erp.service.impl;
 
 import com.lianhua.erp.dto.report.APSummaryReportDto;
+import com.lianhua.erp.report.ReportCoverage;
+import com.lianhua.erp.report.ReportResultCache;
+import com.lianhua.erp.report.ReportType;
 import com.lianhua.erp.repository.APSummaryReportRepository;
 import com.lianhua.erp.service.APSummaryReportService;
 import lombok.RequiredArgsConstructor;
@@ -18,10 +21,11 @@ import java.util.function.Function;
 public class APSummaryReportServiceImpl implements APSummaryReportService {
 
     private final APSummaryReportRepository repository;
+    private final ReportResultCache reportResultCache;
 
     @Override
     public List<APSummaryReportDto> generateSummary(String period) {
-        return repository.getSummaryList(period, null);
+        return generateSummary(period, null);
     }
 
     /**
@@ -29,6 +33,11 @@ public class APSummaryReportServiceImpl implements APSummaryReportService {
      */
     @Override
     public List<APSummaryReportDto> generateSummary(String period, String endDate) {
+        return reportResultCache.get(ReportType.AP_SUMMARY, ReportCoverage.through(period, endDate),
+                () -> loadSummary(period, endDate), period, endDate);
+    }
+
+    private List<APSummaryReportDto> loadSummary(String period, String endDate) {
         // 直接呼叫 Repository 取得單一區間數據
         return repository.getSummaryList(period, endDate);
     }
@@ -38,6 +47,11 @@ public class APSummaryReportServiceImpl implements APSummaryReportService {
      */
     @Override
     public List<APSummaryReportDto> generateSummary(List<String> periods) {
+        return reportResultCache.get(ReportType.AP_SUMMARY, ReportCoverage.throughPeriods(periods),
+                () -> loadSummaries(periods), periods);
+    }
+
+    private List<APSummaryReportDto> loadSummaries(List<String> periods) {
         if (periods == null || periods.isEmpty()) {
             return new ArrayList<>();
         }
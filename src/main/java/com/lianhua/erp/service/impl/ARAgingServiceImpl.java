@@ -3,12 +3,12 @@ package com.lianhua.erp.service.impl;
 import com.lianhua.erp.dto.ar.ARAgingFilterDto;
 import com.lianhua.erp.dto.ar.ARAgingOrderDetailDto;
 import com.lianhua.erp.dto.ar.ARAgingSummaryDto;
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.repository.ARAgingRepository;
-import com.lianhua.erp.export.ExportFilenameUtils;
 import com.lianhua.erp.export.ExportFormat;
+import com.lianhua.erp.export.ExportRowPager;
 import com.lianhua.erp.export.ExportScope;
-import com.lianhua.erp.export.TabularExporter;
+import com.lianhua.erp.export.ExportStreams;
 import com.lianhua.erp.service.ARAgingService;
 
 import lombok.RequiredArgsConstructor;
@@ -22,7 +22,7 @@ import org.springframework.web.server.ResponseStatusException;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 @Service
@@ -30,6 +30,7 @@ import java.util.List;
 public class ARAgingServiceImpl implements ARAgingService {
 
     private final ARAgingRepository arAgingRepository;
+    private final ExportRowPager exportRowPager;
 
     private static final String[] AGING_EXPORT_HEADERS = new String[]{
             "客戶名稱",
@@ -41,7 +42,7 @@ public class ARAgingServiceImpl implements ARAgingService {
             "未收款總額"
     };
 
-    @Value("${app.export.max-rows:50000}")
+    @Value("${app.export.max-rows:500000}")
     private int maxExportRows;
 
     // =============================================================
@@ -72,7 +73,7 @@ public class ARAgingServiceImpl implements ARAgingService {
     // =============================================================
     @Override
     @Transactional(readOnly = true)
-    public ExportPayload exportAgingSummary(
+    public StreamingExportPayload exportAgingSummary(
             ARAgingFilterDto filter,
             Pageable pageable,
             ExportFormat format,
@@ -84,30 +85,20 @@ public class ARAgingServiceImpl implements ARAgingService {
 
         int pageSize = pageable == null || pageable.getPageSize() <= 0 ? 20 : pageable.getPageSize();
 
-        List<String[]> rows = new ArrayList<>();
+        Iterator<String[]> rows;
         if (safeScope == ExportScope.ALL) {
-            int step = Math.min(Math.max(pageSize, 50), 2000);
+            int step = exportRowPager.batchSize();
 
             Page<ARAgingSummaryDto> first =
                     getAgingSummary(req, PageRequest.of(0, step));
-            long total = first.getTotalElements();
-            if (total > maxExportRows) {
+            if (first.getTotalElements() > maxExportRows) {
                 throw new ResponseStatusException(
                         HttpStatus.BAD_REQUEST,
                         "匯出筆數超過上限 (" + maxExportRows + ")，請縮小篩選條件");
             }
-
-            for (ARAgingSummaryDto item : first.getContent()) {
-                rows.add(toAgingExportRow(item));
-            }
-
-            for (int p = 1; p < first.getTotalPages(); p++) {
-                Page<ARAgingSummaryDto> page =
-                        getAgingSummary(req, PageRequest.of(p, step));
-                for (ARAgingSummaryDto item : page.getContent()) {
-                    rows.add(toAgingExportRow(item));
-                }
-            }
+            rows = exportRowPager.rows(first,
+                    p -> getAgingSummary(req, PageRequest.of(p, step)),
+                    ARAgingServiceImpl::toAgingExportRow);
         } else {
             int safePageSize = pageSize > 200 ? 200 : pageSize;
             Pageable p = pageable == null ? PageRequest.of(0, safePageSize) : PageRequest.of(
@@ -115,18 +106,13 @@ public class ARAgingServiceImpl implements ARAgingService {
                     pageable.getPageSize() <= 0 || pageable.getPageSize() > 200 ? safePageSize : pageable.getPageSize(),
                     pageable.getSort()
             );
-            for (ARAgingSummaryDto item : getAgingSummary(req, p).getContent()) {
-                rows.add(toAgingExportRow(item));
-            }
+            rows = getAgingSummary(req, p).getContent().stream()
+                    .map(ARAgingServiceImpl::toAgingExportRow)
+                    .toList()
+                    .iterator();
         }
 
-        byte[] data = switch (safeFormat) {
-            case XLSX -> TabularExporter.toXlsx("ar_aging", AGING_EXPORT_HEADERS, rows);
-            case CSV -> TabularExporter.toCsvUtf8Bom(AGING_EXPORT_HEADERS, rows);
-        };
-
-        String filename = ExportFilenameUtils.build("ar_aging", safeFormat);
-        return new ExportPayload(data, filename, safeFormat.mediaType());
+        return ExportStreams.tabular("ar_aging", "ar_aging", safeFormat, AGING_EXPORT_HEADERS, rows);
     }
 
     private static String[] toAgingExportRow(ARAgingSummaryDto a) {
@@ -1,6 +1,9 @@
 package com.lianhua.erp.service.impl;
 
 import com.lianhua.erp.dto.report.ARSummaryReportDto;
+import com.lianhua.erp.report.ReportCoverage;
+import com.lianhua.erp.report.ReportResultCache;
+import com.lianhua.erp.report.ReportType;
 import com.lianhua.erp.repository.ARSummaryReportRepository;
 import com.lianhua.erp.service.ARSummaryReportService;
 import lombok.RequiredArgsConstructor;
@@ -14,19 +17,30 @@ import java.util.List;
 public class ARSummaryReportServiceImpl implements ARSummaryReportService {
 
     private final ARSummaryReportRepository repository;
+    private final ReportResultCache reportResultCache;
 
     @Override
     public List<ARSummaryReportDto> generateSummary(String period) {
-        return repository.getSummaryList(period, null);
+        return generateSummary(period, null);
     }
 
     @Override
     public List<ARSummaryReportDto> generateSummary(String period, String endDate) {
+        return reportResultCache.get(ReportType.AR_SUMMARY, ReportCoverage.through(period, endDate),
+                () -> loadSummary(period, endDate), period, endDate);
+    }
+
+    private List<ARSummaryReportDto> loadSummary(String period, String endDate) {
         return repository.getSummaryList(period, endDate);
     }
 
     @Override
     public List<ARSummaryReportDto> generateSummary(List<String> periods) {
+        return reportResultCache.get(ReportType.AR_SUMMARY, ReportCoverage.throughPeriods(periods),
+                () -> loadSummaries(periods), periods);
+    }
+
+    private List<ARSummaryReportDto> loadSummaries(List<String> periods) {
         // Aggregate summaries per period using the existing 2-arg repository method
         List<ARSummaryReportDto> list = new java.util.ArrayList<>();
         for (String p : periods) {
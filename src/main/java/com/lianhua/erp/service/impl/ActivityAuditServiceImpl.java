@@ -8,11 +8,11 @@ import com.lianhua.erp.dto.audit.ActivityAuditLogResponseDto;
 import com.lianhua.erp.dto.audit.ActivityAuditRecordRequest;
 import com.lianhua.erp.dto.audit.ActivityAuditLogSearchRequest;
 import com.lianhua.erp.service.impl.spec.ActivityAuditLogSpecifications;
-import com.lianhua.erp.dto.export.ExportPayload;
-import com.lianhua.erp.export.ExportFilenameUtils;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.export.ExportFormat;
+import com.lianhua.erp.export.ExportRowPager;
 import com.lianhua.erp.export.ExportScope;
-import com.lianhua.erp.export.TabularExporter;
+import com.lianhua.erp.export.ExportStreams;
 import com.lianhua.erp.repository.ActivityAuditLogRepository;
 import com.lianhua.erp.service.ActivityAuditService;
 import lombok.RequiredArgsConstructor;
@@ -34,7 +34,7 @@ import org.springframework.web.server.ResponseStatusException;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 @Slf4j
@@ -65,8 +65,9 @@ public class ActivityAuditServiceImpl implements ActivityAuditService {
     private final ActivityAuditLogRepository repository;
     private final AuditProperties auditProperties;
     private final ObjectMapper objectMapper;
+    private final ExportRowPager exportRowPager;
 
-    @Value("${app.export.max-rows:50000}")
+    @Value("${app.export.max-rows:500000}")
     private int maxExportRows;
 
     @Override
@@ -123,7 +124,7 @@ public class ActivityAuditServiceImpl implements ActivityAuditService {
 
     @Override
     @Transactional(readOnly = true)
-    public ExportPayload exportAuditLogs(
+    public StreamingExportPayload exportAuditLogs(
             ActivityAuditLogSearchRequest request,
             Pageable pageable,
             ExportFormat format,
@@ -140,59 +141,35 @@ public class ActivityAuditServiceImpl implements ActivityAuditService {
                 ? pageable.getSort()
                 : Sort.by(Sort.Direction.DESC, "occurredAt");
 
-        List<ActivityAuditLog> logs;
+        Iterator<String[]> rows;
 
-        if (safeScope == ExportScope.ALL) {
-            long total = repository.count(spec);
-            if (total > maxExportRows) {
-                throw new ResponseStatusException(
-                        HttpStatus.BAD_REQUEST,
-                        "匯出筆數超過上限 (" + maxExportRows + ")，請縮小篩選條件");
-            }
-            logs = new ArrayList<>((int) Math.min(total, Integer.MAX_VALUE));
-
-            int step = 1000;
-            if (pageable != null && pageable.isPaged()
-                    && pageable.getPageSize() > 0 && pageable.getPageSize() <= 200) {
-                step = Math.max(50, pageable.getPageSize());
-            }
-            int pages = total == 0 ? 0 : (int) ((total + step - 1) / step);
-            try {
-                for (int p = 0; p < pages; p++) {
-                    Page<ActivityAuditLog> page = repository.findAll(spec, PageRequest.of(p, step, safeSort));
-                    logs.addAll(page.getContent());
+        try {
+            if (safeScope == ExportScope.ALL) {
+                long total = repository.count(spec);
+                if (total > maxExportRows) {
+                    throw new ResponseStatusException(
+                            HttpStatus.BAD_REQUEST,
+                            "匯出筆數超過上限 (" + maxExportRows + ")，請縮小篩選條件");
                 }
-            } catch (PropertyReferenceException ex) {
-                throw new ResponseStatusException(
-                        HttpStatus.BAD_REQUEST,
-                        "無效排序欄位：" + ex.getPropertyName());
-            }
-        } else {
-            logs = new ArrayList<>();
-            Pageable p = pageable == null || !pageable.isPaged()
-                    ? PageRequest.of(0, 25, safeSort)
-                    : normalizeForExport(pageable, safeSort);
-            try {
-                Page<ActivityAuditLog> page = repository.findAll(spec, p);
-                logs.addAll(page.getContent());
-            } catch (PropertyReferenceException ex) {
-                throw new ResponseStatusException(
-                        HttpStatus.BAD_REQUEST,
-                        "無效排序欄位：" + ex.getPropertyName());
+                rows = exportRowPager.seek(repository, ActivityAuditLog.class, spec, safeSort,
+                        ActivityAuditServiceImpl::toExportRow);
+            } else {
+                Pageable p = pageable == null || !pageable.isPaged()
+                        ? PageRequest.of(0, 25, safeSort)
+                        : normalizeForExport(pageable, safeSort);
+                rows = repository.findAll(spec, p).getContent().stream()
+                        .map(ActivityAuditServiceImpl::toExportRow)
+                        .toList()
+                        .iterator();
             }
+        } catch (PropertyReferenceException ex) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "無效排序欄位：" + ex.getPropertyName());
         }
 
-        List<String[]> rows = new ArrayList<>(logs.size());
-        for (ActivityAuditLog e : logs) {
-            rows.add(toExportRow(e));
-        }
-
-        byte[] data = switch (safeFormat) {
-            case XLSX -> TabularExporter.toXlsx("活動稽核", ACTIVITY_AUDIT_EXPORT_HEADERS, rows);
-            case CSV -> TabularExporter.toCsvUtf8Bom(ACTIVITY_AUDIT_EXPORT_HEADERS, rows);
-        };
-        String filename = ExportFilenameUtils.build("activity_audit_logs", safeFormat);
-        return new ExportPayload(data, filename, safeFormat.mediaType());
+        return ExportStreams.tabular("activity_audit_logs", "活動稽核", safeFormat,
+                ACTIVITY_AUDIT_EXPORT_HEADERS, rows);
     }
 
     private Pageable normalizePageable(Pageable pageable) {
@@ -1,6 +1,9 @@
 package com.lianhua.erp.service.impl;
 
 import com.lianhua.erp.dto.report.BalanceSheetReportDto;
+import com.lianhua.erp.report.ReportCoverage;
+import com.lianhua.erp.report.ReportResultCache;
+import com.lianhua.erp.report.ReportType;
 import com.lianhua.erp.repository.BalanceSheetReportRepository;
 import com.lianhua.erp.service.BalanceSheetReportService;
 import lombok.RequiredArgsConstructor;
@@ -22,6 +25,7 @@ import java.util.Objects;
 public class BalanceSheetReportServiceImpl implements BalanceSheetReportService {
 
     private final BalanceSheetReportRepository repository;
+    private final ReportResultCache reportResultCache;
 
     @Override
     public List<BalanceSheetReportDto> generateBalanceSheet(String period) {
@@ -30,6 +34,11 @@ public class BalanceSheetReportServiceImpl implements BalanceSheetReportService
 
     @Override
     public List<BalanceSheetReportDto> generateBalanceSheet(String period, String endDate) {
+        return reportResultCache.get(ReportType.BALANCE_SHEET, ReportCoverage.through(period, endDate),
+                () -> loadBalanceSheet(period, endDate), period, endDate);
+    }
+
+    private List<BalanceSheetReportDto> loadBalanceSheet(String period, String endDate) {
 
         List<BalanceSheetReportDto> list = repository.getBalanceSheetList(period, endDate);
         if (list == null || list.isEmpty()) {
@@ -76,6 +85,11 @@ public class BalanceSheetReportServiceImpl implements BalanceSheetReportService
 
     @Override
     public List<BalanceSheetReportDto> generateBalanceSheet(List<String> periods) {
+        return reportResultCache.get(ReportType.BALANCE_SHEET, ReportCoverage.throughPeriods(periods),
+                () -> loadBalanceSheets(periods), periods);
+    }
+
+    private List<BalanceSheetReportDto> loadBalanceSheets(List<String> periods) {
         if (periods == null || periods.isEmpty()) {
             return List.of();
         }
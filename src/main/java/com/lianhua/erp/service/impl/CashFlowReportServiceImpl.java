@@ -1,6 +1,9 @@
 package com.lianhua.erp.service.impl;
 
 import com.lianhua.erp.dto.report.CashFlowReportDto;
+import com.lianhua.erp.report.ReportCoverage;
+import com.lianhua.erp.report.ReportResultCache;
+import com.lianhua.erp.report.ReportType;
 import com.lianhua.erp.repository.CashFlowReportRepository;
 import com.lianhua.erp.service.CashFlowReportService;
 import lombok.RequiredArgsConstructor;
@@ -17,9 +20,15 @@ import java.util.Objects;
 public class CashFlowReportServiceImpl implements CashFlowReportService {
 
     private final CashFlowReportRepository repository;
+    private final ReportResultCache reportResultCache;
 
     @Override
     public List<CashFlowReportDto> generateCashFlow(String period, String startDate, String endDate) {
+        return reportResultCache.get(ReportType.CASH_FLOW, ReportCoverage.periodOrRange(period, startDate, endDate),
+                () -> loadCashFlow(period, startDate, endDate), period, startDate, endDate);
+    }
+
+    private List<CashFlowReportDto> loadCashFlow(String period, String startDate, String endDate) {
 
         List<CashFlowReportDto> list = repository.getCashFlow(period, startDate, endDate);
 
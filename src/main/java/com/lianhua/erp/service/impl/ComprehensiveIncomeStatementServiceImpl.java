@@ -1,6 +1,9 @@
 package com.lianhua.erp.service.impl;
 
 import com.lianhua.erp.dto.report.ComprehensiveIncomeStatementDto;
+import com.lianhua.erp.report.ReportCoverage;
+import com.lianhua.erp.report.ReportResultCache;
+import com.lianhua.erp.report.ReportType;
 import com.lianhua.erp.repository.ComprehensiveIncomeStatementRepository;
 import com.lianhua.erp.service.ComprehensiveIncomeStatementService;
 import lombok.RequiredArgsConstructor;
@@ -23,6 +26,7 @@ import java.util.function.Function;
 public class ComprehensiveIncomeStatementServiceImpl implements ComprehensiveIncomeStatementService {
 
     private final ComprehensiveIncomeStatementRepository repository;
+    private final ReportResultCache reportResultCache;
 
     @Override
     public List<ComprehensiveIncomeStatementDto> generateComprehensiveIncomeStatement(String period) {
@@ -32,6 +36,12 @@ public class ComprehensiveIncomeStatementServiceImpl implements ComprehensiveInc
     @Override
     public List<ComprehensiveIncomeStatementDto> generateComprehensiveIncomeStatement(
             String period, String startDate, String endDate) {
+        return reportResultCache.get(ReportType.COMPREHENSIVE_INCOME, ReportCoverage.periodOrRange(period, startDate, endDate),
+                () -> loadComprehensiveIncomeStatement(period, startDate, endDate), period, startDate, endDate);
+    }
+
+    private List<ComprehensiveIncomeStatementDto> loadComprehensiveIncomeStatement(
+            String period, String startDate, String endDate) {
 
         log.info("生成綜合損益表：period={}, startDate={}, endDate={}", period, startDate, endDate);
 
@@ -83,6 +93,11 @@ public class ComprehensiveIncomeStatementServiceImpl implements ComprehensiveInc
 
     @Override
     public List<ComprehensiveIncomeStatementDto> generateComprehensiveIncomeStatement(List<String> periods) {
+        return reportResultCache.get(ReportType.COMPREHENSIVE_INCOME, ReportCoverage.periods(periods),
+                () -> loadComprehensiveIncomeStatements(periods), periods);
+    }
+
+    private List<ComprehensiveIncomeStatementDto> loadComprehensiveIncomeStatements(List<String> periods) {
         log.info("生成多期間綜合損益表比較：periods={}", periods);
 
         List<ComprehensiveIncomeStatementDto> list = repository.getComprehensiveIncomeStatement(periods);
@@ -0,0 +1,195 @@
+package com.lianhua.erp.service.impl;
+
+import com.lianhua.erp.config.DashboardProperties;
+import com.lianhua.erp.dashboard.DashboardWidget;
+import com.lianhua.erp.dto.dashboard.bundle.DashboardBundleDto;
+import com.lianhua.erp.dto.dashboard.bundle.DashboardBundleRequest;
+import com.lianhua.erp.dto.dashboard.bundle.DashboardWidgetResultDto;
+import com.lianhua.erp.service.DashboardBundleService;
+import com.lianhua.erp.service.DashboardService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 儀表板組合查詢：
+ * 1) 每個圖表各自提交到有界執行緒池平行計算（各自取得連線與唯讀交易）
+ * 2) 以整體期限等待；逾時的圖表回報 TIMEOUT、失敗的回報 ERROR，不影響其他圖表
+ * 3) 逾時的查詢不中斷，完成後仍會寫入儀表板快取，下次請求即可直接取得
+ */
+@Slf4j
+@Service
+public class DashboardBundleServiceImpl implements DashboardBundleService {
+
+    private final DashboardService dashboardService;
+    private final DashboardProperties dashboardProperties;
+    private final Executor bundleExecutor;
+
+    public DashboardBundleServiceImpl(DashboardService dashboardService,
+                                      DashboardProperties dashboardProperties,
+                                      @Qualifier("dashboardBundleExecutor") Executor bundleExecutor) {
+        this.dashboardService = dashboardService;
+        this.dashboardProperties = dashboardProperties;
+        this.bundleExecutor = bundleExecutor;
+    }
+
+    private record Pending(DashboardWidget widget, long startedAt, CompletableFuture<DashboardWidgetResultDto> future) {
+    }
+
+    @Override
+    public DashboardBundleDto getBundle(DashboardBundleRequest request) {
+        Set<DashboardWidget> widgets = resolveWidgets(request.widgets());
+        long startedAt = System.nanoTime();
+
+        List<Pending> pending = new ArrayList<>(widgets.size());
+        for (DashboardWidget widget : widgets) {
+            pending.add(submit(widget, loaderFor(widget, request)));
+        }
+
+        Duration timeout = dashboardProperties.getBundle().getWidgetTimeout();
+        long deadline = startedAt + (timeout != null ? timeout.toNanos() : Duration.ofSeconds(8).toNanos());
+
+        Map<String, DashboardWidgetResultDto> results = new LinkedHashMap<>();
+        for (Pending p : pending) {
+            results.put(p.widget().getKey(), await(p, deadline));
+        }
+        return new DashboardBundleDto(results, elapsedMs(startedAt));
+    }
+
+    private Pending submit(DashboardWidget widget, Supplier<Object> loader) {
+        long startedAt = System.nanoTime();
+        CompletableFuture<DashboardWidgetResultDto> future;
+        try {
+            future = CompletableFuture.supplyAsync(() -> evaluate(widget, loader), bundleExecutor);
+        } catch (RejectedExecutionException e) {
+            future = CompletableFuture.completedFuture(new DashboardWidgetResultDto(
+                    DashboardWidgetResultDto.ERROR, null, 0, "系統忙碌，請稍後重試"));
+        }
+        return new Pending(widget, startedAt, future);
+    }
+
+    /**
+     * 於執行緒池內計算單一圖表；耗時只計算圖表本身，不含排隊等待
+     */
+    private DashboardWidgetResultDto evaluate(DashboardWidget widget, Supplier<Object> loader) {
+        long startedAt = System.nanoTime();
+        try {
+            return new DashboardWidgetResultDto(DashboardWidgetResultDto.OK, loader.get(), elapsedMs(startedAt), null);
+        } catch (RuntimeException e) {
+            log.warn("⚠️ [DashboardBundle] 圖表查詢失敗：widget={}, error={}", widget.getKey(), e.toString());
+            return new DashboardWidgetResultDto(DashboardWidgetResultDto.ERROR, null, elapsedMs(startedAt),
+                    errorMessage(e));
+        }
+    }
+
+    private DashboardWidgetResultDto await(Pending p, long deadline) {
+        try {
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            return p.future().get(remaining, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.warn("⏱️ [DashboardBundle] 圖表逾時：widget={}", p.widget().getKey());
+            return new DashboardWidgetResultDto(DashboardWidgetResultDto.TIMEOUT, null, elapsedMs(p.startedAt()),
+                    "查詢逾時，請稍後重新整理");
+        } catch (ExecutionException e) {
+            return new DashboardWidgetResultDto(DashboardWidgetResultDto.ERROR, null, elapsedMs(p.startedAt()),
+                    "圖表資料載入失敗");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new DashboardWidgetResultDto(DashboardWidgetResultDto.ERROR, null, elapsedMs(p.startedAt()),
+                    "請求已中斷");
+        }
+    }
+
+    private Set<DashboardWidget> resolveWidgets(List<String> keys) {
+        Set<DashboardWidget> widgets = new LinkedHashSet<>();
+        if (keys != null) {
+            for (String raw : keys) {
+                if (raw == null) {
+                    continue;
+                }
+                // 同時支援 widgets=a&widgets=b 與 widgets=a,b
+                for (String key : raw.split(",")) {
+                    if (key.isBlank()) {
+                        continue;
+                    }
+                    DashboardWidget widget = DashboardWidget.fromKey(key);
+                    if (widget == null) {
+                        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "未知的圖表代碼：" + key.trim());
+                    }
+                    widgets.add(widget);
+                }
+            }
+        }
+        if (widgets.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "請至少指定一個圖表代碼（widgets）");
+        }
+        return widgets;
+    }
+
+    /**
+     * 圖表代碼對應的 DashboardService 呼叫；參數預設值與各獨立端點一致
+     */
+    private Supplier<Object> loaderFor(DashboardWidget widget, DashboardBundleRequest r) {
+        LocalDate today = LocalDate.now();
+        LocalDate start = r.start() != null ? r.start() : today.withDayOfMonth(1);
+        LocalDate end = r.end() != null ? r.end() : today;
+        String currentPeriod = today.format(DateTimeFormatter.ofPattern("yyyy-MM"));
+
+        return switch (widget) {
+            case STATS -> dashboardService::getDashboardStats;
+            case SALES_TREND -> () -> dashboardService.getSalesTrendData(orDefault(r.trendDays(), 30));
+            case EXPENSE_COMPOSITION -> dashboardService::getExpenseComposition;
+            case PENDING_TASKS -> dashboardService::getPendingTasks;
+            case ACCOUNT_AGING -> dashboardService::getAgingAnalytics;
+            case PROFIT_LOSS_TREND -> () -> dashboardService.getProfitLossTrend(orDefault(r.months(), 6));
+            case ORDER_FUNNEL -> () -> dashboardService.getOrderFunnel(r.period());
+            case BREAK_EVEN -> () -> dashboardService.getBreakEvenAnalysis(
+                    r.period() != null && !r.period().isBlank() ? r.period() : currentPeriod);
+            case LIQUIDITY -> dashboardService::getLiquidityAnalytics;
+            case CASHFLOW_FORECAST -> () -> dashboardService.getCashflowForecast(
+                    r.baseDate() != null ? r.baseDate() : today, orDefault(r.forecastDays(), 30));
+            case PRODUCT_PARETO -> () -> dashboardService.getProductParetoAnalysis(start, end);
+            case SUPPLIER_CONCENTRATION -> () -> dashboardService.getSupplierConcentration(start, end);
+            case CUSTOMER_RETENTION -> dashboardService::getCustomerRetention;
+            case PURCHASE_STRUCTURE -> () -> dashboardService.getPurchaseStructureByItem(start, end);
+            case CUSTOMER_CONCENTRATION -> () -> dashboardService.getCustomerConcentration(start, end);
+        };
+    }
+
+    private static int orDefault(Integer value, int defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+
+    private static String errorMessage(Throwable cause) {
+        if (cause instanceof ResponseStatusException rse && rse.getReason() != null) {
+            return rse.getReason();
+        }
+        if (cause instanceof IllegalStateException || cause instanceof IllegalArgumentException) {
+            return cause.getMessage();
+        }
+        return "圖表資料載入失敗";
+    }
+
+    private static long elapsedMs(long startedAt) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    }
+}
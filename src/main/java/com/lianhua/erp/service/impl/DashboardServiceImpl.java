@@ -1,12 +1,18 @@
 package com.lianhua.erp.service.impl;
 
+import com.lianhua.erp.config.DashboardProperties;
+import com.lianhua.erp.dashboard.DashboardCache;
+import com.lianhua.erp.dashboard.DashboardWidget;
 import com.lianhua.erp.dto.dashboard.*;
 import com.lianhua.erp.dto.dashboard.analytics.*;
 import com.lianhua.erp.repository.DashboardRepository;
 import com.lianhua.erp.service.DashboardService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -15,21 +21,75 @@ import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class DashboardServiceImpl implements DashboardService {
 
+    // 損益趨勢回溯上限（10 年）
+    private static final int MAX_PROFIT_LOSS_MONTHS = 120;
+
     private final DashboardRepository dashboardRepository;
+    private final DashboardProperties dashboardProperties;
+    // 圖表結果快取；以今日為基準的圖表會把日期納入快取鍵，跨日自動重新載入
+    private final DashboardCache dashboardCache;
 
     // =========================================================
     // 1. 核心 KPI 摘要
     // =========================================================
     @Override
     public DashboardStatsDto getDashboardStats() {
+        return dashboardCache.get(DashboardWidget.STATS, this::loadDashboardStats, LocalDate.now());
+    }
+
+    @Override
+    public DashboardStatsDto refreshDashboardStats() {
+        return dashboardCache.refresh(DashboardWidget.STATS, this::loadDashboardStats, LocalDate.now());
+    }
+
+    private DashboardStatsDto loadDashboardStats() {
         LocalDate today = LocalDate.now();
         String currentPeriod = today.format(DateTimeFormatter.ofPattern("yyyy-MM"));
 
+        DashboardProperties.KpiSnapshot cfg = dashboardProperties.getKpiSnapshot();
+        if (!cfg.isEnabled()) {
+            return loadStatsPerMetric(today, currentPeriod);
+        }
+
+        DashboardStatsDto snapshot = loadStatsSnapshot(today, currentPeriod);
+        if (cfg.isCompare()) {
+            DashboardStatsDto legacy = loadStatsPerMetric(today, currentPeriod);
+            if (!sameStats(snapshot, legacy)) {
+                log.warn("⚠️ [Dashboard] KPI 快照與逐項查詢結果不一致: snapshot={}, legacy={}", snapshot, legacy);
+            }
+        }
+        return snapshot;
+    }
+
+    /** 新路徑：單一聚合 SQL 取得所有 KPI（一次連線往返） */
+    private DashboardStatsDto loadStatsSnapshot(LocalDate today, String currentPeriod) {
+        Object[] row = dashboardRepository.getKpiSnapshot(today, currentPeriod).stream()
+                .findFirst()
+                .orElseGet(() -> new Object[13]);
+
+        BigDecimal todaySales = parseBigDecimal(row[0]);
+        BigDecimal monthSales = parseBigDecimal(row[1]);
+        BigDecimal todayReceiptsTotal = parseBigDecimal(row[11]);
+        BigDecimal monthReceipts = parseBigDecimal(row[12]);
+
+        return assembleStats(
+                todaySales, monthSales, parseBigDecimal(row[2]), parseBigDecimal(row[3]),
+                parseBigDecimal(row[4]), parseBigDecimal(row[5]), parseBigDecimal(row[6]),
+                parseLong(row[7]), parseLong(row[8]), parseLong(row[9]), (int) parseLong(row[10]),
+                todayReceiptsTotal,
+                todaySales.add(todayReceiptsTotal),   // 今日總入金 = 零售 + 收款
+                monthSales.add(monthReceipts)         // 本月實收 = 零售 + 收款
+        );
+    }
+
+    /** 舊路徑：逐項查詢（保留供比對與回退） */
+    private DashboardStatsDto loadStatsPerMetric(LocalDate today, String currentPeriod) {
         // 營運概況
         BigDecimal todaySales = dashboardRepository.getTodaySalesTotal(today);
         BigDecimal monthSales = dashboardRepository.getMonthSalesTotal(currentPeriod);
@@ -52,6 +112,38 @@ public class DashboardServiceImpl implements DashboardService {
         BigDecimal todayTotalInflow = dashboardRepository.getTodayTotalInflow(today);
         BigDecimal monthTotalReceived = dashboardRepository.getMonthTotalReceived(currentPeriod);
 
+        return assembleStats(
+                todaySales, monthSales, monthPurchase, monthExpense,
+                accountsReceivable, accountsPayable, upcomingAR,
+                suppliers, customers, products, pendingOrders,
+                todayReceiptsTotal, todayTotalInflow, monthTotalReceived
+        );
+    }
+
+    /** 比對模式用：金額以 compareTo 比較，避免 0 與 0.00 等小數位差異誤判 */
+    private boolean sameStats(DashboardStatsDto a, DashboardStatsDto b) {
+        return a.todaySalesTotal().compareTo(b.todaySalesTotal()) == 0
+                && a.monthSalesTotal().compareTo(b.monthSalesTotal()) == 0
+                && a.monthPurchaseTotal().compareTo(b.monthPurchaseTotal()) == 0
+                && a.monthExpenseTotal().compareTo(b.monthExpenseTotal()) == 0
+                && a.accountsPayable().compareTo(b.accountsPayable()) == 0
+                && a.accountsReceivable().compareTo(b.accountsReceivable()) == 0
+                && a.upcomingAR().compareTo(b.upcomingAR()) == 0
+                && a.todayReceiptsTotal().compareTo(b.todayReceiptsTotal()) == 0
+                && a.todayTotalInflow().compareTo(b.todayTotalInflow()) == 0
+                && a.monthTotalReceived().compareTo(b.monthTotalReceived()) == 0
+                && a.supplierCount() == b.supplierCount()
+                && a.customerCount() == b.customerCount()
+                && a.activeProductCount() == b.activeProductCount()
+                && a.pendingOrderCount() == b.pendingOrderCount();
+    }
+
+    private DashboardStatsDto assembleStats(
+            BigDecimal todaySales, BigDecimal monthSales, BigDecimal monthPurchase, BigDecimal monthExpense,
+            BigDecimal accountsReceivable, BigDecimal accountsPayable, BigDecimal upcomingAR,
+            long suppliers, long customers, long products, int pendingOrders,
+            BigDecimal todayReceiptsTotal, BigDecimal todayTotalInflow, BigDecimal monthTotalReceived) {
+
         // 淨利與利潤率計算
         BigDecimal netProfit = monthSales.subtract(monthPurchase).subtract(monthExpense);
         double profitMargin = monthSales.compareTo(BigDecimal.ZERO) > 0
@@ -71,6 +163,10 @@ public class DashboardServiceImpl implements DashboardService {
     // =========================================================
     @Override
     public List<TrendPointDto> getSalesTrendData(int days) {
+        return dashboardCache.get(DashboardWidget.SALES_TREND, () -> loadSalesTrendData(days), days, LocalDate.now());
+    }
+
+    private List<TrendPointDto> loadSalesTrendData(int days) {
         int safeDays = Math.max(1, Math.min(days, 365));
         LocalDate startDate = LocalDate.now().minusDays(safeDays);
         return dashboardRepository.getCombinedTrend(startDate).stream()
@@ -83,6 +179,10 @@ public class DashboardServiceImpl implements DashboardService {
 
     @Override
     public List<ExpenseCompositionDto> getExpenseComposition() {
+        return dashboardCache.get(DashboardWidget.EXPENSE_COMPOSITION, this::loadExpenseComposition, LocalDate.now());
+    }
+
+    private List<ExpenseCompositionDto> loadExpenseComposition() {
         String period = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM"));
         return dashboardRepository.getMonthlyExpenseComposition(period).stream()
                 .map(row -> new ExpenseCompositionDto(
@@ -98,6 +198,10 @@ public class DashboardServiceImpl implements DashboardService {
     /** 分析 AR/AP 逾期風險帳齡 */
     @Override
     public List<AccountAgingDto> getAgingAnalytics() {
+        return dashboardCache.get(DashboardWidget.ACCOUNT_AGING, this::loadAgingAnalytics, LocalDate.now());
+    }
+
+    private List<AccountAgingDto> loadAgingAnalytics() {
         return dashboardRepository.getAccountAging().stream()
                 .map(row -> new AccountAgingDto(
                         (String) row[0],           // bucketLabel
@@ -109,8 +213,15 @@ public class DashboardServiceImpl implements DashboardService {
     /** 獲取損益四線走勢 (包含營收、毛利、費用、淨利) */
     @Override
     public List<ProfitLossPointDto> getProfitLossTrend(int months) {
-        // 注意：Repository SQL 內部已有 LIMIT 6，此處 months 可用於後續動態擴展
-        return dashboardRepository.getProfitLossTrend().stream()
+        if (months < 1 || months > MAX_PROFIT_LOSS_MONTHS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "回溯月數需介於 1 ~ " + MAX_PROFIT_LOSS_MONTHS + " 之間");
+        }
+        return dashboardCache.get(DashboardWidget.PROFIT_LOSS_TREND, () -> loadProfitLossTrend(months), months);
+    }
+
+    private List<ProfitLossPointDto> loadProfitLossTrend(int months) {
+        return dashboardRepository.getProfitLossTrend(months).stream()
                 .map(row -> new ProfitLossPointDto(
                         (String) row[0],           // period
                         parseBigDecimal(row[1]),   // revenue
@@ -123,6 +234,10 @@ public class DashboardServiceImpl implements DashboardService {
     /** 訂單轉化漏斗分析 */
     @Override
     public List<OrderFunnelDto> getOrderFunnel(String period) {
+        return dashboardCache.get(DashboardWidget.ORDER_FUNNEL, () -> loadOrderFunnel(period), period);
+    }
+
+    private List<OrderFunnelDto> loadOrderFunnel(String period) {
         return dashboardRepository.getOrderFunnel(period).stream()
                 .map(row -> new OrderFunnelDto(
                         (String) row[0],           // stage (status)
@@ -134,6 +249,10 @@ public class DashboardServiceImpl implements DashboardService {
     /** 獲取待辦任務 (即將到期的 AR 帳單清單) */
     @Override
     public List<DashboardTaskDto> getPendingTasks() {
+        return dashboardCache.get(DashboardWidget.PENDING_TASKS, this::loadPendingTasks, LocalDate.now());
+    }
+
+    private List<DashboardTaskDto> loadPendingTasks() {
         // SQL 回傳順序: oc.name(0), o.order_no(1), o.delivery_date(2), balance(3)
         return dashboardRepository.getUpcomingARList().stream()
                 .map(row -> new DashboardTaskDto(
@@ -163,6 +282,12 @@ public class DashboardServiceImpl implements DashboardService {
         return new BigDecimal(obj.toString());
     }
 
+    private long parseLong(Object obj) {
+        if (obj == null) return 0L;
+        if (obj instanceof Number) return ((Number) obj).longValue();
+        return Long.parseLong(obj.toString());
+    }
+
     // =========================================================
     // 2. 核心決策圖表 (v3.0 財務三表與深度分析映射)
     // =========================================================
@@ -170,6 +295,10 @@ public class DashboardServiceImpl implements DashboardService {
     /** [圖表 1] 損益平衡分析：映射累計營收、累計支出與平衡門檻 */
     @Override
     public List<BreakEvenPointDto> getBreakEvenAnalysis(String period) {
+        return dashboardCache.get(DashboardWidget.BREAK_EVEN, () -> loadBreakEvenAnalysis(period), period);
+    }
+
+    private List<BreakEvenPointDto> loadBreakEvenAnalysis(String period) {
         return dashboardRepository.getBreakEvenData(period).stream()
                 .map(row -> new BreakEvenPointDto(
                         parseLocalDate(row[0]),     // date
@@ -182,6 +311,10 @@ public class DashboardServiceImpl implements DashboardService {
     /** [圖表 2] 流動性指標：單行數據映射 */
     @Override
     public LiquidityDto getLiquidityAnalytics() {
+        return dashboardCache.get(DashboardWidget.LIQUIDITY, this::loadLiquidityAnalytics);
+    }
+
+    private LiquidityDto loadLiquidityAnalytics() {
         return dashboardRepository.getLiquidityMetrics().stream()
                 .findFirst()
                 .map(row -> new LiquidityDto(
@@ -194,6 +327,10 @@ public class DashboardServiceImpl implements DashboardService {
     /** [圖表 3] 未來現金流預測：30 天數據映射 */
     @Override
     public List<CashflowForecastDto> getCashflowForecast(LocalDate baseDate, int days) {
+        return dashboardCache.get(DashboardWidget.CASHFLOW_FORECAST, () -> loadCashflowForecast(baseDate, days), baseDate, days);
+    }
+
+    private List<CashflowForecastDto> loadCashflowForecast(LocalDate baseDate, int days) {
         return dashboardRepository.getCashflowForecast(baseDate, days).stream()
                 .map(row -> {
                     var date = parseLocalDate(row[0]);
@@ -210,6 +347,10 @@ public class DashboardServiceImpl implements DashboardService {
     /** [圖表 4] 商品獲利 Pareto 分析：名稱、金額、累計百分比 */
     @Override
     public List<ProductParetoDto> getProductParetoAnalysis(LocalDate start, LocalDate end) {
+        return dashboardCache.get(DashboardWidget.PRODUCT_PARETO, () -> loadProductParetoAnalysis(start, end), start, end);
+    }
+
+    private List<ProductParetoDto> loadProductParetoAnalysis(LocalDate start, LocalDate end) {
         return dashboardRepository.getProductPareto(start, end).stream()
                 .map(row -> new ProductParetoDto(
                         (String) row[0],            // productName
@@ -221,6 +362,10 @@ public class DashboardServiceImpl implements DashboardService {
     /** [圖表 5] 供應商採購集中度分析 */
     @Override
     public List<SupplierConcentrationDto> getSupplierConcentration(LocalDate start, LocalDate end) {
+        return dashboardCache.get(DashboardWidget.SUPPLIER_CONCENTRATION, () -> loadSupplierConcentration(start, end), start, end);
+    }
+
+    private List<SupplierConcentrationDto> loadSupplierConcentration(LocalDate start, LocalDate end) {
         return dashboardRepository.getSupplierConcentration(start, end).stream()
                 .map(row -> new SupplierConcentrationDto(
                         (String) row[0],            // supplierName
@@ -232,6 +377,10 @@ public class DashboardServiceImpl implements DashboardService {
     /** [圖表 6] 客戶回購與沉睡分析 */
     @Override
     public List<CustomerRetentionDto> getCustomerRetention() {
+        return dashboardCache.get(DashboardWidget.CUSTOMER_RETENTION, this::loadCustomerRetention, LocalDate.now());
+    }
+
+    private List<CustomerRetentionDto> loadCustomerRetention() {
         return dashboardRepository.getCustomerRetention().stream()
                 .map(row -> new CustomerRetentionDto(
                         (String) row[0],            // customerName
@@ -244,6 +393,10 @@ public class DashboardServiceImpl implements DashboardService {
     /** [圖表 7] 採購結構分析 (按品項) */
     @Override
     public List<PurchaseStructureDto> getPurchaseStructureByItem(LocalDate start, LocalDate end) {
+        return dashboardCache.get(DashboardWidget.PURCHASE_STRUCTURE, () -> loadPurchaseStructureByItem(start, end), start, end);
+    }
+
+    private List<PurchaseStructureDto> loadPurchaseStructureByItem(LocalDate start, LocalDate end) {
         return dashboardRepository.getPurchaseStructureByItem(start, end).stream()
                 .map(row -> new PurchaseStructureDto(
                         (String) row[0],           // item name
@@ -257,6 +410,10 @@ public class DashboardServiceImpl implements DashboardService {
      */
     @Override
     public List<CustomerConcentrationDto> getCustomerConcentration(LocalDate startDate, LocalDate endDate) {
+        return dashboardCache.get(DashboardWidget.CUSTOMER_CONCENTRATION, () -> loadCustomerConcentration(startDate, endDate), startDate, endDate);
+    }
+
+    private List<CustomerConcentrationDto> loadCustomerConcentration(LocalDate startDate, LocalDate endDate) {
         // 1. 執行 Repository 原生查詢
         List<Object[]> results = dashboardRepository.getCustomerConcentration(startDate, endDate);
 
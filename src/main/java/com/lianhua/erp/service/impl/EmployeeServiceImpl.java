@@ -1,13 +1,13 @@
 package com.lianhua.erp.service.impl;
 
 import com.lianhua.erp.domain.Employee;
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.dto.employee.*;
 import com.lianhua.erp.export.ExportDisplayZh;
-import com.lianhua.erp.export.ExportFilenameUtils;
 import com.lianhua.erp.export.ExportFormat;
+import com.lianhua.erp.export.ExportRowPager;
 import com.lianhua.erp.export.ExportScope;
-import com.lianhua.erp.export.TabularExporter;
+import com.lianhua.erp.export.ExportStreams;
 import com.lianhua.erp.mapper.EmployeeMapper;
 import com.lianhua.erp.repository.EmployeeRepository;
 import com.lianhua.erp.repository.ExpenseRepository;
@@ -30,6 +30,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 @Service
@@ -40,6 +41,7 @@ public class EmployeeServiceImpl implements EmployeeService {
     private final EmployeeRepository repository;
     private final EmployeeMapper mapper;
     private final ExpenseRepository expenseRepository;
+    private final ExportRowPager exportRowPager;
 
     private static final String[] EMPLOYEE_EXPORT_HEADERS = new String[]{
             "員工姓名",
@@ -49,7 +51,7 @@ public class EmployeeServiceImpl implements EmployeeService {
             "狀態"
     };
 
-    @Value("${app.export.max-rows:50000}")
+    @Value("${app.export.max-rows:500000}")
     private int maxExportRows;
     
     @Override
@@ -246,7 +248,7 @@ public class EmployeeServiceImpl implements EmployeeService {
 
     @Override
     @Transactional(readOnly = true)
-    public ExportPayload exportEmployees(
+    public StreamingExportPayload exportEmployees(
             EmployeeSearchRequest request,
             Pageable pageable,
             ExportFormat format,
@@ -261,60 +263,34 @@ public class EmployeeServiceImpl implements EmployeeService {
                 ? pageable.getSort()
                 : Sort.by(Sort.Direction.ASC, "id");
 
-        List<String[]> rows;
+        Iterator<String[]> rows;
 
-        if (safeScope == ExportScope.ALL) {
-            long total = repository.count(spec);
-            if (total > maxExportRows) {
-                throw new ResponseStatusException(
-                        HttpStatus.BAD_REQUEST,
-                        "匯出筆數超過上限 (" + maxExportRows + ")，請縮小篩選條件");
-            }
-            rows = new ArrayList<>((int) Math.min(total, Integer.MAX_VALUE));
-
-            int step = 1000;
-            if (pageable != null && pageable.getPageSize() > 0 && pageable.getPageSize() <= 200) {
-                step = Math.max(50, pageable.getPageSize());
-            }
-
-            int pages = (int) ((total + step - 1) / step);
-            try {
-                for (int p = 0; p < pages; p++) {
-                    Page<Employee> page = repository.findAll(spec, PageRequest.of(p, step, safeSort));
-                    for (Employee employee : page.getContent()) {
-                        rows.add(toEmployeeExportRow(mapper.toDto(employee)));
-                    }
-                }
-            } catch (PropertyReferenceException ex) {
-                throw new ResponseStatusException(
-                        HttpStatus.BAD_REQUEST,
-                        "無效排序欄位：" + ex.getPropertyName());
-            }
-        } else {
-            rows = new ArrayList<>();
-            Pageable p = pageable == null
-                    ? PageRequest.of(0, 25, safeSort)
-                    : normalizeForExport(pageable, safeSort);
-
-            try {
-                Page<Employee> page = repository.findAll(spec, p);
-                for (Employee employee : page.getContent()) {
-                    rows.add(toEmployeeExportRow(mapper.toDto(employee)));
+        try {
+            if (safeScope == ExportScope.ALL) {
+                long total = repository.count(spec);
+                if (total > maxExportRows) {
+                    throw new ResponseStatusException(
+                            HttpStatus.BAD_REQUEST,
+                            "匯出筆數超過上限 (" + maxExportRows + ")，請縮小篩選條件");
                 }
-            } catch (PropertyReferenceException ex) {
-                throw new ResponseStatusException(
-                        HttpStatus.BAD_REQUEST,
-                        "無效排序欄位：" + ex.getPropertyName());
+                rows = exportRowPager.seek(repository, Employee.class, spec, safeSort,
+                        employee -> toEmployeeExportRow(mapper.toDto(employee)));
+            } else {
+                Pageable p = pageable == null
+                        ? PageRequest.of(0, 25, safeSort)
+                        : normalizeForExport(pageable, safeSort);
+                rows = repository.findAll(spec, p).getContent().stream()
+                        .map(employee -> toEmployeeExportRow(mapper.toDto(employee)))
+                        .toList()
+                        .iterator();
             }
+        } catch (PropertyReferenceException ex) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "無效排序欄位：" + ex.getPropertyName());
         }
 
-        byte[] data = switch (safeFormat) {
-            case XLSX -> TabularExporter.toXlsx("employees", EMPLOYEE_EXPORT_HEADERS, rows);
-            case CSV -> TabularExporter.toCsvUtf8Bom(EMPLOYEE_EXPORT_HEADERS, rows);
-        };
-
-        String filename = ExportFilenameUtils.build("employees", safeFormat);
-        return new ExportPayload(data, filename, safeFormat.mediaType());
+        return ExportStreams.tabular("employees", "employees", safeFormat, EMPLOYEE_EXPORT_HEADERS, rows);
     }
     
     @Override
@@ -5,6 +5,8 @@ import com.lianhua.erp.dto.expense.ExpenseCategoryRequestDto;
 import com.lianhua.erp.dto.expense.ExpenseCategoryResponseDto;
 import com.lianhua.erp.dto.expense.ExpenseCategorySearchRequest;
 import com.lianhua.erp.mapper.ExpenseCategoryMapper;
+import com.lianhua.erp.report.ReportResultCache;
+import com.lianhua.erp.report.ReportType;
 import com.lianhua.erp.repository.ExpenseCategoryRepository;
 import com.lianhua.erp.repository.ExpenseRepository;
 import com.lianhua.erp.service.ExpenseCategoryService;
@@ -34,6 +36,7 @@ public class ExpenseCategoryServiceImpl implements ExpenseCategoryService {
     private final ExpenseCategoryRepository repository;
     private final ExpenseRepository expenseRepository;
     private final ExpenseCategoryMapper mapper;
+    private final ReportResultCache reportResultCache;
 
 
     // ============================================
@@ -133,6 +136,8 @@ public class ExpenseCategoryServiceImpl implements ExpenseCategoryService {
         // === 儲存（攔截 DB constraint）===
         try {
             ExpenseCategory saved = repository.save(category);
+            // 綜合損益表會列出所有啟用中的費用類別（含金額為零者）
+            reportResultCache.invalidateAfterCommit(ReportType.COMPREHENSIVE_INCOME);
             log.info("成功創建費用類別: {} (ID: {}, Code: {})", saved.getName(), saved.getId(), saved.getAccountCode());
             return mapper.toDto(saved);
         } catch (DataIntegrityViolationException ex) {
@@ -222,6 +227,7 @@ public class ExpenseCategoryServiceImpl implements ExpenseCategoryService {
         // === 儲存（攔截 DB constraint）===
         try {
             ExpenseCategory updated = repository.save(existing);
+            reportResultCache.invalidateAfterCommit(ReportType.COMPREHENSIVE_INCOME);
             log.info("成功更新費用類別: {} (ID: {}, Code: {})", updated.getName(), updated.getId(), updated.getAccountCode());
             return mapper.toDto(updated);
         } catch (DataIntegrityViolationException ex) {
@@ -244,6 +250,7 @@ public class ExpenseCategoryServiceImpl implements ExpenseCategoryService {
 
         category.setActive(true);
         ExpenseCategory saved = repository.save(category);
+        reportResultCache.invalidateAfterCommit(ReportType.COMPREHENSIVE_INCOME);
         log.info("成功啟用費用類別: {} (ID: {})", saved.getName(), saved.getId());
         return mapper.toDto(saved);
     }
@@ -259,6 +266,7 @@ public class ExpenseCategoryServiceImpl implements ExpenseCategoryService {
 
         category.setActive(false);
         ExpenseCategory saved = repository.save(category);
+        reportResultCache.invalidateAfterCommit(ReportType.COMPREHENSIVE_INCOME);
         log.info("成功停用費用類別: {} (ID: {})", saved.getName(), saved.getId());
         return mapper.toDto(saved);
     }
@@ -299,6 +307,7 @@ public class ExpenseCategoryServiceImpl implements ExpenseCategoryService {
         }
 
         repository.delete(category);
+        reportResultCache.invalidateAfterCommit(ReportType.COMPREHENSIVE_INCOME);
         log.info("成功刪除費用類別: {} (ID: {})", category.getName(), id);
     }
 
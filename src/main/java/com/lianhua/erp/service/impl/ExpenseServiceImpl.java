@@ -1,16 +1,17 @@
 package com.lianhua.erp.service.impl;
 
 import com.lianhua.erp.domain.*;
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.dto.expense.*;
 import com.lianhua.erp.export.ExportDisplayZh;
-import com.lianhua.erp.export.ExportFilenameUtils;
 import com.lianhua.erp.export.ExportFormat;
+import com.lianhua.erp.export.ExportRowPager;
 import com.lianhua.erp.export.ExportScope;
-import com.lianhua.erp.export.TabularExporter;
+import com.lianhua.erp.export.ExportStreams;
 import com.lianhua.erp.mapper.ExpenseMapper;
 import com.lianhua.erp.repository.*;
 import com.lianhua.erp.service.ExpenseService;
+import com.lianhua.erp.service.FinancialRollupService;
 import com.lianhua.erp.service.impl.spec.ExpenseSpecifications;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
@@ -31,7 +32,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -46,6 +47,8 @@ public class ExpenseServiceImpl implements ExpenseService {
     private final EmployeeRepository employeeRepository;
     private final ExpenseMapper mapper;
     private final ApplicationEventPublisher eventPublisher;
+    private final FinancialRollupService financialRollupService;
+    private final ExportRowPager exportRowPager;
 
     // ✅ 統一格式化器（會計期間）
     private static final DateTimeFormatter PERIOD_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM");
@@ -60,7 +63,7 @@ public class ExpenseServiceImpl implements ExpenseService {
             "備註"
     };
 
-    @org.springframework.beans.factory.annotation.Value("${app.export.max-rows:50000}")
+    @org.springframework.beans.factory.annotation.Value("${app.export.max-rows:500000}")
     private int maxExportRows;
 
     /**
@@ -359,6 +362,8 @@ public class ExpenseServiceImpl implements ExpenseService {
         expense.setStatus(ExpenseStatus.ACTIVE);
 
         Expense saved = repository.save(expense);
+        financialRollupService.touch(RollupMetric.EXPENSE, saved.getExpenseDate());
+        eventPublisher.publishEvent(new com.lianhua.erp.event.ExpenseEvent(this, saved, "EXPENSE_CREATED", null));
         log.info("成功創建費用: ID={}, 類別={}, 金額={}, 日期={}",
                 saved.getId(), saved.getCategory().getName(), saved.getAmount(), saved.getExpenseDate());
         return mapper.toDto(saved);
@@ -455,6 +460,8 @@ public class ExpenseServiceImpl implements ExpenseService {
         // ✅ accountingPeriod 不可修改，故此處不動
 
         Expense updated = repository.save(entity);
+        financialRollupService.touch(RollupMetric.EXPENSE, updated.getExpenseDate());
+        eventPublisher.publishEvent(new com.lianhua.erp.event.ExpenseEvent(this, updated, "EXPENSE_UPDATED", null));
         log.info("成功更新費用: ID={}, 類別={}, 金額={}",
                 updated.getId(), updated.getCategory().getName(), updated.getAmount());
         return mapper.toDto(updated);
@@ -492,6 +499,7 @@ public class ExpenseServiceImpl implements ExpenseService {
         expense.setVoidReason(reason);
 
         Expense saved = repository.save(expense);
+        financialRollupService.touch(RollupMetric.EXPENSE, saved.getExpenseDate());
 
         // 🚀 ✨ 新增：發送「費用作廢」通知 (對齊三行格式：單號、金額、原因)
         Map<String, Object> payload = new java.util.HashMap<>();
@@ -558,7 +566,7 @@ public class ExpenseServiceImpl implements ExpenseService {
     // ============================================
     @Override
     @Transactional(readOnly = true)
-    public ExportPayload exportExpenses(
+    public StreamingExportPayload exportExpenses(
             ExpenseSearchRequest req,
             Pageable pageable,
             ExportFormat format,
@@ -575,59 +583,34 @@ public class ExpenseServiceImpl implements ExpenseService {
                 ? pageable.getSort()
                 : Sort.by(Sort.Direction.DESC, "expenseDate");
 
-        List<String[]> rows;
+        Iterator<String[]> rows;
 
-        if (safeScope == ExportScope.ALL) {
-            try {
+        try {
+            if (safeScope == ExportScope.ALL) {
                 long total = repository.count(spec);
                 if (total > maxExportRows) {
                     throw new ResponseStatusException(
                             HttpStatus.BAD_REQUEST,
                             "匯出筆數超過上限 (" + maxExportRows + ")，請縮小篩選條件");
                 }
-                rows = new ArrayList<>((int) Math.min(total, Integer.MAX_VALUE));
-
-                int step = 1000;
-                if (pageable != null && pageable.getPageSize() > 0 && pageable.getPageSize() <= 200) {
-                    step = Math.max(50, pageable.getPageSize());
-                }
-
-                int pages = (int) ((total + step - 1) / step);
-                for (int p = 0; p < pages; p++) {
-                    Page<Expense> page = repository.findAll(spec, PageRequest.of(p, step, safeSort));
-                    for (Expense e : page.getContent()) {
-                        rows.add(toExpenseExportRow(mapper.toDto(e)));
-                    }
-                }
-            } catch (PropertyReferenceException ex) {
-                throw new ResponseStatusException(
-                        HttpStatus.BAD_REQUEST,
-                        "無效排序欄位：" + ex.getPropertyName());
-            }
-        } else {
-            rows = new ArrayList<>();
-            try {
+                rows = exportRowPager.seek(repository, Expense.class, spec, safeSort,
+                        e -> toExpenseExportRow(mapper.toDto(e)));
+            } else {
                 Pageable p = pageable == null
                         ? PageRequest.of(0, 25, safeSort)
                         : normalizeForExport(pageable, safeSort);
-                Page<Expense> page = repository.findAll(spec, p);
-                for (Expense e : page.getContent()) {
-                    rows.add(toExpenseExportRow(mapper.toDto(e)));
-                }
-            } catch (PropertyReferenceException ex) {
-                throw new ResponseStatusException(
-                        HttpStatus.BAD_REQUEST,
-                        "無效排序欄位：" + ex.getPropertyName());
+                rows = repository.findAll(spec, p).getContent().stream()
+                        .map(e -> toExpenseExportRow(mapper.toDto(e)))
+                        .toList()
+                        .iterator();
             }
+        } catch (PropertyReferenceException ex) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "無效排序欄位：" + ex.getPropertyName());
         }
 
-        byte[] data = switch (safeFormat) {
-            case XLSX -> TabularExporter.toXlsx("expenses", EXPENSE_EXPORT_HEADERS, rows);
-            case CSV -> TabularExporter.toCsvUtf8Bom(EXPENSE_EXPORT_HEADERS, rows);
-        };
-
-        String filename = ExportFilenameUtils.build("expenses", safeFormat);
-        return new ExportPayload(data, filename, safeFormat.mediaType());
+        return ExportStreams.tabular("expenses", "expenses", safeFormat, EXPENSE_EXPORT_HEADERS, rows);
     }
 
     private Pageable normalizeForExport(Pageable pageable, Sort safeSort) {
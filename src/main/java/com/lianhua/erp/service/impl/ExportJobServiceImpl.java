@@ -0,0 +1,545 @@
+package com.lianhua.erp.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lianhua.erp.config.ExportProperties;
+import com.lianhua.erp.dto.ap.APAgingFilterDto;
+import com.lianhua.erp.dto.ar.ARAgingFilterDto;
+import com.lianhua.erp.dto.audit.ActivityAuditLogSearchRequest;
+import com.lianhua.erp.dto.employee.EmployeeSearchRequest;
+import com.lianhua.erp.dto.expense.ExpenseSearchRequest;
+import com.lianhua.erp.dto.export.ExportJobDto;
+import com.lianhua.erp.dto.export.ExportJobFile;
+import com.lianhua.erp.dto.export.ExportJobRequest;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
+import com.lianhua.erp.dto.order.OrderSearchRequest;
+import com.lianhua.erp.dto.orderCustomer.OrderCustomerRequestDto;
+import com.lianhua.erp.dto.payment.PaymentSearchRequest;
+import com.lianhua.erp.dto.purchase.PurchaseSearchRequest;
+import com.lianhua.erp.dto.receipt.ReceiptSearchRequest;
+import com.lianhua.erp.dto.sale.SaleSearchRequestDto;
+import com.lianhua.erp.dto.supplier.SupplierSearchRequest;
+import com.lianhua.erp.export.ExportFormat;
+import com.lianhua.erp.export.ExportProgress;
+import com.lianhua.erp.export.ExportResource;
+import com.lianhua.erp.export.ExportResultCache;
+import com.lianhua.erp.export.ExportScope;
+import com.lianhua.erp.security.SecurityUtils;
+import com.lianhua.erp.security.SseSessionService;
+import com.lianhua.erp.service.APAgingService;
+import com.lianhua.erp.service.ARAgingService;
+import com.lianhua.erp.service.ActivityAuditService;
+import com.lianhua.erp.service.EmployeeService;
+import com.lianhua.erp.service.ExpenseService;
+import com.lianhua.erp.service.ExportJobService;
+import com.lianhua.erp.service.OrderCustomerService;
+import com.lianhua.erp.service.OrderService;
+import com.lianhua.erp.service.PaymentService;
+import com.lianhua.erp.service.PurchaseService;
+import com.lianhua.erp.service.ReceiptService;
+import com.lianhua.erp.service.SalesService;
+import com.lianhua.erp.service.SupplierService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * 背景匯出工作：
+ * 1) 建立時即檢查權限、篩選條件與並行上限（每位使用者、全系統），錯誤同步回報
+ * 2) 工作於有界執行緒池呼叫與列表 /export 相同的匯出邏輯，寫入暫存目錄（先寫 .part，完成後改名）
+ * 3) 進度（已寫出列數）、完成與失敗以 SSE 推送給建立者；完成後由下載端點提供檔案（支援 Range）
+ *
+ * 📌 工作清單保存在記憶體（單一節點）；重新啟動時暫存目錄會清空，未完成的工作需重新建立。
+ */
+@Slf4j
+@Service
+public class ExportJobServiceImpl implements ExportJobService {
+
+    private static final String EVENT_PROGRESS = "EXPORT_PROGRESS";
+    private static final String EVENT_COMPLETED = "EXPORT_COMPLETED";
+    private static final String EVENT_FAILED = "EXPORT_FAILED";
+
+    private final ExportProperties.Job config;
+    private final Path spoolDir;
+    private final AsyncTaskExecutor jobExecutor;
+    private final SseSessionService sseSessionService;
+    private final ObjectMapper objectMapper;
+    private final ExportResultCache exportResultCache;
+
+    private final PurchaseService purchaseService;
+    private final OrderService orderService;
+    private final ReceiptService receiptService;
+    private final PaymentService paymentService;
+    private final SalesService salesService;
+    private final ExpenseService expenseService;
+    private final SupplierService supplierService;
+    private final OrderCustomerService orderCustomerService;
+    private final EmployeeService employeeService;
+    private final ARAgingService arAgingService;
+    private final APAgingService apAgingService;
+    private final ActivityAuditService activityAuditService;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public ExportJobServiceImpl(ExportProperties exportProperties,
+                                @Qualifier("exportJobExecutor") AsyncTaskExecutor jobExecutor,
+                                SseSessionService sseSessionService,
+                                ObjectMapper objectMapper,
+                                ExportResultCache exportResultCache,
+                                PurchaseService purchaseService,
+                                OrderService orderService,
+                                ReceiptService receiptService,
+                                PaymentService paymentService,
+                                SalesService salesService,
+                                ExpenseService expenseService,
+                                SupplierService supplierService,
+                                OrderCustomerService orderCustomerService,
+                                EmployeeService employeeService,
+                                ARAgingService arAgingService,
+                                APAgingService apAgingService,
+                                ActivityAuditService activityAuditService) {
+        this.config = exportProperties.getJob();
+        this.spoolDir = resolveSpoolDir(config.getSpoolDir());
+        this.jobExecutor = jobExecutor;
+        this.sseSessionService = sseSessionService;
+        this.objectMapper = objectMapper;
+        this.exportResultCache = exportResultCache;
+        this.purchaseService = purchaseService;
+        this.orderService = orderService;
+        this.receiptService = receiptService;
+        this.paymentService = paymentService;
+        this.salesService = salesService;
+        this.expenseService = expenseService;
+        this.supplierService = supplierService;
+        this.orderCustomerService = orderCustomerService;
+        this.employeeService = employeeService;
+        this.arAgingService = arAgingService;
+        this.apAgingService = apAgingService;
+        this.activityAuditService = activityAuditService;
+    }
+
+    /**
+     * 單一工作的執行狀態；狀態欄位由工作執行緒寫入、查詢端讀取
+     */
+    private static final class Job {
+        final String id = UUID.randomUUID().toString();
+        final Long userId;
+        final ExportResource resource;
+        final ExportFormat format;
+        final LocalDateTime createdAt = LocalDateTime.now();
+
+        volatile String status = ExportJobDto.QUEUED;
+        volatile long rowsWritten;
+        volatile String filename;
+        volatile String mediaType;
+        volatile Path file;
+        volatile Long sizeBytes;
+        volatile String error;
+        volatile LocalDateTime startedAt;
+        volatile LocalDateTime finishedAt;
+        volatile long finishedAtNanos;
+        volatile long lastProgressNanos;
+        volatile boolean deleted;
+        volatile Future<?> future;
+
+        Job(Long userId, ExportResource resource, ExportFormat format) {
+            this.userId = userId;
+            this.resource = resource;
+            this.format = format;
+        }
+
+        boolean isActive() {
+            return ExportJobDto.QUEUED.equals(status) || ExportJobDto.RUNNING.equals(status);
+        }
+
+        ExportJobDto toDto() {
+            return new ExportJobDto(id, resource.getKey(), format.name(), status, rowsWritten, filename,
+                    sizeBytes, error, createdAt, startedAt, finishedAt);
+        }
+    }
+
+    // ================================
+    // 建立工作
+    // ================================
+    @Override
+    public ExportJobDto submit(Long userId, ExportJobRequest request) {
+        if (userId == null) {
+            throw new AccessDeniedException("未認證");
+        }
+        if (request == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "請提供匯出條件");
+        }
+
+        ExportResource resource = ExportResource.fromKey(request.resource());
+        requireAuthority(resource);
+
+        ExportFormat format = ExportFormat.fromQueryParam(request.format());
+        ExportScope scope = request.scope() == null || request.scope().isBlank()
+                ? ExportScope.ALL
+                : ExportScope.fromQueryParam(request.scope());
+        Pageable pageable = toPageable(request);
+        Supplier<StreamingExportPayload> export = exportFor(resource, request.filters(), pageable, format, scope);
+
+        Job job = new Job(userId, resource, format);
+        synchronized (jobs) {
+            long active = jobs.values().stream().filter(Job::isActive).count();
+            if (active >= Math.max(1, config.getMaxActive())) {
+                throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "匯出工作繁忙，請稍後再試");
+            }
+            long mine = jobs.values().stream().filter(j -> j.isActive() && userId.equals(j.userId)).count();
+            if (mine >= Math.max(1, config.getMaxActivePerUser())) {
+                throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                        "進行中的匯出工作已達上限 (" + config.getMaxActivePerUser() + ")，請待完成後再建立");
+            }
+            jobs.put(job.id, job);
+        }
+
+        try {
+            job.future = jobExecutor.submit(() -> run(job, export));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "匯出佇列已滿，請稍後再試");
+        }
+
+        log.info("📤 [ExportJob] 建立匯出工作：job={}, user={}, resource={}, format={}, scope={}",
+                job.id, userId, resource.getKey(), format, scope);
+        return job.toDto();
+    }
+
+    // ================================
+    // 查詢 / 下載 / 刪除
+    // ================================
+    @Override
+    public List<ExportJobDto> listJobs(Long userId) {
+        return jobs.values().stream()
+                .filter(j -> j.userId.equals(userId))
+                .sorted(Comparator.comparing((Job j) -> j.createdAt).reversed())
+                .map(Job::toDto)
+                .toList();
+    }
+
+    @Override
+    public ExportJobDto getJob(Long userId, String jobId) {
+        return findOwned(userId, jobId).toDto();
+    }
+
+    @Override
+    public ExportJobFile getResult(Long userId, String jobId) {
+        Job job = findOwned(userId, jobId);
+        if (!ExportJobDto.COMPLETED.equals(job.status)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "匯出工作尚未完成（目前狀態：" + job.status + "）");
+        }
+        Path file = job.file;
+        if (file == null || !Files.isRegularFile(file)) {
+            throw new ResponseStatusException(HttpStatus.GONE, "匯出檔已清除，請重新建立匯出工作");
+        }
+        return new ExportJobFile(file, job.filename, job.mediaType);
+    }
+
+    @Override
+    public void delete(Long userId, String jobId) {
+        Job job = findOwned(userId, jobId);
+        job.deleted = true;
+        jobs.remove(job.id);
+        Future<?> future = job.future;
+        if (future != null && job.isActive()) {
+            future.cancel(true);
+        }
+        deleteQuietly(job.file);
+        deleteQuietly(partFile(job));
+    }
+
+    @Override
+    public int purgeExpired() {
+        Duration retention = config.getRetention();
+        if (retention == null) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        List<Job> expired = new ArrayList<>();
+        for (Job job : jobs.values()) {
+            if (!job.isActive() && job.finishedAtNanos != 0 && now - job.finishedAtNanos > retention.toNanos()) {
+                expired.add(job);
+            }
+        }
+        for (Job job : expired) {
+            jobs.remove(job.id);
+            deleteQuietly(job.file);
+        }
+        if (!expired.isEmpty()) {
+            log.info("🧹 [ExportJob] 清除逾期匯出工作 {} 筆", expired.size());
+        }
+        return expired.size();
+    }
+
+    // ================================
+    // 工作執行
+    // ================================
+    private void run(Job job, Supplier<StreamingExportPayload> export) {
+        if (job.deleted) {
+            return;
+        }
+        job.status = ExportJobDto.RUNNING;
+        job.startedAt = LocalDateTime.now();
+        notify(job, EVENT_PROGRESS);
+
+        Path part = partFile(job);
+        try {
+            StreamingExportPayload payload = export.get();
+            job.filename = payload.filename();
+            job.mediaType = payload.mediaType();
+
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(part), 64 * 1024)) {
+                ExportProgress.run(rows -> onProgress(job, rows), payload.body(), out);
+            }
+
+            Path target = spoolDir.resolve(job.id + "." + job.format.fileExtension());
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+            if (job.deleted) {
+                deleteQuietly(target);
+                return;
+            }
+            job.file = target;
+            job.sizeBytes = Files.size(target);
+            finish(job, ExportJobDto.COMPLETED, null);
+            log.info("📤 [ExportJob] 匯出完成：job={}, rows={}, bytes={}", job.id, job.rowsWritten, job.sizeBytes);
+            notify(job, EVENT_COMPLETED);
+        } catch (Exception e) {
+            deleteQuietly(part);
+            if (job.deleted) {
+                return;
+            }
+            log.warn("⚠️ [ExportJob] 匯出失敗：job={}, resource={}, error={}", job.id, job.resource.getKey(), e.toString());
+            finish(job, ExportJobDto.FAILED, errorMessage(e));
+            notify(job, EVENT_FAILED);
+        }
+    }
+
+    private void onProgress(Job job, long rows) {
+        job.rowsWritten = rows;
+        long now = System.nanoTime();
+        Duration interval = config.getProgressInterval();
+        if (interval == null || now - job.lastProgressNanos >= interval.toNanos()) {
+            job.lastProgressNanos = now;
+            notify(job, EVENT_PROGRESS);
+        }
+    }
+
+    private static void finish(Job job, String status, String error) {
+        job.error = error;
+        job.finishedAt = LocalDateTime.now();
+        job.finishedAtNanos = System.nanoTime();
+        job.status = status;
+    }
+
+    private void notify(Job job, String event) {
+        try {
+            sseSessionService.send(job.userId, event, job.toDto());
+        } catch (RuntimeException e) {
+            log.debug("SSE notify failed for export job {}: {}", job.id, e.getMessage());
+        }
+    }
+
+    // ================================
+    // 匯出來源
+    // ================================
+
+    /**
+     * 依資源轉換篩選條件（於建立時即轉換，格式錯誤直接回報 400），回傳稍後於工作執行緒呼叫的匯出；
+     * 與列表 /export 端點共用匯出結果快取
+     */
+    private Supplier<StreamingExportPayload> exportFor(ExportResource resource, Map<String, Object> filters,
+                                                       Pageable pageable, ExportFormat format, ExportScope scope) {
+        return switch (resource) {
+            case PURCHASES -> {
+                PurchaseSearchRequest req = filters(filters, PurchaseSearchRequest.class);
+                yield () -> exportResultCache.get(resource, req, pageable, format, scope,
+                        () -> purchaseService.exportPurchases(req, pageable, format, scope));
+            }
+            case ORDERS -> {
+                OrderSearchRequest req = filters(filters, OrderSearchRequest.class);
+                yield () -> exportResultCache.get(resource, req, pageable, format, scope,
+                        () -> orderService.exportOrders(req, pageable, format, scope));
+            }
+            case RECEIPTS -> {
+                ReceiptSearchRequest req = filters(filters, ReceiptSearchRequest.class);
+                yield () -> exportResultCache.get(resource, req, pageable, format, scope,
+                        () -> receiptService.exportReceipts(req, pageable, format, scope));
+            }
+            case PAYMENTS -> {
+                PaymentSearchRequest req = filters(filters, PaymentSearchRequest.class);
+                yield () -> exportResultCache.get(resource, req, pageable, format, scope,
+                        () -> paymentService.exportPayments(req, pageable, format, scope));
+            }
+            case SALES -> {
+                SaleSearchRequestDto req = filters(filters, SaleSearchRequestDto.class);
+                yield () -> exportResultCache.get(resource, req, pageable, format, scope,
+                        () -> salesService.exportSales(req, pageable, format, scope));
+            }
+            case EXPENSES -> {
+                ExpenseSearchRequest req = filters(filters, ExpenseSearchRequest.class);
+                yield () -> exportResultCache.get(resource, req, pageable, format, scope,
+                        () -> expenseService.exportExpenses(req, pageable, format, scope));
+            }
+            case SUPPLIERS -> {
+                SupplierSearchRequest req = filters(filters, SupplierSearchRequest.class);
+                yield () -> exportResultCache.get(resource, req, pageable, format, scope,
+                        () -> supplierService.exportSuppliers(req, pageable, format, scope));
+            }
+            case CUSTOMERS -> {
+                OrderCustomerRequestDto req = filters(filters, OrderCustomerRequestDto.class);
+                yield () -> exportResultCache.get(resource, req, pageable, format, scope,
+                        () -> orderCustomerService.exportCustomers(req, pageable, format, scope));
+            }
+            case EMPLOYEES -> {
+                EmployeeSearchRequest req = filters(filters, EmployeeSearchRequest.class);
+                yield () -> exportResultCache.get(resource, req, pageable, format, scope,
+                        () -> employeeService.exportEmployees(req, pageable, format, scope));
+            }
+            case AR_AGING -> {
+                ARAgingFilterDto req = filters(filters, ARAgingFilterDto.class);
+                yield () -> exportResultCache.get(resource, req, pageable, format, scope,
+                        () -> arAgingService.exportAgingSummary(req, pageable, format, scope));
+            }
+            case AP_AGING -> {
+                APAgingFilterDto req = filters(filters, APAgingFilterDto.class);
+                yield () -> exportResultCache.get(resource, req, pageable, format, scope,
+                        () -> apAgingService.exportAgingSummary(req, pageable, format, scope));
+            }
+            case ACTIVITY_AUDIT_LOGS -> {
+                ActivityAuditLogSearchRequest req = filters(filters, ActivityAuditLogSearchRequest.class);
+                yield () -> exportResultCache.get(resource, req, pageable, format, scope,
+                        () -> activityAuditService.exportAuditLogs(req, pageable, format, scope));
+            }
+        };
+    }
+
+    private <T> T filters(Map<String, Object> filters, Class<T> type) {
+        try {
+            return objectMapper.convertValue(filters == null ? Map.of() : filters, type);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "篩選條件格式錯誤：" + rootMessage(e));
+        }
+    }
+
+    /**
+     * 與列表端點相同：sort 為「欄位,asc|desc」；未指定時交由各匯出使用其預設排序
+     */
+    private static Pageable toPageable(ExportJobRequest request) {
+        Sort sort = Sort.unsorted();
+        if (request.sort() != null) {
+            for (String raw : request.sort()) {
+                if (raw == null || raw.isBlank()) {
+                    continue;
+                }
+                String[] parts = raw.split(",");
+                String property = parts[0].trim();
+                if (property.isEmpty()) {
+                    continue;
+                }
+                Sort.Direction direction = parts.length > 1
+                        ? Sort.Direction.fromOptionalString(parts[1].trim()).orElse(Sort.Direction.ASC)
+                        : Sort.Direction.ASC;
+                sort = sort.and(Sort.by(direction, property));
+            }
+        }
+        int page = request.page() == null ? 0 : Math.max(0, request.page());
+        int size = request.size() == null || request.size() <= 0 ? 25 : request.size();
+        return PageRequest.of(page, size, sort);
+    }
+
+    private static void requireAuthority(ExportResource resource) {
+        if (!SecurityUtils.hasAuthority(resource.getAuthority())) {
+            throw new AccessDeniedException("無權限匯出此資源，需要：" + resource.getAuthority());
+        }
+    }
+
+    private Job findOwned(Long userId, String jobId) {
+        Job job = jobId == null ? null : jobs.get(jobId);
+        if (job == null || !job.userId.equals(userId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "找不到匯出工作：" + jobId);
+        }
+        return job;
+    }
+
+    private Path partFile(Job job) {
+        return spoolDir.resolve(job.id + ".part");
+    }
+
+    /**
+     * 建立暫存目錄；工作清單不跨重啟保存，因此啟動時清除目錄內遺留的檔案
+     */
+    private static Path resolveSpoolDir(String configured) {
+        Path dir = configured == null || configured.isBlank()
+                ? Path.of(System.getProperty("java.io.tmpdir"), "lianhua-exports")
+                : Path.of(configured);
+        try {
+            Files.createDirectories(dir);
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(dir)) {
+                for (Path file : leftovers) {
+                    if (Files.isRegularFile(file)) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("無法建立匯出暫存目錄：" + dir, e);
+        }
+        return dir;
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("⚠️ [ExportJob] 無法刪除匯出檔：{}，{}", file, e.toString());
+        }
+    }
+
+    private static String errorMessage(Throwable e) {
+        if (e instanceof ResponseStatusException rse && rse.getReason() != null) {
+            return rse.getReason();
+        }
+        if (e instanceof IllegalStateException || e instanceof IllegalArgumentException) {
+            return e.getMessage();
+        }
+        return "匯出失敗，請稍後重試";
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+}
@@ -6,27 +6,42 @@ import com.lianhua.erp.export.ExportFilenameUtils;
 import com.lianhua.erp.export.ExportFormat;
 import com.lianhua.erp.export.ExportScope;
 import com.lianhua.erp.export.TabularExporter;
+import com.lianhua.erp.config.ExportProperties;
+import com.lianhua.erp.export.TabularSheet;
 import com.lianhua.erp.service.*;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class FinancialReportExportServiceImpl implements FinancialReportExportService {
 
     private static final int MAX_PERIODS = 12;
     private static final int EXPORT_PAGE_MAX_SIZE = 5000;
+    private static final String PACK_FILENAME_PREFIX = "financial_report_pack";
+    private static final String ZIP_MEDIA_TYPE = "application/zip";
 
     private record ColDef(String key, String headerZh) {}
 
@@ -86,6 +101,28 @@ public class FinancialReportExportServiceImpl implements FinancialReportExportSe
     private final CashFlowReportService cashFlowReportService;
     private final ARSummaryReportService arSummaryReportService;
     private final APSummaryReportService apSummaryReportService;
+    private final ExportProperties exportProperties;
+    private final Executor reportPackExecutor;
+    private final TransactionTemplate readOnlyTx;
+
+    public FinancialReportExportServiceImpl(BalanceSheetReportService balanceSheetReportService,
+                                            ComprehensiveIncomeStatementService comprehensiveIncomeStatementService,
+                                            CashFlowReportService cashFlowReportService,
+                                            ARSummaryReportService arSummaryReportService,
+                                            APSummaryReportService apSummaryReportService,
+                                            ExportProperties exportProperties,
+                                            @Qualifier("reportPackExecutor") Executor reportPackExecutor,
+                                            PlatformTransactionManager transactionManager) {
+        this.balanceSheetReportService = balanceSheetReportService;
+        this.comprehensiveIncomeStatementService = comprehensiveIncomeStatementService;
+        this.cashFlowReportService = cashFlowReportService;
+        this.arSummaryReportService = arSummaryReportService;
+        this.apSummaryReportService = apSummaryReportService;
+        this.exportProperties = exportProperties;
+        this.reportPackExecutor = reportPackExecutor;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
 
     @Override
     @Transactional(readOnly = true)
@@ -108,13 +145,7 @@ public class FinancialReportExportServiceImpl implements FinancialReportExportSe
         List<ColDef> columns = resolveColumns(reportKey, columnsCsv);
         String[] headers = columns.stream().map(ColDef::headerZh).toArray(String[]::new);
 
-        List<String[]> rows = switch (reportKey) {
-            case BALANCE_SHEET -> exportBalanceSheet(q, columns, safeScope, p);
-            case COMPREHENSIVE_INCOME_STATEMENT -> exportComprehensive(q, columns, safeScope, p);
-            case CASH_FLOW_REPORTS -> exportCashFlow(q, columns, safeScope, p);
-            case AR_SUMMARY -> exportArSummary(q, columns, safeScope, p);
-            case AP_SUMMARY -> exportApSummary(q, columns, safeScope, p);
-        };
+        List<String[]> rows = buildRows(reportKey, q, columns, safeScope, p);
 
         byte[] data = safeFormat == ExportFormat.CSV
                 ? TabularExporter.toCsvUtf8Bom(headers, rows)
@@ -124,6 +155,110 @@ public class FinancialReportExportServiceImpl implements FinancialReportExportSe
         return new ExportPayload(data, filename, safeFormat.mediaType());
     }
 
+    /**
+     * 各報表各自提交到有界執行緒池，在自己的執行緒以唯讀交易（獨立連線）產生；
+     * 本執行緒不開交易、不佔連線，只等待並依請求順序組成檔案，總耗時約等於最慢的一張。
+     * 組合匯出用於結帳對帳，任一報表失敗或逾時即整份失敗，不回傳缺頁的結果。
+     */
+    @Override
+    public ExportPayload exportPack(
+            List<FinancialReportKey> reportKeys,
+            ReportExportQueryDto query,
+            String periodsCommaSeparated,
+            ExportFormat format
+    ) {
+        if (reportKeys == null || reportKeys.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "請至少指定一張報表（reports）");
+        }
+        ReportExportQueryDto q = query == null ? new ReportExportQueryDto() : query;
+        mergeCommaPeriods(q, periodsCommaSeparated);
+        ExportFormat safeFormat = format == null ? ExportFormat.XLSX : format;
+
+        List<FinancialReportKey> keys = List.copyOf(new LinkedHashSet<>(reportKeys));
+        List<CompletableFuture<TabularSheet>> futures = new ArrayList<>(keys.size());
+        try {
+            for (FinancialReportKey key : keys) {
+                futures.add(CompletableFuture.supplyAsync(() -> buildSheet(key, q), reportPackExecutor));
+            }
+        } catch (RejectedExecutionException e) {
+            futures.forEach(f -> f.cancel(false));
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "系統忙碌，請稍後重試");
+        }
+
+        List<TabularSheet> sheets = awaitAll(keys, futures);
+        if (safeFormat == ExportFormat.CSV) {
+            return new ExportPayload(TabularExporter.toCsvZip(sheets),
+                    ExportFilenameUtils.build(PACK_FILENAME_PREFIX, "zip"), ZIP_MEDIA_TYPE);
+        }
+        return new ExportPayload(TabularExporter.toXlsx(sheets),
+                ExportFilenameUtils.build(PACK_FILENAME_PREFIX, safeFormat), safeFormat.mediaType());
+    }
+
+    private TabularSheet buildSheet(FinancialReportKey key, ReportExportQueryDto q) {
+        long startedAt = System.nanoTime();
+        List<ColDef> columns = allColumns(key);
+        List<String[]> rows = readOnlyTx.execute(status ->
+                buildRows(key, q, columns, ExportScope.ALL, Pageable.unpaged()));
+        log.debug("📊 [ReportPack] {} 完成：{} 列，{} ms", key.pathSegment(), rows == null ? 0 : rows.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        String[] headers = columns.stream().map(ColDef::headerZh).toArray(String[]::new);
+        return new TabularSheet(sheetName(key), headers, rows == null ? List.of() : rows);
+    }
+
+    private List<TabularSheet> awaitAll(List<FinancialReportKey> keys, List<CompletableFuture<TabularSheet>> futures) {
+        Duration timeout = exportProperties.getReportPack().getTimeout();
+        long deadline = System.nanoTime() + (timeout != null ? timeout.toNanos() : Duration.ofMinutes(2).toNanos());
+        List<TabularSheet> sheets = new ArrayList<>(futures.size());
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                try {
+                    sheets.add(futures.get(i).get(remaining, TimeUnit.NANOSECONDS));
+                } catch (TimeoutException e) {
+                    log.warn("⏱️ [ReportPack] 報表逾時：{}", keys.get(i).pathSegment());
+                    throw new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT,
+                            "報表產生逾時：" + sheetName(keys.get(i)));
+                } catch (ExecutionException e) {
+                    throw unwrap(keys.get(i), e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "請求已中斷");
+        } finally {
+            // 失敗時尚未開始的報表不必再算；已在執行的查詢仍會跑完
+            futures.forEach(f -> f.cancel(false));
+        }
+        return sheets;
+    }
+
+    private static RuntimeException unwrap(FinancialReportKey key, Throwable cause) {
+        Throwable c = cause instanceof CompletionException && cause.getCause() != null ? cause.getCause() : cause;
+        // 查詢參數錯誤（例如 periods 過多、日期格式）與單張匯出相同，直接交由全域例外處理
+        if (c instanceof ResponseStatusException || c instanceof IllegalArgumentException
+                || c instanceof IllegalStateException) {
+            return (RuntimeException) c;
+        }
+        log.error("❌ [ReportPack] 報表產生失敗：{}", key.pathSegment(), c);
+        return new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "報表產生失敗：" + sheetName(key), c);
+    }
+
+    private List<String[]> buildRows(
+            FinancialReportKey reportKey,
+            ReportExportQueryDto q,
+            List<ColDef> columns,
+            ExportScope scope,
+            Pageable pageable
+    ) {
+        return switch (reportKey) {
+            case BALANCE_SHEET -> exportBalanceSheet(q, columns, scope, pageable);
+            case COMPREHENSIVE_INCOME_STATEMENT -> exportComprehensive(q, columns, scope, pageable);
+            case CASH_FLOW_REPORTS -> exportCashFlow(q, columns, scope, pageable);
+            case AR_SUMMARY -> exportArSummary(q, columns, scope, pageable);
+            case AP_SUMMARY -> exportApSummary(q, columns, scope, pageable);
+        };
+    }
+
     private static String sheetName(FinancialReportKey key) {
         String n = switch (key) {
             case BALANCE_SHEET -> "資產負債表";
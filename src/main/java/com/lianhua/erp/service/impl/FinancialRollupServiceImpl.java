@@ -0,0 +1,417 @@
+package com.lianhua.erp.service.impl;
+
+import com.lianhua.erp.domain.Expense;
+import com.lianhua.erp.domain.ExpenseCategory;
+import com.lianhua.erp.domain.Order;
+import com.lianhua.erp.domain.Payment;
+import com.lianhua.erp.domain.Purchase;
+import com.lianhua.erp.domain.Receipt;
+import com.lianhua.erp.domain.RollupMetric;
+import com.lianhua.erp.domain.Sale;
+import com.lianhua.erp.dto.rollup.RollupDriftDto;
+import com.lianhua.erp.report.ReportResultCache;
+import com.lianhua.erp.report.ReportType;
+import com.lianhua.erp.repository.FinancialRollupRepository;
+import com.lianhua.erp.repository.FinancialRollupRepository.PnlDelta;
+import com.lianhua.erp.repository.FinancialRollupRepository.RollupRow;
+import com.lianhua.erp.service.FinancialRollupService;
+import com.lianhua.erp.service.PeriodCloseService;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 財務日彙總維護：
+ * 1) 來源單據（銷售、訂單、收款、進貨、付款、費用）的新增、修改、刪除，由 Hibernate 事件取得異動前後的
+ *    「日期 + 期間 + 類別 + 金額 + 狀態」，換算成帶正負號的增減量，同一交易內依彙總鍵累加
+ * 2) 交易提交前（beforeCommit）依固定順序（指標、日期、期間、類別）以 upsert 套用增減量，不重新掃描原始單據；
+ *    各交易只鎖定自己異動到的彙總列，且鎖定順序一致，並行寫入不會互相等待成環
+ * 3) 營收、進貨、費用的增減量同時依會計期間套用到月損益，毛利與淨利於同一敘述內推得；
+ *    自日彙總重算月損益只保留給重建與備援
+ * 4) 寫入端仍呼叫 touch()：處理已結帳期間重開與報表快取失效
+ * 5) 提供區間重建與偏差檢測（自原始表完整重算），供管理端點與夜間排程使用
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FinancialRollupServiceImpl implements FinancialRollupService,
+        PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final FinancialRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final PeriodCloseService periodCloseService;
+    private final ReportResultCache reportResultCache;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private record Bucket(RollupMetric metric, LocalDate date) {
+    }
+
+    /**
+     * 來源實體的彙總欄位（屬性名稱）；statusProperty 為 null 表示沒有作廢機制
+     */
+    private record Source(RollupMetric metric, String dateProperty, String amountProperty,
+                          String statusProperty, String categoryProperty) {
+    }
+
+    private static final Map<Class<?>, Source> SOURCES = Map.of(
+            Sale.class, new Source(RollupMetric.SALE, "saleDate", "amount", null, null),
+            Order.class, new Source(RollupMetric.ORDER, "orderDate", "totalAmount", "recordStatus", null),
+            Receipt.class, new Source(RollupMetric.RECEIPT, "receivedDate", "amount", "status", null),
+            Purchase.class, new Source(RollupMetric.PURCHASE, "purchaseDate", "totalAmount", "recordStatus", null),
+            Payment.class, new Source(RollupMetric.PAYMENT, "payDate", "amount", "status", null),
+            Expense.class, new Source(RollupMetric.EXPENSE, "expenseDate", "amount", "status", "category")
+    );
+
+    private static final String PERIOD_PROPERTY = "accountingPeriod";
+
+    /** 彙總鍵排序：即套用時的鎖定順序 */
+    private static final Comparator<RollupRow> KEY_ORDER = Comparator
+            .comparing(RollupRow::metric)
+            .thenComparing(RollupRow::statDate)
+            .thenComparing(RollupRow::accountingPeriod)
+            .thenComparingLong(RollupRow::categoryId);
+
+    private final Map<Class<?>, Map<String, Integer>> propertyIndexes = new ConcurrentHashMap<>();
+
+    /**
+     * 交易內累加中的增減量；recompute 為無法取得異動前狀態、改以原始表重算的備援日期
+     */
+    private static final class Pending {
+        private final Map<RollupRow, RollupRow> deltas = new TreeMap<>(KEY_ORDER);
+        private final Set<Bucket> recompute = new TreeSet<>(
+                Comparator.comparing(Bucket::metric).thenComparing(Bucket::date));
+
+        void add(RollupRow d) {
+            deltas.merge(d, d, (a, b) -> new RollupRow(a.metric(), a.statDate(), a.accountingPeriod(), a.categoryId(),
+                    a.amount().add(b.amount()), a.txnCount() + b.txnCount(),
+                    a.voidedAmount().add(b.voidedAmount()), a.voidedCount() + b.voidedCount()));
+        }
+
+        List<RollupRow> nonZeroDeltas() {
+            return deltas.values().stream().filter(d -> !isEmpty(d)).toList();
+        }
+    }
+
+    @PostConstruct
+    void registerEntityListeners() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void touch(RollupMetric metric, LocalDate... dates) {
+        if (metric == null || dates == null) {
+            return;
+        }
+
+        // 單據日期落在已結帳期間時，資產負債表快照需重新結帳；涵蓋該期間的報表快取於提交後失效
+        periodCloseService.reopen(dates);
+        reportResultCache.invalidateAfterCommit(dates);
+        invalidateBalanceSummaries(metric);
+
+        // 確保提交前的套用回呼已註冊（於 beforeCommit 內 flush 才產生的異動事件也能併入）
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pending();
+        }
+    }
+
+    /**
+     * 應收／應付總表依訂單、進貨單「目前」的付款狀態與已付金額彙總，
+     * 收付款異動會改變母單據所屬月份（早於收付款日期）的結果，無法只以單據日期界定，
+     * 因此這幾類異動一律使整種報表失效
+     */
+    private void invalidateBalanceSummaries(RollupMetric metric) {
+        switch (metric) {
+            case ORDER, RECEIPT -> reportResultCache.invalidateAfterCommit(ReportType.AR_SUMMARY);
+            case PURCHASE, PAYMENT -> reportResultCache.invalidateAfterCommit(ReportType.AP_SUMMARY);
+            default -> {
+            }
+        }
+    }
+
+    // --------------------------------------------------
+    // 🔁 來源單據異動事件 → 增減量
+    // --------------------------------------------------
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        Source source = SOURCES.get(event.getEntity().getClass());
+        if (source != null) {
+            collect(pending -> addContribution(pending, source, event.getPersister(), event.getState(), 1));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        Source source = SOURCES.get(event.getEntity().getClass());
+        if (source == null) {
+            return;
+        }
+        Object[] oldState = event.getOldState();
+        collect(pending -> {
+            if (oldState == null) {
+                // 取不到異動前狀態：以原始表重算異動後的日期；舊日期的殘留由夜間校驗修正
+                LocalDate date = (LocalDate) value(event.getPersister(), event.getState(), source.dateProperty());
+                log.warn("⚠️ 財務日彙總：{} 無異動前狀態，改以原始表重算 {}", source.metric(), date);
+                if (date != null) {
+                    pending.recompute.add(new Bucket(source.metric(), date));
+                }
+                return;
+            }
+            addContribution(pending, source, event.getPersister(), oldState, -1);
+            addContribution(pending, source, event.getPersister(), event.getState(), 1);
+        });
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        Source source = SOURCES.get(event.getEntity().getClass());
+        if (source != null) {
+            collect(pending -> addContribution(pending, source, event.getPersister(), event.getDeletedState(), -1));
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    /**
+     * 交易中累加到待套用集合；無交易時（不應發生）立即套用
+     */
+    private void collect(Consumer<Pending> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.accept(pending());
+            return;
+        }
+        Pending immediate = new Pending();
+        change.accept(immediate);
+        apply(immediate);
+    }
+
+    /**
+     * 依單據狀態換算對彙總列的貢獻（與 aggregateSql 相同口徑：有效計入金額與筆數，非有效計入作廢）
+     */
+    private void addContribution(Pending pending, Source source, EntityPersister persister, Object[] state, int sign) {
+        LocalDate date = (LocalDate) value(persister, state, source.dateProperty());
+        String period = (String) value(persister, state, PERIOD_PROPERTY);
+        if (date == null || period == null) {
+            return;
+        }
+        boolean active = true;
+        if (source.statusProperty() != null) {
+            Object status = value(persister, state, source.statusProperty());
+            if (status == null) {
+                return;
+            }
+            active = "ACTIVE".equals(status.toString());
+        }
+        long categoryId = 0;
+        if (source.categoryProperty() != null) {
+            Object category = value(persister, state, source.categoryProperty());
+            categoryId = category instanceof ExpenseCategory c && c.getId() != null ? c.getId() : 0;
+        }
+        BigDecimal amount = (BigDecimal) value(persister, state, source.amountProperty());
+        BigDecimal signed = amount == null ? BigDecimal.ZERO : sign > 0 ? amount : amount.negate();
+
+        pending.add(active
+                ? new RollupRow(source.metric(), date, period, categoryId, signed, sign, BigDecimal.ZERO, 0)
+                : new RollupRow(source.metric(), date, period, categoryId, BigDecimal.ZERO, 0, signed, sign));
+    }
+
+    /**
+     * 日彙總增減量依會計期間彙整為月損益增減量（只計有效金額與筆數，與 refreshMonthlyPnl 同口徑）
+     */
+    private static List<PnlDelta> pnlDeltas(List<RollupRow> deltas) {
+        Map<String, PnlDelta> byPeriod = new TreeMap<>();
+        for (RollupRow d : deltas) {
+            if (!RollupMetric.PROFIT_LOSS.contains(d.metric())
+                    || (d.amount().signum() == 0 && d.txnCount() == 0)) {
+                continue;
+            }
+            BigDecimal revenue = d.metric() == RollupMetric.SALE ? d.amount() : BigDecimal.ZERO;
+            BigDecimal cost = d.metric() == RollupMetric.PURCHASE ? d.amount() : BigDecimal.ZERO;
+            BigDecimal expense = d.metric() == RollupMetric.EXPENSE ? d.amount() : BigDecimal.ZERO;
+            byPeriod.merge(d.accountingPeriod(),
+                    new PnlDelta(d.accountingPeriod(), revenue, cost, expense, d.txnCount()),
+                    (a, b) -> new PnlDelta(a.accountingPeriod(), a.revenue().add(b.revenue()),
+                            a.cost().add(b.cost()), a.expense().add(b.expense()), a.docCount() + b.docCount()));
+        }
+        return List.copyOf(byPeriod.values());
+    }
+
+    private Object value(EntityPersister persister, Object[] state, String property) {
+        Integer index = propertyIndexes
+                .computeIfAbsent(persister.getMappedClass(), type -> indexProperties(persister))
+                .get(property);
+        return index != null && state != null ? state[index] : null;
+    }
+
+    private static Map<String, Integer> indexProperties(EntityPersister persister) {
+        String[] names = persister.getPropertyNames();
+        Map<String, Integer> indexes = new ConcurrentHashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            indexes.put(names[i], i);
+        }
+        return indexes;
+    }
+
+    /**
+     * 取得目前交易的待套用增減量；首次呼叫時註冊提交前的套用回呼
+     */
+    private Pending pending() {
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+
+        Pending created = new Pending();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                // 先 flush，尚未寫出的異動才會產生事件併入增減量
+                entityManager.flush();
+                apply(created);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(FinancialRollupServiceImpl.this);
+            }
+        });
+        return created;
+    }
+
+    /**
+     * 依固定順序套用增減量：先日彙總，再以同一批增減量更新月損益（鎖定順序固定為日彙總 → 月損益）
+     */
+    private void apply(Pending pending) {
+        List<RollupRow> deltas = pending.nonZeroDeltas();
+        rollupRepository.applyDeltas(deltas);
+        rollupRepository.applyPnlDeltas(pnlDeltas(deltas));
+
+        if (!pending.recompute.isEmpty()) {
+            Set<String> periods = new TreeSet<>();
+            for (Bucket b : pending.recompute) {
+                rollupRepository.refreshBucket(b.metric(), b.date());
+                if (RollupMetric.PROFIT_LOSS.contains(b.metric())) {
+                    // 歸零的殘留列仍保有舊期間，單據改期時新舊期間都會被重算
+                    periods.addAll(rollupRepository.findPeriods(Set.of(b.metric()), b.date(), b.date()));
+                }
+            }
+            rollupRepository.refreshMonthlyPnl(periods);
+        }
+
+        pending.deltas.clear();
+        pending.recompute.clear();
+    }
+
+    @Override
+    public int rebuild(LocalDate from, LocalDate to) {
+        // 重建前後涵蓋的會計期間都需重算月損益（重建後可能有期間已無資料）
+        Set<String> periods = new LinkedHashSet<>(rollupRepository.findPeriods(RollupMetric.PROFIT_LOSS, from, to));
+
+        int total = 0;
+        for (RollupMetric metric : RollupMetric.values()) {
+            Integer inserted = transactionTemplate.execute(status -> {
+                rollupRepository.deleteRange(metric, from, to);
+                return rollupRepository.insertRange(metric, from, to);
+            });
+            total += inserted != null ? inserted : 0;
+        }
+
+        periods.addAll(rollupRepository.findPeriods(RollupMetric.PROFIT_LOSS, from, to));
+        transactionTemplate.executeWithoutResult(status -> rollupRepository.refreshMonthlyPnl(periods));
+        log.info("財務日彙總重建完成：from={}, to={}, rows={}", from, to, total);
+        return total;
+    }
+
+    @Override
+    public List<RollupDriftDto> verify(LocalDate from, LocalDate to) {
+        List<RollupDriftDto> drifts = new ArrayList<>();
+
+        for (RollupMetric metric : RollupMetric.values()) {
+            Map<String, RollupRow> expected = rollupRepository.aggregateFromSource(metric, from, to).stream()
+                    .collect(Collectors.toMap(RollupRow::key, Function.identity()));
+            Map<String, RollupRow> actual = rollupRepository.findRollups(metric, from, to).stream()
+                    .collect(Collectors.toMap(RollupRow::key, Function.identity()));
+
+            for (RollupRow e : expected.values()) {
+                RollupRow a = actual.get(e.key());
+                if (a == null || !sameTotals(e, a)) {
+                    drifts.add(toDrift(e, a));
+                }
+            }
+            for (RollupRow a : actual.values()) {
+                // 已歸零的殘留列（單據改期或刪除後）不算偏差
+                if (!expected.containsKey(a.key()) && !isEmpty(a)) {
+                    drifts.add(new RollupDriftDto(a.metric(), a.statDate(), a.accountingPeriod(), a.categoryId(),
+                            BigDecimal.ZERO, a.amount(), 0, a.txnCount()));
+                }
+            }
+        }
+        return drifts;
+    }
+
+    private static boolean sameTotals(RollupRow e, RollupRow a) {
+        return e.amount().compareTo(a.amount()) == 0
+                && e.txnCount() == a.txnCount()
+                && e.voidedAmount().compareTo(a.voidedAmount()) == 0
+                && e.voidedCount() == a.voidedCount();
+    }
+
+    private static boolean isEmpty(RollupRow r) {
+        return r.txnCount() == 0 && r.voidedCount() == 0
+                && r.amount().signum() == 0 && r.voidedAmount().signum() == 0;
+    }
+
+    private static RollupDriftDto toDrift(RollupRow expected, RollupRow actual) {
+        return new RollupDriftDto(
+                expected.metric(), expected.statDate(), expected.accountingPeriod(), expected.categoryId(),
+                expected.amount(),
+                actual != null ? actual.amount() : BigDecimal.ZERO,
+                expected.txnCount(),
+                actual != null ? actual.txnCount() : 0
+        );
+    }
+}
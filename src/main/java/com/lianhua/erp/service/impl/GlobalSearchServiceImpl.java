@@ -1,8 +1,10 @@
 package com.lianhua.erp.service.impl;
 
+import com.lianhua.erp.config.SearchProperties;
 import com.lianhua.erp.domain.Order;
 import com.lianhua.erp.domain.OrderCustomer;
 import com.lianhua.erp.domain.Purchase;
+import com.lianhua.erp.domain.Supplier;
 import com.lianhua.erp.dto.globalSearch.GlobalSearchItemDto;
 import com.lianhua.erp.dto.globalSearch.GlobalSearchRequest;
 import com.lianhua.erp.dto.globalSearch.GlobalSearchResponse;
@@ -10,30 +12,80 @@ import com.lianhua.erp.repository.OrderCustomerRepository;
 import com.lianhua.erp.repository.OrderRepository;
 import com.lianhua.erp.repository.PurchaseRepository;
 import com.lianhua.erp.repository.SupplierRepository;
+import com.lianhua.erp.search.GlobalSearchIndex;
+import com.lianhua.erp.search.SearchScope;
 import com.lianhua.erp.service.GlobalSearchService;
 import com.lianhua.erp.service.impl.spec.SupplierSpecifications;
 import jakarta.persistence.criteria.Predicate;
-import jakarta.transaction.Transactional;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+/**
+ * 全域搜尋：
+ * 1) 各範圍（訂單、進貨、客戶、供應商）各自提交到有界執行緒池平行查詢，各自取得連線與唯讀交易；
+ *    執行緒池為所有請求共用，全域搜尋同時佔用的連線數不超過 pool-size（需明顯小於 Hikari 連線池）
+ * 2) 每個範圍有各自的時間預算；逾時者列於 timedOut、失敗者列於 failed，其餘範圍照常回傳。
+ *    查詢逾時設為預算扣除排隊後的剩餘時間，逾時的查詢由資料庫端中止並歸還連線；排隊已超過預算者不再查詢
+ * 3) 回報各範圍耗時，便於找出拖慢搜尋的範圍
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
-@Transactional
 public class GlobalSearchServiceImpl implements GlobalSearchService {
 
     private final OrderRepository orderRepository;
     private final PurchaseRepository purchaseRepository;
     private final OrderCustomerRepository orderCustomerRepository;
     private final SupplierRepository supplierRepository;
+    private final GlobalSearchIndex globalSearchIndex;
+    private final SearchProperties searchProperties;
+    private final Executor searchExecutor;
+    private final PlatformTransactionManager transactionManager;
+
+    public GlobalSearchServiceImpl(OrderRepository orderRepository,
+                                   PurchaseRepository purchaseRepository,
+                                   OrderCustomerRepository orderCustomerRepository,
+                                   SupplierRepository supplierRepository,
+                                   GlobalSearchIndex globalSearchIndex,
+                                   SearchProperties searchProperties,
+                                   @Qualifier("globalSearchExecutor") Executor searchExecutor,
+                                   PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.purchaseRepository = purchaseRepository;
+        this.orderCustomerRepository = orderCustomerRepository;
+        this.supplierRepository = supplierRepository;
+        this.globalSearchIndex = globalSearchIndex;
+        this.searchProperties = searchProperties;
+        this.searchExecutor = searchExecutor;
+        this.transactionManager = transactionManager;
+    }
+
+    private record Pending(SearchScope scope, long startedAt, CompletableFuture<ScopeResult> future) {
+    }
+
+    private record ScopeResult(List<GlobalSearchItemDto> items, long elapsedMs) {
+    }
 
     @Override
     public GlobalSearchResponse search(GlobalSearchRequest request) {
@@ -45,29 +97,100 @@ public class GlobalSearchServiceImpl implements GlobalSearchService {
         int limit = Math.max(1, Math.min(requestedLimit, 50));
         List<String> scopes = request.getScopes();
 
-        List<GlobalSearchItemDto> results = new ArrayList<>();
-
-        // 1. 搜尋訂單 (Orders) - 支援月份過濾
-        if (scopes.contains("orders")) {
-            results.addAll(fetchOrders(keyword, period, limit));
+        // 結果順序固定：訂單、進貨、客戶、供應商（訂單與進貨支援月份過濾，主檔不分月份）
+        List<Pending> pending = new ArrayList<>();
+        for (SearchScope scope : SearchScope.values()) {
+            if (scopes.contains(scope.getKey())) {
+                pending.add(submit(scope, keyword, period, limit));
+            }
         }
 
-        // 2. 搜尋進貨單 (Purchases) - 支援月份過濾
-        if (scopes.contains("purchases")) {
-            results.addAll(fetchPurchases(keyword, period, limit));
+        GlobalSearchResponse response = GlobalSearchResponse.builder().build();
+        long budgetNanos = scopeTimeout().toNanos();
+        for (Pending p : pending) {
+            String key = p.scope().getKey();
+            try {
+                long remaining = Math.max(0, p.startedAt() + budgetNanos - System.nanoTime());
+                ScopeResult result = p.future().get(remaining, TimeUnit.NANOSECONDS);
+                response.getItems().addAll(result.items());
+                response.getScopeLatencyMs().put(key, result.elapsedMs());
+            } catch (TimeoutException e) {
+                p.future().cancel(true);
+                response.getTimedOut().add(key);
+                response.getScopeLatencyMs().put(key, elapsedMs(p.startedAt()));
+                log.warn("⏱️ [GlobalSearch] 範圍逾時：scope={}, keyword=[{}]", key, keyword);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof TimeoutException) {
+                    // 排隊時已用完預算，未執行查詢
+                    response.getTimedOut().add(key);
+                    response.getScopeLatencyMs().put(key, elapsedMs(p.startedAt()));
+                    log.warn("⏱️ [GlobalSearch] 範圍排隊逾時：scope={}, keyword=[{}]", key, keyword);
+                    continue;
+                }
+                response.getFailed().add(key);
+                response.getScopeLatencyMs().put(key, elapsedMs(p.startedAt()));
+                log.warn("⚠️ [GlobalSearch] 範圍查詢失敗：scope={}, error={}", key, e.getCause().toString());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                response.getFailed().add(key);
+                break;
+            }
         }
 
-        // 3. 搜尋客戶 (Customers) - 通常主檔不分月份
-        if (scopes.contains("customers")) {
-            results.addAll(fetchCustomers(keyword, limit));
-        }
+        log.info("全域搜尋完成, 關鍵字: [{}], 月份: [{}], 總結果數: {}, 各範圍耗時(ms): {}, 逾時: {}",
+                keyword, period, response.getItems().size(), response.getScopeLatencyMs(), response.getTimedOut());
+        return response;
+    }
 
-        if (scopes.contains("suppliers")) {
-            results.addAll(fetchSuppliers(keyword, limit));
+    private Pending submit(SearchScope scope, String keyword, String period, int limit) {
+        long startedAt = System.nanoTime();
+        CompletableFuture<ScopeResult> future;
+        try {
+            future = CompletableFuture.supplyAsync(() -> {
+                // 耗時只計算查詢本身，不含排隊等待
+                long runStartedAt = System.nanoTime();
+                long remaining = startedAt + scopeTimeout().toNanos() - runStartedAt;
+                if (remaining <= 0) {
+                    // 呼叫端已不再等待，不佔用連線
+                    throw new CompletionException(new TimeoutException("排隊逾時"));
+                }
+                List<GlobalSearchItemDto> items = readOnlyTx(remaining).execute(status ->
+                        fetch(scope, keyword, period, limit));
+                return new ScopeResult(items != null ? items : List.of(), elapsedMs(runStartedAt));
+            }, searchExecutor);
+        } catch (RejectedExecutionException e) {
+            future = CompletableFuture.failedFuture(e);
         }
+        return new Pending(scope, startedAt, future);
+    }
+
+    /**
+     * 唯讀交易，逾時為剩餘預算：Spring 以交易剩餘時間設定每個查詢的 JDBC timeout（秒，無條件進位），
+     * 逾時由資料庫中止查詢並歸還連線（CompletableFuture.cancel 不會中斷執行中的查詢）
+     */
+    private TransactionTemplate readOnlyTx(long remainingNanos) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        tx.setTimeout((int) Math.max(1, (TimeUnit.NANOSECONDS.toMillis(remainingNanos) + 999) / 1000));
+        return tx;
+    }
+
+    private List<GlobalSearchItemDto> fetch(SearchScope scope, String keyword, String period, int limit) {
+        return switch (scope) {
+            case ORDERS -> fetchOrders(keyword, period, limit);
+            case PURCHASES -> fetchPurchases(keyword, period, limit);
+            case CUSTOMERS -> fetchCustomers(keyword, limit);
+            case SUPPLIERS -> fetchSuppliers(keyword, limit);
+        };
+    }
 
-        log.info("全域搜尋完成, 關鍵字: [{}], 月份: [{}], 總結果數: {}", keyword, period, results.size());
-        return new GlobalSearchResponse(results);
+    private Duration scopeTimeout() {
+        Duration timeout = searchProperties.getFanout().getScopeTimeout();
+        return timeout != null ? timeout : Duration.ofSeconds(1);
+    }
+
+    private static long elapsedMs(long startedAt) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
     }
 
     private void validateRequest(GlobalSearchRequest request) {
@@ -83,6 +206,11 @@ public class GlobalSearchServiceImpl implements GlobalSearchService {
     // 🔍 訂單搜尋：(OR 關鍵字) AND (會計期間)
     // --------------------------------------------------
     private List<GlobalSearchItemDto> fetchOrders(String keyword, String period, int limit) {
+        Optional<List<Long>> ranked = globalSearchIndex.search(SearchScope.ORDERS, keyword, period, limit);
+        if (ranked.isPresent()) {
+            return hydrate(ranked.get(), orderRepository::findAllById, Order::getId, this::toOrderItem);
+        }
+
         String pattern = "%" + keyword.toLowerCase() + "%";
 
         Specification<Order> spec = (root, query, cb) -> {
@@ -103,14 +231,7 @@ public class GlobalSearchServiceImpl implements GlobalSearchService {
         };
 
         return orderRepository.findAll(spec, PageRequest.of(0, limit))
-                .map(order -> GlobalSearchItemDto.builder()
-                        .type("訂單")
-                        .id(order.getId())
-                        .title(order.getOrderNo())
-                        .subtitle(order.getCustomer() != null ? order.getCustomer().getName() : "無客戶")
-                        .status(order.getOrderStatus() != null ? order.getOrderStatus().name() : "")
-                        .route("/orders/" + order.getId())
-                        .build())
+                .map(this::toOrderItem)
                 .getContent();
     }
 
@@ -118,6 +239,11 @@ public class GlobalSearchServiceImpl implements GlobalSearchService {
     // 🔍 進貨搜尋：(OR 關鍵字) AND (會計期間)
     // --------------------------------------------------
     private List<GlobalSearchItemDto> fetchPurchases(String keyword, String period, int limit) {
+        Optional<List<Long>> ranked = globalSearchIndex.search(SearchScope.PURCHASES, keyword, period, limit);
+        if (ranked.isPresent()) {
+            return hydrate(ranked.get(), purchaseRepository::findAllById, Purchase::getId, this::toPurchaseItem);
+        }
+
         String pattern = "%" + keyword.toLowerCase() + "%";
 
         Specification<Purchase> spec = (root, query, cb) -> {
@@ -140,14 +266,7 @@ public class GlobalSearchServiceImpl implements GlobalSearchService {
         };
 
         return purchaseRepository.findAll(spec, PageRequest.of(0, limit))
-                .map(p -> GlobalSearchItemDto.builder()
-                        .type("進貨")
-                        .id(p.getId())
-                        .title(p.getPurchaseNo())
-                        .subtitle(p.getSupplier() != null ? p.getSupplier().getName() : "")
-                        .status(p.getStatus() != null ? p.getStatus().name() : "")
-                        .route("/purchases/" + p.getId())
-                        .build())
+                .map(this::toPurchaseItem)
                 .getContent();
     }
 
@@ -155,6 +274,12 @@ public class GlobalSearchServiceImpl implements GlobalSearchService {
     // 🔍 客戶搜尋：維持純關鍵字 OR 邏輯 (主檔不分月份)
     // --------------------------------------------------
     private List<GlobalSearchItemDto> fetchCustomers(String keyword, int limit) {
+        Optional<List<Long>> ranked = globalSearchIndex.search(SearchScope.CUSTOMERS, keyword, null, limit);
+        if (ranked.isPresent()) {
+            return hydrate(ranked.get(), orderCustomerRepository::findAllById, OrderCustomer::getId,
+                    this::toCustomerItem);
+        }
+
         String pattern = "%" + keyword.toLowerCase() + "%";
 
         Specification<OrderCustomer> spec = (root, query, cb) ->
@@ -165,13 +290,7 @@ public class GlobalSearchServiceImpl implements GlobalSearchService {
                 );
 
         return orderCustomerRepository.findAll(spec, PageRequest.of(0, limit))
-                .map(c -> GlobalSearchItemDto.builder()
-                        .type("客戶")
-                        .id(c.getId())
-                        .title(c.getName())
-                        .subtitle("聯絡人: " + c.getContactPerson() + " / " + c.getPhone())
-                        .route("/order_customers/" + c.getId())
-                        .build())
+                .map(this::toCustomerItem)
                 .getContent();
     }
 
@@ -179,19 +298,82 @@ public class GlobalSearchServiceImpl implements GlobalSearchService {
     // 🔍 供應商搜尋：維持純關鍵字 OR 邏輯 (主檔不分月份)
     // --------------------------------------------------
     private List<GlobalSearchItemDto> fetchSuppliers(String keyword, int limit) {
+        Optional<List<Long>> ranked = globalSearchIndex.search(SearchScope.SUPPLIERS, keyword, null, limit);
+        if (ranked.isPresent()) {
+            return hydrate(ranked.get(), supplierRepository::findAllById, Supplier::getId, this::toSupplierItem);
+        }
+
         // 使用您抽離出的 SupplierSpecifications 確保邏輯一致
         return supplierRepository.findAll(
                         SupplierSpecifications.globalSearch(keyword),
                         PageRequest.of(0, limit)
                 )
-                .map(s -> GlobalSearchItemDto.builder()
-                        .type("供應商")
-                        .id(s.getId())
-                        .title(s.getName()) // 顯示供應商名稱
-                        .subtitle("聯絡人: " + s.getContact() + " / " + s.getPhone())
-                        // ✅ 修正路由：必須加上 ID，否則點擊會跳轉到 Not Found
-                        .route("/suppliers/" + s.getId())
-                        .build())
+                .map(this::toSupplierItem)
                 .getContent();
     }
+
+    // --------------------------------------------------
+    // 🧩 索引命中：只載入排序後的前 N 筆，並維持索引給的順序
+    // --------------------------------------------------
+    private static <E> List<GlobalSearchItemDto> hydrate(
+            List<Long> rankedIds,
+            Function<List<Long>, List<E>> loader,
+            Function<E, Long> idOf,
+            Function<E, GlobalSearchItemDto> mapper
+    ) {
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, E> byId = loader.apply(rankedIds).stream()
+                .collect(Collectors.toMap(idOf, Function.identity()));
+        // 索引與資料庫之間可能有短暫落差（剛刪除的資料），找不到的略過
+        return rankedIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .map(mapper)
+                .toList();
+    }
+
+    private GlobalSearchItemDto toOrderItem(Order order) {
+        return GlobalSearchItemDto.builder()
+                .type("訂單")
+                .id(order.getId())
+                .title(order.getOrderNo())
+                .subtitle(order.getCustomer() != null ? order.getCustomer().getName() : "無客戶")
+                .status(order.getOrderStatus() != null ? order.getOrderStatus().name() : "")
+                .route("/orders/" + order.getId())
+                .build();
+    }
+
+    private GlobalSearchItemDto toPurchaseItem(Purchase p) {
+        return GlobalSearchItemDto.builder()
+                .type("進貨")
+                .id(p.getId())
+                .title(p.getPurchaseNo())
+                .subtitle(p.getSupplier() != null ? p.getSupplier().getName() : "")
+                .status(p.getStatus() != null ? p.getStatus().name() : "")
+                .route("/purchases/" + p.getId())
+                .build();
+    }
+
+    private GlobalSearchItemDto toCustomerItem(OrderCustomer c) {
+        return GlobalSearchItemDto.builder()
+                .type("客戶")
+                .id(c.getId())
+                .title(c.getName())
+                .subtitle("聯絡人: " + c.getContactPerson() + " / " + c.getPhone())
+                .route("/order_customers/" + c.getId())
+                .build();
+    }
+
+    private GlobalSearchItemDto toSupplierItem(Supplier s) {
+        return GlobalSearchItemDto.builder()
+                .type("供應商")
+                .id(s.getId())
+                .title(s.getName()) // 顯示供應商名稱
+                .subtitle("聯絡人: " + s.getContact() + " / " + s.getPhone())
+                // ✅ 修正路由：必須加上 ID，否則點擊會跳轉到 Not Found
+                .route("/suppliers/" + s.getId())
+                .build();
+    }
 }
\ No newline at end of file
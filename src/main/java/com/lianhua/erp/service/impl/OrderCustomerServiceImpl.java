@@ -1,13 +1,13 @@
 package com.lianhua.erp.service.impl;
 
 import com.lianhua.erp.domain.OrderCustomer;
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.dto.orderCustomer.*;
 import com.lianhua.erp.export.ExportDisplayZh;
-import com.lianhua.erp.export.ExportFilenameUtils;
 import com.lianhua.erp.export.ExportFormat;
+import com.lianhua.erp.export.ExportRowPager;
 import com.lianhua.erp.export.ExportScope;
-import com.lianhua.erp.export.TabularExporter;
+import com.lianhua.erp.export.ExportStreams;
 import com.lianhua.erp.mapper.OrderCustomerMapper;
 import com.lianhua.erp.repository.OrderCustomerRepository;
 import com.lianhua.erp.repository.OrderRepository;
@@ -28,7 +28,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 @Service
@@ -41,12 +41,13 @@ public class OrderCustomerServiceImpl implements OrderCustomerService {
             "客戶名稱", "聯絡人", "電話", "地址", "結帳週期", "備註"
     };
 
-    @Value("${app.export.max-rows:50000}")
+    @Value("${app.export.max-rows:500000}")
     private int maxExportRows;
 
     private final OrderCustomerRepository repository;
     private final OrderCustomerMapper mapper;
     private final OrderRepository orderRepository;
+    private final ExportRowPager exportRowPager;
 
     /**
      * 建立新客戶
@@ -179,7 +180,7 @@ public class OrderCustomerServiceImpl implements OrderCustomerService {
 
     @Override
     @Transactional(readOnly = true)
-    public ExportPayload exportCustomers(
+    public StreamingExportPayload exportCustomers(
             OrderCustomerRequestDto request,
             Pageable pageable,
             ExportFormat format,
@@ -192,7 +193,8 @@ public class OrderCustomerServiceImpl implements OrderCustomerService {
                 ? pageable.getSort()
                 : Sort.by(Sort.Direction.ASC, "id");
         Specification<OrderCustomer> spec = OrderCustomerSpecifications.bySearchRequest(req);
-        List<String[]> rows = new ArrayList<>();
+
+        Iterator<String[]> rows;
 
         try {
             if (safeScope == ExportScope.ALL) {
@@ -202,24 +204,18 @@ public class OrderCustomerServiceImpl implements OrderCustomerService {
                             HttpStatus.BAD_REQUEST,
                             "匯出筆數超過上限 (" + maxExportRows + ")，請縮小篩選條件");
                 }
-                int step = 1000;
-                int pages = (int) ((total + step - 1) / step);
-                for (int p = 0; p < pages; p++) {
-                    Page<OrderCustomer> page = repository.findAll(spec, PageRequest.of(p, step, safeSort));
-                    for (OrderCustomer customer : page.getContent()) {
-                        rows.add(toCustomerExportRow(mapper.toResponseDto(customer)));
-                    }
-                }
+                rows = exportRowPager.seek(repository, OrderCustomer.class, spec, safeSort,
+                        customer -> toCustomerExportRow(mapper.toResponseDto(customer)));
             } else {
                 Pageable p = pageable == null ? PageRequest.of(0, 25, safeSort) : PageRequest.of(
                         Math.max(pageable.getPageNumber(), 0),
                         pageable.getPageSize() <= 0 || pageable.getPageSize() > 200 ? 25 : pageable.getPageSize(),
                         safeSort
                 );
-                Page<OrderCustomer> page = repository.findAll(spec, p);
-                for (OrderCustomer customer : page.getContent()) {
-                    rows.add(toCustomerExportRow(mapper.toResponseDto(customer)));
-                }
+                rows = repository.findAll(spec, p).getContent().stream()
+                        .map(customer -> toCustomerExportRow(mapper.toResponseDto(customer)))
+                        .toList()
+                        .iterator();
             }
         } catch (PropertyReferenceException ex) {
             throw new ResponseStatusException(
@@ -227,13 +223,7 @@ public class OrderCustomerServiceImpl implements OrderCustomerService {
                     "無效排序欄位：" + ex.getPropertyName());
         }
 
-        byte[] data = switch (safeFormat) {
-            case XLSX -> TabularExporter.toXlsx("客戶", CUSTOMER_EXPORT_HEADERS, rows);
-            case CSV -> TabularExporter.toCsvUtf8Bom(CUSTOMER_EXPORT_HEADERS, rows);
-        };
-
-        String filename = ExportFilenameUtils.build("order_customers", safeFormat);
-        return new ExportPayload(data, filename, safeFormat.mediaType());
+        return ExportStreams.tabular("order_customers", "客戶", safeFormat, CUSTOMER_EXPORT_HEADERS, rows);
     }
 
     private static String[] toCustomerExportRow(OrderCustomerResponseDto c) {
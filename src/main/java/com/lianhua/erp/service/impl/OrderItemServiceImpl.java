@@ -3,12 +3,15 @@ package com.lianhua.erp.service.impl;
 import com.lianhua.erp.domain.*;
 import com.lianhua.erp.dto.orderItem.OrderItemRequestDto;
 import com.lianhua.erp.dto.orderItem.OrderItemResponseDto;
+import com.lianhua.erp.event.OrderEvent;
 import com.lianhua.erp.mapper.OrderItemMapper;
 import com.lianhua.erp.repository.*;
+import com.lianhua.erp.service.FinancialRollupService;
 import com.lianhua.erp.service.OrderItemService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -26,6 +29,8 @@ public class OrderItemServiceImpl implements OrderItemService {
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
     private final OrderItemMapper mapper;
+    private final FinancialRollupService financialRollupService;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Override
     public List<OrderItemResponseDto> findByOrderId(Long orderId) {
@@ -64,6 +69,8 @@ public class OrderItemServiceImpl implements OrderItemService {
         BigDecimal newTotal = itemRepository.sumTotalByOrderId(orderId);
         order.setTotalAmount(newTotal);
         orderRepository.save(order);
+        financialRollupService.touch(RollupMetric.ORDER, order.getOrderDate());
+        eventPublisher.publishEvent(new OrderEvent(this, order, "ORDER_UPDATED"));
 
         return mapper.toResponseDto(item);
     }
@@ -101,6 +108,8 @@ public class OrderItemServiceImpl implements OrderItemService {
         Order order = item.getOrder();
         order.setTotalAmount(newTotal);
         orderRepository.save(order);
+        financialRollupService.touch(RollupMetric.ORDER, order.getOrderDate());
+        eventPublisher.publishEvent(new OrderEvent(this, order, "ORDER_UPDATED"));
 
         return mapper.toResponseDto(item);
     }
@@ -117,6 +126,8 @@ public class OrderItemServiceImpl implements OrderItemService {
         Order order = item.getOrder();
         order.setTotalAmount(newTotal);
         orderRepository.save(order);
+        financialRollupService.touch(RollupMetric.ORDER, order.getOrderDate());
+        eventPublisher.publishEvent(new OrderEvent(this, order, "ORDER_UPDATED"));
     }
     
     @Override
@@ -1,23 +1,34 @@
 package com.lianhua.erp.service.impl;
 
 import com.lianhua.erp.domain.*;
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.dto.order.*;
 import com.lianhua.erp.dto.orderItem.OrderItemRequestDto;
+import com.lianhua.erp.event.OrderEvent;
 import com.lianhua.erp.export.ExportDisplayZh;
-import com.lianhua.erp.export.ExportFilenameUtils;
 import com.lianhua.erp.export.ExportFormat;
+import com.lianhua.erp.export.ExportProjection;
+import com.lianhua.erp.export.ExportRowPager;
 import com.lianhua.erp.export.ExportScope;
-import com.lianhua.erp.export.TabularExporter;
+import com.lianhua.erp.export.ExportStreams;
 import com.lianhua.erp.mapper.*;
+import com.lianhua.erp.report.ReportResultCache;
 import com.lianhua.erp.repository.*;
+import com.lianhua.erp.service.FinancialRollupService;
 import com.lianhua.erp.service.OrderService;
+import com.lianhua.erp.service.PeriodCloseService;
 import com.lianhua.erp.service.impl.spec.OrderSpecifications;
 import com.lianhua.erp.numbering.OrderNoGenerator;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -32,7 +43,7 @@ import org.springframework.web.server.ResponseStatusException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 @Service
@@ -45,7 +56,7 @@ public class OrderServiceImpl implements OrderService {
             "訂單編號", "客戶", "訂單狀態", "收款狀態", "訂單金額", "訂單日期", "交貨日期"
     };
 
-    @Value("${app.export.max-rows:50000}")
+    @Value("${app.export.max-rows:500000}")
     private int maxExportRows;
 
     private final OrderRepository orderRepository;
@@ -56,6 +67,11 @@ public class OrderServiceImpl implements OrderService {
     private final OrderItemMapper itemMapper;
     private final OrderNoGenerator orderNoGenerator;
     private final ReceiptRepository receiptRepository;
+    private final FinancialRollupService financialRollupService;
+    private final PeriodCloseService periodCloseService;
+    private final ReportResultCache reportResultCache;
+    private final ExportRowPager exportRowPager;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ================================
     // 查詢（分頁）
@@ -88,7 +104,7 @@ public class OrderServiceImpl implements OrderService {
     // ================================
     @Override
     @Transactional(readOnly = true)
-    public ExportPayload exportOrders(
+    public StreamingExportPayload exportOrders(
             OrderSearchRequest searchRequest,
             Pageable pageable,
             ExportFormat format,
@@ -102,7 +118,7 @@ public class OrderServiceImpl implements OrderService {
                 : Sort.by(Sort.Direction.ASC, "id");
 
         Specification<Order> spec = OrderSpecifications.bySearchRequest(req);
-        List<String[]> rows = new ArrayList<>();
+        Iterator<String[]> rows;
 
         try {
             if (safeScope == ExportScope.ALL) {
@@ -112,24 +128,14 @@ public class OrderServiceImpl implements OrderService {
                             HttpStatus.BAD_REQUEST,
                             "匯出筆數超過上限 (" + maxExportRows + ")，請縮小篩選條件");
                 }
-                int step = 1000;
-                int pages = (int) ((total + step - 1) / step);
-                for (int p = 0; p < pages; p++) {
-                    Page<Order> page = orderRepository.findAll(spec, PageRequest.of(p, step, safeSort));
-                    for (Order order : page.getContent()) {
-                        rows.add(toOrderExportRow(orderMapper.toResponseDto(order, itemMapper)));
-                    }
-                }
+                rows = exportRowPager.seek(Order.class, spec, safeSort, ORDER_EXPORT_PROJECTION);
             } else {
                 Pageable p = pageable == null ? PageRequest.of(0, 25, safeSort) : PageRequest.of(
                         Math.max(pageable.getPageNumber(), 0),
                         pageable.getPageSize() <= 0 || pageable.getPageSize() > 200 ? 25 : pageable.getPageSize(),
                         safeSort
                 );
-                Page<Order> page = orderRepository.findAll(spec, p);
-                for (Order order : page.getContent()) {
-                    rows.add(toOrderExportRow(orderMapper.toResponseDto(order, itemMapper)));
-                }
+                rows = exportRowPager.page(Order.class, spec, p, ORDER_EXPORT_PROJECTION);
             }
         } catch (PropertyReferenceException ex) {
             throw new ResponseStatusException(
@@ -137,26 +143,43 @@ public class OrderServiceImpl implements OrderService {
                     "無效排序欄位：" + ex.getPropertyName());
         }
 
-        byte[] data = switch (safeFormat) {
-            case XLSX -> TabularExporter.toXlsx("訂單", ORDER_EXPORT_HEADERS, rows);
-            case CSV -> TabularExporter.toCsvUtf8Bom(ORDER_EXPORT_HEADERS, rows);
-        };
-
-        String filename = ExportFilenameUtils.build("orders", safeFormat);
-        return new ExportPayload(data, filename, safeFormat.mediaType());
+        return ExportStreams.tabular("orders", "訂單", safeFormat, ORDER_EXPORT_HEADERS, rows);
     }
 
-    private static String[] toOrderExportRow(OrderResponseDto o) {
-        return new String[]{
-                nz(o.getOrderNo()),
-                nz(o.getCustomerName()),
-                o.getOrderStatus() == null ? "" : ExportDisplayZh.orderLifecycle(o.getOrderStatus().name()),
-                o.getPaymentStatus() == null ? "" : ExportDisplayZh.orderCollection(o.getPaymentStatus().name()),
-                o.getTotalAmount() == null ? "" : o.getTotalAmount().toPlainString(),
-                o.getOrderDate() == null ? "" : o.getOrderDate().toString(),
-                o.getDeliveryDate() == null ? "" : o.getDeliveryDate().toString()
-        };
-    }
+    /**
+     * 訂單匯出投影：客戶名稱以 JOIN 取得，不載入訂單明細
+     */
+    private static final ExportProjection<Order> ORDER_EXPORT_PROJECTION = new ExportProjection<>() {
+        @Override
+        public List<Selection<?>> select(Root<Order> root, CriteriaQuery<Tuple> query, CriteriaBuilder cb) {
+            return List.of(
+                    root.get("orderNo"),
+                    ExportRowPager.path(root, "customer.name"),
+                    root.get("orderStatus"),
+                    root.get("paymentStatus"),
+                    root.get("totalAmount"),
+                    root.get("orderDate"),
+                    root.get("deliveryDate"));
+        }
+
+        @Override
+        public String[] toRow(Tuple t) {
+            OrderStatus orderStatus = t.get(2, OrderStatus.class);
+            PaymentStatus paymentStatus = t.get(3, PaymentStatus.class);
+            BigDecimal total = t.get(4, BigDecimal.class);
+            LocalDate orderDate = t.get(5, LocalDate.class);
+            LocalDate deliveryDate = t.get(6, LocalDate.class);
+            return new String[]{
+                    nz(t.get(0, String.class)),
+                    nz(t.get(1, String.class)),
+                    orderStatus == null ? "" : ExportDisplayZh.orderLifecycle(orderStatus.name()),
+                    paymentStatus == null ? "" : ExportDisplayZh.orderCollection(paymentStatus.name()),
+                    total == null ? "" : total.toPlainString(),
+                    orderDate == null ? "" : orderDate.toString(),
+                    deliveryDate == null ? "" : deliveryDate.toString()
+            };
+        }
+    };
 
     private static String nz(String s) {
         return s == null ? "" : s;
@@ -308,6 +331,8 @@ public class OrderServiceImpl implements OrderService {
         // 7️⃣ 更新總金額
         order.setTotalAmount(total);
         orderRepository.save(order);
+        financialRollupService.touch(RollupMetric.ORDER, order.getOrderDate());
+        eventPublisher.publishEvent(new OrderEvent(this, order, "ORDER_CREATED"));
 
         log.info("✅ 建立訂單成功：orderNo={}, total={}", orderNo, total);
 
@@ -374,11 +399,18 @@ public class OrderServiceImpl implements OrderService {
          * - totalAmount
          * - items
          */
+        // 取消訂單會讓其不再計入應收帳款；訂單日期在已結帳期間時需重新結帳
+        if (dto.getOrderStatus() == OrderStatus.CANCELLED) {
+            periodCloseService.reopen(order.getOrderDate());
+            reportResultCache.invalidateAfterCommit(order.getOrderDate());
+        }
+
         order.setOrderStatus(dto.getOrderStatus());
         order.setNote(dto.getNote());
         order.setDeliveryDate(dto.getDeliveryDate());
 
         orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderEvent(this, order, "ORDER_UPDATED"));
 
         return orderMapper.toResponseDto(order, itemMapper);
     }
@@ -405,6 +437,8 @@ public class OrderServiceImpl implements OrderService {
         }
 
         orderRepository.delete(order);
+        financialRollupService.touch(RollupMetric.ORDER, order.getOrderDate());
+        eventPublisher.publishEvent(new OrderEvent(this, order, "ORDER_DELETED"));
     }
 
     // ================================
@@ -427,6 +461,8 @@ public class OrderServiceImpl implements OrderService {
         // order.setOrderStatus(OrderStatus.CANCELLED);
 
         orderRepository.save(order);
+        financialRollupService.touch(RollupMetric.ORDER, order.getOrderDate());
+        eventPublisher.publishEvent(new OrderEvent(this, order, "ORDER_VOIDED"));
         log.info("✅ 訂單作廢狀態同步完成：orderNo={}", orderNo);
     }
 }
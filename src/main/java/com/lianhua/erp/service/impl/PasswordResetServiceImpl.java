@@ -6,6 +6,7 @@ import com.lianhua.erp.dto.auth.ForgotPasswordRequest;
 import com.lianhua.erp.dto.auth.ResetPasswordRequest;
 import com.lianhua.erp.repository.PasswordResetTokenRepository;
 import com.lianhua.erp.repository.UserRepository;
+import com.lianhua.erp.security.PrincipalStateCache;
 import com.lianhua.erp.service.EmailService;
 import com.lianhua.erp.service.PasswordPolicyValidator;
 import com.lianhua.erp.service.PasswordResetService;
@@ -31,6 +32,7 @@ public class PasswordResetServiceImpl implements PasswordResetService {
     private final EmailService emailService;
     private final PasswordEncoder passwordEncoder;
     private final PasswordPolicyValidator passwordPolicyValidator;
+    private final PrincipalStateCache principalStateCache;
 
     // 從 application.properties 讀取預設網址，若無則預設 localhost
     @Value("${app.frontend.default-url:http://localhost:5173}")
@@ -96,6 +98,7 @@ public class PasswordResetServiceImpl implements PasswordResetService {
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
         user.setCredentialsChangedAt(LocalDateTime.now());
         userRepository.save(user);
+        principalStateCache.invalidate(user.getId());
 
         // 4. 刪除已使用的 Token，確保單次有效
         tokenRepository.delete(resetToken);
@@ -1,24 +1,27 @@
 package com.lianhua.erp.service.impl;
 
 import com.lianhua.erp.domain.*;
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.dto.payment.PaymentResponseDto;
 import com.lianhua.erp.dto.payment.PaymentSearchRequest;
+import com.lianhua.erp.event.PurchaseEvent;
 import com.lianhua.erp.mapper.PaymentMapper;
 import com.lianhua.erp.repository.PaymentRepository;
 import com.lianhua.erp.repository.PurchaseRepository;
+import com.lianhua.erp.service.FinancialRollupService;
 import com.lianhua.erp.service.PaymentService;
 import com.lianhua.erp.service.impl.spec.PaymentSpecifications;
 import com.lianhua.erp.export.ExportDisplayZh;
-import com.lianhua.erp.export.ExportFilenameUtils;
 import com.lianhua.erp.export.ExportFormat;
+import com.lianhua.erp.export.ExportRowPager;
 import com.lianhua.erp.export.ExportScope;
-import com.lianhua.erp.export.TabularExporter;
+import com.lianhua.erp.export.ExportStreams;
 
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
@@ -31,7 +34,9 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
 
 @Service
@@ -42,6 +47,9 @@ public class PaymentServiceImpl implements PaymentService {
     private final PaymentRepository paymentRepository;
     private final PurchaseRepository purchaseRepository;
     private final PaymentMapper paymentMapper;
+    private final FinancialRollupService financialRollupService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExportRowPager exportRowPager;
 
     private static final String[] PAYMENT_EXPORT_HEADERS = new String[]{
             "進貨單編號",
@@ -55,7 +63,7 @@ public class PaymentServiceImpl implements PaymentService {
             "備註"
     };
 
-    @org.springframework.beans.factory.annotation.Value("${app.export.max-rows:50000}")
+    @org.springframework.beans.factory.annotation.Value("${app.export.max-rows:500000}")
     private int maxExportRows;
 
     /* =======================================================
@@ -100,6 +108,11 @@ public class PaymentServiceImpl implements PaymentService {
         }
         
         paymentRepository.deleteByPurchaseId(purchaseId);
+        financialRollupService.touch(RollupMetric.PAYMENT,
+                payments.stream().map(Payment::getPayDate).distinct().toArray(LocalDate[]::new));
+        if (!payments.isEmpty()) {
+            eventPublisher.publishEvent(new PurchaseEvent(this, payments.get(0).getPurchase(), "PAYMENTS_DELETED"));
+        }
     }
 
     /* =======================================================
@@ -151,7 +164,7 @@ public class PaymentServiceImpl implements PaymentService {
     // =======================================================
     @Override
     @Transactional(readOnly = true)
-    public ExportPayload exportPayments(
+    public StreamingExportPayload exportPayments(
             PaymentSearchRequest req,
             Pageable pageable,
             ExportFormat format,
@@ -168,61 +181,34 @@ public class PaymentServiceImpl implements PaymentService {
                 ? pageable.getSort()
                 : Sort.by(Sort.Direction.ASC, "id");
 
-        List<String[]> rows;
-
-        if (safeScope == ExportScope.ALL) {
-            long total = paymentRepository.count(spec);
-            if (total > maxExportRows) {
-                throw new ResponseStatusException(
-                        HttpStatus.BAD_REQUEST,
-                        "匯出筆數超過上限 (" + maxExportRows + ")，請縮小篩選條件");
-            }
-            rows = new java.util.ArrayList<>((int) Math.min(total, Integer.MAX_VALUE));
-
-            int step = 1000;
-            if (pageable != null && pageable.getPageSize() > 0 && pageable.getPageSize() <= 200) {
-                step = Math.max(50, pageable.getPageSize());
-            }
+        Iterator<String[]> rows;
 
-            int pages = (int) ((total + step - 1) / step);
-            try {
-                for (int p = 0; p < pages; p++) {
-                    Page<Payment> page = paymentRepository.findAll(spec, PageRequest.of(p, step, safeSort));
-                    for (Payment payment : page.getContent()) {
-                        rows.add(toPaymentExportRow(paymentMapper.toDto(payment)));
-                    }
-                }
-            } catch (PropertyReferenceException ex) {
-                throw new ResponseStatusException(
-                        HttpStatus.BAD_REQUEST,
-                        "無效排序欄位：" + ex.getPropertyName());
-            }
-        } else {
-            rows = new java.util.ArrayList<>();
-            Pageable p = pageable == null
-                    ? PageRequest.of(0, 25, safeSort)
-                    : normalizeForExport(pageable, safeSort);
-            try {
-                Page<Payment> page = paymentRepository.findAll(spec, p);
-                for (Payment payment : page.getContent()) {
-                    rows.add(toPaymentExportRow(paymentMapper.toDto(payment)));
+        try {
+            if (safeScope == ExportScope.ALL) {
+                long total = paymentRepository.count(spec);
+                if (total > maxExportRows) {
+                    throw new ResponseStatusException(
+                            HttpStatus.BAD_REQUEST,
+                            "匯出筆數超過上限 (" + maxExportRows + ")，請縮小篩選條件");
                 }
-            } catch (PropertyReferenceException ex) {
-                throw new ResponseStatusException(
-                        HttpStatus.BAD_REQUEST,
-                        "無效排序欄位：" + ex.getPropertyName());
+                rows = exportRowPager.seek(paymentRepository, Payment.class, spec, safeSort,
+                        payment -> toPaymentExportRow(paymentMapper.toDto(payment)));
+            } else {
+                Pageable p = pageable == null
+                        ? PageRequest.of(0, 25, safeSort)
+                        : normalizeForExport(pageable, safeSort);
+                rows = paymentRepository.findAll(spec, p).getContent().stream()
+                        .map(payment -> toPaymentExportRow(paymentMapper.toDto(payment)))
+                        .toList()
+                        .iterator();
             }
+        } catch (PropertyReferenceException ex) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "無效排序欄位：" + ex.getPropertyName());
         }
 
-        byte[] data;
-        if (safeFormat == ExportFormat.CSV) {
-            data = TabularExporter.toCsvUtf8Bom(PAYMENT_EXPORT_HEADERS, rows);
-        } else {
-            data = TabularExporter.toXlsx("payments", PAYMENT_EXPORT_HEADERS, rows);
-        }
-
-        String filename = ExportFilenameUtils.build("payments", safeFormat);
-        return new ExportPayload(data, filename, safeFormat.mediaType());
+        return ExportStreams.tabular("payments", "payments", safeFormat, PAYMENT_EXPORT_HEADERS, rows);
     }
 
     private Pageable normalizeForExport(Pageable pageable, Sort safeSort) {
@@ -274,10 +260,12 @@ public class PaymentServiceImpl implements PaymentService {
         payment.setVoidReason(reason);
 
         paymentRepository.save(payment);
+        financialRollupService.touch(RollupMetric.PAYMENT, payment.getPayDate());
 
         // ⭐ 重新計算關聯進貨單的付款狀態（自動排除已作廢的付款）
         Purchase purchase = payment.getPurchase();
         recalcPaymentStatus(purchase);
+        eventPublisher.publishEvent(new PurchaseEvent(this, purchase, "PAYMENT_VOIDED"));
 
         log.info("✅ 作廢付款：paymentId={}, purchaseId={}, reason={}",
                 id, purchase.getId(), reason);
@@ -0,0 +1,106 @@
+package com.lianhua.erp.service.impl;
+
+import com.lianhua.erp.dto.report.BalanceSheetClosingDto;
+import com.lianhua.erp.repository.BalanceSheetClosingRepository;
+import com.lianhua.erp.repository.BalanceSheetReportRepository;
+import com.lianhua.erp.repository.BalanceSheetReportRepository.Balances;
+import com.lianhua.erp.service.PeriodCloseService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * 會計期間結帳：
+ * 1) 每個期間的期末餘額 = 前一期快照 + 本期異動（首次結帳才做完整累計）
+ * 2) 補登、修改、作廢已結帳期間的單據時，刪除該期間起的快照，由排程依序重新結帳
+ * 3) 結帳與重新開啟透過 period_close_state 序號協調：
+ *    計算期間若有人重新開啟，該次結帳放棄寫入，避免寫入已過時的快照
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PeriodCloseServiceImpl implements PeriodCloseService {
+
+    private final BalanceSheetClosingRepository closingRepository;
+    private final BalanceSheetReportRepository balanceSheetReportRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void reopen(LocalDate... dates) {
+        if (dates == null) {
+            return;
+        }
+
+        LocalDate earliest = null;
+        for (LocalDate date : dates) {
+            if (date != null && (earliest == null || date.isBefore(earliest))) {
+                earliest = date;
+            }
+        }
+        // 本月尚未結帳，不需處理（一般的當月單據不會碰到鎖）
+        if (earliest == null || !earliest.isBefore(YearMonth.now().atDay(1))) {
+            return;
+        }
+
+        closingRepository.bumpReopenSeq();
+        int removed = closingRepository.deleteFrom(YearMonth.from(earliest).atEndOfMonth());
+        if (removed > 0) {
+            log.info("📒 已結帳期間 {} 有單據異動，重新開啟 {} 個期間的結帳快照", YearMonth.from(earliest), removed);
+        }
+    }
+
+    @Override
+    public int closeThroughLastMonth() {
+        YearMonth last = YearMonth.now().minusMonths(1);
+        YearMonth next = closingRepository.findLatest()
+                .map(c -> YearMonth.from(c.periodEnd()).plusMonths(1))
+                .orElseGet(() -> {
+                    LocalDate earliest = balanceSheetReportRepository.findEarliestActivityDate();
+                    return earliest != null ? YearMonth.from(earliest) : null;
+                });
+        if (next == null) {
+            return 0;
+        }
+
+        int closed = 0;
+        for (YearMonth p = next; !p.isAfter(last); p = p.plusMonths(1)) {
+            YearMonth period = p;
+            if (!Boolean.TRUE.equals(transactionTemplate.execute(status -> closeOne(period, status)))) {
+                log.warn("⚠️ 結帳 {} 期間有已結帳資料異動，本次中止，下次排程重試", period);
+                break;
+            }
+            closed++;
+        }
+        if (closed > 0) {
+            log.info("📒 結帳完成：{} ~ {}，共 {} 個期間", next, next.plusMonths(closed - 1L), closed);
+        }
+        return closed;
+    }
+
+    private Boolean closeOne(YearMonth period, TransactionStatus status) {
+        LocalDate periodEnd = period.atEndOfMonth();
+        long seq = closingRepository.getReopenSeq();
+
+        Balances balances = balanceSheetReportRepository.getBalancesAsOf(periodEnd);
+
+        // 先鎖定序號再寫入：尚未提交的重新開啟會在此等待其結束
+        if (closingRepository.lockReopenSeq() != seq) {
+            status.setRollbackOnly();
+            return false;
+        }
+        closingRepository.save(period.toString(), periodEnd,
+                balances.accountsReceivable(), balances.accountsPayable(), balances.cash());
+        return true;
+    }
+
+    @Override
+    public List<BalanceSheetClosingDto> listClosings() {
+        return closingRepository.findAll();
+    }
+}
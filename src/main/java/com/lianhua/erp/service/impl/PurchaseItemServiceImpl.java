@@ -3,13 +3,16 @@ package com.lianhua.erp.service.impl;
 import com.lianhua.erp.domain.*;
 import com.lianhua.erp.dto.purchase.PurchaseItemDto;
 import com.lianhua.erp.dto.purchase.PurchaseItemRequestDto;
+import com.lianhua.erp.event.PurchaseEvent;
 import com.lianhua.erp.mapper.PurchaseItemMapper;
 import com.lianhua.erp.repository.PurchaseItemRepository;
 import com.lianhua.erp.repository.PurchaseRepository;
+import com.lianhua.erp.service.FinancialRollupService;
 import com.lianhua.erp.service.PurchaseItemService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
@@ -30,6 +33,8 @@ public class PurchaseItemServiceImpl implements PurchaseItemService {
     private final PurchaseItemRepository itemRepository;
     private final PurchaseRepository purchaseRepository;
     private final PurchaseItemMapper mapper;
+    private final FinancialRollupService financialRollupService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(readOnly = true)
@@ -291,6 +296,8 @@ public class PurchaseItemServiceImpl implements PurchaseItemService {
         // 但這裡不改變狀態，因為狀態是基於付款情況的
 
         purchaseRepository.save(purchase);
+        financialRollupService.touch(RollupMetric.PURCHASE, purchase.getPurchaseDate());
+        eventPublisher.publishEvent(new PurchaseEvent(this, purchase, "PURCHASE_UPDATED"));
 
         log.info("更新採購單總金額：purchaseId={}, newTotal={}", purchaseId, newTotal);
     }
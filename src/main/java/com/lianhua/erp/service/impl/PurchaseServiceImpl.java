@@ -12,15 +12,23 @@ import com.lianhua.erp.repository.PurchaseItemRepository;
 import com.lianhua.erp.repository.PurchaseRepository;
 import com.lianhua.erp.repository.PaymentRepository;
 import com.lianhua.erp.repository.SupplierRepository;
+import com.lianhua.erp.service.FinancialRollupService;
 import com.lianhua.erp.service.PurchaseService;
 import com.lianhua.erp.service.impl.spec.PurchaseSpecifications;
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.export.ExportDisplayZh;
-import com.lianhua.erp.export.ExportFilenameUtils;
 import com.lianhua.erp.export.ExportFormat;
+import com.lianhua.erp.export.ExportProjection;
+import com.lianhua.erp.export.ExportRowPager;
 import com.lianhua.erp.export.ExportScope;
-import com.lianhua.erp.export.TabularExporter;
+import com.lianhua.erp.export.ExportStreams;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.criteria.Subquery;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
@@ -42,6 +50,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.Iterator;
 import java.util.stream.Collectors;
 import java.util.ArrayList;
 
@@ -62,6 +71,8 @@ public class PurchaseServiceImpl implements PurchaseService {
     private final com.lianhua.erp.numbering.PurchaseNoGenerator purchaseNoGenerator;
     private final ApplicationEventPublisher eventPublisher;
     private final PurchaseItemRepository purchaseItemRepository;
+    private final FinancialRollupService financialRollupService;
+    private final ExportRowPager exportRowPager;
 
     private static final DateTimeFormatter PERIOD_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM");
 
@@ -76,7 +87,7 @@ public class PurchaseServiceImpl implements PurchaseService {
             "備註"
     };
 
-    @Value("${app.export.max-rows:50000}")
+    @Value("${app.export.max-rows:500000}")
     private int maxExportRows;
 
     // ================================
@@ -354,6 +365,8 @@ public class PurchaseServiceImpl implements PurchaseService {
 
             Purchase saved = purchaseRepository.save(purchase);
             // Cascade 會自動保存 payments，不需要手動保存
+            touchRollups(saved, List.of());
+            eventPublisher.publishEvent(new PurchaseEvent(this, saved, "PURCHASE_CREATED"));
 
             log.info("進貨單建立成功：purchaseId={}, purchaseNo={}", saved.getId(), saved.getPurchaseNo());
             return purchaseMapper.toDto(saved);
@@ -473,6 +486,8 @@ public class PurchaseServiceImpl implements PurchaseService {
         // 6️⃣ 現有付款資料
         // ========================================
         Set<Payment> existingPayments = purchase.getPayments() != null ? purchase.getPayments() : new HashSet<>();
+        // 付款日期可能被修改，舊日期的付款彙總也要重算
+        List<LocalDate> originalPayDates = existingPayments.stream().map(Payment::getPayDate).toList();
 
         BigDecimal totalAmount = purchase.getTotalAmount();
 
@@ -607,6 +622,8 @@ public class PurchaseServiceImpl implements PurchaseService {
 
         Purchase saved = purchaseRepository.save(purchase);
         // Cascade 會自動處理 payments 的新增、更新、刪除
+        touchRollups(saved, originalPayDates);
+        eventPublisher.publishEvent(new PurchaseEvent(this, saved, "PURCHASE_UPDATED"));
 
         return purchaseMapper.toDto(saved);
     }
@@ -626,6 +643,7 @@ public class PurchaseServiceImpl implements PurchaseService {
             purchase.setStatus(newStatus);
 
             Purchase updated = purchaseRepository.save(purchase);
+            eventPublisher.publishEvent(new PurchaseEvent(this, updated, "PURCHASE_UPDATED"));
             return purchaseMapper.toDto(updated);
 
         } catch (IllegalArgumentException e) {
@@ -660,6 +678,8 @@ public class PurchaseServiceImpl implements PurchaseService {
 
         log.info("刪除進貨單：purchaseId={}", id);
         purchaseRepository.deleteById(id);
+        touchRollups(purchase, List.of());
+        eventPublisher.publishEvent(new PurchaseEvent(this, purchase, "PURCHASE_DELETED"));
         // orphanRemoval = true 會自動刪除關聯的 payments（但只有在 PENDING 狀態時才會執行到這裡）
     }
 
@@ -710,6 +730,7 @@ public class PurchaseServiceImpl implements PurchaseService {
         // 這樣可以反映作廢前的付款記錄狀態
 
         purchaseRepository.save(purchase);
+        touchRollups(purchase, List.of());
 
         log.info("✅ 作廢進貨單：purchaseId={}, reason={}", id, reason);
 
@@ -730,6 +751,19 @@ public class PurchaseServiceImpl implements PurchaseService {
         return purchaseMapper.toDto(savedPurchase);
     }
 
+    // ================================
+    // 標記進貨與付款日彙總需重算
+    // ================================
+    private void touchRollups(Purchase purchase, List<LocalDate> extraPayDates) {
+        financialRollupService.touch(RollupMetric.PURCHASE, purchase.getPurchaseDate());
+
+        Set<LocalDate> payDates = new HashSet<>(extraPayDates);
+        if (purchase.getPayments() != null) {
+            purchase.getPayments().forEach(p -> payDates.add(p.getPayDate()));
+        }
+        financialRollupService.touch(RollupMetric.PAYMENT, payDates.toArray(LocalDate[]::new));
+    }
+
     // ================================
     // 計算明細小計（不含稅）
     // ================================
@@ -825,7 +859,7 @@ public class PurchaseServiceImpl implements PurchaseService {
     // ================================
     @Override
     @Transactional(readOnly = true)
-    public ExportPayload exportPurchases(
+    public StreamingExportPayload exportPurchases(
             PurchaseSearchRequest req,
             Pageable pageable,
             ExportFormat format,
@@ -842,57 +876,28 @@ public class PurchaseServiceImpl implements PurchaseService {
                 ? pageable.getSort()
                 : Sort.by(Sort.Direction.ASC, "id");
 
-        List<String[]> rows;
+        Iterator<String[]> rows;
 
-        if (safeScope == ExportScope.ALL) {
-            try {
+        try {
+            if (safeScope == ExportScope.ALL) {
                 long total = purchaseRepository.count(spec);
                 if (total > maxExportRows) {
                     throw new ResponseStatusException(
                             HttpStatus.BAD_REQUEST,
                             "匯出筆數超過上限 (" + maxExportRows + ")，請縮小篩選條件");
                 }
-                rows = new ArrayList<>((int) Math.min(total, Integer.MAX_VALUE));
-
-                int step = 1000;
-                if (pageable != null && pageable.getPageSize() > 0 && pageable.getPageSize() <= 200) {
-                    step = Math.max(50, pageable.getPageSize());
-                }
-
-                int pages = (int) ((total + step - 1) / step);
-                for (int p = 0; p < pages; p++) {
-                    Page<Purchase> page = purchaseRepository.findAll(spec, PageRequest.of(p, step, safeSort));
-                    for (Purchase purchase : page.getContent()) {
-                        rows.add(toPurchaseExportRow(purchaseMapper.toResponseDto(purchase)));
-                    }
-                }
-            } catch (PropertyReferenceException ex) {
-                throw new ResponseStatusException(
-                        HttpStatus.BAD_REQUEST,
-                        "無效排序欄位：" + ex.getPropertyName());
-            }
-        } else {
-            rows = new ArrayList<>();
-            try {
+                rows = exportRowPager.seek(Purchase.class, spec, safeSort, PURCHASE_EXPORT_PROJECTION);
+            } else {
                 Pageable p = pageable == null ? PageRequest.of(0, 25, safeSort) : normalizeForExport(pageable, safeSort);
-                Page<Purchase> page = purchaseRepository.findAll(spec, p);
-                for (Purchase purchase : page.getContent()) {
-                    rows.add(toPurchaseExportRow(purchaseMapper.toResponseDto(purchase)));
-                }
-            } catch (PropertyReferenceException ex) {
-                throw new ResponseStatusException(
-                        HttpStatus.BAD_REQUEST,
-                        "無效排序欄位：" + ex.getPropertyName());
+                rows = exportRowPager.page(Purchase.class, spec, p, PURCHASE_EXPORT_PROJECTION);
             }
+        } catch (PropertyReferenceException ex) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "無效排序欄位：" + ex.getPropertyName());
         }
 
-        byte[] data = switch (safeFormat) {
-            case XLSX -> TabularExporter.toXlsx("purchases", PURCHASE_EXPORT_HEADERS, rows);
-            case CSV -> TabularExporter.toCsvUtf8Bom(PURCHASE_EXPORT_HEADERS, rows);
-        };
-
-        String filename = ExportFilenameUtils.build("purchases", safeFormat);
-        return new ExportPayload(data, filename, safeFormat.mediaType());
+        return ExportStreams.tabular("purchases", "purchases", safeFormat, PURCHASE_EXPORT_HEADERS, rows);
     }
 
     private Pageable normalizeForExport(Pageable pageable, Sort safeSort) {
@@ -906,18 +911,48 @@ public class PurchaseServiceImpl implements PurchaseService {
         return PageRequest.of(pageable.getPageNumber(), pageSize, safeSort);
     }
 
-    private static String[] toPurchaseExportRow(PurchaseResponseDto p) {
-        return new String[]{
-                nz(p.getPurchaseNo()),
-                nz(p.getSupplierName()),
-                p.getStatus() == null ? "" : ExportDisplayZh.purchasePayment(p.getStatus()),
-                p.getTotalAmount() == null ? "" : p.getTotalAmount().toPlainString(),
-                p.getPaidAmount() == null ? "" : p.getPaidAmount().toPlainString(),
-                p.getBalance() == null ? "" : p.getBalance().toPlainString(),
-                p.getPurchaseDate() == null ? "" : p.getPurchaseDate().toString(),
-                nz(p.getNote())
-        };
-    }
+    /**
+     * 進貨匯出投影：供應商名稱以 JOIN、已付金額以子查詢（僅計有效付款）在 SQL 內算好，
+     * 不載入明細與付款集合；欄位與 PurchaseMapper 的 paidAmount / balance 算法一致
+     */
+    private static final ExportProjection<Purchase> PURCHASE_EXPORT_PROJECTION = new ExportProjection<>() {
+        @Override
+        public List<Selection<?>> select(Root<Purchase> root, CriteriaQuery<Tuple> query, CriteriaBuilder cb) {
+            Subquery<BigDecimal> paid = query.subquery(BigDecimal.class);
+            Root<Payment> payment = paid.from(Payment.class);
+            paid.select(cb.coalesce(cb.sum(payment.<BigDecimal>get("amount")), BigDecimal.ZERO))
+                    .where(cb.equal(payment.get("purchase"), root),
+                            cb.equal(payment.get("status"), PaymentRecordStatus.ACTIVE));
+
+            return List.of(
+                    root.get("purchaseNo"),
+                    ExportRowPager.path(root, "supplier.name"),
+                    root.get("status"),
+                    root.get("totalAmount"),
+                    paid,
+                    root.get("purchaseDate"),
+                    root.get("note"));
+        }
+
+        @Override
+        public String[] toRow(Tuple t) {
+            Purchase.Status status = t.get(2, Purchase.Status.class);
+            BigDecimal total = t.get(3, BigDecimal.class);
+            BigDecimal paid = Optional.ofNullable(t.get(4, BigDecimal.class)).orElse(BigDecimal.ZERO)
+                    .setScale(2, RoundingMode.HALF_UP);
+            LocalDate purchaseDate = t.get(5, LocalDate.class);
+            return new String[]{
+                    nz(t.get(0, String.class)),
+                    nz(t.get(1, String.class)),
+                    status == null ? "" : ExportDisplayZh.purchasePayment(status.name()),
+                    total == null ? "" : total.toPlainString(),
+                    paid.toPlainString(),
+                    total == null ? "" : total.subtract(paid).setScale(2, RoundingMode.HALF_UP).toPlainString(),
+                    purchaseDate == null ? "" : purchaseDate.toString(),
+                    nz(t.get(6, String.class))
+            };
+        }
+    };
 
     private static String nz(String s) {
         return s == null ? "" : s;
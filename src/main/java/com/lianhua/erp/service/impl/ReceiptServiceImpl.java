@@ -2,20 +2,27 @@ package com.lianhua.erp.service.impl;
 
 import com.lianhua.erp.domain.*;
 import com.lianhua.erp.dto.receipt.*;
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.event.ReceiptEvent;
 import com.lianhua.erp.mapper.ReceiptMapper;
 import com.lianhua.erp.export.ExportDisplayZh;
-import com.lianhua.erp.export.ExportFilenameUtils;
 import com.lianhua.erp.export.ExportFormat;
+import com.lianhua.erp.export.ExportProjection;
+import com.lianhua.erp.export.ExportRowPager;
 import com.lianhua.erp.export.ExportScope;
-import com.lianhua.erp.export.TabularExporter;
+import com.lianhua.erp.export.ExportStreams;
 import com.lianhua.erp.repository.OrderRepository;
 import com.lianhua.erp.repository.ReceiptRepository;
+import com.lianhua.erp.service.FinancialRollupService;
 import com.lianhua.erp.service.OrderService; // 🚀 補齊匯入
 import com.lianhua.erp.service.ReceiptService;
 import com.lianhua.erp.service.impl.spec.ReceiptSpecifications;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
@@ -34,8 +41,8 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -50,7 +57,7 @@ public class ReceiptServiceImpl implements ReceiptService {
             "收款日期", "會計期間", "備註"
     };
 
-    @org.springframework.beans.factory.annotation.Value("${app.export.max-rows:50000}")
+    @org.springframework.beans.factory.annotation.Value("${app.export.max-rows:500000}")
     private int maxExportRows;
 
     private final ReceiptRepository receiptRepository;
@@ -58,6 +65,8 @@ public class ReceiptServiceImpl implements ReceiptService {
     private final OrderService orderService; // 🚀 注入 OrderService 以便同步 Order Table
     private final ReceiptMapper mapper;
     private final ApplicationEventPublisher eventPublisher;
+    private final FinancialRollupService financialRollupService;
+    private final ExportRowPager exportRowPager;
 
     // =====================================================
     // 建立收款（金額自動計算，不可超收）
@@ -87,6 +96,7 @@ public class ReceiptServiceImpl implements ReceiptService {
 
         receipt.setAccountingPeriod(receipt.getReceivedDate().format(DateTimeFormatter.ofPattern("yyyy-MM")));
         Receipt saved = receiptRepository.save(receipt);
+        financialRollupService.touch(RollupMetric.RECEIPT, saved.getReceivedDate());
 
         // ⭐ 發送新增收款事件通知
         Map<String, Object> payload = new HashMap<>();
@@ -117,6 +127,7 @@ public class ReceiptServiceImpl implements ReceiptService {
 
         // 1. 保存原始金額（因為金額由系統計算，不應被 Mapper 覆蓋）
         BigDecimal originalAmount = receipt.getAmount();
+        LocalDate originalDate = receipt.getReceivedDate();
 
         // 2. 使用 Mapper 自動更新其他欄位 (receivedDate, method 等)
         // 這裡會自動處理日期變動，但備註會因為 IGNORE 策略被跳過
@@ -142,6 +153,8 @@ public class ReceiptServiceImpl implements ReceiptService {
         }
 
         receiptRepository.save(receipt);
+        financialRollupService.touch(RollupMetric.RECEIPT, originalDate, receipt.getReceivedDate());
+        eventPublisher.publishEvent(new ReceiptEvent(this, receipt, "RECEIPT_UPDATED", null));
         recalcPaymentStatus(receipt.getOrder());
         advanceOrderStatusIfNeeded(receipt.getOrder());
 
@@ -166,6 +179,8 @@ public class ReceiptServiceImpl implements ReceiptService {
         }
 
         receiptRepository.delete(receipt);
+        financialRollupService.touch(RollupMetric.RECEIPT, receipt.getReceivedDate());
+        eventPublisher.publishEvent(new ReceiptEvent(this, receipt, "RECEIPT_DELETED", null));
         recalcPaymentStatus(order);
         advanceOrderStatusIfNeeded(order);
     }
@@ -187,6 +202,7 @@ public class ReceiptServiceImpl implements ReceiptService {
         receipt.setVoidedAt(LocalDateTime.now());
         receipt.setVoidReason(reason);
         receiptRepository.save(receipt);
+        financialRollupService.touch(RollupMetric.RECEIPT, receipt.getReceivedDate());
 
         // 2. 重新計算關聯訂單狀態
         Order order = receipt.getOrder();
@@ -254,7 +270,7 @@ public class ReceiptServiceImpl implements ReceiptService {
     // =====================================================
     @Override
     @Transactional(readOnly = true)
-    public ExportPayload exportReceipts(
+    public StreamingExportPayload exportReceipts(
             ReceiptSearchRequest req,
             Pageable pageable,
             ExportFormat format,
@@ -268,7 +284,8 @@ public class ReceiptServiceImpl implements ReceiptService {
                 : Sort.by(Sort.Direction.DESC, "receivedDate");
 
         Specification<Receipt> spec = ReceiptSpecifications.build(request);
-        List<String[]> rows = new ArrayList<>();
+
+        Iterator<String[]> rows;
 
         try {
             if (safeScope == ExportScope.ALL) {
@@ -278,24 +295,14 @@ public class ReceiptServiceImpl implements ReceiptService {
                             HttpStatus.BAD_REQUEST,
                             "匯出筆數超過上限 (" + maxExportRows + ")，請縮小篩選條件");
                 }
-                int step = 1000;
-                int pages = (int) ((total + step - 1) / step);
-                for (int p = 0; p < pages; p++) {
-                    Page<Receipt> page = receiptRepository.findAll(spec, PageRequest.of(p, step, safeSort));
-                    for (Receipt receipt : page.getContent()) {
-                        rows.add(toReceiptExportRow(mapper.toDto(receipt)));
-                    }
-                }
+                rows = exportRowPager.seek(Receipt.class, spec, safeSort, RECEIPT_EXPORT_PROJECTION);
             } else {
                 Pageable p = pageable == null ? PageRequest.of(0, 25, safeSort) : PageRequest.of(
                         Math.max(pageable.getPageNumber(), 0),
                         pageable.getPageSize() <= 0 || pageable.getPageSize() > 200 ? 25 : pageable.getPageSize(),
                         safeSort
                 );
-                Page<Receipt> page = receiptRepository.findAll(spec, p);
-                for (Receipt receipt : page.getContent()) {
-                    rows.add(toReceiptExportRow(mapper.toDto(receipt)));
-                }
+                rows = exportRowPager.page(Receipt.class, spec, p, RECEIPT_EXPORT_PROJECTION);
             }
         } catch (PropertyReferenceException ex) {
             throw new ResponseStatusException(
@@ -303,27 +310,44 @@ public class ReceiptServiceImpl implements ReceiptService {
                     "無效排序欄位：" + ex.getPropertyName());
         }
 
-        byte[] data = switch (safeFormat) {
-            case XLSX -> TabularExporter.toXlsx("收款紀錄", RECEIPT_EXPORT_HEADERS, rows);
-            case CSV -> TabularExporter.toCsvUtf8Bom(RECEIPT_EXPORT_HEADERS, rows);
-        };
-
-        String filename = ExportFilenameUtils.build("receipts", safeFormat);
-        return new ExportPayload(data, filename, safeFormat.mediaType());
+        return ExportStreams.tabular("receipts", "收款紀錄", safeFormat, RECEIPT_EXPORT_HEADERS, rows);
     }
 
-    private static String[] toReceiptExportRow(ReceiptResponseDto r) {
-        return new String[]{
-                nz(r.getOrderNo()),
-                nz(r.getCustomerName()),
-                nz(ExportDisplayZh.recordActiveVoid(r.getStatus())),
-                nz(ExportDisplayZh.paymentMethod(r.getMethod())),
-                r.getAmount() == null ? "" : r.getAmount().toPlainString(),
-                r.getReceivedDate() == null ? "" : r.getReceivedDate().toString(),
-                nz(r.getAccountingPeriod()),
-                nz(r.getNote())
-        };
-    }
+    /**
+     * 收款匯出投影：訂單編號與客戶名稱以 JOIN 取得，不逐筆載入訂單與客戶
+     */
+    private static final ExportProjection<Receipt> RECEIPT_EXPORT_PROJECTION = new ExportProjection<>() {
+        @Override
+        public List<Selection<?>> select(Root<Receipt> root, CriteriaQuery<Tuple> query, CriteriaBuilder cb) {
+            return List.of(
+                    ExportRowPager.path(root, "order.orderNo"),
+                    ExportRowPager.path(root, "order.customer.name"),
+                    root.get("status"),
+                    root.get("method"),
+                    root.get("amount"),
+                    root.get("receivedDate"),
+                    root.get("accountingPeriod"),
+                    root.get("note"));
+        }
+
+        @Override
+        public String[] toRow(Tuple t) {
+            ReceiptStatus status = t.get(2, ReceiptStatus.class);
+            Receipt.PaymentMethod method = t.get(3, Receipt.PaymentMethod.class);
+            BigDecimal amount = t.get(4, BigDecimal.class);
+            LocalDate receivedDate = t.get(5, LocalDate.class);
+            return new String[]{
+                    nz(t.get(0, String.class)),
+                    nz(t.get(1, String.class)),
+                    status == null ? "" : nz(ExportDisplayZh.recordActiveVoid(status.name())),
+                    method == null ? "" : nz(ExportDisplayZh.paymentMethod(method.name())),
+                    amount == null ? "" : amount.toPlainString(),
+                    receivedDate == null ? "" : receivedDate.toString(),
+                    nz(t.get(6, String.class)),
+                    nz(t.get(7, String.class))
+            };
+        }
+    };
 
     private static String nz(String s) {
         return s == null ? "" : s;
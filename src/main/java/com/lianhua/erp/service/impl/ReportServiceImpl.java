@@ -1,6 +1,9 @@
 package com.lianhua.erp.service.impl;
 
 import com.lianhua.erp.dto.report.ProfitReportDto;
+import com.lianhua.erp.report.ReportCoverage;
+import com.lianhua.erp.report.ReportResultCache;
+import com.lianhua.erp.report.ReportType;
 import com.lianhua.erp.repository.ReportRepository;
 import com.lianhua.erp.service.ReportService;
 import lombok.RequiredArgsConstructor;
@@ -23,9 +26,15 @@ import java.util.Objects;
 public class ReportServiceImpl implements ReportService {
 
     private final ReportRepository repository;
+    private final ReportResultCache reportResultCache;
 
     @Override
     public List<ProfitReportDto> getMonthlyProfitReport(String period, String startDate, String endDate) {
+        return reportResultCache.get(ReportType.PROFIT, ReportCoverage.periodOrRange(period, startDate, endDate),
+                () -> loadMonthlyProfitReport(period, startDate, endDate), period, startDate, endDate);
+    }
+
+    private List<ProfitReportDto> loadMonthlyProfitReport(String period, String startDate, String endDate) {
 
         // 📊 從 Repository 查詢報表資料
         List<ProfitReportDto> list = repository.getProfitReport(period, startDate, endDate);
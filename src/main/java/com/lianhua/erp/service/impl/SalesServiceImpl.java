@@ -1,22 +1,26 @@
 package com.lianhua.erp.service.impl;
 
 import com.lianhua.erp.domain.Product;
+import com.lianhua.erp.domain.RollupMetric;
 import com.lianhua.erp.domain.Sale;
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.dto.sale.*;
+import com.lianhua.erp.event.SaleEvent;
 import com.lianhua.erp.export.ExportDisplayZh;
-import com.lianhua.erp.export.ExportFilenameUtils;
 import com.lianhua.erp.export.ExportFormat;
+import com.lianhua.erp.export.ExportRowPager;
 import com.lianhua.erp.export.ExportScope;
-import com.lianhua.erp.export.TabularExporter;
+import com.lianhua.erp.export.ExportStreams;
 import com.lianhua.erp.mapper.SalesMapper;
 import com.lianhua.erp.repository.ProductRepository;
 import com.lianhua.erp.repository.SalesRepository;
+import com.lianhua.erp.service.FinancialRollupService;
 import com.lianhua.erp.service.SalesService;
 import com.lianhua.erp.service.impl.spec.SaleSpecifications;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -32,7 +36,7 @@ import org.springframework.web.server.ResponseStatusException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -48,8 +52,11 @@ public class SalesServiceImpl implements SalesService {
     private final SalesRepository repository;
     private final ProductRepository productRepository;
     private final SalesMapper mapper;
+    private final FinancialRollupService financialRollupService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExportRowPager exportRowPager;
 
-    @Value("${app.export.max-rows:50000}")
+    @Value("${app.export.max-rows:500000}")
     private int maxExportRows;
 
     private static final DateTimeFormatter PERIOD_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM");
@@ -81,7 +88,10 @@ public class SalesServiceImpl implements SalesService {
         BigDecimal total = unitPrice.multiply(BigDecimal.valueOf(dto.getQty()));
         sale.setAmount(total);
 
-        return mapper.toDto(repository.save(sale));
+        Sale saved = repository.save(sale);
+        financialRollupService.touch(RollupMetric.SALE, saved.getSaleDate());
+        eventPublisher.publishEvent(new SaleEvent(this, saved, "SALE_CREATED"));
+        return mapper.toDto(saved);
     }
 
     // === 更新銷售紀錄 ===
@@ -97,6 +107,8 @@ public class SalesServiceImpl implements SalesService {
             throw new DataIntegrityViolationException("該商品於該日期已有銷售紀錄，請勿重複建立。");
         }
 
+        LocalDate originalDate = existing.getSaleDate();
+
         // 更新基本屬性
         mapper.updateEntityFromDto(dto, existing);
 
@@ -117,7 +129,10 @@ public class SalesServiceImpl implements SalesService {
         BigDecimal total = unitPrice.multiply(BigDecimal.valueOf(existing.getQty()));
         existing.setAmount(total);
 
-        return mapper.toDto(repository.save(existing));
+        Sale saved = repository.save(existing);
+        financialRollupService.touch(RollupMetric.SALE, originalDate, saved.getSaleDate());
+        eventPublisher.publishEvent(new SaleEvent(this, saved, "SALE_UPDATED"));
+        return mapper.toDto(saved);
     }
 
     // === 支援分頁 PAGE ===
@@ -146,7 +161,7 @@ public class SalesServiceImpl implements SalesService {
     // === 匯出銷售列表 ===
     @Override
     @Transactional(readOnly = true)
-    public ExportPayload exportSales(
+    public StreamingExportPayload exportSales(
             SaleSearchRequestDto req,
             Pageable pageable,
             ExportFormat format,
@@ -159,7 +174,8 @@ public class SalesServiceImpl implements SalesService {
                 ? pageable.getSort()
                 : Sort.by(Sort.Direction.ASC, "id");
         Specification<Sale> spec = SaleSpecifications.build(request);
-        List<String[]> rows = new ArrayList<>();
+
+        Iterator<String[]> rows;
 
         try {
             if (safeScope == ExportScope.ALL) {
@@ -169,24 +185,18 @@ public class SalesServiceImpl implements SalesService {
                             HttpStatus.BAD_REQUEST,
                             "匯出筆數超過上限 (" + maxExportRows + ")，請縮小篩選條件");
                 }
-                int step = 1000;
-                int pages = (int) ((total + step - 1) / step);
-                for (int p = 0; p < pages; p++) {
-                    Page<Sale> page = repository.findAll(spec, PageRequest.of(p, step, safeSort));
-                    for (Sale sale : page.getContent()) {
-                        rows.add(toSalesExportRow(mapper.toDto(sale)));
-                    }
-                }
+                rows = exportRowPager.seek(repository, Sale.class, spec, safeSort,
+                        sale -> toSalesExportRow(mapper.toDto(sale)));
             } else {
                 Pageable p = pageable == null ? PageRequest.of(0, 25, safeSort) : PageRequest.of(
                         Math.max(pageable.getPageNumber(), 0),
                         pageable.getPageSize() <= 0 || pageable.getPageSize() > 200 ? 25 : pageable.getPageSize(),
                         safeSort
                 );
-                Page<Sale> page = repository.findAll(spec, p);
-                for (Sale sale : page.getContent()) {
-                    rows.add(toSalesExportRow(mapper.toDto(sale)));
-                }
+                rows = repository.findAll(spec, p).getContent().stream()
+                        .map(sale -> toSalesExportRow(mapper.toDto(sale)))
+                        .toList()
+                        .iterator();
             }
         } catch (PropertyReferenceException ex) {
             throw new ResponseStatusException(
@@ -194,13 +204,7 @@ public class SalesServiceImpl implements SalesService {
                     "無效排序欄位：" + ex.getPropertyName());
         }
 
-        byte[] data = switch (safeFormat) {
-            case XLSX -> TabularExporter.toXlsx("銷售", SALES_EXPORT_HEADERS, rows);
-            case CSV -> TabularExporter.toCsvUtf8Bom(SALES_EXPORT_HEADERS, rows);
-        };
-
-        String filename = ExportFilenameUtils.build("sales", safeFormat);
-        return new ExportPayload(data, filename, safeFormat.mediaType());
+        return ExportStreams.tabular("sales", "銷售", safeFormat, SALES_EXPORT_HEADERS, rows);
     }
 
     private static String[] toSalesExportRow(SalesResponseDto s) {
@@ -220,10 +224,11 @@ public class SalesServiceImpl implements SalesService {
     // === 刪除銷售紀錄 ===
     @Override
     public void delete(Long id) {
-        if (!repository.existsById(id)) {
-            throw new EntityNotFoundException("找不到銷售紀錄 ID: " + id);
-        }
-        repository.deleteById(id);
+        Sale sale = repository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("找不到銷售紀錄 ID: " + id));
+        repository.delete(sale);
+        financialRollupService.touch(RollupMetric.SALE, sale.getSaleDate());
+        eventPublisher.publishEvent(new SaleEvent(this, sale, "SALE_DELETED"));
     }
 
     // === 查詢單筆 ===
@@ -0,0 +1,81 @@
+package com.lianhua.erp.service.impl;
+
+import com.lianhua.erp.config.SearchProperties;
+import com.lianhua.erp.dto.suggest.SuggestionDto;
+import com.lianhua.erp.search.SuggestIndex;
+import com.lianhua.erp.search.SuggestType;
+import com.lianhua.erp.security.SecurityUtils;
+import com.lianhua.erp.service.SuggestService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+public class SuggestServiceImpl implements SuggestService {
+
+    private final SuggestIndex suggestIndex;
+    private final SearchProperties searchProperties;
+
+    @Override
+    public List<SuggestionDto> suggest(String prefix, List<String> types, Integer limit) {
+        if (!StringUtils.hasText(prefix)) {
+            return List.of();
+        }
+        if (!suggestIndex.isReady()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "輸入提示準備中，請稍後再試");
+        }
+
+        SearchProperties.Suggest cfg = searchProperties.getSuggest();
+        int requested = limit != null ? limit : cfg.getDefaultLimit();
+        int safeLimit = Math.max(1, Math.min(requested, cfg.getMaxLimit()));
+
+        return suggestIndex.suggest(prefix, resolveTypes(types), safeLimit);
+    }
+
+    /**
+     * 指定的類別須具備對應權限；未指定時取有權限者
+     */
+    private static List<SuggestType> resolveTypes(List<String> rawTypes) {
+        Set<SuggestType> requested = new LinkedHashSet<>();
+        if (rawTypes != null) {
+            for (String raw : rawTypes) {
+                for (String key : raw.split(",")) {
+                    if (key.isBlank()) {
+                        continue;
+                    }
+                    SuggestType type = SuggestType.fromKey(key);
+                    if (type == null) {
+                        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "未知的提示類別：" + key.trim());
+                    }
+                    if (!permitted(type)) {
+                        throw new AccessDeniedException("無權限查詢提示類別：" + type.getKey());
+                    }
+                    requested.add(type);
+                }
+            }
+        }
+        if (!requested.isEmpty()) {
+            return new ArrayList<>(requested);
+        }
+        List<SuggestType> all = new ArrayList<>();
+        for (SuggestType type : SuggestType.values()) {
+            if (permitted(type)) {
+                all.add(type);
+            }
+        }
+        return all;
+    }
+
+    private static boolean permitted(SuggestType type) {
+        return type.getAuthorities().stream().anyMatch(SecurityUtils::hasAuthority);
+    }
+}
@@ -1,16 +1,16 @@
 package com.lianhua.erp.service.impl;
 
 import com.lianhua.erp.domain.Supplier;
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.dto.supplier.SupplierResponseDto;
 import com.lianhua.erp.dto.supplier.SupplierRequestDto;
 import com.lianhua.erp.dto.supplier.SupplierSearchRequest;
 import com.lianhua.erp.mapper.SupplierMapper;
 import com.lianhua.erp.export.ExportDisplayZh;
-import com.lianhua.erp.export.ExportFilenameUtils;
 import com.lianhua.erp.export.ExportFormat;
+import com.lianhua.erp.export.ExportRowPager;
 import com.lianhua.erp.export.ExportScope;
-import com.lianhua.erp.export.TabularExporter;
+import com.lianhua.erp.export.ExportStreams;
 import com.lianhua.erp.repository.SupplierRepository;
 import com.lianhua.erp.repository.PurchaseRepository;
 import com.lianhua.erp.service.SupplierService;
@@ -27,6 +27,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Iterator;
 import java.util.List;
 
 @Service
@@ -37,12 +38,13 @@ public class SupplierServiceImpl implements SupplierService {
     private final SupplierRepository supplierRepository;
     private final SupplierMapper supplierMapper;
     private final PurchaseRepository purchaseRepository;
+    private final ExportRowPager exportRowPager;
 
     private static final String[] SUPPLIER_EXPORT_HEADERS = new String[]{
             "供應商名稱", "聯絡人", "電話", "結帳週期", "狀態", "備註"
     };
 
-    @org.springframework.beans.factory.annotation.Value("${app.export.max-rows:50000}")
+    @org.springframework.beans.factory.annotation.Value("${app.export.max-rows:500000}")
     private int maxExportRows;
 
     @Override
@@ -162,7 +164,7 @@ public class SupplierServiceImpl implements SupplierService {
     // ================================================================
     @Override
     @Transactional(readOnly = true)
-    public ExportPayload exportSuppliers(
+    public StreamingExportPayload exportSuppliers(
             SupplierSearchRequest request,
             Pageable pageable,
             ExportFormat format,
@@ -177,7 +179,8 @@ public class SupplierServiceImpl implements SupplierService {
         Sort safeSort = pageable != null && pageable.getSort().isSorted()
                 ? pageable.getSort()
                 : Sort.by(Sort.Direction.ASC, "id");
-        List<String[]> rows = new java.util.ArrayList<>();
+
+        Iterator<String[]> rows;
 
         try {
             if (safeScope == ExportScope.ALL) {
@@ -187,20 +190,14 @@ public class SupplierServiceImpl implements SupplierService {
                             HttpStatus.BAD_REQUEST,
                             "匯出筆數超過上限 (" + maxExportRows + ")，請縮小篩選條件");
                 }
-                int step = 1000;
-                int pages = (int) ((total + step - 1) / step);
-                for (int p = 0; p < pages; p++) {
-                    Page<Supplier> page = supplierRepository.findAll(spec, PageRequest.of(p, step, safeSort));
-                    for (Supplier supplier : page.getContent()) {
-                        rows.add(toSupplierExportRow(supplierMapper.toDto(supplier)));
-                    }
-                }
+                rows = exportRowPager.seek(supplierRepository, Supplier.class, spec, safeSort,
+                        supplier -> toSupplierExportRow(supplierMapper.toDto(supplier)));
             } else {
                 Pageable p = pageable == null ? PageRequest.of(0, 25, safeSort) : normalizePageable(pageable);
-                Page<Supplier> page = supplierRepository.findAll(spec, p);
-                for (Supplier supplier : page.getContent()) {
-                    rows.add(toSupplierExportRow(supplierMapper.toDto(supplier)));
-                }
+                rows = supplierRepository.findAll(spec, p).getContent().stream()
+                        .map(supplier -> toSupplierExportRow(supplierMapper.toDto(supplier)))
+                        .toList()
+                        .iterator();
             }
         } catch (PropertyReferenceException ex) {
             throw new ResponseStatusException(
@@ -208,13 +205,7 @@ public class SupplierServiceImpl implements SupplierService {
                     "無效排序欄位：" + ex.getPropertyName());
         }
 
-        byte[] data = switch (safeFormat) {
-            case XLSX -> TabularExporter.toXlsx("suppliers", SUPPLIER_EXPORT_HEADERS, rows);
-            case CSV -> TabularExporter.toCsvUtf8Bom(SUPPLIER_EXPORT_HEADERS, rows);
-        };
-
-        String filename = ExportFilenameUtils.build("suppliers", safeFormat);
-        return new ExportPayload(data, filename, safeFormat.mediaType());
+        return ExportStreams.tabular("suppliers", "suppliers", safeFormat, SUPPLIER_EXPORT_HEADERS, rows);
     }
 
     private static String[] toSupplierExportRow(SupplierResponseDto s) {
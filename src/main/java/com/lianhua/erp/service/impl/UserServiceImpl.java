@@ -15,6 +15,7 @@ import com.lianhua.erp.dto.user.UserSearchRequest;
 import com.lianhua.erp.repository.RoleRepository;
 import com.lianhua.erp.repository.UserAuditLogRepository;
 import com.lianhua.erp.repository.UserRepository;
+import com.lianhua.erp.security.PrincipalStateCache;
 import com.lianhua.erp.security.SecurityUtils;
 import com.lianhua.erp.service.OnlineUserStore;
 import com.lianhua.erp.service.RefreshTokenService;
@@ -53,6 +54,7 @@ public class UserServiceImpl implements UserService {
     private final com.lianhua.erp.security.SseSessionService sseSessionService;
     private final OnlineUserStore onlineUserStore;
     private final SimpMessagingTemplate messagingTemplate;
+    private final PrincipalStateCache principalStateCache;
 
     public UserServiceImpl(UserRepository userRepository,
                            RoleRepository roleRepository,
@@ -64,7 +66,8 @@ public class UserServiceImpl implements UserService {
                            RefreshTokenService refreshTokenService,
                            com.lianhua.erp.security.SseSessionService sseSessionService,
                            OnlineUserStore onlineUserStore,
-                           SimpMessagingTemplate messagingTemplate) {
+                           SimpMessagingTemplate messagingTemplate,
+                           PrincipalStateCache principalStateCache) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
@@ -76,6 +79,7 @@ public class UserServiceImpl implements UserService {
         this.sseSessionService = sseSessionService;
         this.onlineUserStore = onlineUserStore;
         this.messagingTemplate = messagingTemplate;
+        this.principalStateCache = principalStateCache;
     }
 
     private static final String ROLE_ADMIN = "ROLE_ADMIN";
@@ -357,6 +361,8 @@ public class UserServiceImpl implements UserService {
         }
 
         User saved = userRepository.save(user);
+        // 帳號、啟用狀態、密碼或角色可能已變更，認證狀態快取需重新載入
+        principalStateCache.invalidate(id);
 
         // 稽核：USER_UPDATE（含變更欄位新舊值；密碼僅記 "reset"）
         Map<String, Object> detailsMap = new LinkedHashMap<>();
@@ -405,6 +411,7 @@ public class UserServiceImpl implements UserService {
 
         String targetUsername = user.getUsername();
         userRepository.delete(user);
+        principalStateCache.invalidate(id);
 
         String details = "{\"targetUsername\":\"" + escapeJson(targetUsername) + "\"}";
         saveAudit(currentUserId != null ? currentUserId : id, id, ACTION_USER_DELETE, details);
@@ -422,6 +429,7 @@ public class UserServiceImpl implements UserService {
         user.setPassword(passwordEncoder.encode(newPassword));
         user.setCredentialsChangedAt(LocalDateTime.now());
         userRepository.save(user);
+        principalStateCache.invalidate(currentUserId);
         saveAudit(currentUserId, currentUserId, ACTION_USER_CHANGE_OWN_PASSWORD, "{\"password\":\"changed\"}");
     }
 
@@ -451,6 +459,7 @@ public class UserServiceImpl implements UserService {
         refreshTokenService.revokeAllForUser(targetUserId);
         user.setCredentialsChangedAt(LocalDateTime.now());
         userRepository.save(user);
+        principalStateCache.invalidate(targetUserId);
 
         // 即時推送 FORCE_LOGOUT 事件給該使用者的所有 SSE 連線
         sseSessionService.sendForceLogout(targetUserId);
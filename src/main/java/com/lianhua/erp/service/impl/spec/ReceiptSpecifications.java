@@ -34,7 +34,8 @@ public class ReceiptSpecifications {
 
             // 1. ✅ 確保關聯資料被載入 (Fetch Join)
             // 注意：fetch 與之後的 join 類型必須一致 (統一使用 LEFT)
-            if (!query.getResultType().equals(Long.class) && !query.getResultType().equals(long.class)) {
+            // 只有查實體時才 fetch；count 與匯出投影（Tuple）不選取 Receipt 本身，fetch 會使查詢失敗
+            if (Receipt.class.equals(query.getResultType())) {
                 root.fetch("order", JoinType.LEFT);
                 // 如果 Receipt 直接關聯 Customer，才開啟下方這行；
                 // 如果 Customer 是在 Order 底下，則不應直接 fetch("customer")
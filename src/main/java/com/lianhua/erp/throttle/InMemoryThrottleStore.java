@@ -0,0 +1,74 @@
+package com.lianhua.erp.throttle;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 單節點記憶體計數（預設）。到期的 key 定期清除，避免無限成長。
+ */
+@Component
+@ConditionalOnProperty(name = "app.security.throttle.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryThrottleStore implements ThrottleStore {
+
+    private record Counter(long count, long expiresAtMillis) {
+    }
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public long increment(String key, Duration window) {
+        long now = System.currentTimeMillis();
+        return counters.compute(key, (k, c) -> c == null || c.expiresAtMillis() <= now
+                ? new Counter(1, now + window.toMillis())
+                : new Counter(c.count() + 1, c.expiresAtMillis())).count();
+    }
+
+    @Override
+    public long incrementNow(String key, Duration window) {
+        return increment(key, window);
+    }
+
+    @Override
+    public long count(String key) {
+        Counter c = counters.get(key);
+        if (c == null) {
+            return 0;
+        }
+        if (c.expiresAtMillis() <= System.currentTimeMillis()) {
+            counters.remove(key, c);
+            return 0;
+        }
+        return c.count();
+    }
+
+    @Override
+    public void reset(String key) {
+        counters.remove(key);
+    }
+
+    @Override
+    public boolean isShared() {
+        return false;
+    }
+
+    @Override
+    public String name() {
+        return "memory";
+    }
+
+    @Override
+    public int size() {
+        return counters.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.throttle.purge-interval:10m}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        counters.values().removeIf(c -> c.expiresAtMillis() <= now);
+    }
+}
@@ -0,0 +1,252 @@
+package com.lianhua.erp.throttle;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 多節點共用計數：MySQL throttle_counters，一個 key 一列，以 INSERT ... ON DUPLICATE KEY UPDATE 原子累加。
+ * 1) increment 只累加本地計數，回傳「上次同步的共用計數 + 本地尚未寫入的計數」，不查資料庫
+ * 2) 每個同步間隔批次寫入各 key 的累加量，再重新讀取本節點追蹤中 key 的共用計數
+ * 3) incrementNow / reset 直接寫入（登入失敗等量少但需立即生效的情境）
+ *
+ * expires_at 以 epoch 毫秒保存，避免各節點時區設定不同；各節點時鐘需大致同步。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.security.throttle.store", havingValue = "jdbc")
+public class JdbcThrottleStore implements ThrottleStore {
+
+    /** 超過此長度的 key 改存「前綴 + SHA-256」，配合 VARCHAR(191) 主鍵 */
+    private static final int MAX_KEY_LENGTH = 191;
+    private static final int KEY_PREFIX_LENGTH = 120;
+    private static final int SELECT_CHUNK = 500;
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO throttle_counters (throttle_key, hit_count, expires_at) VALUES (?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+              hit_count = IF(expires_at <= ?, VALUES(hit_count), hit_count + VALUES(hit_count)),
+              expires_at = IF(expires_at <= ?, VALUES(expires_at), expires_at)
+            """;
+
+    private static final String PURGE_SQL = "DELETE FROM throttle_counters WHERE expires_at <= ? LIMIT ?";
+
+    private static final class Tracked {
+        final LongAdder pending = new LongAdder();
+        volatile long windowMillis;
+        volatile long inFlight;
+        volatile long remoteCount;
+        volatile long remoteExpiresAt;
+        volatile long lastTouchedAt;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, Tracked> tracked = new ConcurrentHashMap<>();
+
+    @Value("${app.security.throttle.max-keys:50000}")
+    private int maxKeys;
+
+    @Value("${app.security.throttle.purge-batch-size:1000}")
+    private int purgeBatchSize;
+
+    public JdbcThrottleStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public long increment(String key, Duration window) {
+        long now = System.currentTimeMillis();
+        Tracked t = track(storageKey(key), window, now);
+        t.pending.increment();
+        return estimate(t, now);
+    }
+
+    @Override
+    public long incrementNow(String key, Duration window) {
+        long now = System.currentTimeMillis();
+        String storageKey = storageKey(key);
+        Tracked t = track(storageKey, window, now);
+        jdbcTemplate.update(UPSERT_SQL, storageKey, 1L, now + window.toMillis(), now, now);
+        load(List.of(storageKey));
+        return estimate(t, now);
+    }
+
+    @Override
+    public long count(String key) {
+        long now = System.currentTimeMillis();
+        String storageKey = storageKey(key);
+        Tracked t = tracked.get(storageKey);
+        if (t == null) {
+            // 本節點未曾見過：直接讀取一次，之後隨同步更新
+            t = track(storageKey, null, now);
+            load(List.of(storageKey));
+        }
+        return estimate(t, now);
+    }
+
+    @Override
+    public void reset(String key) {
+        String storageKey = storageKey(key);
+        tracked.remove(storageKey);
+        jdbcTemplate.update("DELETE FROM throttle_counters WHERE throttle_key = ?", storageKey);
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+
+    @Override
+    public String name() {
+        return "jdbc";
+    }
+
+    @Override
+    public int size() {
+        return tracked.size();
+    }
+
+    /**
+     * 批次寫入本地累加量並重新讀取共用計數；同時移除已到期且無待寫入的 key
+     */
+    @Scheduled(fixedDelayString = "${app.security.throttle.sync-interval:1s}")
+    public void sync() {
+        if (tracked.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<Object[]> batch = new ArrayList<>();
+        List<Tracked> flushed = new ArrayList<>();
+        List<String> keys = new ArrayList<>(tracked.size());
+        for (Map.Entry<String, Tracked> e : tracked.entrySet()) {
+            Tracked t = e.getValue();
+            if (t.pending.sum() > 0 && t.windowMillis > 0) {
+                long delta = t.pending.sumThenReset();
+                t.inFlight = delta;
+                batch.add(new Object[]{e.getKey(), delta, now + t.windowMillis, now, now});
+                flushed.add(t);
+            }
+            if (isIdle(t, now)) {
+                tracked.remove(e.getKey(), t);
+            } else {
+                keys.add(e.getKey());
+            }
+        }
+
+        try {
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+            }
+            load(keys);
+        } catch (Exception ex) {
+            // 寫入失敗：累加量放回本地，下次同步再試
+            for (Tracked t : flushed) {
+                t.pending.add(t.inFlight);
+            }
+            log.warn("⚠️ 限流計數同步失敗（{} 個 key）：{}", batch.size(), ex.getMessage());
+        } finally {
+            for (Tracked t : flushed) {
+                t.inFlight = 0;
+            }
+        }
+
+        if (tracked.size() > Math.max(100, maxKeys)) {
+            log.warn("⚠️ 限流計數追蹤 key 數 {} 超過上限 {}，清除本地快取", tracked.size(), maxKeys);
+            tracked.values().removeIf(t -> t.pending.sum() == 0);
+        }
+    }
+
+    /**
+     * 分批刪除已到期的資料列
+     */
+    @Scheduled(fixedDelayString = "${app.security.throttle.purge-interval:10m}")
+    public void purgeExpired() {
+        int batchSize = Math.max(purgeBatchSize, 1);
+        long now = System.currentTimeMillis();
+        int total = 0;
+        try {
+            while (true) {
+                int deleted = jdbcTemplate.update(PURGE_SQL, now, batchSize);
+                total += deleted;
+                if (deleted < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ 限流計數清理失敗：{}", e.getMessage());
+        }
+        if (total > 0) {
+            log.debug("已清理過期限流計數 {} 筆", total);
+        }
+    }
+
+    private Tracked track(String storageKey, Duration window, long now) {
+        Tracked t = tracked.computeIfAbsent(storageKey, k -> new Tracked());
+        if (window != null) {
+            t.windowMillis = window.toMillis();
+        }
+        t.lastTouchedAt = now;
+        return t;
+    }
+
+    private static long estimate(Tracked t, long now) {
+        long remote = t.remoteExpiresAt > now ? t.remoteCount : 0;
+        return remote + t.inFlight + t.pending.sum();
+    }
+
+    private static boolean isIdle(Tracked t, long now) {
+        long horizon = Math.max(t.windowMillis, t.remoteExpiresAt - t.lastTouchedAt);
+        return t.pending.sum() == 0 && now - t.lastTouchedAt > Math.max(horizon, 60_000L);
+    }
+
+    private void load(List<String> keys) {
+        for (int from = 0; from < keys.size(); from += SELECT_CHUNK) {
+            List<String> chunk = keys.subList(from, Math.min(keys.size(), from + SELECT_CHUNK));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            Map<String, long[]> rows = new HashMap<>();
+            jdbcTemplate.query(
+                    "SELECT throttle_key, hit_count, expires_at FROM throttle_counters WHERE throttle_key IN (" + placeholders + ")",
+                    rs -> {
+                        rows.put(rs.getString(1), new long[]{rs.getLong(2), rs.getLong(3)});
+                    },
+                    chunk.toArray());
+            for (String key : chunk) {
+                Tracked t = tracked.get(key);
+                if (t == null) {
+                    continue;
+                }
+                long[] row = rows.get(key);
+                t.remoteCount = row != null ? row[0] : 0;
+                t.remoteExpiresAt = row != null ? row[1] : 0;
+            }
+        }
+    }
+
+    private static String storageKey(String key) {
+        if (key.length() <= MAX_KEY_LENGTH) {
+            return key;
+        }
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return key.substring(0, KEY_PREFIX_LENGTH) + "#" + HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.lianhua.erp.throttle;
+
+import java.time.Duration;
+
+/**
+ * 限流／登入失敗計數的儲存 SPI。
+ * 每個 key 一個計數器，時間窗自第一次累加起算，到期後下次累加重新從 1 開始。
+ *
+ * 實作：
+ * - memory（預設）：單一節點記憶體，結果精確，但多節點各自計數
+ * - jdbc：MySQL throttle_counters 共用計數；本地先累加、定期批次同步，回傳值為估計值（落後至多一個同步間隔）
+ *
+ * 以 app.security.throttle.store 選擇。
+ */
+public interface ThrottleStore {
+
+    /**
+     * 累加一次並回傳目前時間窗內的計數（可能為批次同步的估計值）
+     */
+    long increment(String key, Duration window);
+
+    /**
+     * 累加一次並立即寫入儲存，回傳寫入後的計數；用於量少但需要立刻在各節點生效的情境（例如登入失敗）
+     */
+    long incrementNow(String key, Duration window);
+
+    /**
+     * 目前時間窗內的計數；不存在或已到期為 0
+     */
+    long count(String key);
+
+    void reset(String key);
+
+    /**
+     * 是否為多節點共用的儲存
+     */
+    boolean isShared();
+
+    String name();
+
+    /**
+     * 本節點目前追蹤的 key 數
+     */
+    int size();
+}
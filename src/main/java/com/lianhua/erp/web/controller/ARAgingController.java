@@ -3,9 +3,12 @@ package com.lianhua.erp.web.controller;
 import com.lianhua.erp.dto.ar.ARAgingFilterDto;
 import com.lianhua.erp.dto.ar.ARAgingOrderDetailDto;
 import com.lianhua.erp.dto.ar.ARAgingSummaryDto;
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.export.ExportFormat;
+import com.lianhua.erp.export.ExportResource;
+import com.lianhua.erp.export.ExportResultCache;
 import com.lianhua.erp.export.ExportScope;
+import com.lianhua.erp.export.ExportStreams;
 import com.lianhua.erp.service.ARAgingService;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -16,13 +19,10 @@ import org.springdoc.core.converters.models.PageableAsQueryParam;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.ContentDisposition;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
@@ -34,6 +34,7 @@ import java.util.Map;
 public class ARAgingController {
 
     private final ARAgingService agingService;
+    private final ExportResultCache exportResultCache;
 
     /**
      * ⭐ AR Aging Summary（分頁 + 搜尋）
@@ -82,28 +83,20 @@ public class ARAgingController {
             "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
             "text/csv; charset=UTF-8"
     })
-    public ResponseEntity<byte[]> exportAgingSummary(
+    public ResponseEntity<StreamingResponseBody> exportAgingSummary(
             @ParameterObject ARAgingFilterDto filter,
             @ParameterObject Pageable pageable,
             @RequestParam(required = false) String format,
             @RequestParam(required = false) String scope
     ) {
         String resolvedScope = (scope == null || scope.isBlank()) ? "all" : scope;
-        ExportPayload payload = agingService.exportAgingSummary(
-                filter,
-                pageable,
-                ExportFormat.fromQueryParam(format),
-                ExportScope.fromQueryParam(resolvedScope)
-        );
-
-        ContentDisposition disposition = ContentDisposition.builder("attachment")
-                .filename(payload.filename(), StandardCharsets.UTF_8)
-                .build();
+        ExportFormat exportFormat = ExportFormat.fromQueryParam(format);
+        ExportScope exportScope = ExportScope.fromQueryParam(resolvedScope);
+        StreamingExportPayload payload = exportResultCache.get(ExportResource.AR_AGING, filter, pageable,
+                exportFormat, exportScope,
+                () -> agingService.exportAgingSummary(filter, pageable, exportFormat, exportScope));
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
-                .contentType(MediaType.parseMediaType(payload.mediaType()))
-                .body(payload.data());
+        return ExportStreams.toResponse(payload);
     }
 
     /**
@@ -5,9 +5,12 @@ import com.lianhua.erp.dto.audit.ActivityAuditLogResponseDto;
 import com.lianhua.erp.dto.audit.ActivityAuditLogSearchRequest;
 import com.lianhua.erp.dto.error.ForbiddenResponse;
 import com.lianhua.erp.dto.error.UnauthorizedResponse;
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.export.ExportFormat;
+import com.lianhua.erp.export.ExportResource;
+import com.lianhua.erp.export.ExportResultCache;
 import com.lianhua.erp.export.ExportScope;
+import com.lianhua.erp.export.ExportStreams;
 import com.lianhua.erp.service.ActivityAuditService;
 import com.lianhua.erp.service.impl.ActivityAuditRetentionService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -23,9 +26,6 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
-import org.springframework.http.ContentDisposition;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -33,8 +33,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-
-import java.nio.charset.StandardCharsets;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * 全系統活動稽核查詢（僅超級管理員）。
@@ -46,6 +45,7 @@ import java.nio.charset.StandardCharsets;
 public class ActivityAuditLogController {
 
     private final ActivityAuditService activityAuditService;
+    private final ExportResultCache exportResultCache;
     private final ActivityAuditRetentionService activityAuditRetentionService;
 
     @GetMapping
@@ -93,26 +93,19 @@ public class ActivityAuditLogController {
             @ApiResponse(responseCode = "403", description = "僅超級管理員", content = @Content(schema = @Schema(implementation = ForbiddenResponse.class)))
     })
     @PreAuthorize("hasRole('SUPER_ADMIN')")
-    public ResponseEntity<byte[]> export(
+    public ResponseEntity<StreamingResponseBody> export(
             @ParameterObject ActivityAuditLogSearchRequest request,
             @ParameterObject Pageable pageable,
             @RequestParam(required = false) String format,
             @RequestParam(required = false) String scope
     ) {
         String resolvedScope = (scope == null || scope.isBlank()) ? "all" : scope;
-        ExportPayload payload = activityAuditService.exportAuditLogs(
-                request,
-                pageable,
-                ExportFormat.fromQueryParam(format),
-                ExportScope.fromQueryParam(resolvedScope)
-        );
-        ContentDisposition disposition = ContentDisposition.builder("attachment")
-                .filename(payload.filename(), StandardCharsets.UTF_8)
-                .build();
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
-                .contentType(MediaType.parseMediaType(payload.mediaType()))
-                .body(payload.data());
+        ExportFormat exportFormat = ExportFormat.fromQueryParam(format);
+        ExportScope exportScope = ExportScope.fromQueryParam(resolvedScope);
+        StreamingExportPayload payload = exportResultCache.get(ExportResource.ACTIVITY_AUDIT_LOGS, request, pageable,
+                exportFormat, exportScope,
+                () -> activityAuditService.exportAuditLogs(request, pageable, exportFormat, exportScope));
+        return ExportStreams.toResponse(payload);
     }
 
     @PostMapping("/maintenance/archive-retention")
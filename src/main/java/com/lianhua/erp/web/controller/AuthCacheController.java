@@ -0,0 +1,58 @@
+package com.lianhua.erp.web.controller;
+
+import com.lianhua.erp.dto.apiResponse.ApiResponseDto;
+import com.lianhua.erp.dto.auth.JwtCacheStatsDto;
+import com.lianhua.erp.dto.auth.PrincipalCacheStatsDto;
+import com.lianhua.erp.dto.error.ForbiddenResponse;
+import com.lianhua.erp.dto.error.UnauthorizedResponse;
+import com.lianhua.erp.security.JwtClaimsCache;
+import com.lianhua.erp.security.PrincipalStateCache;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 認證快取監控（僅超級管理員）。
+ */
+@RestController
+@RequestMapping("/api/admin/auth-cache")
+@RequiredArgsConstructor
+@Tag(name = "認證快取", description = "JWT 驗證快取、使用者認證狀態快取命中率與認證過濾器耗時")
+public class AuthCacheController {
+
+    private final JwtClaimsCache jwtClaimsCache;
+    private final PrincipalStateCache principalStateCache;
+
+    @GetMapping("/jwt")
+    @Operation(summary = "查詢 JWT 驗證快取統計", description = "快取筆數、命中／未命中、淘汰次數、命中率（%），以及認證過濾器平均與最大耗時（微秒）。")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "成功"),
+            @ApiResponse(responseCode = "401", description = "未授權", content = @Content(schema = @Schema(implementation = UnauthorizedResponse.class))),
+            @ApiResponse(responseCode = "403", description = "僅超級管理員", content = @Content(schema = @Schema(implementation = ForbiddenResponse.class)))
+    })
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<ApiResponseDto<JwtCacheStatsDto>> jwt() {
+        return ResponseEntity.ok(ApiResponseDto.ok(jwtClaimsCache.stats()));
+    }
+
+    @GetMapping("/principal")
+    @Operation(summary = "查詢使用者認證狀態快取統計", description = "快取筆數、存活時間、命中／未命中、失效次數與命中率（%）；未命中才會查詢資料庫。")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "成功"),
+            @ApiResponse(responseCode = "401", description = "未授權", content = @Content(schema = @Schema(implementation = UnauthorizedResponse.class))),
+            @ApiResponse(responseCode = "403", description = "僅超級管理員", content = @Content(schema = @Schema(implementation = ForbiddenResponse.class)))
+    })
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<ApiResponseDto<PrincipalCacheStatsDto>> principal() {
+        return ResponseEntity.ok(ApiResponseDto.ok(principalStateCache.stats()));
+    }
+}
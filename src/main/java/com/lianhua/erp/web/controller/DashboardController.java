@@ -3,8 +3,11 @@ package com.lianhua.erp.web.controller;
 import com.lianhua.erp.dto.apiResponse.ApiResponseDto;
 import com.lianhua.erp.dto.dashboard.*;
 import com.lianhua.erp.dto.dashboard.analytics.*;
+import com.lianhua.erp.dto.dashboard.bundle.DashboardBundleDto;
+import com.lianhua.erp.dto.dashboard.bundle.DashboardBundleRequest;
 import com.lianhua.erp.dto.error.BadRequestResponse;
 import com.lianhua.erp.dto.error.InternalServerErrorResponse;
+import com.lianhua.erp.service.DashboardBundleService;
 import com.lianhua.erp.service.DashboardService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -15,6 +18,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -31,6 +35,33 @@ import java.util.List;
 public class DashboardController {
 
     private final DashboardService service;
+    private final DashboardBundleService bundleService;
+
+    /* =========================================================
+     * 0. 組合查詢 (首頁載入一次取得多個圖表)
+     * ========================================================= */
+
+    @GetMapping("/bundle")
+    @Operation(
+            summary = "組合查詢多個儀表板圖表",
+            description = """
+                    以 widgets 指定圖表代碼（可重複帶或以逗號分隔），伺服器端平行計算後一次回傳。
+                    可用代碼：stats、trends、expense-composition、tasks、accounts-aging、profit-loss-trend、
+                    order-funnel、break-even、liquidity、cashflow-forecast、product-pareto、
+                    supplier-concentration、customer-retention、purchase-structure、customer-concentration。
+                    每個圖表各自回報 status（OK / ERROR / TIMEOUT）、耗時與錯誤訊息，單一圖表失敗或逾時不影響其他圖表。
+                    """
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "成功（個別圖表狀態見 widgets.*.status）", content = @Content(schema = @Schema(implementation = DashboardBundleDto.class))),
+            @ApiResponse(responseCode = "400", description = "未指定或未知的圖表代碼", content = @Content(schema = @Schema(implementation = BadRequestResponse.class))),
+            @ApiResponse(responseCode = "500", description = "伺服器內部錯誤", content = @Content(schema = @Schema(implementation = InternalServerErrorResponse.class)))
+    })
+    public ResponseEntity<ApiResponseDto<DashboardBundleDto>> getBundle(
+            @ParameterObject DashboardBundleRequest request
+    ) {
+        return ResponseEntity.ok(ApiResponseDto.ok(bundleService.getBundle(request)));
+    }
 
     /* =========================================================
      * 1~4. 基礎監控 API
@@ -100,14 +131,15 @@ public class DashboardController {
     }
 
     @GetMapping("/analytics/profit-loss-trend")
-    @Operation(summary = "獲取損益四線走勢", description = "跨期間對比營收、毛利、費用與淨利變化趨勢。")
+    @Operation(summary = "獲取損益四線走勢", description = "跨期間對比營收、毛利、費用與淨利變化趨勢；讀取月損益彙總，可回溯 1 ~ 120 個月。")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "成功取得損益趨勢", content = @Content(array = @ArraySchema(schema = @Schema(implementation = ProfitLossPointDto.class)))),
+            @ApiResponse(responseCode = "400", description = "回溯月數超出範圍"),
             @ApiResponse(responseCode = "500", description = "伺服器錯誤")
     })
 
     public ResponseEntity<ApiResponseDto<List<ProfitLossPointDto>>> getProfitLossTrend(
-            @Parameter(description = "回溯月數", example = "6") @RequestParam(defaultValue = "6") int months
+            @Parameter(description = "回溯月數（1 ~ 120）", example = "6") @RequestParam(defaultValue = "6") int months
     ) {
         return ResponseEntity.ok(ApiResponseDto.ok(service.getProfitLossTrend(months)));
     }
@@ -3,9 +3,12 @@ package com.lianhua.erp.web.controller;
 import com.lianhua.erp.dto.apiResponse.ApiResponseDto;
 import com.lianhua.erp.dto.employee.*;
 import com.lianhua.erp.dto.error.*;
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.export.ExportFormat;
+import com.lianhua.erp.export.ExportResource;
+import com.lianhua.erp.export.ExportResultCache;
 import com.lianhua.erp.export.ExportScope;
+import com.lianhua.erp.export.ExportStreams;
 import com.lianhua.erp.service.EmployeeService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -22,8 +25,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.*;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -33,6 +36,7 @@ import java.util.List;
 public class EmployeeController {
     
     private final EmployeeService service;
+    private final ExportResultCache exportResultCache;
     
     // ================================
     // 查詢全部員工（分頁）
@@ -76,28 +80,20 @@ public class EmployeeController {
             "text/csv; charset=UTF-8"
     })
     @PreAuthorize("hasAuthority('employee:view')")
-    public ResponseEntity<byte[]> exportEmployees(
+    public ResponseEntity<StreamingResponseBody> exportEmployees(
             @ParameterObject EmployeeSearchRequest request,
             @ParameterObject Pageable pageable,
             @RequestParam(required = false) String format,
             @RequestParam(required = false) String scope
     ) {
         String resolvedScope = (scope == null || scope.isBlank()) ? "all" : scope;
-        ExportPayload payload = service.exportEmployees(
-                request,
-                pageable,
-                ExportFormat.fromQueryParam(format),
-                ExportScope.fromQueryParam(resolvedScope)
-        );
+        ExportFormat exportFormat = ExportFormat.fromQueryParam(format);
+        ExportScope exportScope = ExportScope.fromQueryParam(resolvedScope);
+        StreamingExportPayload payload = exportResultCache.get(ExportResource.EMPLOYEES, request, pageable,
+                exportFormat, exportScope,
+                () -> service.exportEmployees(request, pageable, exportFormat, exportScope));
 
-        ContentDisposition disposition = ContentDisposition.builder("attachment")
-                .filename(payload.filename(), StandardCharsets.UTF_8)
-                .build();
-
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
-                .contentType(MediaType.parseMediaType(payload.mediaType()))
-                .body(payload.data());
+        return ExportStreams.toResponse(payload);
     }
     
     // ================================
@@ -2,12 +2,15 @@ package com.lianhua.erp.web.controller;
 
 import com.lianhua.erp.dto.apiResponse.ApiResponseDto;
 import com.lianhua.erp.dto.error.*;
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.dto.expense.ExpenseDto;
 import com.lianhua.erp.dto.expense.ExpenseRequestDto;
 import com.lianhua.erp.dto.expense.ExpenseSearchRequest;
 import com.lianhua.erp.export.ExportFormat;
+import com.lianhua.erp.export.ExportResource;
+import com.lianhua.erp.export.ExportResultCache;
 import com.lianhua.erp.export.ExportScope;
+import com.lianhua.erp.export.ExportStreams;
 import com.lianhua.erp.service.ExpenseService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -21,15 +24,12 @@ import org.springdoc.core.annotations.ParameterObject;
 import org.springdoc.core.converters.models.PageableAsQueryParam;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.http.ContentDisposition;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.nio.charset.StandardCharsets;
 
 @RestController
 @RequestMapping("/api/expenses")
@@ -38,6 +38,7 @@ import java.nio.charset.StandardCharsets;
 public class ExpenseController {
     
     private final ExpenseService service;
+    private final ExportResultCache exportResultCache;
     
     // ================================
     // 查詢所有支出（分頁）
@@ -79,28 +80,20 @@ public class ExpenseController {
             "text/csv; charset=UTF-8"
     })
     @PreAuthorize("hasAuthority('expense:view')")
-    public ResponseEntity<byte[]> exportExpenses(
+    public ResponseEntity<StreamingResponseBody> exportExpenses(
             @ParameterObject ExpenseSearchRequest req,
             @ParameterObject Pageable pageable,
             @RequestParam(required = false) String format,
             @RequestParam(required = false) String scope
     ) {
         String resolvedScope = (scope == null || scope.isBlank()) ? "all" : scope;
-        ExportPayload payload = service.exportExpenses(
-                req,
-                pageable,
-                ExportFormat.fromQueryParam(format),
-                ExportScope.fromQueryParam(resolvedScope)
-        );
-
-        ContentDisposition disposition = ContentDisposition.builder("attachment")
-                .filename(payload.filename(), StandardCharsets.UTF_8)
-                .build();
+        ExportFormat exportFormat = ExportFormat.fromQueryParam(format);
+        ExportScope exportScope = ExportScope.fromQueryParam(resolvedScope);
+        StreamingExportPayload payload = exportResultCache.get(ExportResource.EXPENSES, req, pageable,
+                exportFormat, exportScope,
+                () -> service.exportExpenses(req, pageable, exportFormat, exportScope));
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
-                .contentType(MediaType.parseMediaType(payload.mediaType()))
-                .body(payload.data());
+        return ExportStreams.toResponse(payload);
     }
     
     // ================================
@@ -0,0 +1,121 @@
+package com.lianhua.erp.web.controller;
+
+import com.lianhua.erp.dto.apiResponse.ApiResponseDto;
+import com.lianhua.erp.dto.error.BadRequestResponse;
+import com.lianhua.erp.dto.error.ConflictResponse;
+import com.lianhua.erp.dto.error.ForbiddenResponse;
+import com.lianhua.erp.dto.error.NotFoundResponse;
+import com.lianhua.erp.dto.error.UnauthorizedResponse;
+import com.lianhua.erp.dto.export.ExportJobDto;
+import com.lianhua.erp.dto.export.ExportJobFile;
+import com.lianhua.erp.dto.export.ExportJobRequest;
+import com.lianhua.erp.security.SecurityUtils;
+import com.lianhua.erp.service.ExportJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 背景匯出工作：建立後立即回應，進度與完成經由 /api/session/stream 的 SSE 事件
+ * （EXPORT_PROGRESS / EXPORT_COMPLETED / EXPORT_FAILED）通知，完成後再下載檔案。
+ */
+@RestController
+@RequestMapping("/api/exports")
+@RequiredArgsConstructor
+@PreAuthorize("isAuthenticated()")
+@Tag(name = "背景匯出", description = "大量資料匯出工作的建立、進度查詢與下載")
+public class ExportJobController {
+
+    private final ExportJobService exportJobService;
+
+    @PostMapping
+    @Operation(summary = "建立匯出工作",
+            description = "篩選條件與各列表 /export 端點相同；權限亦相同。每位使用者與全系統同時進行的工作數有上限。")
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "已排入"),
+            @ApiResponse(responseCode = "400", description = "參數錯誤", content = @Content(schema = @Schema(implementation = BadRequestResponse.class))),
+            @ApiResponse(responseCode = "401", description = "未授權", content = @Content(schema = @Schema(implementation = UnauthorizedResponse.class))),
+            @ApiResponse(responseCode = "403", description = "無該資源匯出權限", content = @Content(schema = @Schema(implementation = ForbiddenResponse.class))),
+            @ApiResponse(responseCode = "429", description = "進行中的工作已達上限")
+    })
+    public ResponseEntity<ApiResponseDto<ExportJobDto>> submit(@RequestBody ExportJobRequest request) {
+        ExportJobDto job = exportJobService.submit(currentUserId(), request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponseDto.ok(job));
+    }
+
+    @GetMapping
+    @Operation(summary = "我的匯出工作", description = "依建立時間新到舊；已結束的工作保留一段時間後自動清除。")
+    public ResponseEntity<ApiResponseDto<List<ExportJobDto>>> list() {
+        return ResponseEntity.ok(ApiResponseDto.ok(exportJobService.listJobs(currentUserId())));
+    }
+
+    @GetMapping("/{jobId}")
+    @Operation(summary = "查詢匯出工作狀態")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "成功"),
+            @ApiResponse(responseCode = "404", description = "查無工作", content = @Content(schema = @Schema(implementation = NotFoundResponse.class)))
+    })
+    public ResponseEntity<ApiResponseDto<ExportJobDto>> get(@PathVariable String jobId) {
+        return ResponseEntity.ok(ApiResponseDto.ok(exportJobService.getJob(currentUserId(), jobId)));
+    }
+
+    @GetMapping("/{jobId}/download")
+    @Operation(summary = "下載匯出檔", description = "支援 Range 請求（206），可續傳。")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "成功"),
+            @ApiResponse(responseCode = "206", description = "部分內容（Range）"),
+            @ApiResponse(responseCode = "404", description = "查無工作", content = @Content(schema = @Schema(implementation = NotFoundResponse.class))),
+            @ApiResponse(responseCode = "409", description = "工作尚未完成", content = @Content(schema = @Schema(implementation = ConflictResponse.class))),
+            @ApiResponse(responseCode = "410", description = "檔案已清除")
+    })
+    public ResponseEntity<Resource> download(@PathVariable String jobId) {
+        ExportJobFile file = exportJobService.getResult(currentUserId(), jobId);
+        ContentDisposition disposition = ContentDisposition.builder("attachment")
+                .filename(file.filename(), StandardCharsets.UTF_8)
+                .build();
+
+        // Resource 回應由 Spring MVC 處理 Range / If-Range，並回覆 Accept-Ranges
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .contentType(MediaType.parseMediaType(file.mediaType()))
+                .body(new FileSystemResource(file.path()));
+    }
+
+    @DeleteMapping("/{jobId}")
+    @Operation(summary = "刪除匯出工作", description = "刪除工作與檔案；執行中的工作會被中止。")
+    public ResponseEntity<ApiResponseDto<Void>> delete(@PathVariable String jobId) {
+        exportJobService.delete(currentUserId(), jobId);
+        return ResponseEntity.ok(ApiResponseDto.deleted());
+    }
+
+    private static Long currentUserId() {
+        Long userId = SecurityUtils.getCurrentUserIdOrNull();
+        if (userId == null || userId <= 0L) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "請先登入");
+        }
+        return userId;
+    }
+}
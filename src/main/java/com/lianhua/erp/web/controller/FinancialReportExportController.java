@@ -20,6 +20,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * 五大財務報表統一匯出（與各報表 GET 使用相同查詢條件語意）。
@@ -27,7 +30,7 @@ import java.nio.charset.StandardCharsets;
 @RestController
 @RequestMapping("/api/reports")
 @RequiredArgsConstructor
-@Tag(name = "財務報表匯出", description = "GET /api/reports/{reportKey}/export — xlsx / csv")
+@Tag(name = "財務報表匯出", description = "GET /api/reports/{reportKey}/export — xlsx / csv；GET /api/reports/pack/export — 多報表組合")
 public class FinancialReportExportController {
 
     private final FinancialReportExportService financialReportExportService;
@@ -77,6 +80,58 @@ public class FinancialReportExportController {
                 columns
         );
 
+        return attachment(payload);
+    }
+
+    @Operation(
+            summary = "組合匯出多張財務報表",
+            description = """
+                    一次匯出多張報表（例如月結所需的全部報表），各報表平行產生。
+
+                    - reports：逗號分隔的 reportKey，順序即工作表順序；未指定時為全部五張
+                    - format：xlsx（預設，一報表一工作表）或 csv（每報表一個 CSV，打包為 zip）
+                    - 其餘查詢參數（period、periods、endDate、startDate）套用到每一張報表
+                    - 各報表一律匯出完整結果與全部欄位
+
+                    權限：須具備所選每一張報表的匯出權限。任一報表失敗或逾時即整份失敗。
+                    """
+    )
+    @GetMapping(value = "/pack/export", produces = {
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
+            "application/zip"
+    })
+    public ResponseEntity<byte[]> exportPack(
+            @RequestParam(required = false) String reports,
+            @ParameterObject ReportExportQueryDto query,
+            @RequestParam(required = false) String periods,
+            @RequestParam(required = false) String format
+    ) {
+        List<FinancialReportKey> keys = parseReportKeys(reports);
+        keys.forEach(reportExportAuthorization::requirePermission);
+
+        ExportPayload payload = financialReportExportService.exportPack(
+                keys,
+                query,
+                periods,
+                ExportFormat.fromQueryParam(format)
+        );
+        return attachment(payload);
+    }
+
+    private static List<FinancialReportKey> parseReportKeys(String reports) {
+        if (reports == null || reports.isBlank()) {
+            return Arrays.asList(FinancialReportKey.values());
+        }
+        List<FinancialReportKey> keys = new ArrayList<>();
+        for (String raw : reports.split(",")) {
+            if (!raw.isBlank()) {
+                keys.add(FinancialReportKey.fromPath(raw));
+            }
+        }
+        return keys;
+    }
+
+    private static ResponseEntity<byte[]> attachment(ExportPayload payload) {
         ContentDisposition disposition = ContentDisposition.builder("attachment")
                 .filename(payload.filename(), StandardCharsets.UTF_8)
                 .build();
@@ -0,0 +1,90 @@
+package com.lianhua.erp.web.controller;
+
+import com.lianhua.erp.dto.apiResponse.ApiResponseDto;
+import com.lianhua.erp.dto.error.ForbiddenResponse;
+import com.lianhua.erp.dto.error.UnauthorizedResponse;
+import com.lianhua.erp.dto.rollup.RollupDriftDto;
+import com.lianhua.erp.service.FinancialRollupService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 財務日彙總維護（僅超級管理員）。
+ */
+@RestController
+@RequestMapping("/api/admin/financial-rollups")
+@RequiredArgsConstructor
+@Tag(name = "財務日彙總維護", description = "儀表板與損益報表所讀取之日彙總表的重建與偏差檢測")
+public class FinancialRollupController {
+
+    private final FinancialRollupService financialRollupService;
+
+    @PostMapping("/rebuild")
+    @Operation(
+            summary = "自原始單據重建日彙總",
+            description = "重建 from ~ to（含）區間的所有指標彙總，並重算涉及會計期間的月損益；未指定時重建全部資料。回傳寫入的日彙總列數。"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "成功（回傳彙總列數）"),
+            @ApiResponse(responseCode = "400", description = "日期區間錯誤"),
+            @ApiResponse(responseCode = "401", description = "未授權", content = @Content(schema = @Schema(implementation = UnauthorizedResponse.class))),
+            @ApiResponse(responseCode = "403", description = "僅超級管理員", content = @Content(schema = @Schema(implementation = ForbiddenResponse.class)))
+    })
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<ApiResponseDto<Integer>> rebuild(
+            @Parameter(description = "起始日期（含）", example = "2026-01-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "結束日期（含）", example = "2026-01-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        validateRange(from, to);
+        return ResponseEntity.ok(ApiResponseDto.ok(financialRollupService.rebuild(from, to)));
+    }
+
+    @GetMapping("/verify")
+    @Operation(
+            summary = "檢查日彙總與原始單據是否一致",
+            description = "比對 from ~ to（含）區間，回傳金額或筆數不一致的彙總鍵；空陣列表示一致。"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "成功"),
+            @ApiResponse(responseCode = "400", description = "日期區間錯誤"),
+            @ApiResponse(responseCode = "401", description = "未授權", content = @Content(schema = @Schema(implementation = UnauthorizedResponse.class))),
+            @ApiResponse(responseCode = "403", description = "僅超級管理員", content = @Content(schema = @Schema(implementation = ForbiddenResponse.class)))
+    })
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<ApiResponseDto<List<RollupDriftDto>>> verify(
+            @Parameter(description = "起始日期（含）", example = "2026-01-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "結束日期（含）", example = "2026-01-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        validateRange(from, to);
+        return ResponseEntity.ok(ApiResponseDto.ok(financialRollupService.verify(from, to)));
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "起始日期不可晚於結束日期");
+        }
+    }
+}
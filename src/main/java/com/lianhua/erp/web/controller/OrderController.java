@@ -2,10 +2,13 @@ package com.lianhua.erp.web.controller;
 
 import com.lianhua.erp.dto.apiResponse.ApiResponseDto;
 import com.lianhua.erp.dto.error.*;
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.dto.order.*;
 import com.lianhua.erp.export.ExportFormat;
+import com.lianhua.erp.export.ExportResource;
+import com.lianhua.erp.export.ExportResultCache;
 import com.lianhua.erp.export.ExportScope;
+import com.lianhua.erp.export.ExportStreams;
 import com.lianhua.erp.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -20,17 +23,14 @@ import org.springdoc.core.converters.models.PageableAsQueryParam;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.http.ContentDisposition;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 
-import java.nio.charset.StandardCharsets;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -39,6 +39,7 @@ import java.nio.charset.StandardCharsets;
 public class OrderController {
 
     private final OrderService service;
+    private final ExportResultCache exportResultCache;
 
     // ============================================================
     // ★ 純取得訂單（分頁，但不做模糊搜尋）
@@ -115,27 +116,20 @@ public class OrderController {
             "text/csv; charset=UTF-8"
     })
     @PreAuthorize("hasAuthority('order:view')")
-    public ResponseEntity<byte[]> exportOrders(
+    public ResponseEntity<StreamingResponseBody> exportOrders(
             @ParameterObject OrderSearchRequest searchRequest,
             @ParameterObject Pageable pageable,
             @RequestParam(required = false) String format,
             @RequestParam(required = false) String scope
     ) {
         String resolvedScope = (scope == null || scope.isBlank()) ? "all" : scope;
-        ExportPayload payload = service.exportOrders(
-                searchRequest,
-                pageable,
-                ExportFormat.fromQueryParam(format),
-                ExportScope.fromQueryParam(resolvedScope));
+        ExportFormat exportFormat = ExportFormat.fromQueryParam(format);
+        ExportScope exportScope = ExportScope.fromQueryParam(resolvedScope);
+        StreamingExportPayload payload = exportResultCache.get(ExportResource.ORDERS, searchRequest, pageable,
+                exportFormat, exportScope,
+                () -> service.exportOrders(searchRequest, pageable, exportFormat, exportScope));
 
-        ContentDisposition disposition = ContentDisposition.builder("attachment")
-                .filename(payload.filename(), StandardCharsets.UTF_8)
-                .build();
-
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
-                .contentType(MediaType.parseMediaType(payload.mediaType()))
-                .body(payload.data());
+        return ExportStreams.toResponse(payload);
     }
 
     // ============================================================
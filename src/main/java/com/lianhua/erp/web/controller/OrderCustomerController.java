@@ -2,11 +2,14 @@ package com.lianhua.erp.web.controller;
 
 import com.lianhua.erp.dto.apiResponse.ApiResponseDto;
 import com.lianhua.erp.dto.error.*;
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.dto.orderCustomer.OrderCustomerRequestDto;
 import com.lianhua.erp.dto.orderCustomer.OrderCustomerResponseDto;
 import com.lianhua.erp.export.ExportFormat;
+import com.lianhua.erp.export.ExportResource;
+import com.lianhua.erp.export.ExportResultCache;
 import com.lianhua.erp.export.ExportScope;
+import com.lianhua.erp.export.ExportStreams;
 import com.lianhua.erp.service.OrderCustomerService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -24,15 +27,11 @@ import org.springdoc.core.converters.models.PageableAsQueryParam;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.http.ContentDisposition;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-
-import java.nio.charset.StandardCharsets;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * 訂單客戶管理 API
@@ -44,6 +43,7 @@ import java.nio.charset.StandardCharsets;
 public class OrderCustomerController {
 
     private final OrderCustomerService service;
+    private final ExportResultCache exportResultCache;
 
     // ============================================================
     //  分頁取得所有訂單客戶（比照 SalesController）
@@ -243,27 +243,19 @@ public class OrderCustomerController {
             "text/csv; charset=UTF-8"
     })
     @PreAuthorize("hasAuthority('order_customer:view')")
-    public ResponseEntity<byte[]> exportCustomers(
+    public ResponseEntity<StreamingResponseBody> exportCustomers(
             @ParameterObject @ModelAttribute OrderCustomerRequestDto request,
             @ParameterObject Pageable pageable,
             @RequestParam(required = false) String format,
             @RequestParam(required = false) String scope
     ) {
         String resolvedScope = (scope == null || scope.isBlank()) ? "all" : scope;
-        ExportPayload payload = service.exportCustomers(
-                request,
-                pageable,
-                ExportFormat.fromQueryParam(format),
-                ExportScope.fromQueryParam(resolvedScope)
-        );
-
-        ContentDisposition disposition = ContentDisposition.builder("attachment")
-                .filename(payload.filename(), StandardCharsets.UTF_8)
-                .build();
+        ExportFormat exportFormat = ExportFormat.fromQueryParam(format);
+        ExportScope exportScope = ExportScope.fromQueryParam(resolvedScope);
+        StreamingExportPayload payload = exportResultCache.get(ExportResource.CUSTOMERS, request, pageable,
+                exportFormat, exportScope,
+                () -> service.exportCustomers(request, pageable, exportFormat, exportScope));
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
-                .contentType(MediaType.parseMediaType(payload.mediaType()))
-                .body(payload.data());
+        return ExportStreams.toResponse(payload);
     }
 }
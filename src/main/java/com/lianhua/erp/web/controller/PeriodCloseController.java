@@ -0,0 +1,61 @@
+package com.lianhua.erp.web.controller;
+
+import com.lianhua.erp.dto.apiResponse.ApiResponseDto;
+import com.lianhua.erp.dto.error.ForbiddenResponse;
+import com.lianhua.erp.dto.error.UnauthorizedResponse;
+import com.lianhua.erp.dto.report.BalanceSheetClosingDto;
+import com.lianhua.erp.service.PeriodCloseService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 會計期間結帳（資產負債表期末快照）維護（僅超級管理員）。
+ */
+@RestController
+@RequestMapping("/api/admin/period-closes")
+@RequiredArgsConstructor
+@Tag(name = "會計期間結帳", description = "資產負債表期末餘額快照的查詢與手動結帳")
+public class PeriodCloseController {
+
+    private final PeriodCloseService periodCloseService;
+
+    @GetMapping
+    @Operation(summary = "查詢結帳快照", description = "依期間排序列出所有已結帳期間的期末應收、應付與現金。")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "成功"),
+            @ApiResponse(responseCode = "401", description = "未授權", content = @Content(schema = @Schema(implementation = UnauthorizedResponse.class))),
+            @ApiResponse(responseCode = "403", description = "僅超級管理員", content = @Content(schema = @Schema(implementation = ForbiddenResponse.class)))
+    })
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<ApiResponseDto<List<BalanceSheetClosingDto>>> list() {
+        return ResponseEntity.ok(ApiResponseDto.ok(periodCloseService.listClosings()));
+    }
+
+    @PostMapping("/run")
+    @Operation(
+            summary = "立即結帳至上個月",
+            description = "自最近一次結帳的下一期間起依序結帳至上個月（含被重新開啟的期間）。回傳本次結帳的期間數。"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "成功（回傳結帳期間數）"),
+            @ApiResponse(responseCode = "401", description = "未授權", content = @Content(schema = @Schema(implementation = UnauthorizedResponse.class))),
+            @ApiResponse(responseCode = "403", description = "僅超級管理員", content = @Content(schema = @Schema(implementation = ForbiddenResponse.class)))
+    })
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<ApiResponseDto<Integer>> run() {
+        return ResponseEntity.ok(ApiResponseDto.ok(periodCloseService.closeThroughLastMonth()));
+    }
+}
@@ -0,0 +1,43 @@
+package com.lianhua.erp.web.controller;
+
+import com.lianhua.erp.dto.apiResponse.ApiResponseDto;
+import com.lianhua.erp.dto.error.ForbiddenResponse;
+import com.lianhua.erp.dto.error.UnauthorizedResponse;
+import com.lianhua.erp.dto.ratelimit.RateLimitStatsDto;
+import com.lianhua.erp.security.ApiRateLimiter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * API 限流監控（僅超級管理員）。
+ */
+@RestController
+@RequestMapping("/api/admin/rate-limit")
+@RequiredArgsConstructor
+@Tag(name = "API 限流", description = "限流規則、放行／拒絕次數與追蹤中的 key 數")
+public class RateLimitController {
+
+    private final ApiRateLimiter apiRateLimiter;
+
+    @GetMapping
+    @Operation(summary = "查詢 API 限流統計", description = "各規則的容量、時間窗、放行與拒絕次數，以及追蹤中的 key 數與淘汰次數。")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "成功"),
+            @ApiResponse(responseCode = "401", description = "未授權", content = @Content(schema = @Schema(implementation = UnauthorizedResponse.class))),
+            @ApiResponse(responseCode = "403", description = "僅超級管理員", content = @Content(schema = @Schema(implementation = ForbiddenResponse.class)))
+    })
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<ApiResponseDto<RateLimitStatsDto>> stats() {
+        return ResponseEntity.ok(ApiResponseDto.ok(apiRateLimiter.stats()));
+    }
+}
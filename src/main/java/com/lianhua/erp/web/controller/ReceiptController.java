@@ -1,14 +1,17 @@
 package com.lianhua.erp.web.controller;
 
 import com.lianhua.erp.dto.apiResponse.ApiResponseDto;
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.dto.error.BadRequestResponse;
 import com.lianhua.erp.dto.error.ConflictResponse;
 import com.lianhua.erp.dto.error.InternalServerErrorResponse;
 import com.lianhua.erp.dto.error.NotFoundResponse;
 import com.lianhua.erp.dto.receipt.*;
 import com.lianhua.erp.export.ExportFormat;
+import com.lianhua.erp.export.ExportResource;
+import com.lianhua.erp.export.ExportResultCache;
 import com.lianhua.erp.export.ExportScope;
+import com.lianhua.erp.export.ExportStreams;
 import com.lianhua.erp.service.ReceiptService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.*;
@@ -23,8 +26,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.*;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -34,6 +37,7 @@ import java.util.List;
 public class ReceiptController {
     
     private final ReceiptService service;
+    private final ExportResultCache exportResultCache;
     
     // ------------------------------------------------------
     // 1️⃣ 建立收款記錄（自動帶入訂單金額）
@@ -244,27 +248,19 @@ public class ReceiptController {
             "text/csv; charset=UTF-8"
     })
     @PreAuthorize("hasAuthority('receipt:view')")
-    public ResponseEntity<byte[]> exportReceipts(
+    public ResponseEntity<StreamingResponseBody> exportReceipts(
             @ParameterObject ReceiptSearchRequest req,
             @ParameterObject Pageable pageable,
             @RequestParam(required = false) String format,
             @RequestParam(required = false) String scope
     ) {
         String resolvedScope = (scope == null || scope.isBlank()) ? "all" : scope;
-        ExportPayload payload = service.exportReceipts(
-                req,
-                pageable,
-                ExportFormat.fromQueryParam(format),
-                ExportScope.fromQueryParam(resolvedScope)
-        );
+        ExportFormat exportFormat = ExportFormat.fromQueryParam(format);
+        ExportScope exportScope = ExportScope.fromQueryParam(resolvedScope);
+        StreamingExportPayload payload = exportResultCache.get(ExportResource.RECEIPTS, req, pageable,
+                exportFormat, exportScope,
+                () -> service.exportReceipts(req, pageable, exportFormat, exportScope));
 
-        ContentDisposition disposition = ContentDisposition.builder("attachment")
-                .filename(payload.filename(), StandardCharsets.UTF_8)
-                .build();
-
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
-                .contentType(MediaType.parseMediaType(payload.mediaType()))
-                .body(payload.data());
+        return ExportStreams.toResponse(payload);
     }
 }
@@ -0,0 +1,57 @@
+package com.lianhua.erp.web.controller;
+
+import com.lianhua.erp.dto.apiResponse.ApiResponseDto;
+import com.lianhua.erp.dto.error.ForbiddenResponse;
+import com.lianhua.erp.dto.error.UnauthorizedResponse;
+import com.lianhua.erp.dto.report.ReportCacheStatsDto;
+import com.lianhua.erp.report.ReportResultCache;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 財務報表結果快取維護（僅超級管理員）。
+ */
+@RestController
+@RequestMapping("/api/admin/report-cache")
+@RequiredArgsConstructor
+@Tag(name = "報表快取", description = "財務報表結果快取的統計與清除")
+public class ReportCacheController {
+
+    private final ReportResultCache reportResultCache;
+
+    @GetMapping
+    @Operation(summary = "查詢快取統計", description = "目前項目數、命中／未命中次數、淘汰與失效次數及命中率（%）。")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "成功"),
+            @ApiResponse(responseCode = "401", description = "未授權", content = @Content(schema = @Schema(implementation = UnauthorizedResponse.class))),
+            @ApiResponse(responseCode = "403", description = "僅超級管理員", content = @Content(schema = @Schema(implementation = ForbiddenResponse.class)))
+    })
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<ApiResponseDto<ReportCacheStatsDto>> stats() {
+        return ResponseEntity.ok(ApiResponseDto.ok(reportResultCache.stats()));
+    }
+
+    @DeleteMapping
+    @Operation(summary = "清除全部快取", description = "直接修改資料庫後可手動清除，下次查詢將重新計算。")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "成功"),
+            @ApiResponse(responseCode = "401", description = "未授權", content = @Content(schema = @Schema(implementation = UnauthorizedResponse.class))),
+            @ApiResponse(responseCode = "403", description = "僅超級管理員", content = @Content(schema = @Schema(implementation = ForbiddenResponse.class)))
+    })
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<ApiResponseDto<Void>> clear() {
+        reportResultCache.invalidateAll();
+        return ResponseEntity.ok(ApiResponseDto.ok(null));
+    }
+}
@@ -2,10 +2,13 @@ package com.lianhua.erp.web.controller;
 
 import com.lianhua.erp.dto.apiResponse.ApiResponseDto;
 import com.lianhua.erp.dto.error.*;
-import com.lianhua.erp.dto.export.ExportPayload;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
 import com.lianhua.erp.dto.sale.*;
 import com.lianhua.erp.export.ExportFormat;
+import com.lianhua.erp.export.ExportResource;
+import com.lianhua.erp.export.ExportResultCache;
 import com.lianhua.erp.export.ExportScope;
+import com.lianhua.erp.export.ExportStreams;
 import com.lianhua.erp.service.SalesService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -23,15 +26,11 @@ import org.springdoc.core.converters.models.PageableAsQueryParam;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.http.ContentDisposition;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-
-import java.nio.charset.StandardCharsets;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * 銷售管理 API
@@ -43,6 +42,7 @@ import java.nio.charset.StandardCharsets;
 public class SalesController {
 
     private final SalesService salesService;
+    private final ExportResultCache exportResultCache;
 
     // ============================================================
     // 🔥 分頁取得所有銷售紀錄（比照 PurchaseController）
@@ -215,27 +215,19 @@ public class SalesController {
             "text/csv; charset=UTF-8"
     })
     @PreAuthorize("hasAuthority('sale:view')")
-    public ResponseEntity<byte[]> exportSales(
+    public ResponseEntity<StreamingResponseBody> exportSales(
             @ParameterObject @ModelAttribute SaleSearchRequestDto req,
             @ParameterObject Pageable pageable,
             @RequestParam(required = false) String format,
             @RequestParam(required = false) String scope
     ) {
         String resolvedScope = (scope == null || scope.isBlank()) ? "all" : scope;
-        ExportPayload payload = salesService.exportSales(
-                req,
-                pageable,
-                ExportFormat.fromQueryParam(format),
-                ExportScope.fromQueryParam(resolvedScope)
-        );
-
-        ContentDisposition disposition = ContentDisposition.builder("attachment")
-                .filename(payload.filename(), StandardCharsets.UTF_8)
-                .build();
-
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
-                .contentType(MediaType.parseMediaType(payload.mediaType()))
-                .body(payload.data());
+        ExportFormat exportFormat = ExportFormat.fromQueryParam(format);
+        ExportScope exportScope = ExportScope.fromQueryParam(resolvedScope);
+        StreamingExportPayload payload = exportResultCache.get(ExportResource.SALES, req, pageable,
+                exportFormat, exportScope,
+                () -> salesService.exportSales(req, pageable, exportFormat, exportScope));
+
+        return ExportStreams.toResponse(payload);
     }
 }
@@ -0,0 +1,57 @@
+package com.lianhua.erp.web.controller;
+
+import com.lianhua.erp.dto.apiResponse.ApiResponseDto;
+import com.lianhua.erp.dto.error.ForbiddenResponse;
+import com.lianhua.erp.dto.error.UnauthorizedResponse;
+import com.lianhua.erp.dto.globalSearch.SearchIndexStatsDto;
+import com.lianhua.erp.search.GlobalSearchIndex;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 全域搜尋索引維護（僅超級管理員）。
+ */
+@RestController
+@RequestMapping("/api/admin/search-index")
+@RequiredArgsConstructor
+@Tag(name = "搜尋索引", description = "全域搜尋記憶體索引的統計與重建")
+public class SearchIndexController {
+
+    private final GlobalSearchIndex globalSearchIndex;
+
+    @GetMapping
+    @Operation(summary = "查詢索引統計", description = "狀態、各範圍筆數、片段數、估算記憶體與預算、重建耗時及查詢次數。")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "成功"),
+            @ApiResponse(responseCode = "401", description = "未授權", content = @Content(schema = @Schema(implementation = UnauthorizedResponse.class))),
+            @ApiResponse(responseCode = "403", description = "僅超級管理員", content = @Content(schema = @Schema(implementation = ForbiddenResponse.class)))
+    })
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<ApiResponseDto<SearchIndexStatsDto>> stats() {
+        return ResponseEntity.ok(ApiResponseDto.ok(globalSearchIndex.stats()));
+    }
+
+    @PostMapping("/rebuild")
+    @Operation(summary = "重建索引", description = "直接修改資料庫後可手動重建；重建期間仍以舊索引回答查詢，完成後回傳最新統計。")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "成功"),
+            @ApiResponse(responseCode = "401", description = "未授權", content = @Content(schema = @Schema(implementation = UnauthorizedResponse.class))),
+            @ApiResponse(responseCode = "403", description = "僅超級管理員", content = @Content(schema = @Schema(implementation = ForbiddenResponse.class)))
+    })
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<ApiResponseDto<SearchIndexStatsDto>> rebuild() {
+        globalSearchIndex.rebuild();
+        return ResponseEntity.ok(ApiResponseDto.ok(globalSearchIndex.stats()));
+    }
+}
@@ -0,0 +1,69 @@
+package com.lianhua.erp.web.controller;
+
+import com.lianhua.erp.dto.apiResponse.ApiResponseDto;
+import com.lianhua.erp.dto.error.BadRequestResponse;
+import com.lianhua.erp.dto.error.ForbiddenResponse;
+import com.lianhua.erp.dto.error.UnauthorizedResponse;
+import com.lianhua.erp.dto.suggest.SuggestionDto;
+import com.lianhua.erp.service.SuggestService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 輸入提示：訂單、進貨、收款等輸入畫面邊打字邊查詢客戶、供應商、商品與歷史進貨品項。
+ * 由記憶體前綴索引回答，不查詢資料庫。
+ */
+@RestController
+@RequestMapping("/api/suggest")
+@RequiredArgsConstructor
+@PreAuthorize("isAuthenticated()")
+@Tag(name = "輸入提示", description = "客戶、供應商、商品名稱與進貨品項的前綴提示")
+public class SuggestController {
+
+    private final SuggestService suggestService;
+
+    @GetMapping
+    @Operation(summary = "前綴提示",
+            description = """
+                    依輸入前綴（不分大小寫、全形半形）回傳提示，較短（較接近輸入）的結果優先。
+
+                    - types：customers | suppliers | products | purchase_items，逗號分隔；未指定時為有權限的全部類別
+                    - limit：預設 8，上限 20；多個類別時輪流取用各類別結果
+                    - 客戶可依名稱或電話（可不含分隔符號）查詢；商品僅含啟用中者
+
+                    權限：customers 需 order_customer:view、order:view 或 receipt:view；
+                    suppliers 需 supplier:view、purchase:view 或 payment:view；
+                    products 需 product:view、order:view 或 sale:view；purchase_items 需 purchase:view。
+                    """)
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "成功"),
+            @ApiResponse(responseCode = "400", description = "未知的類別", content = @Content(schema = @Schema(implementation = BadRequestResponse.class))),
+            @ApiResponse(responseCode = "401", description = "未授權", content = @Content(schema = @Schema(implementation = UnauthorizedResponse.class))),
+            @ApiResponse(responseCode = "403", description = "無該類別權限", content = @Content(schema = @Schema(implementation = ForbiddenResponse.class))),
+            @ApiResponse(responseCode = "503", description = "索引建置中")
+    })
+    public ResponseEntity<ApiResponseDto<List<SuggestionDto>>> suggest(
+            @Parameter(description = "輸入前綴", example = "永進", required = true)
+            @RequestParam("q") String q,
+            @Parameter(description = "提示類別，逗號分隔", example = "customers,products")
+            @RequestParam(value = "types", required = false) List<String> types,
+            @Parameter(description = "回傳筆數", example = "8")
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        return ResponseEntity.ok(ApiResponseDto.ok(suggestService.suggest(q, types, limit)));
+    }
+}
@@ -0,0 +1,92 @@
+-- ============================================================
+-- 🌿 Lianhua ERP Schema v2.8：財務日彙總表
+-- ============================================================
+-- 儀表板趨勢、損益、損益平衡與支出結構等查詢改讀此表，
+-- 不再每次重新聚合 sales / orders / receipts / purchases / payments / expenses 原始資料。
+-- 寫入端（各 ServiceImpl）於交易提交前重算受影響的「指標 + 日期」彙總列；
+-- 若有偏差可由 /api/admin/financial-rollups/rebuild 自原始表重建。
+
+CREATE TABLE IF NOT EXISTS financial_daily_rollups (
+  metric VARCHAR(16) NOT NULL COMMENT '指標：SALE / ORDER / RECEIPT / PURCHASE / PAYMENT / EXPENSE',
+  stat_date DATE NOT NULL COMMENT '來源單據日期',
+  accounting_period VARCHAR(7) NOT NULL COMMENT '會計期間（YYYY-MM）',
+  category_id BIGINT NOT NULL DEFAULT 0 COMMENT '費用類別 ID（非 EXPENSE 指標固定為 0）',
+  amount DECIMAL(14,2) NOT NULL DEFAULT 0.00 COMMENT '有效（ACTIVE）單據金額合計',
+  txn_count INT NOT NULL DEFAULT 0 COMMENT '有效單據筆數',
+  voided_amount DECIMAL(14,2) NOT NULL DEFAULT 0.00 COMMENT '已作廢單據金額合計',
+  voided_count INT NOT NULL DEFAULT 0 COMMENT '已作廢單據筆數',
+  refreshed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (metric, stat_date, accounting_period, category_id),
+  INDEX idx_rollup_period (accounting_period, metric),
+  INDEX idx_rollup_date (stat_date, metric)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- 付款表原本沒有日期索引，重算單日彙總時需要
+CREATE INDEX idx_payments_pay_date ON payments(pay_date);
+CREATE INDEX idx_orders_order_date ON orders(order_date);
+
+-- ------------------------------------------------------------
+-- 初始回填（之後由應用程式增量維護）
+-- ------------------------------------------------------------
+INSERT INTO financial_daily_rollups
+  (metric, stat_date, accounting_period, category_id, amount, txn_count, voided_amount, voided_count)
+SELECT 'SALE', sale_date, accounting_period, 0,
+       COALESCE(SUM(amount), 0), COUNT(*), 0, 0
+FROM sales
+WHERE sale_date IS NOT NULL
+GROUP BY sale_date, accounting_period;
+
+INSERT INTO financial_daily_rollups
+  (metric, stat_date, accounting_period, category_id, amount, txn_count, voided_amount, voided_count)
+SELECT 'ORDER', order_date, accounting_period, 0,
+       COALESCE(SUM(CASE WHEN record_status = 'ACTIVE' THEN total_amount END), 0),
+       COALESCE(SUM(CASE WHEN record_status = 'ACTIVE' THEN 1 ELSE 0 END), 0),
+       COALESCE(SUM(CASE WHEN record_status <> 'ACTIVE' THEN total_amount END), 0),
+       COALESCE(SUM(CASE WHEN record_status <> 'ACTIVE' THEN 1 ELSE 0 END), 0)
+FROM orders
+WHERE order_date IS NOT NULL
+GROUP BY order_date, accounting_period;
+
+INSERT INTO financial_daily_rollups
+  (metric, stat_date, accounting_period, category_id, amount, txn_count, voided_amount, voided_count)
+SELECT 'RECEIPT', received_date, accounting_period, 0,
+       COALESCE(SUM(CASE WHEN status = 'ACTIVE' THEN amount END), 0),
+       COALESCE(SUM(CASE WHEN status = 'ACTIVE' THEN 1 ELSE 0 END), 0),
+       COALESCE(SUM(CASE WHEN status <> 'ACTIVE' THEN amount END), 0),
+       COALESCE(SUM(CASE WHEN status <> 'ACTIVE' THEN 1 ELSE 0 END), 0)
+FROM receipts
+WHERE received_date IS NOT NULL
+GROUP BY received_date, accounting_period;
+
+INSERT INTO financial_daily_rollups
+  (metric, stat_date, accounting_period, category_id, amount, txn_count, voided_amount, voided_count)
+SELECT 'PURCHASE', purchase_date, accounting_period, 0,
+       COALESCE(SUM(CASE WHEN record_status = 'ACTIVE' THEN total_amount END), 0),
+       COALESCE(SUM(CASE WHEN record_status = 'ACTIVE' THEN 1 ELSE 0 END), 0),
+       COALESCE(SUM(CASE WHEN record_status <> 'ACTIVE' THEN total_amount END), 0),
+       COALESCE(SUM(CASE WHEN record_status <> 'ACTIVE' THEN 1 ELSE 0 END), 0)
+FROM purchases
+WHERE purchase_date IS NOT NULL
+GROUP BY purchase_date, accounting_period;
+
+INSERT INTO financial_daily_rollups
+  (metric, stat_date, accounting_period, category_id, amount, txn_count, voided_amount, voided_count)
+SELECT 'PAYMENT', pay_date, accounting_period, 0,
+       COALESCE(SUM(CASE WHEN status = 'ACTIVE' THEN amount END), 0),
+       COALESCE(SUM(CASE WHEN status = 'ACTIVE' THEN 1 ELSE 0 END), 0),
+       COALESCE(SUM(CASE WHEN status <> 'ACTIVE' THEN amount END), 0),
+       COALESCE(SUM(CASE WHEN status <> 'ACTIVE' THEN 1 ELSE 0 END), 0)
+FROM payments
+WHERE pay_date IS NOT NULL
+GROUP BY pay_date, accounting_period;
+
+INSERT INTO financial_daily_rollups
+  (metric, stat_date, accounting_period, category_id, amount, txn_count, voided_amount, voided_count)
+SELECT 'EXPENSE', expense_date, accounting_period, category_id,
+       COALESCE(SUM(CASE WHEN status = 'ACTIVE' THEN amount END), 0),
+       COALESCE(SUM(CASE WHEN status = 'ACTIVE' THEN 1 ELSE 0 END), 0),
+       COALESCE(SUM(CASE WHEN status <> 'ACTIVE' THEN amount END), 0),
+       COALESCE(SUM(CASE WHEN status <> 'ACTIVE' THEN 1 ELSE 0 END), 0)
+FROM expenses
+WHERE expense_date IS NOT NULL
+GROUP BY expense_date, accounting_period, category_id;
@@ -0,0 +1,34 @@
+-- ============================================================
+-- 🌿 Lianhua ERP Schema v2.9：月損益彙總表
+-- ============================================================
+-- 每個會計期間一列（營收、進貨成本、毛利、費用、淨利），由 financial_daily_rollups 彙整而來。
+-- 寫入端重算日彙總時，一併重算受影響會計期間的月損益；
+-- 損益趨勢（最多 120 個月）只需依主鍵倒序讀取 N 列。
+
+CREATE TABLE IF NOT EXISTS financial_monthly_pnl (
+  accounting_period VARCHAR(7) NOT NULL COMMENT '會計期間（YYYY-MM）',
+  revenue DECIMAL(16,2) NOT NULL DEFAULT 0.00 COMMENT '銷售營收（SALE）',
+  cost DECIMAL(16,2) NOT NULL DEFAULT 0.00 COMMENT '進貨成本（有效 PURCHASE）',
+  gross_profit DECIMAL(16,2) NOT NULL DEFAULT 0.00 COMMENT '毛利 = 營收 - 進貨成本',
+  expense DECIMAL(16,2) NOT NULL DEFAULT 0.00 COMMENT '費用支出（有效 EXPENSE）',
+  net_profit DECIMAL(16,2) NOT NULL DEFAULT 0.00 COMMENT '淨利 = 毛利 - 費用',
+  doc_count INT NOT NULL DEFAULT 0 COMMENT '有效單據筆數（0 表示該期間已無資料）',
+  refreshed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (accounting_period)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- ------------------------------------------------------------
+-- 初始回填（之後由應用程式增量維護）
+-- ------------------------------------------------------------
+INSERT INTO financial_monthly_pnl
+  (accounting_period, revenue, cost, gross_profit, expense, net_profit, doc_count)
+SELECT accounting_period,
+       COALESCE(SUM(CASE WHEN metric = 'SALE' THEN amount END), 0),
+       COALESCE(SUM(CASE WHEN metric = 'PURCHASE' THEN amount END), 0),
+       COALESCE(SUM(CASE WHEN metric = 'SALE' THEN amount WHEN metric = 'PURCHASE' THEN -amount END), 0),
+       COALESCE(SUM(CASE WHEN metric = 'EXPENSE' THEN amount END), 0),
+       COALESCE(SUM(CASE WHEN metric = 'SALE' THEN amount ELSE -amount END), 0),
+       COALESCE(SUM(txn_count), 0)
+FROM financial_daily_rollups
+WHERE metric IN ('SALE', 'PURCHASE', 'EXPENSE')
+GROUP BY accounting_period;
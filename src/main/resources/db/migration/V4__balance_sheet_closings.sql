@@ -0,0 +1,30 @@
+-- ============================================================
+-- 🌿 Lianhua ERP Schema v3.0：資產負債表期末結帳快照
+-- ============================================================
+-- 每個已結帳的會計期間保存期末應收、應付與現金餘額。
+-- 資產負債表改為「最近一次結帳餘額 + 之後的異動」，歷史月份直接讀取快照。
+-- 單據日期落在已結帳期間（補登、修改、作廢）時，自該期間起的快照會被刪除，由排程重新結帳。
+
+CREATE TABLE IF NOT EXISTS balance_sheet_closings (
+  accounting_period VARCHAR(7) NOT NULL COMMENT '會計期間（YYYY-MM）',
+  period_end DATE NOT NULL COMMENT '期末日期（該月最後一天）',
+  accounts_receivable DECIMAL(16,2) NOT NULL DEFAULT 0.00 COMMENT '期末應收帳款',
+  accounts_payable DECIMAL(16,2) NOT NULL DEFAULT 0.00 COMMENT '期末應付帳款',
+  cash DECIMAL(16,2) NOT NULL DEFAULT 0.00 COMMENT '期末現金',
+  closed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '結帳時間',
+  PRIMARY KEY (accounting_period),
+  UNIQUE KEY uk_balance_sheet_closings_end (period_end)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- 重新開啟序號：補登單據時遞增，結帳工作據此判斷計算期間是否有人異動已結帳資料
+CREATE TABLE IF NOT EXISTS period_close_state (
+  id TINYINT NOT NULL,
+  reopen_seq BIGINT NOT NULL DEFAULT 0,
+  updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+INSERT INTO period_close_state (id, reopen_seq) VALUES (1, 0);
+
+-- 計算區間異動時需要的日期索引
+CREATE INDEX idx_sales_sale_date ON sales(sale_date);
@@ -0,0 +1,13 @@
+-- ============================================================
+-- 🌿 Lianhua ERP Schema v3.1：多節點共用限流計數
+-- ============================================================
+-- app.security.throttle.store=jdbc 時使用（JdbcThrottleStore）：登入失敗次數與 API 限流計數。
+-- 一個 key 一列，時間窗自第一次累加起算；到期後下次累加重新計數，過期資料列由排程分批刪除。
+
+CREATE TABLE IF NOT EXISTS throttle_counters (
+  throttle_key VARCHAR(191) NOT NULL COMMENT '計數 key（login:帳號|IP、api:規則|IP|路由樣板）',
+  hit_count BIGINT NOT NULL DEFAULT 0 COMMENT '時間窗內計數',
+  expires_at BIGINT NOT NULL COMMENT '時間窗結束時間（epoch 毫秒）',
+  PRIMARY KEY (throttle_key),
+  KEY idx_throttle_counters_expires (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
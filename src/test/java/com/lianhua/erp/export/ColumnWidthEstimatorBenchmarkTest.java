@@ -0,0 +1,122 @@
+package com.lianhua.erp.export;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 欄寬基準：同一批列以 SXSSF 寫出 xlsx，比較改版前的 trackAllColumnsForAutoSizing + autoSizeColumn
+ * 與 ColumnWidthEstimator（寫入時累計最大顯示寬度）。不需資料庫，預設不執行：
+ * <pre>
+ * ./mvnw test -Dtest=ColumnWidthEstimatorBenchmarkTest -Dexport.benchmark=true
+ * </pre>
+ * 結果記錄於 docs/EXPORT_COLUMN_WIDTH_BENCHMARK.md。
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "export.benchmark", matches = "true")
+class ColumnWidthEstimatorBenchmarkTest {
+
+    private static final int[] SIZES = {1_000, 10_000, 50_000};
+    private static final int ROUNDS = 3;
+    /** 與 TabularExporter 相同的記憶體視窗 */
+    private static final int ROW_ACCESS_WINDOW = 200;
+    private static final String[] HEADERS = {"單號", "日期", "客戶", "品項", "數量", "單價", "金額", "備註"};
+
+    @Test
+    void compareAutoSizeColumnWithEstimator() throws IOException {
+        // 暖機：載入 POI 類別、字型量測（AWT）
+        autoSizeExport(SIZES[0]);
+        estimatorExport(SIZES[0]);
+
+        StringBuilder table = new StringBuilder("\n| rows | autoSizeColumn (ms) | ColumnWidthEstimator (ms) |\n|---:|---:|---:|\n");
+        for (int size : SIZES) {
+            long autoBest = Long.MAX_VALUE;
+            long estimatorBest = Long.MAX_VALUE;
+            for (int r = 0; r < ROUNDS; r++) {
+                long t0 = System.nanoTime();
+                autoSizeExport(size);
+                long t1 = System.nanoTime();
+                estimatorExport(size);
+                long t2 = System.nanoTime();
+                autoBest = Math.min(autoBest, t1 - t0);
+                estimatorBest = Math.min(estimatorBest, t2 - t1);
+            }
+            table.append("| ").append(size)
+                    .append(" | ").append(TimeUnit.NANOSECONDS.toMillis(autoBest))
+                    .append(" | ").append(TimeUnit.NANOSECONDS.toMillis(estimatorBest))
+                    .append(" |\n");
+        }
+        log.info("📊 [Benchmark] xlsx 欄寬（{} 欄，取 {} 次最佳值）：{}", HEADERS.length, ROUNDS, table);
+    }
+
+    /**
+     * 改版前的作法：追蹤所有欄（每列捲出視窗時量測字型），寫完後逐欄 autoSizeColumn
+     */
+    private static void autoSizeExport(int size) throws IOException {
+        SXSSFWorkbook wb = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+        try {
+            SXSSFSheet sh = wb.createSheet("bench");
+            sh.trackAllColumnsForAutoSizing();
+            writeRows(sh, size, null);
+            for (int c = 0; c < HEADERS.length; c++) {
+                sh.autoSizeColumn(c);
+            }
+            assertThat(sh.getColumnWidth(0)).isPositive();
+            wb.write(OutputStream.nullOutputStream());
+        } finally {
+            wb.close();
+            wb.dispose();
+        }
+    }
+
+    private static void estimatorExport(int size) throws IOException {
+        SXSSFWorkbook wb = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+        try {
+            Sheet sh = wb.createSheet("bench");
+            ColumnWidthEstimator estimator = new ColumnWidthEstimator(HEADERS.length);
+            writeRows(sh, size, estimator);
+            estimator.applyTo(sh);
+            assertThat(sh.getColumnWidth(0)).isPositive();
+            wb.write(OutputStream.nullOutputStream());
+        } finally {
+            wb.close();
+            wb.dispose();
+        }
+    }
+
+    private static void writeRows(Sheet sh, int size, ColumnWidthEstimator estimator) {
+        write(sh.createRow(0), HEADERS, estimator);
+        for (int i = 1; i <= size; i++) {
+            String[] row = {
+                    "SO-" + (100000 + i),
+                    "2026-" + String.format("%02d", i % 12 + 1) + "-15",
+                    "聯華客戶" + (i % 300),
+                    i % 5 == 0 ? "高麗菜（特級）" : "Cabbage-" + (i % 40),
+                    String.valueOf(i % 97),
+                    (i % 500) + ".50",
+                    String.valueOf(i * 13L % 1_000_000) + ".00",
+                    i % 7 == 0 ? "月結 30 天，週三配送" : ""
+            };
+            write(sh.createRow(i), row, estimator);
+        }
+    }
+
+    private static void write(Row row, String[] values, ColumnWidthEstimator estimator) {
+        for (int c = 0; c < values.length; c++) {
+            row.createCell(c).setCellValue(values[c]);
+            if (estimator != null) {
+                estimator.accept(c, values[c]);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.lianhua.erp.export;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColumnWidthEstimatorTest {
+
+    @Test
+    void estimateDisplayWidthUnits_countsWideCharsAsTwo() {
+        assertThat(ColumnWidthEstimator.estimateDisplayWidthUnits(null, 100)).isZero();
+        assertThat(ColumnWidthEstimator.estimateDisplayWidthUnits("", 100)).isZero();
+        assertThat(ColumnWidthEstimator.estimateDisplayWidthUnits("1234.50", 100)).isEqualTo(7);
+        assertThat(ColumnWidthEstimator.estimateDisplayWidthUnits("應收帳款", 100)).isEqualTo(8);
+        assertThat(ColumnWidthEstimator.estimateDisplayWidthUnits("合計 (2024)", 100)).isEqualTo(4 + 1 + 6);
+        // 全形標點、韓文也以 2 計
+        assertThat(ColumnWidthEstimator.estimateDisplayWidthUnits("、한", 100)).isEqualTo(4);
+    }
+
+    @Test
+    void estimateDisplayWidthUnits_stopsAtLimit() {
+        assertThat(ColumnWidthEstimator.estimateDisplayWidthUnits("a".repeat(500), 100)).isEqualTo(100);
+        // 最後一個寬字元可超出 limit 一個單位
+        assertThat(ColumnWidthEstimator.estimateDisplayWidthUnits("中".repeat(500), 9)).isEqualTo(10);
+    }
+
+    @Test
+    void applyTo_usesWidestValuePerColumnWithPaddingFloorAndCap() throws Exception {
+        try (SXSSFWorkbook wb = new SXSSFWorkbook(10)) {
+            Sheet sh = wb.createSheet();
+            ColumnWidthEstimator estimator = new ColumnWidthEstimator(3);
+
+            estimator.accept(0, "ab");
+            estimator.accept(1, "x".repeat(20));
+            estimator.accept(1, "短");
+            estimator.accept(2, "應收".repeat(200));
+            estimator.applyTo(sh);
+
+            // 窄欄套用下限 16 字元
+            assertThat(sh.getColumnWidth(0)).isEqualTo(16 * 256);
+            // 取最大顯示寬度 20 + 預留 6
+            assertThat(sh.getColumnWidth(1)).isEqualTo(26 * 256);
+            // 超長內容以 100 字元封頂
+            assertThat(sh.getColumnWidth(2)).isEqualTo(100 * 256);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.lianhua.erp.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.lianhua.erp.config.ExportProperties;
+import com.lianhua.erp.dto.export.StreamingExportPayload;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Pageable;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ExportResultCacheTest {
+
+    // 與 Spring Boot 預設相同：日期輸出為 ISO 字串
+    private static final ObjectMapper OBJECT_MAPPER = JsonMapper.builder().findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+
+    record Filters(String status, String keyword, LocalDate from, List<String> tags) {
+    }
+
+    @TempDir
+    Path dir;
+
+    private ExportResultCache cache;
+    private final AtomicInteger builds = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        ExportProperties properties = new ExportProperties();
+        properties.getCache().setDir(dir.toString());
+        // 每個檔案 10 bytes，最多容納 2 個
+        properties.getCache().setMaxSize(DataSize.ofBytes(25));
+        cache = new ExportResultCache(properties, mock(ExportDataVersions.class), OBJECT_MAPPER);
+    }
+
+    @Test
+    void canonicalFilters_ignoresFieldOrderNullsAndBlanks() {
+        String fromRecord = cache.canonicalFilters(
+                new Filters("PAID", "  ", LocalDate.of(2024, 1, 31), List.of()));
+
+        Map<String, Object> reordered = new LinkedHashMap<>();
+        reordered.put("from", "2024-01-31");
+        reordered.put("keyword", null);
+        reordered.put("status", "PAID");
+        assertThat(cache.canonicalFilters(reordered)).isEqualTo(fromRecord);
+
+        // 空白字串、空清單與 null 視同未指定
+        assertThat(cache.canonicalFilters(new Filters("PAID", null, LocalDate.of(2024, 1, 31), null)))
+                .isEqualTo(fromRecord);
+    }
+
+    @Test
+    void canonicalFilters_emptyFiltersMatchNull() {
+        assertThat(cache.canonicalFilters(null)).isEqualTo("{}");
+        assertThat(cache.canonicalFilters(new Filters(null, "", null, List.of()))).isEqualTo("{}");
+        assertThat(cache.canonicalFilters(Map.of())).isEqualTo("{}");
+    }
+
+    @Test
+    void canonicalFilters_differentValuesDiffer() {
+        String paid = cache.canonicalFilters(new Filters("PAID", null, null, null));
+        assertThat(cache.canonicalFilters(new Filters("UNPAID", null, null, null))).isNotEqualTo(paid);
+        assertThat(cache.canonicalFilters(new Filters("PAID", "x", null, null))).isNotEqualTo(paid);
+        assertThat(cache.canonicalFilters(new Filters(null, null, null, List.of("a", "b"))))
+                .isNotEqualTo(cache.canonicalFilters(new Filters(null, null, null, List.of("b", "a"))));
+    }
+
+    @Test
+    void get_secondRequestIsServedFromCache() throws IOException {
+        assertThat(export("a")).isEqualTo(body("a"));
+        assertThat(export("a")).isEqualTo(body("a"));
+        assertThat(builds).hasValue(1);
+    }
+
+    @Test
+    void get_evictsLeastRecentlyUsedWhenOverMaxSize() throws IOException {
+        export("a");
+        export("b");
+        // 使用 a，使 b 成為最久未使用者
+        export("a");
+        assertThat(builds).hasValue(2);
+
+        // 第三個檔案超過上限：淘汰 b，保留 a
+        export("c");
+        assertThat(builds).hasValue(3);
+
+        assertThat(export("a")).isEqualTo(body("a"));
+        assertThat(builds).hasValue(3);
+        assertThat(export("b")).isEqualTo(body("b"));
+        assertThat(builds).hasValue(4);
+    }
+
+    @Test
+    void get_doesNotCacheFileLargerThanMaxSize() throws IOException {
+        String large = "x".repeat(30);
+        assertThat(export(large, large)).isEqualTo(large);
+        assertThat(export(large, large)).isEqualTo(large);
+        assertThat(builds).hasValue(2);
+    }
+
+    private String export(String keyword) throws IOException {
+        return export(keyword, body(keyword));
+    }
+
+    private String export(String keyword, String content) throws IOException {
+        StreamingExportPayload payload = cache.get(ExportResource.ORDERS, Map.of("keyword", keyword),
+                Pageable.unpaged(), ExportFormat.CSV, ExportScope.ALL, () -> {
+                    builds.incrementAndGet();
+                    return new StreamingExportPayload("orders.csv", "text/csv",
+                            out -> out.write(content.getBytes(StandardCharsets.UTF_8)));
+                });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        payload.body().writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /** 固定 10 bytes */
+    private static String body(String keyword) {
+        return String.format("%-10s", keyword);
+    }
+}
@@ -0,0 +1,167 @@
+package com.lianhua.erp.export;
+
+import com.lianhua.erp.domain.ActivityAuditLog;
+import com.lianhua.erp.repository.ActivityAuditLogRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 匯出分頁基準：同一批稽核紀錄，比較舊的 OFFSET 分頁（每頁一次 count）與 ExportRowPager.seek（keyset）。
+ *
+ * 需連線 MySQL（資料量與索引才有代表性），預設不執行：
+ * <pre>
+ * DB_HOST=... DB_NAME=... DB_USER=... DB_PASSWORD=... \
+ *   ./mvnw test -Dtest=ExportRowPagerBenchmarkTest -Dexport.benchmark=true
+ * </pre>
+ * 測試資料以 resource_type = EXPORT_BENCH 標記，結束後刪除。結果記錄於 docs/EXPORT_KEYSET_BENCHMARK.md。
+ */
+@Slf4j
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "export.benchmark", matches = "true")
+class ExportRowPagerBenchmarkTest {
+
+    private static final String MARK = "EXPORT_BENCH";
+    private static final int[] SIZES = {10_000, 50_000, 200_000};
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    private ActivityAuditLogRepository repository;
+
+    @Autowired
+    private ExportRowPager exportRowPager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeAll
+    void seed() {
+        cleanup();
+        int total = SIZES[SIZES.length - 1];
+        // 使用近期時間，避免測試期間被稽核保留排程歸檔
+        Instant base = Instant.now().minus(Duration.ofDays(1));
+        List<Object[]> batch = new ArrayList<>(5_000);
+        for (int i = 1; i <= total; i++) {
+            // 每 3 筆同一時間，驗證 id 決勝鍵
+            batch.add(new Object[]{Timestamp.from(base.plusMillis(i / 3)), 1L, "bench", "UPDATE", MARK, (long) i,
+                    "PUT", "/api/bench/" + i});
+            if (batch.size() == 5_000 || i == total) {
+                jdbcTemplate.batchUpdate("INSERT INTO activity_audit_logs (occurred_at, operator_id, operator_username,"
+                        + " action, resource_type, resource_id, http_method, request_path) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        log.info("📊 [Benchmark] 已建立 {} 筆測試資料", total);
+    }
+
+    @AfterAll
+    void cleanup() {
+        jdbcTemplate.update("DELETE FROM activity_audit_logs WHERE resource_type = ?", MARK);
+    }
+
+    @Test
+    void compareOffsetPagingWithKeysetSeek() {
+        // 明確帶上 id 決勝鍵（與 ExportRowPager 自動補上的方向相同），OFFSET 分頁的順序才固定，兩種作法的結果可逐列比對
+        Sort sort = Sort.by(Sort.Direction.DESC, "occurredAt", "id");
+        int step = exportRowPager.batchSize();
+
+        // 暖機：載入類別、建立連線、填入查詢計畫快取
+        offsetExport(SIZES[0], sort, step);
+        seekExport(SIZES[0], sort);
+
+        StringBuilder table = new StringBuilder("\n| rows | OFFSET + count per page (ms) | keyset seek (ms) |\n|---:|---:|---:|\n");
+        for (int size : SIZES) {
+            long offsetBest = Long.MAX_VALUE;
+            long seekBest = Long.MAX_VALUE;
+            for (int r = 0; r < ROUNDS; r++) {
+                long t0 = System.nanoTime();
+                List<String> offsetIds = offsetExport(size, sort, step);
+                long t1 = System.nanoTime();
+                List<String> seekIds = seekExport(size, sort);
+                long t2 = System.nanoTime();
+
+                assertThat(seekIds).hasSize(size).isEqualTo(offsetIds);
+                offsetBest = Math.min(offsetBest, t1 - t0);
+                seekBest = Math.min(seekBest, t2 - t1);
+            }
+            table.append("| ").append(size)
+                    .append(" | ").append(TimeUnit.NANOSECONDS.toMillis(offsetBest))
+                    .append(" | ").append(TimeUnit.NANOSECONDS.toMillis(seekBest))
+                    .append(" |\n");
+        }
+        log.info("📊 [Benchmark] 匯出分頁（batch-size={}，取 {} 次最佳值）：{}", step, ROUNDS, table);
+    }
+
+    /**
+     * 改版前的作法：PageRequest.of(p, step) 逐頁查詢，每頁各一次 OFFSET 查詢與 count
+     */
+    private List<String> offsetExport(int size, Sort sort, int step) {
+        TransactionTemplate readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        Specification<ActivityAuditLog> spec = spec(size);
+        List<String> ids = new ArrayList<>(size);
+        for (int p = 0; ; p++) {
+            int page = p;
+            Page<ActivityAuditLog> result = readOnlyTx.execute(status -> {
+                Page<ActivityAuditLog> r = repository.findAll(spec, PageRequest.of(page, step, sort));
+                r.getContent().forEach(e -> ids.add(toRow(e)[0]));
+                return r;
+            });
+            if (result == null || !result.hasNext()) {
+                return ids;
+            }
+        }
+    }
+
+    private List<String> seekExport(int size, Sort sort) {
+        TransactionTemplate readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        Specification<ActivityAuditLog> spec = spec(size);
+        List<String> ids = new ArrayList<>(size);
+        // 與匯出服務相同：第一批在呼叫端交易內（含一次 count），之後每批各自的唯讀交易
+        Iterator<String[]> rows = readOnlyTx.execute(status -> {
+            repository.count(spec);
+            return exportRowPager.seek(repository, ActivityAuditLog.class, spec, sort,
+                    ExportRowPagerBenchmarkTest::toRow);
+        });
+        rows.forEachRemaining(r -> ids.add(r[0]));
+        return ids;
+    }
+
+    private static Specification<ActivityAuditLog> spec(int size) {
+        return (root, query, cb) -> cb.and(
+                cb.equal(root.get("resourceType"), MARK),
+                cb.le(root.get("resourceId"), (long) size));
+    }
+
+    private static String[] toRow(ActivityAuditLog e) {
+        return new String[]{String.valueOf(e.getId()), String.valueOf(e.getOccurredAt()), e.getAction(),
+                e.getRequestPath()};
+    }
+}
@@ -0,0 +1,257 @@
+package com.lianhua.erp.repository;
+
+import com.lianhua.erp.dto.report.APSummaryReportDto;
+import com.lianhua.erp.dto.report.BalanceSheetReportDto;
+import com.lianhua.erp.dto.report.ComprehensiveIncomeStatementDto;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 多期間報表基準：應付帳款總表、綜合損益表、資產負債表的列表版本，
+ * 比較改版前「逐期呼叫單期查詢」與目前的單次掃描，並逐筆比對兩者回傳的 DTO。
+ *
+ * 需連線 MySQL，且應使用沒有結帳快照的測試資料庫（報表不分資料來源，會一併計入既有單據），預設不執行：
+ * <pre>
+ * DB_HOST=... DB_NAME=... DB_USER=... DB_PASSWORD=... \
+ *   ./mvnw test -Dtest=ReportListBenchmarkTest -Dreport.benchmark=true
+ * </pre>
+ * 測試資料以 note / 名稱 REPORT_BENCH 標記，結束後刪除。結果記錄於 docs/REPORT_LIST_BENCHMARK.md。
+ */
+@Slf4j
+@SpringBootTest(properties = "app.period-close.enabled=false")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "report.benchmark", matches = "true")
+class ReportListBenchmarkTest {
+
+    private static final String MARK = "REPORT_BENCH";
+    private static final YearMonth FIRST = YearMonth.of(2023, 1);
+    private static final int MONTHS = 36;
+    private static final int[] PERIOD_COUNTS = {12, 36};
+    private static final int ROUNDS = 3;
+    /** 每月單據數 */
+    private static final int PURCHASES = 1_500;
+    private static final int ORDERS = 1_500;
+    private static final int EXPENSES = 300;
+    private static final int PRODUCTS = 30;
+
+    @Autowired
+    private APSummaryReportRepository apSummaryRepository;
+
+    @Autowired
+    private ComprehensiveIncomeStatementRepository incomeStatementRepository;
+
+    @Autowired
+    private BalanceSheetReportRepository balanceSheetRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void seed() {
+        cleanup();
+        Random random = new Random(42);
+        long supplierId = insertId("INSERT INTO suppliers (name, billing_cycle) VALUES (?, 'MONTHLY')", MARK);
+        long customerId = insertId("INSERT INTO order_customers (name) VALUES (?)", MARK);
+        long productCategoryId = insertId("INSERT INTO product_categories (name, code) VALUES (?, ?)", MARK, "RB");
+        long[] expenseCategories = new long[5];
+        for (int c = 0; c < expenseCategories.length; c++) {
+            expenseCategories[c] = insertId("INSERT INTO expense_categories (name, account_code, is_salary, frequency_type)"
+                    + " VALUES (?, ?, ?, 'UNLIMITED')", MARK + c, "RB-" + c, c == 0);
+        }
+        long[] products = new long[PRODUCTS];
+        for (int p = 0; p < PRODUCTS; p++) {
+            products[p] = insertId("INSERT INTO products (name, category_id, unit_price) VALUES (?, ?, 10)",
+                    MARK + p, productCategoryId);
+        }
+
+        int seq = 0;
+        for (int m = 0; m < MONTHS; m++) {
+            YearMonth ym = FIRST.plusMonths(m);
+            String period = ym.toString();
+            List<Object[]> purchases = new ArrayList<>();
+            List<Object[]> orders = new ArrayList<>();
+            for (int i = 0; i < PURCHASES; i++) {
+                seq++;
+                LocalDate date = ym.atDay(1 + random.nextInt(ym.lengthOfMonth()));
+                BigDecimal total = BigDecimal.valueOf(100 + random.nextInt(50_000), 2);
+                BigDecimal paid = random.nextInt(3) == 0 ? BigDecimal.ZERO : total;
+                purchases.add(new Object[]{"RB" + seq, supplierId, Date.valueOf(date), period, total, paid,
+                        paid.signum() == 0 ? "PENDING" : "PAID", random.nextInt(20) == 0 ? "VOIDED" : "ACTIVE", MARK});
+            }
+            for (int i = 0; i < ORDERS; i++) {
+                seq++;
+                LocalDate date = ym.atDay(1 + random.nextInt(ym.lengthOfMonth()));
+                BigDecimal total = BigDecimal.valueOf(100 + random.nextInt(80_000), 2);
+                orders.add(new Object[]{"RB" + seq, customerId, Date.valueOf(date), Date.valueOf(date.plusDays(3)),
+                        YearMonth.from(date.plusDays(3)).toString(), random.nextBoolean() ? "PAID" : "UNPAID", total,
+                        random.nextInt(20) == 0 ? "VOIDED" : "ACTIVE", MARK});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO purchases (purchase_no, supplier_id, purchase_date, accounting_period,"
+                    + " total_amount, paid_amount, status, record_status, note) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", purchases);
+            jdbcTemplate.batchUpdate("INSERT INTO orders (order_no, customer_id, order_date, delivery_date, accounting_period,"
+                    + " order_status, payment_status, total_amount, record_status, note)"
+                    + " VALUES (?, ?, ?, ?, ?, 'DELIVERED', ?, ?, ?, ?)", orders);
+
+            List<Object[]> expenses = new ArrayList<>();
+            for (int i = 0; i < EXPENSES; i++) {
+                LocalDate date = ym.atDay(1 + random.nextInt(ym.lengthOfMonth()));
+                expenses.add(new Object[]{Date.valueOf(date), period,
+                        expenseCategories[random.nextInt(expenseCategories.length)],
+                        BigDecimal.valueOf(100 + random.nextInt(20_000), 2),
+                        random.nextInt(20) == 0 ? "VOIDED" : "ACTIVE", MARK});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO expenses (expense_date, accounting_period, category_id, amount, status, note)"
+                    + " VALUES (?, ?, ?, ?, ?, ?)", expenses);
+
+            List<Object[]> sales = new ArrayList<>();
+            for (int d = 1; d <= ym.lengthOfMonth(); d++) {
+                for (long product : products) {
+                    sales.add(new Object[]{Date.valueOf(ym.atDay(d)), period, product, 1 + random.nextInt(20),
+                            BigDecimal.valueOf(100 + random.nextInt(30_000), 2)});
+                }
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO sales (sale_date, accounting_period, product_id, qty, amount, pay_method)"
+                    + " VALUES (?, ?, ?, ?, ?, 'CASH')", sales);
+        }
+
+        // 已付款的進貨單各一筆付款、已收款的訂單各一筆收款，日期落在單據後 0–40 天（可能跨月）
+        jdbcTemplate.update("""
+                INSERT INTO payments (purchase_id, amount, pay_date, accounting_period, method, status, note)
+                SELECT id, paid_amount, DATE_ADD(purchase_date, INTERVAL id % 41 DAY),
+                       DATE_FORMAT(DATE_ADD(purchase_date, INTERVAL id % 41 DAY), '%Y-%m'), 'TRANSFER',
+                       IF(id % 25 = 0, 'VOIDED', 'ACTIVE'), ?
+                FROM purchases WHERE note = ? AND paid_amount > 0
+                """, MARK, MARK);
+        jdbcTemplate.update("""
+                INSERT INTO receipts (order_id, amount, received_date, accounting_period, method, status, note)
+                SELECT id, total_amount, DATE_ADD(order_date, INTERVAL id % 41 DAY),
+                       DATE_FORMAT(DATE_ADD(order_date, INTERVAL id % 41 DAY), '%Y-%m'), 'TRANSFER',
+                       IF(id % 25 = 0, 'VOIDED', 'ACTIVE'), ?
+                FROM orders WHERE note = ? AND payment_status = 'PAID'
+                """, MARK, MARK);
+        log.info("📊 [Benchmark] 已建立 {} 個月的測試單據", MONTHS);
+    }
+
+    @AfterAll
+    void cleanup() {
+        jdbcTemplate.update("DELETE FROM receipts WHERE note = ?", MARK);
+        jdbcTemplate.update("DELETE FROM payments WHERE note = ?", MARK);
+        jdbcTemplate.update("DELETE FROM orders WHERE note = ?", MARK);
+        jdbcTemplate.update("DELETE FROM purchases WHERE note = ?", MARK);
+        jdbcTemplate.update("DELETE FROM expenses WHERE note = ?", MARK);
+        jdbcTemplate.update("DELETE s FROM sales s JOIN products p ON p.id = s.product_id WHERE p.name LIKE ?", MARK + "%");
+        jdbcTemplate.update("DELETE FROM products WHERE name LIKE ?", MARK + "%");
+        jdbcTemplate.update("DELETE FROM product_categories WHERE name = ?", MARK);
+        jdbcTemplate.update("DELETE FROM expense_categories WHERE name LIKE ?", MARK + "%");
+        jdbcTemplate.update("DELETE FROM order_customers WHERE name = ?", MARK);
+        jdbcTemplate.update("DELETE FROM suppliers WHERE name = ?", MARK);
+    }
+
+    @Test
+    void comparePerPeriodLoopWithSinglePass() {
+        StringBuilder table = new StringBuilder(
+                "\n| report | periods | per-period loop (ms) | single pass (ms) |\n|---|---:|---:|---:|\n");
+        for (int count : PERIOD_COUNTS) {
+            List<String> periods = periods(count);
+
+            measure(table, "AP summary", count,
+                    () -> {
+                        List<APSummaryReportDto> result = new ArrayList<>();
+                        periods.forEach(p -> result.add(apSummaryRepository.getSummary(p, null)));
+                        return result;
+                    },
+                    () -> apSummaryRepository.getSummaryList(periods));
+
+            measure(table, "comprehensive income", count,
+                    () -> {
+                        List<ComprehensiveIncomeStatementDto> result = new ArrayList<>();
+                        periods.forEach(p -> result.addAll(incomeStatementRepository.getComprehensiveIncomeStatement(p, null, null)));
+                        return result;
+                    },
+                    () -> incomeStatementRepository.getComprehensiveIncomeStatement(periods));
+
+            measure(table, "balance sheet", count,
+                    () -> {
+                        List<BalanceSheetReportDto> result = new ArrayList<>();
+                        periods.forEach(p -> result.add(balanceSheetRepository.getBalanceSheet(p, null)));
+                        return result;
+                    },
+                    () -> balanceSheetRepository.getBalanceSheetList(periods));
+        }
+        log.info("📊 [Benchmark] 多期間報表（{} 個月資料，取 {} 次最佳值）：{}", MONTHS, ROUNDS, table);
+    }
+
+    /**
+     * 兩種作法各跑 ROUNDS 次（另加一次暖機），取最佳值；每次都比對回傳的 DTO 是否完全相同
+     */
+    private static <T> void measure(StringBuilder table, String report, int periods,
+                                    Supplier<List<T>> loop, Supplier<List<T>> singlePass) {
+        long loopBest = Long.MAX_VALUE;
+        long singleBest = Long.MAX_VALUE;
+        for (int r = 0; r <= ROUNDS; r++) {
+            long t0 = System.nanoTime();
+            List<T> expected = loop.get();
+            long t1 = System.nanoTime();
+            List<T> actual = singlePass.get();
+            long t2 = System.nanoTime();
+
+            assertThat(actual).as(report + " / " + periods).hasSize(periods).isEqualTo(expected);
+            if (r > 0) {
+                loopBest = Math.min(loopBest, t1 - t0);
+                singleBest = Math.min(singleBest, t2 - t1);
+            }
+        }
+        table.append("| ").append(report)
+                .append(" | ").append(periods)
+                .append(" | ").append(TimeUnit.NANOSECONDS.toMillis(loopBest))
+                .append(" | ").append(TimeUnit.NANOSECONDS.toMillis(singleBest))
+                .append(" |\n");
+    }
+
+    /**
+     * 最近 count 個月（以資料的最後一個月為終點），由舊到新
+     */
+    private static List<String> periods(int count) {
+        YearMonth last = FIRST.plusMonths(MONTHS - 1);
+        List<String> periods = new ArrayList<>();
+        for (int i = count - 1; i >= 0; i--) {
+            periods.add(last.minusMonths(i).toString());
+        }
+        return periods;
+    }
+
+    private long insertId(String sql, Object... args) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            for (int i = 0; i < args.length; i++) {
+                ps.setObject(i + 1, args[i]);
+            }
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKeyAs(Number.class).longValue();
+    }
+}
@@ -0,0 +1,118 @@
+package com.lianhua.erp.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NgramIndexTest {
+
+    private static final String ALPHABET = "abc12-聯華蔬果行";
+
+    /**
+     * 與原本 LIKE '%kw%'（lower 後比對）的結果集合一致：任一欄位包含關鍵字即命中
+     */
+    @Test
+    void search_matchesSubstringSemanticsOfLike() {
+        Random random = new Random(42);
+        NgramIndex index = new NgramIndex(3);
+        Map<Long, String[]> docs = new HashMap<>();
+        Map<Long, String> periods = new HashMap<>();
+
+        for (long id = 1; id <= 400; id++) {
+            String[] fields = {randomText(random, 1, 12), random.nextInt(4) == 0 ? null : randomText(random, 0, 8)};
+            String period = "2024-0" + (1 + random.nextInt(3));
+            index.put(id, period, fields);
+            docs.put(id, fields);
+            periods.put(id, period);
+        }
+        // 部分刪除與改寫，驗證槽位重用後索引仍一致
+        for (long id = 1; id <= 400; id += 7) {
+            index.remove(id);
+            docs.remove(id);
+        }
+        for (long id = 2; id <= 400; id += 11) {
+            String[] fields = {randomText(random, 1, 12), randomText(random, 1, 8)};
+            index.put(id, periods.get(id), fields);
+            docs.put(id, fields);
+        }
+
+        for (int i = 0; i < 300; i++) {
+            String keyword = randomText(random, 1, 5);
+            String period = random.nextBoolean() ? null : "2024-0" + (1 + random.nextInt(3));
+
+            Set<Long> expected = new HashSet<>();
+            String q = keyword.toLowerCase();
+            docs.forEach((id, fields) -> {
+                if (period != null && !period.equals(periods.get(id))) {
+                    return;
+                }
+                for (String f : fields) {
+                    if (f != null && f.toLowerCase().contains(q)) {
+                        expected.add(id);
+                        return;
+                    }
+                }
+            });
+
+            assertThat(new HashSet<>(index.search(keyword, period, 10_000)))
+                    .as("keyword=%s period=%s", keyword, period)
+                    .isEqualTo(expected);
+        }
+        assertThat(index.size()).isEqualTo(docs.size());
+    }
+
+    @Test
+    void search_ranksTitleExactThenPrefixThenContainsAndNewerFirst() {
+        NgramIndex index = new NgramIndex(3);
+        index.put(1, "2024-01", "蔬果", null);
+        index.put(2, "2024-01", "蔬果行", null);
+        index.put(3, "2024-01", "聯華蔬果", null);
+        index.put(4, "2024-01", "其他", "蔬果");
+        index.put(5, "2024-01", "聯華蔬果行", null);
+
+        assertThat(index.search("蔬果", null, 10)).containsExactly(1L, 2L, 5L, 3L, 4L);
+        assertThat(index.search("蔬果", null, 2)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void search_normalizesCaseAndFullWidthLikeDatabaseLower() {
+        NgramIndex index = new NgramIndex(3);
+        index.put(1, null, "PO-2024ABC");
+
+        assertThat(index.search("ｐｏ-2024", null, 10)).containsExactly(1L);
+        assertThat(index.search("  abc ", null, 10)).containsExactly(1L);
+        assertThat(index.search("   ", null, 10)).isEmpty();
+        assertThat(index.search("abc", null, 0)).isEmpty();
+    }
+
+    @Test
+    void remove_dropsAllPostings() {
+        NgramIndex index = new NgramIndex(3);
+        index.put(1, null, "abc");
+        index.put(1, null, "xyz");
+
+        assertThat(index.search("abc", null, 10)).isEmpty();
+        assertThat(index.search("y", null, 10)).containsExactly(1L);
+
+        index.remove(1);
+        assertThat(index.size()).isZero();
+        assertThat(index.gramCount()).isZero();
+        assertThat(index.postingCount()).isZero();
+    }
+
+    private static String randomText(Random random, int min, int max) {
+        int len = min + random.nextInt(max - min + 1);
+        StringBuilder sb = new StringBuilder(len);
+        for (int i = 0; i < len; i++) {
+            char ch = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+            sb.append(random.nextInt(5) == 0 ? Character.toUpperCase(ch) : ch);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,83 @@
+package com.lianhua.erp.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixTrieTest {
+
+    @Test
+    void collect_returnsShorterKeysFirstThenCharOrder() {
+        PrefixTrie<String> trie = new PrefixTrie<>();
+        trie.add("abcd", "abcd");
+        trie.add("abz", "abz");
+        trie.add("ab", "ab");
+        trie.add("aby", "aby");
+        trie.add("b", "b");
+
+        assertThat(trie.collect("ab", 10)).containsExactly("ab", "aby", "abz", "abcd");
+        assertThat(trie.collect("a", 10)).containsExactly("ab", "aby", "abz", "abcd");
+        assertThat(trie.collect("abc", 10)).containsExactly("abcd");
+        assertThat(trie.collect("x", 10)).isEmpty();
+    }
+
+    @Test
+    void collect_stopsAtLimitAndDeduplicatesValuesUnderSeveralKeys() {
+        PrefixTrie<String> trie = new PrefixTrie<>();
+        // 同一筆資料以名稱與電話兩個鍵索引
+        trie.add("0912", "王小明");
+        trie.add("09123", "王小明");
+        trie.add("0913", "李大華");
+        trie.add("0914", "陳一");
+
+        assertThat(trie.collect("09", 10)).containsExactly("王小明", "李大華", "陳一");
+        assertThat(trie.collect("09", 2)).containsExactly("王小明", "李大華");
+        assertThat(trie.collect("09", 0)).isEmpty();
+        assertThat(trie.collect("", 10)).isEmpty();
+        assertThat(trie.collect(null, 10)).isEmpty();
+    }
+
+    @Test
+    void add_ignoresDuplicateValueOnSameKey() {
+        PrefixTrie<String> trie = new PrefixTrie<>();
+        trie.add("蔬果", "A");
+        trie.add("蔬果", "A");
+        trie.add("蔬果", "B");
+        trie.add("", "C");
+        trie.add(null, "D");
+
+        assertThat(trie.size()).isEqualTo(2);
+        assertThat(trie.collect("蔬", 10)).containsExactly("A", "B");
+    }
+
+    @Test
+    void remove_prunesEmptyNodesButKeepsSiblingsAndAncestors() {
+        PrefixTrie<String> trie = new PrefixTrie<>();
+        trie.add("ab", "ab");
+        trie.add("abc", "abc1");
+        trie.add("abc", "abc2");
+        trie.add("abd", "abd");
+
+        trie.remove("abc", "abc1");
+        assertThat(trie.collect("abc", 10)).containsExactly("abc2");
+
+        trie.remove("abc", "abc2");
+        assertThat(trie.collect("abc", 10)).isEmpty();
+        assertThat(trie.collect("ab", 10)).containsExactly("ab", "abd");
+
+        // 不存在的鍵或值不影響計數
+        trie.remove("abc", "abc2");
+        trie.remove("zz", "ab");
+        trie.remove("ab", "other");
+        assertThat(trie.size()).isEqualTo(2);
+
+        trie.remove("ab", "ab");
+        trie.remove("abd", "abd");
+        assertThat(trie.size()).isZero();
+        assertThat(trie.collect("a", 10)).isEmpty();
+
+        // 修剪後可再加入
+        trie.add("abc", "again");
+        assertThat(trie.collect("a", 10)).containsExactly("again");
+    }
+}
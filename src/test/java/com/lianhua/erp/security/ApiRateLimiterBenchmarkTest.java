@@ -0,0 +1,151 @@
+package com.lianhua.erp.security;
+
+import com.lianhua.erp.config.RateLimitProperties;
+import com.lianhua.erp.throttle.InMemoryThrottleStore;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限流吞吐量基準：多執行緒同時呼叫，比較改版前 ApiRateLimitFilter 的計數視窗與 ApiRateLimiter（token bucket）。
+ * 分「全部打同一個 key」與「分散到大量 key」兩種情境；額度設得夠大，量測的是放行路徑。預設不執行：
+ * <pre>
+ * ./mvnw test -Dtest=ApiRateLimiterBenchmarkTest -Dratelimit.benchmark=true
+ * </pre>
+ * 結果記錄於 docs/RATE_LIMIT_BENCHMARK.md。
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "ratelimit.benchmark", matches = "true")
+class ApiRateLimiterBenchmarkTest {
+
+    private static final int THREADS = 16;
+    private static final int CALLS_PER_THREAD = 200_000;
+    private static final int MANY_KEYS = 10_000;
+    private static final int ROUNDS = 3;
+
+    @Test
+    void compareLegacyWindowWithTokenBucket() throws Exception {
+        StringBuilder table = new StringBuilder(
+                "\n| scenario | legacy window (ops/s) | token bucket (ops/s) |\n|---|---:|---:|\n");
+        for (boolean manyKeys : new boolean[]{false, true}) {
+            long legacyBest = 0;
+            long bucketBest = 0;
+            for (int r = 0; r <= ROUNDS; r++) {
+                LegacyWindowLimiter legacy = new LegacyWindowLimiter(60, Integer.MAX_VALUE);
+                long legacyOps = run(manyKeys, (ip, path) -> legacy.allow(ip, path));
+
+                ApiRateLimiter limiter = new ApiRateLimiter(properties(), new InMemoryThrottleStore());
+                long bucketOps = run(manyKeys, (ip, path) -> limiter.tryAcquire(ip, "GET", path).allowed());
+
+                // 第 0 輪為暖機
+                if (r > 0) {
+                    legacyBest = Math.max(legacyBest, legacyOps);
+                    bucketBest = Math.max(bucketBest, bucketOps);
+                }
+            }
+            table.append("| ").append(manyKeys ? MANY_KEYS + " keys" : "1 key")
+                    .append(" | ").append(legacyBest)
+                    .append(" | ").append(bucketBest)
+                    .append(" |\n");
+        }
+        log.info("📊 [Benchmark] 限流吞吐量（{} 執行緒 × {} 次，{} CPU，取 {} 次最佳值）：{}",
+                THREADS, CALLS_PER_THREAD, Runtime.getRuntime().availableProcessors(), ROUNDS, table);
+    }
+
+    private interface Call {
+        boolean allow(String ip, String path);
+    }
+
+    /**
+     * 回傳每秒呼叫次數；額度足夠時每次都應放行
+     */
+    private static long run(boolean manyKeys, Call call) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < CALLS_PER_THREAD; i++) {
+                        String ip = manyKeys ? "10.0." + ((thread * CALLS_PER_THREAD + i) % MANY_KEYS) : "10.0.0.1";
+                        if (!call.allow(ip, "/api/users/1")) {
+                            throw new AssertionError("額度足夠時不應拒絕：" + ip);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            long t0 = System.nanoTime();
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get(5, TimeUnit.MINUTES);
+            }
+            long elapsed = System.nanoTime() - t0;
+            return (long) THREADS * CALLS_PER_THREAD * TimeUnit.SECONDS.toNanos(1) / elapsed;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static RateLimitProperties properties() {
+        RateLimitProperties.Policy p = new RateLimitProperties.Policy("users", "/api/users/**");
+        p.setCapacity(Integer.MAX_VALUE);
+        p.setWindow(Duration.ofHours(1));
+        RateLimitProperties props = new RateLimitProperties();
+        props.setPolicies(new ArrayList<>(List.of(p)));
+        return props;
+    }
+
+    /**
+     * 改版前 ApiRateLimitFilter 的計數邏輯（原樣保留，包含未同步的 count++）：key 為 IP + 原始路徑
+     */
+    private static final class LegacyWindowLimiter {
+
+        private static final class WindowInfo {
+            int count;
+            Instant windowStart;
+        }
+
+        private final Map<String, WindowInfo> windows = new ConcurrentHashMap<>();
+        private final long windowSeconds;
+        private final int maxRequestsPerWindow;
+
+        LegacyWindowLimiter(long windowSeconds, int maxRequestsPerWindow) {
+            this.windowSeconds = windowSeconds;
+            this.maxRequestsPerWindow = maxRequestsPerWindow;
+        }
+
+        boolean allow(String ip, String path) {
+            String key = ip + "|" + path;
+            WindowInfo info = windows.computeIfAbsent(key, k -> {
+                WindowInfo w = new WindowInfo();
+                w.windowStart = Instant.now();
+                w.count = 0;
+                return w;
+            });
+
+            Instant now = Instant.now();
+            if (info.windowStart.plusSeconds(windowSeconds).isBefore(now)) {
+                info.windowStart = now;
+                info.count = 0;
+            }
+
+            info.count++;
+            return info.count <= maxRequestsPerWindow;
+        }
+    }
+}
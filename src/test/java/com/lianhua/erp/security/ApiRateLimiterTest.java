@@ -0,0 +1,148 @@
+package com.lianhua.erp.security;
+
+import com.lianhua.erp.config.RateLimitProperties;
+import com.lianhua.erp.throttle.InMemoryThrottleStore;
+import com.lianhua.erp.throttle.ThrottleStore;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ApiRateLimiterTest {
+
+    @Test
+    void tryAcquire_admitsExactlyCapacityUnderContention() throws Exception {
+        // 時間窗 1 小時、容量 100：測試期間的回補可忽略
+        ApiRateLimiter limiter = new ApiRateLimiter(properties(policy("users", "/api/users/**", 100)),
+                new InMemoryThrottleStore());
+        AtomicInteger allowed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 16; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 50; i++) {
+                        // 不同 id 落在同一個路由樣板，共用同一個 bucket
+                        ApiRateLimiter.Decision d = limiter.tryAcquire("10.0.0.1", "GET", "/api/users/" + i);
+                        (d.allowed() ? allowed : rejected).incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(allowed.get()).isEqualTo(100);
+        assertThat(rejected.get()).isEqualTo(16 * 50 - 100);
+        assertThat(limiter.stats().policies().get(0).allowed()).isEqualTo(100);
+    }
+
+    @Test
+    void tryAcquire_reportsRemainingAndRetryAfter() {
+        ApiRateLimiter limiter = new ApiRateLimiter(properties(policy("users", "/api/users/**", 3)),
+                new InMemoryThrottleStore());
+
+        assertThat(limiter.tryAcquire("ip", "GET", "/api/users").remaining()).isEqualTo(2);
+        assertThat(limiter.tryAcquire("ip", "GET", "/api/users").remaining()).isEqualTo(1);
+        assertThat(limiter.tryAcquire("ip", "GET", "/api/users").remaining()).isZero();
+
+        ApiRateLimiter.Decision rejected = limiter.tryAcquire("ip", "GET", "/api/users");
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.policy()).isEqualTo("users");
+        // 1 小時 / 3 = 每 20 分鐘回補一個
+        assertThat(rejected.retryAfterSeconds()).isBetween(1199L, 1200L);
+    }
+
+    @Test
+    void tryAcquire_keysByIpAndRouteAndSkipsUnmatchedRequests() {
+        RateLimitProperties.Policy writes = policy("writes", "/api/users/**", 1);
+        writes.setMethods(List.of(" post "));
+        ApiRateLimiter limiter = new ApiRateLimiter(properties(writes), new InMemoryThrottleStore());
+
+        assertThat(limiter.tryAcquire("a", "POST", "/api/users/1").allowed()).isTrue();
+        assertThat(limiter.tryAcquire("a", "POST", "/api/users/2").allowed()).isFalse();
+        // 其他 IP、其他路由樣板各自計算
+        assertThat(limiter.tryAcquire("b", "POST", "/api/users/1").allowed()).isTrue();
+        assertThat(limiter.tryAcquire("a", "POST", "/api/users/1/roles").allowed()).isTrue();
+        // 方法或路徑不符：不限流
+        ApiRateLimiter.Decision get = limiter.tryAcquire("a", "GET", "/api/users/1");
+        assertThat(get.allowed()).isTrue();
+        assertThat(get.policy()).isNull();
+        assertThat(limiter.tryAcquire("a", "POST", "/api/orders").policy()).isNull();
+    }
+
+    @Test
+    void tryAcquire_rejectsWhenSharedClusterCountExceedsCapacity() {
+        ThrottleStore shared = new InMemoryThrottleStore() {
+            @Override
+            public boolean isShared() {
+                return true;
+            }
+        };
+        RateLimitProperties props = properties(policy("users", "/api/users/**", 2));
+        ApiRateLimiter nodeA = new ApiRateLimiter(props, shared);
+        ApiRateLimiter nodeB = new ApiRateLimiter(props, shared);
+
+        assertThat(nodeA.tryAcquire("ip", "GET", "/api/users").allowed()).isTrue();
+        ApiRateLimiter.Decision second = nodeB.tryAcquire("ip", "GET", "/api/users");
+        assertThat(second.allowed()).isTrue();
+        assertThat(second.remaining()).isZero();
+        // 兩個節點的本機 bucket 都還有額度，但叢集總數已達上限
+        assertThat(nodeB.tryAcquire("ip", "GET", "/api/users").allowed()).isFalse();
+    }
+
+    @Test
+    void tryAcquire_allowsEverythingWhenDisabled() {
+        RateLimitProperties props = properties(policy("users", "/api/users/**", 1));
+        props.setRateLimitEnabled(false);
+        ApiRateLimiter limiter = new ApiRateLimiter(props, new InMemoryThrottleStore());
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("ip", "GET", "/api/users").allowed()).isTrue();
+        }
+    }
+
+    @Test
+    void routeTemplate_replacesIdentifierSegments() {
+        assertThat(ApiRateLimiter.routeTemplate("/api/users/12")).isEqualTo("/api/users/{id}");
+        assertThat(ApiRateLimiter.routeTemplate("/api/users/12/roles/3")).isEqualTo("/api/users/{id}/roles/{id}");
+        assertThat(ApiRateLimiter.routeTemplate("/api/files/3f2b8c1e-9a4d-4e21-b7c0-5d6e7f8a9b0c"))
+                .isEqualTo("/api/files/{id}");
+        assertThat(ApiRateLimiter.routeTemplate("/api/tokens/0123456789abcdef/")).isEqualTo("/api/tokens/{id}/");
+        // 短的十六進位字樣（例如 add、cafe）視為一般路徑
+        assertThat(ApiRateLimiter.routeTemplate("/api/users/add")).isEqualTo("/api/users/add");
+        assertThat(ApiRateLimiter.routeTemplate("/api/v2/users")).isEqualTo("/api/v2/users");
+        assertThat(ApiRateLimiter.routeTemplate("/api/auth/refresh")).isEqualTo("/api/auth/refresh");
+        assertThat(ApiRateLimiter.routeTemplate("")).isEmpty();
+    }
+
+    private static RateLimitProperties.Policy policy(String name, String pattern, int capacity) {
+        RateLimitProperties.Policy p = new RateLimitProperties.Policy(name, pattern);
+        p.setCapacity(capacity);
+        p.setWindow(Duration.ofHours(1));
+        return p;
+    }
+
+    private static RateLimitProperties properties(RateLimitProperties.Policy... policies) {
+        RateLimitProperties props = new RateLimitProperties();
+        props.setPolicies(new ArrayList<>(List.of(policies)));
+        return props;
+    }
+}
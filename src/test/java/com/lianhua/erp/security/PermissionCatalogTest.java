@@ -0,0 +1,195 @@
+package com.lianhua.erp.security;
+
+import com.lianhua.erp.domain.Permission;
+import com.lianhua.erp.repository.PermissionRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PermissionCatalogTest {
+
+    private static final Key KEY = Keys.hmacShaKeyFor("0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8));
+
+    private final List<Permission> permissions = new ArrayList<>();
+    private PermissionRepository permissionRepository;
+    private PermissionCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        permissions.add(permission(1L, "user:view"));
+        permissions.add(permission(2L, "user:edit"));
+        permissions.add(permission(5L, "ar:view"));
+        permissions.add(permission(70L, "ap:view"));
+
+        permissionRepository = mock(PermissionRepository.class);
+        when(permissionRepository.findAll()).thenAnswer(inv -> List.copyOf(permissions));
+        catalog = new PermissionCatalog(permissionRepository, mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void encode_roundTripsThroughSignedToken() {
+        List<String> authorities = List.of("ROLE_ADMIN", "user:view", "ap:view");
+        Claims claims = parse(Map.of(
+                PermissionCatalog.CLAIM_ROLES, PermissionCatalog.roleNames(authorities),
+                PermissionCatalog.CLAIM_PERMISSION_BITS, catalog.encode(authorities)));
+
+        GrantedPermissions granted = catalog.fromClaims(claims);
+
+        assertThat(granted.getRoles()).containsExactly("ROLE_ADMIN");
+        assertThat(granted.hasAuthority("ROLE_ADMIN")).isTrue();
+        assertThat(granted.hasAuthority("user:view")).isTrue();
+        assertThat(granted.hasAuthority("ap:view")).isTrue();
+        assertThat(granted.hasAuthority("user:edit")).isFalse();
+        assertThat(granted.hasAuthority("ar:view")).isFalse();
+        assertThat(granted.hasAuthority("ROLE_USER")).isFalse();
+        assertThat(granted.hasAuthority("unknown")).isFalse();
+        assertThat(names(granted)).containsExactlyInAnyOrderElementsOf(authorities);
+        assertThat(granted).hasSize(3);
+    }
+
+    @Test
+    void fromClaims_acceptsLegacyRolesClaim() {
+        Claims claims = parse(Map.of(PermissionCatalog.CLAIM_LEGACY_AUTHORITIES,
+                List.of("ROLE_USER", "ar:view", "removed:perm")));
+
+        GrantedPermissions granted = catalog.fromClaims(claims);
+
+        assertThat(granted.getRoles()).containsExactly("ROLE_USER");
+        assertThat(granted.hasAuthority("ar:view")).isTrue();
+        assertThat(granted.hasAuthority("removed:perm")).isFalse();
+        assertThat(names(granted)).containsExactlyInAnyOrder("ROLE_USER", "ar:view");
+    }
+
+    @Test
+    void fromClaims_withoutAuthorityClaimsGrantsNothing() {
+        GrantedPermissions granted = catalog.fromClaims(parse(Map.of()));
+
+        assertThat(granted).isEmpty();
+        assertThat(granted.hasAuthority("user:view")).isFalse();
+    }
+
+    @Test
+    void encode_reloadsCatalogOnceForNewPermission() {
+        catalog.encode(List.of("user:view"));
+        permissions.add(permission(9L, "report:export"));
+
+        String encoded = catalog.encode(List.of("report:export", "missing:perm"));
+        GrantedPermissions granted = catalog.fromClaims(parse(Map.of(
+                PermissionCatalog.CLAIM_PERMISSION_BITS, encoded)));
+
+        // 第一次載入 + 遇到新名稱重建一次；仍找不到的名稱直接忽略
+        verify(permissionRepository, times(2)).findAll();
+        assertThat(names(granted)).containsExactly("report:export");
+    }
+
+    @Test
+    void fromClaims_dropsBitsOfDeletedPermissions() {
+        String encoded = catalog.encode(List.of("user:view", "user:edit"));
+        permissions.removeIf(p -> p.getName().equals("user:edit"));
+        // 新權限觸發重建，目錄中已無 user:edit
+        permissions.add(permission(9L, "report:export"));
+        catalog.encode(List.of("report:export"));
+
+        GrantedPermissions granted = catalog.fromClaims(parse(Map.of(
+                PermissionCatalog.CLAIM_PERMISSION_BITS, encoded)));
+
+        assertThat(granted.hasAuthority("user:view")).isTrue();
+        assertThat(granted.hasAuthority("user:edit")).isFalse();
+        assertThat(names(granted)).containsExactly("user:view");
+    }
+
+    /**
+     * 位元測試的 @PreAuthorize 運算結果須與 Spring 預設（逐一比對 authority 字串）一致
+     */
+    @Test
+    void expressionRoot_matchesDefaultSecurityExpressions() throws Exception {
+        List<String> authorities = List.of("ROLE_ADMIN", "user:view", "ap:view");
+        Claims claims = parse(Map.of(
+                PermissionCatalog.CLAIM_ROLES, PermissionCatalog.roleNames(authorities),
+                PermissionCatalog.CLAIM_PERMISSION_BITS, catalog.encode(authorities)));
+        Authentication bits = new JwtAuthenticationToken(null, catalog.fromClaims(claims));
+        Authentication strings = UsernamePasswordAuthenticationToken.authenticated(null, null,
+                AuthorityUtils.createAuthorityList(authorities));
+
+        MethodSecurityExpressionHandler custom = new PermissionBitsMethodSecurityExpressionHandler();
+        MethodSecurityExpressionHandler standard = new DefaultMethodSecurityExpressionHandler();
+        MethodInvocation mi = mock(MethodInvocation.class);
+        when(mi.getMethod()).thenReturn(Object.class.getMethod("toString"));
+        when(mi.getArguments()).thenReturn(new Object[0]);
+        when(mi.getThis()).thenReturn(new Object());
+
+        List<String> expressions = List.of(
+                "hasAuthority('user:view')",
+                "hasAuthority('user:edit')",
+                "hasAuthority('ROLE_ADMIN')",
+                "hasAnyAuthority('ar:view', 'ap:view')",
+                "hasAnyAuthority('ar:view', 'user:edit')",
+                "hasRole('ADMIN')",
+                "hasRole('ROLE_ADMIN')",
+                "hasRole('SUPER_ADMIN')",
+                "hasAnyRole('USER', 'ADMIN')",
+                "hasAnyRole('USER', 'SUPER_ADMIN')",
+                "hasRole('ADMIN') and hasAuthority('ap:view')",
+                "hasRole('SUPER_ADMIN') or hasAuthority('user:edit')",
+                "isAuthenticated()",
+                "isAnonymous()"
+        );
+        for (String source : expressions) {
+            Expression expression = standard.getExpressionParser().parseExpression(source);
+            assertThat(evaluate(custom, expression, bits, mi))
+                    .as(source)
+                    .isEqualTo(evaluate(standard, expression, strings, mi));
+        }
+    }
+
+    private static boolean evaluate(MethodSecurityExpressionHandler handler, Expression expression,
+                                    Authentication authentication, MethodInvocation mi) {
+        EvaluationContext context = handler.createEvaluationContext(() -> authentication, mi);
+        return Boolean.TRUE.equals(expression.getValue(context, Boolean.class));
+    }
+
+    private static Claims parse(Map<String, Object> claims) {
+        String token = Jwts.builder()
+                .setClaims(claims)
+                .setSubject("tester")
+                .signWith(KEY, SignatureAlgorithm.HS256)
+                .compact();
+        return Jwts.parserBuilder().setSigningKey(KEY).build().parseClaimsJws(token).getBody();
+    }
+
+    private static Set<String> names(GrantedPermissions granted) {
+        return granted.stream().map(GrantedAuthority::getAuthority).collect(Collectors.toSet());
+    }
+
+    private static Permission permission(Long id, String name) {
+        return Permission.builder().id(id).name(name).build();
+    }
+}
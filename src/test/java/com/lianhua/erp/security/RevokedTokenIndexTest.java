@@ -0,0 +1,145 @@
+package com.lianhua.erp.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RevokedTokenIndexTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    void contains_hasNoFalseNegativesAcrossCapacityGrowth() {
+        RevokedTokenIndex index = new RevokedTokenIndex(100, 0.01);
+        List<String> hashes = hashes("grow", 5_000);
+        for (String h : hashes) {
+            index.add(h, NOW + 60_000);
+        }
+
+        assertThat(index.bloomCapacity()).isGreaterThanOrEqualTo(5_000);
+        assertThat(hashes).allMatch(h -> index.contains(h, NOW));
+        // 精確集合確認，未撤銷者一律不命中
+        assertThat(hashes("other", 5_000)).noneMatch(h -> index.contains(h, NOW));
+    }
+
+    @Test
+    void removeExpired_rebuildsWithoutLosingLiveEntries() {
+        RevokedTokenIndex index = new RevokedTokenIndex(1_000, 0.01);
+        List<String> live = hashes("live", 2_000);
+        List<String> expired = hashes("expired", 2_000);
+        for (int i = 0; i < live.size(); i++) {
+            index.add(live.get(i), NOW + 60_000);
+            index.add(expired.get(i), NOW - 1);
+        }
+
+        assertThat(index.removeExpired(NOW)).isEqualTo(2_000);
+        assertThat(index.size()).isEqualTo(2_000);
+        assertThat(live).allMatch(h -> index.contains(h, NOW));
+        assertThat(expired).noneMatch(h -> index.contains(h, NOW));
+        assertThat(index.removeExpired(NOW)).isZero();
+    }
+
+    @Test
+    void contains_ignoresExpiryReachedBeforePurge() {
+        RevokedTokenIndex index = new RevokedTokenIndex(64, 0.01);
+        String h = hashes("exp", 1).get(0);
+        index.add(h, NOW + 1_000);
+        // 重複撤銷取較晚的到期時間
+        index.add(h, NOW + 500);
+
+        assertThat(index.contains(h, NOW + 999)).isTrue();
+        assertThat(index.contains(h, NOW + 1_000)).isFalse();
+    }
+
+    @Test
+    void contains_acceptsShortNonHexInput() {
+        RevokedTokenIndex index = new RevokedTokenIndex(64, 0.01);
+        index.add("short", NOW + 1_000);
+
+        assertThat(index.contains("short", NOW)).isTrue();
+        assertThat(index.contains("other", NOW)).isFalse();
+    }
+
+    /**
+     * 寫入與重建（容量成長、移除到期）同時進行時，已完成新增的項目必須一直查得到
+     */
+    @Test
+    void contains_hasNoFalseNegativesUnderConcurrentAddAndRebuild() throws Exception {
+        RevokedTokenIndex index = new RevokedTokenIndex(64, 0.01);
+        Queue<String> published = new ConcurrentLinkedQueue<>();
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService pool = Executors.newFixedThreadPool(6);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < 4; w++) {
+                List<String> live = hashes("w" + w, 3_000);
+                List<String> filler = hashes("f" + w, 3_000);
+                writers.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < live.size(); i++) {
+                        index.add(filler.get(i), NOW - 1);
+                        index.add(live.get(i), NOW + 60_000);
+                        published.add(live.get(i));
+                    }
+                    return null;
+                }));
+            }
+            Future<?> purger = pool.submit(() -> {
+                start.await();
+                while (!done.get()) {
+                    index.removeExpired(NOW);
+                }
+                return null;
+            });
+            Future<?> reader = pool.submit(() -> {
+                start.await();
+                while (!done.get()) {
+                    for (String h : published) {
+                        assertThat(index.contains(h, NOW)).as(h).isTrue();
+                    }
+                }
+                return null;
+            });
+
+            start.countDown();
+            for (Future<?> f : writers) {
+                f.get(30, TimeUnit.SECONDS);
+            }
+            done.set(true);
+            purger.get(30, TimeUnit.SECONDS);
+            reader.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(published).hasSize(12_000).allMatch(h -> index.contains(h, NOW));
+    }
+
+    private static List<String> hashes(String prefix, int n) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            List<String> out = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                out.add(HexFormat.of().formatHex(sha.digest((prefix + i).getBytes(StandardCharsets.UTF_8))));
+            }
+            return out;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}